@@ -0,0 +1,191 @@
+package com.ahnis.searchapi.analysis;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.ReloadSearchAnalyzersResponse;
+import com.ahnis.searchapi.config.SearchAnalysisProperties;
+import com.ahnis.searchapi.event.CourseIndexChangedEvent;
+import com.ahnis.searchapi.tenant.TenantIndexResolver;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Owns the synonym and stop-word sets applied to text search, and swaps them without reindexing.
+ *
+ * <p><b>Synonyms</b> live in Elasticsearch: {@code title}, {@code description} and {@code category} are searched
+ * with the {@code course_search} analyzer, whose {@code course_synonyms} filter is {@code updateable} and reads
+ * its rules from a file. An update rewrites that file and calls {@code _reload_search_analyzers}; the index
+ * itself is untouched because synonyms are only expanded at search time. The rules are shared by every tenant, so
+ * all tenant indices are reloaded.</p>
+ *
+ * <p><b>Stop words</b> are stripped from the query text before it is sent. Elasticsearch 7.x cannot reload a
+ * stop filter, so keeping them on this side is what makes them swappable at all.</p>
+ *
+ * <p>Either change publishes a {@link CourseIndexChangedEvent}: cached results and suggestions were computed
+ * with the old rules.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AnalysisRules {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final SearchAnalysisProperties properties;
+    private final ElasticsearchClient elasticsearchClient;
+    private final TenantIndexResolver tenantIndexResolver;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Set<String> stopWords = Set.of();
+
+    /**
+     * Outcome of a synonym update, as reported by the reload API
+     */
+    public record SynonymReload(int rules, List<String> reloadedAnalyzers, List<String> reloadedNodeIds) {
+    }
+
+    @PostConstruct
+    void loadStopWords() {
+        Path file = properties.getStopWordsFile();
+        List<String> words = Files.exists(file) ? readLines(file) : properties.getDefaultStopWords();
+        stopWords = normalize(words);
+        log.info("Loaded {} stop words", stopWords.size());
+    }
+
+    /**
+     * Synonym rules currently on disk, comments and blank lines excluded
+     */
+    public List<String> synonyms() {
+        Path file = properties.getSynonymsFile();
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        return readLines(file).stream()
+                .filter(line -> !line.startsWith("#"))
+                .toList();
+    }
+
+    /**
+     * Replaces every synonym rule and makes the index pick them up.
+     *
+     * @throws IllegalArgumentException if a rule is not in Solr format ({@code a, b} or {@code a => b})
+     */
+    public SynonymReload updateSynonyms(List<String> rules) {
+        List<String> cleaned = rules.stream().map(String::trim).filter(StringUtils::hasText).toList();
+        for (String rule : cleaned) {
+            if (rule.contains("\n") || !(rule.contains(",") || rule.contains("=>"))) {
+                throw new IllegalArgumentException("Not a synonym rule: " + rule);
+            }
+        }
+
+        writeLines(properties.getSynonymsFile(), cleaned);
+        SynonymReload reload = reloadSearchAnalyzers(cleaned.size());
+        log.info("Reloaded {} synonym rules into {} on nodes {}", reload.rules(), reload.reloadedAnalyzers(),
+                reload.reloadedNodeIds());
+
+        eventPublisher.publishEvent(new CourseIndexChangedEvent("synonyms updated"));
+        return reload;
+    }
+
+    public Set<String> stopWords() {
+        return stopWords;
+    }
+
+    /**
+     * Replaces the stop-word set; takes effect with the next query
+     */
+    public Set<String> updateStopWords(Collection<String> words) {
+        Set<String> normalized = normalize(words);
+        writeLines(properties.getStopWordsFile(), List.copyOf(normalized));
+        stopWords = normalized;
+        log.info("Stop words updated ({} words)", normalized.size());
+
+        eventPublisher.publishEvent(new CourseIndexChangedEvent("stop words updated"));
+        return normalized;
+    }
+
+    /**
+     * Removes stop words from a text query; a query made only of stop words comes back empty
+     */
+    public String stripStopWords(String text) {
+        Set<String> current = stopWords;
+        if (text == null || current.isEmpty()) {
+            return text;
+        }
+        return Arrays.stream(WHITESPACE.split(text.trim()))
+                .filter(term -> !current.contains(term.toLowerCase(Locale.ROOT)))
+                .collect(Collectors.joining(" "));
+    }
+
+    private SynonymReload reloadSearchAnalyzers(int rules) {
+        List<String> indices = tenantIndexResolver.allCourseIndices();
+        ReloadSearchAnalyzersResponse response;
+        try {
+            response = elasticsearchClient.indices().reloadSearchAnalyzers(r -> r.index(indices));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to reload search analyzers of " + indices, e);
+        }
+        List<String> analyzers = response.reloadDetails().stream()
+                .flatMap(details -> details.reloadedAnalyzers().stream())
+                .distinct()
+                .toList();
+        List<String> nodes = response.reloadDetails().stream()
+                .flatMap(details -> details.reloadedNodeIds().stream())
+                .distinct()
+                .toList();
+        return new SynonymReload(rules, analyzers, nodes);
+    }
+
+    private static Set<String> normalize(Collection<String> words) {
+        return words.stream()
+                .map(word -> word.trim().toLowerCase(Locale.ROOT))
+                .filter(StringUtils::hasText)
+                .collect(Collectors.collectingAndThen(Collectors.toCollection(LinkedHashSet::new),
+                        Collections::unmodifiableSet));
+    }
+
+    private static List<String> readLines(Path file) {
+        try {
+            return Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                    .map(String::trim)
+                    .filter(StringUtils::hasText)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + file, e);
+        }
+    }
+
+    /**
+     * Writes through a temp file and an atomic move, so Elasticsearch never reads a half-written rule set
+     */
+    private static void writeLines(Path file, List<String> lines) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + file, e);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.ahnis.searchapi.bootstrap;
 
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import com.ahnis.searchapi.entity.CourseDocument; // Add your CourseDocument entity import
+import com.ahnis.searchapi.event.CourseIndexChangedEvent;
 import com.ahnis.searchapi.repository.CourseRepository;
+import com.ahnis.searchapi.routing.CourseRouting;
+import com.ahnis.searchapi.tenant.TenantContext;
+import com.ahnis.searchapi.tenant.TenantIndexResolver;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -10,7 +13,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -18,12 +25,22 @@ import java.io.InputStream;
 import java.util.List;
 
 @Component
+@Order(DataLoader.ORDER)
 @RequiredArgsConstructor
 @Slf4j
 public class DataLoader implements ApplicationRunner {
 
+    /**
+     * Runs first, so later startup runners (warmup) see the loaded index
+     */
+    public static final int ORDER = 0;
+
     private final CourseRepository courseRepository;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final CourseRouting courseRouting;
+    private final TenantIndexResolver tenantIndexResolver;
 
     @Value("${app.data.courses-file:sample-courses.json}")
     private String coursesFileName;
@@ -32,6 +49,7 @@ public class DataLoader implements ApplicationRunner {
 
     @Override
     public void run(ApplicationArguments args) {
+        createTenantIndices();
         log.info("Starting data loading process...");
 //         Check if courses already exist to avoid duplicates
         if (courseRepository.count() > 0) {
@@ -39,6 +57,7 @@ public class DataLoader implements ApplicationRunner {
                 log.warn("Clearing data...");
                 courseRepository.deleteAll();
                 log.warn("Data cleared.");
+                eventPublisher.publishEvent(new CourseIndexChangedEvent("courses cleared"));
             } else {
                 log.info("Courses already exist in the database. Skipping data loading.");
             }
@@ -55,14 +74,32 @@ public class DataLoader implements ApplicationRunner {
             );
 
             log.info("Loaded {} courses from JSON file", courses.size());
-            // Save these courses to Elasticsearch
-            List<CourseDocument> savedCourses = (List<CourseDocument>) courseRepository.saveAll(courses);
+            // Save these courses to Elasticsearch (routed by category when custom routing is on)
+            List<CourseDocument> savedCourses =
+                    (List<CourseDocument>) elasticsearchOperations.withRouting(courseRouting).save(courses);
 
             log.info("Successfully saved {} courses to Elasticsearch", savedCourses.size());
+            eventPublisher.publishEvent(new CourseIndexChangedEvent("bulk load of " + savedCourses.size() + " courses"));
 
         } catch (IOException e) {
             log.error("Error loading courses from JSON file: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to load course data", e);
         }
     }
+
+    /**
+     * The repository only creates the default tenant's index; the others get the same settings and mapping here.
+     * Their catalogs are loaded by each tenant's own feed, the bundled sample data is the default tenant's.
+     */
+    private void createTenantIndices() {
+        for (String tenant : tenantIndexResolver.tenants()) {
+            TenantContext.runAs(tenant, () -> {
+                IndexOperations indexOps = elasticsearchOperations.indexOps(CourseDocument.class);
+                if (!indexOps.exists()) {
+                    log.info("Creating index {} for tenant {}", tenantIndexResolver.courseIndex(tenant), tenant);
+                    indexOps.createWithMapping();
+                }
+            });
+        }
+    }
 }
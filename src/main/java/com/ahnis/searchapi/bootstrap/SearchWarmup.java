@@ -0,0 +1,151 @@
+package com.ahnis.searchapi.bootstrap;
+
+import com.ahnis.searchapi.cache.ResponseByteCache;
+import com.ahnis.searchapi.codec.ResponseFormat;
+import com.ahnis.searchapi.codec.SearchResponseEncoder;
+import com.ahnis.searchapi.config.WarmupProperties;
+import com.ahnis.searchapi.diagnostics.QueryTrace;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.dto.SearchResponse;
+import com.ahnis.searchapi.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the search path up after {@link DataLoader} and before the application reports itself ready.
+ *
+ * <p>Spring Boot only flips the readiness state to {@code ACCEPTING_TRAFFIC} once every {@link ApplicationRunner}
+ * has returned, so {@code /actuator/health/readiness} stays {@code OUT_OF_SERVICE} until this runner is done.
+ * It replays the configured requests ({@code app.warmup.*}) in three steps:</p>
+ * <ol>
+ *     <li><b>JIT and connections:</b> {@code concurrency} workers replay every request {@code iterations} times
+ *     past the caches, which opens that many pooled Elasticsearch connections and gets the service code compiled.</li>
+ *     <li><b>Serializers:</b> each result is encoded in every {@link ResponseFormat}, building the Jackson
+ *     serializers for the response types.</li>
+ *     <li><b>Caches:</b> each request and suggest prefix goes through the cached service methods once, and landing
+ *     pages are put into the {@link ResponseByteCache}.</li>
+ * </ol>
+ *
+ * <p>Warmup is best effort: a failing request is logged and skipped, it never keeps the application from starting.</p>
+ */
+@Component
+@Order(SearchWarmup.ORDER)
+@RequiredArgsConstructor
+@Slf4j
+public class SearchWarmup implements ApplicationRunner {
+
+    public static final int ORDER = DataLoader.ORDER + 1;
+
+    private final WarmupProperties properties;
+    private final SearchService searchService;
+    private final SearchResponseEncoder searchResponseEncoder;
+    private final ResponseByteCache responseByteCache;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            log.info("Search warmup disabled");
+            return;
+        }
+
+        List<SearchRequest> requests = properties.getRequests().stream()
+                .map(WarmupProperties.Request::toSearchRequest)
+                .toList();
+        log.info("Warming up search with {} requests and {} suggest prefixes",
+                requests.size(), properties.getSuggestPrefixes().size());
+
+        long start = System.nanoTime();
+        int failures = replay(requests);
+        for (SearchRequest request : requests) {
+            failures += fillCaches(request) ? 0 : 1;
+        }
+        for (String prefix : properties.getSuggestPrefixes()) {
+            failures += fillSuggestCache(prefix) ? 0 : 1;
+        }
+
+        log.info("Search warmup finished in {} ms ({} failures)", (System.nanoTime() - start) / 1_000_000, failures);
+    }
+
+    /**
+     * Replays every request {@code iterations} times from {@code concurrency} parallel workers, bypassing the caches
+     *
+     * @return the number of failed replays
+     */
+    int replay(List<SearchRequest> requests) {
+        if (requests.isEmpty() || properties.getIterations() <= 0) {
+            return 0;
+        }
+
+        AtomicInteger failures = new AtomicInteger();
+        int workers = Math.max(1, properties.getConcurrency());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int worker = 0; worker < workers; worker++) {
+                futures.add(executor.submit(() -> {
+                    // Spread the iterations over the workers, rounding up so none is lost
+                    int iterations = (properties.getIterations() + workers - 1) / workers;
+                    for (int i = 0; i < iterations; i++) {
+                        for (SearchRequest request : requests) {
+                            try {
+                                searchService.searchCourses(request, new QueryTrace());
+                            } catch (RuntimeException e) {
+                                failures.incrementAndGet();
+                                log.debug("Warmup replay of {} failed: {}", request, e.getMessage());
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Search warmup interrupted");
+        } catch (ExecutionException e) {
+            log.warn("Search warmup worker failed: {}", e.getCause().getMessage());
+        }
+        return failures.get();
+    }
+
+    private boolean fillCaches(SearchRequest request) {
+        try {
+            SearchResponse response = SearchResponse.fromPage(searchService.searchCourses(request));
+            for (ResponseFormat format : ResponseFormat.values()) {
+                searchResponseEncoder.encode(response, format);
+            }
+            if (responseByteCache.isCacheable(request)) {
+                // Same loader as the controller's, so the entry is rebuilt from the index like any other
+                ResponseFormat format = ResponseFormat.JSON;
+                responseByteCache.getOrLoad(ResponseByteCache.keyOf(request, format), () ->
+                        searchResponseEncoder.encode(SearchResponse.fromPage(searchService.searchCourses(request)), format));
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Warmup of {} failed: {}", request, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean fillSuggestCache(String prefix) {
+        try {
+            searchService.getSuggestions(prefix, properties.getSuggestSize());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Warmup of suggestions for '{}' failed: {}", prefix, e.getMessage());
+            return false;
+        }
+    }
+}
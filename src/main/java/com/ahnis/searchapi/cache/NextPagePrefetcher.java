@@ -0,0 +1,106 @@
+package com.ahnis.searchapi.cache;
+
+import com.ahnis.searchapi.config.PrefetchProperties;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.resilience.ElasticsearchCircuitBreaker;
+import com.ahnis.searchapi.service.SearchService;
+import com.ahnis.searchapi.tenant.TenantContext;
+import com.ahnis.searchapi.transport.MeteredConnectionManager;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.pool.PoolStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Loads page N+1 of a search into the result cache in the background once page N has been served, so a user
+ * paging through a listing gets the next page from the cache.
+ *
+ * <p>Prefetches run on virtual threads, at most {@code max-in-flight} at a time, and only while the cluster
+ * has room: the circuit breaker is closed, no request is waiting for a pooled connection and the pool is below
+ * {@code max-pool-usage}. Anything that doesn't fit is dropped — a missed prefetch just means the next page
+ * is fetched on demand, as it would have been without this.</p>
+ */
+@Component
+@Slf4j
+public class NextPagePrefetcher {
+
+    private final SearchService searchService;
+    private final CacheManager cacheManager;
+    private final ElasticsearchCircuitBreaker circuitBreaker;
+    private final MeteredConnectionManager connectionManager;
+    private final PrefetchProperties properties;
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public NextPagePrefetcher(SearchService searchService, CacheManager cacheManager,
+                              ElasticsearchCircuitBreaker circuitBreaker, MeteredConnectionManager connectionManager,
+                              PrefetchProperties properties) {
+        this.searchService = searchService;
+        this.cacheManager = cacheManager;
+        this.circuitBreaker = circuitBreaker;
+        this.connectionManager = connectionManager;
+        this.properties = properties;
+        this.permits = new Semaphore(properties.getMaxInFlight());
+    }
+
+    /**
+     * Starts loading the page after {@code page} unless it's cached already, there is none, or the cluster is busy
+     *
+     * @return whether a prefetch was started
+     */
+    public boolean prefetchAfter(SearchRequest searchRequest, Page<CourseDocument> page) {
+        if (!properties.isEnabled() || !page.hasNext() || searchRequest.page() >= properties.getMaxPage()) {
+            return false;
+        }
+        SearchRequest next = searchRequest.withPage(searchRequest.page() + 1);
+        Cache cache = cacheManager.getCache(SearchCaches.SEARCH_RESULTS);
+        if (cache == null || cache.get(TenantKeyGenerator.keyOf(next)) != null || isBusy()) {
+            return false;
+        }
+        if (!permits.tryAcquire()) {
+            log.debug("Skipping prefetch of page {}, {} already in flight", next.page(), properties.getMaxInFlight());
+            return false;
+        }
+
+        String tenant = TenantContext.current();
+        try {
+            executor.execute(() -> {
+                try {
+                    // Through the caching proxy, which stores the page under the same key a user request would use
+                    TenantContext.runAs(tenant, () -> searchService.searchCourses(next));
+                } catch (RuntimeException e) {
+                    log.debug("Prefetch of page {} failed: {}", next.page(), e.getMessage());
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Rejected because the application is shutting down
+            permits.release();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isBusy() {
+        if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+            return true;
+        }
+        PoolStats pool = connectionManager.getTotalStats();
+        return pool.getPending() > 0 || pool.getLeased() > pool.getMax() * properties.getMaxPoolUsage();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
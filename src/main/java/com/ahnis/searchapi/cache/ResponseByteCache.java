@@ -0,0 +1,200 @@
+package com.ahnis.searchapi.cache;
+
+import com.ahnis.searchapi.codec.ResponseFormat;
+import com.ahnis.searchapi.dto.RequestKey;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.event.CourseIndexChangedEvent;
+import com.ahnis.searchapi.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bounded cache of ready-encoded {@code /api/search} responses for the hottest landing pages.
+ *
+ * <p>Only first pages without a free-text query are admitted (default listing, category/type browsing,
+ * filter-only pages) — that is where the traffic concentrates, and the long tail of text queries (or of
+ * "near me" searches, one per user location) would just churn the cache.</p>
+ *
+ * <p>Entries hold the final response bytes (plus an optional gzip copy), so a hit costs no object mapping
+ * and no Jackson serialization. Each entry remembers how to re-encode itself, and the whole cache is
+ * rebuilt in the background whenever a {@link CourseIndexChangedEvent} is published; readers keep getting
+ * the previous bytes until the fresh ones are swapped in.</p>
+ *
+ * <p>Entries are namespaced by tenant, and rebuilt on behalf of the tenant that loaded them.</p>
+ *
+ * <p>When full, the entry with the fewest hits is evicted to make room — a linear scan, but only on the
+ * miss path and over a deliberately small {@code max-entries}.</p>
+ */
+@Component
+@Slf4j
+public class ResponseByteCache {
+
+    private final Map<TenantKey, Entry> entries = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final int maxEntries;
+    private final boolean gzipEnabled;
+
+    public ResponseByteCache(@Value("${app.search.response-cache.enabled:true}") boolean enabled,
+                             @Value("${app.search.response-cache.max-entries:256}") int maxEntries,
+                             @Value("${app.search.response-cache.gzip:true}") boolean gzipEnabled) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.gzipEnabled = gzipEnabled;
+    }
+
+    /**
+     * Encoded response bytes; {@code gzipBody} is {@code null} when pre-compression is disabled
+     */
+    public record Encoded(byte[] body, byte[] gzipBody) {
+    }
+
+    /**
+     * Key of an encoded search response: the canonical request and the format it was encoded in
+     */
+    public record Key(RequestKey request, ResponseFormat format) {
+
+        @Override
+        public String toString() {
+            return request + "|" + format;
+        }
+    }
+
+    private record TenantKey(String tenant, Object key) {
+
+        @Override
+        public String toString() {
+            return tenant + "|" + key;
+        }
+    }
+
+    private static final class Entry {
+        private final Supplier<byte[]> loader;
+        private final LongAdder hits = new LongAdder();
+        private volatile Encoded encoded;
+
+        private Entry(Supplier<byte[]> loader, Encoded encoded) {
+            this.loader = loader;
+            this.encoded = encoded;
+        }
+    }
+
+    /**
+     * Whether responses for this request are worth keeping pre-encoded
+     */
+    public boolean isCacheable(SearchRequest searchRequest) {
+        return enabled
+                && searchRequest.page() == 0
+                && !StringUtils.hasText(searchRequest.query())
+                && !searchRequest.hasLocation();
+    }
+
+    /**
+     * Cache key for a request encoded in the given format: its canonical key covers every parameter that changes
+     * the response
+     */
+    public static Key keyOf(SearchRequest searchRequest, ResponseFormat format) {
+        return new Key(searchRequest.canonicalKey(), format);
+    }
+
+    /**
+     * Returns the cached bytes for {@code key}, encoding them with {@code loader} on a miss.
+     *
+     * <p>The loader runs outside of any lock (it talks to Elasticsearch), so two concurrent misses on the
+     * same key may both load; the first one to finish wins.</p>
+     */
+    public Encoded getOrLoad(Object key, Supplier<byte[]> loader) {
+        String tenant = TenantContext.current();
+        TenantKey tenantKey = new TenantKey(tenant, key);
+        Entry entry = entries.get(tenantKey);
+        if (entry != null) {
+            entry.hits.increment();
+            return entry.encoded;
+        }
+
+        // Rebuilds run on an async thread, which has no tenant of its own
+        Entry loaded = new Entry(() -> TenantContext.callAs(tenant, loader), encode(loader.get()));
+        if (entries.size() >= maxEntries) {
+            evictColdest();
+        }
+        Entry existing = entries.putIfAbsent(tenantKey, loaded);
+        return existing != null ? existing.encoded : loaded.encoded;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Re-encodes every entry from the index after a change, without dropping what readers currently see.
+     *
+     * <p>The loaders go through the cached search service, so this is ordered after {@link SearchCaches} has
+     * dropped the old result pages — otherwise a rebuild could re-encode exactly what it is meant to replace.</p>
+     */
+    @Async
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener
+    public void onCourseIndexChanged(CourseIndexChangedEvent event) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        log.info("Rebuilding {} cached search responses after index change: {}", entries.size(), event.reason());
+
+        entries.forEach((key, entry) -> {
+            try {
+                entry.encoded = encode(entry.loader.get());
+            } catch (RuntimeException e) {
+                // Better a miss than a stale page that can no longer be refreshed
+                log.warn("Dropping cached search response {}: {}", key, e.getMessage());
+                entries.remove(key, entry);
+            }
+        });
+    }
+
+    private void evictColdest() {
+        TenantKey coldestKey = null;
+        long coldestHits = Long.MAX_VALUE;
+        for (Map.Entry<TenantKey, Entry> candidate : entries.entrySet()) {
+            long hits = candidate.getValue().hits.sum();
+            if (hits < coldestHits) {
+                coldestHits = hits;
+                coldestKey = candidate.getKey();
+            }
+        }
+        if (coldestKey != null) {
+            entries.remove(coldestKey);
+        }
+    }
+
+    private Encoded encode(byte[] body) {
+        return new Encoded(body, gzipEnabled ? gzip(body) : null);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to gzip cached response", e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,53 @@
+package com.ahnis.searchapi.cache;
+
+import com.ahnis.searchapi.event.CourseIndexChangedEvent;
+import com.ahnis.searchapi.resilience.SearchGuardrails;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Names of the service-level search caches, and their invalidation.
+ *
+ * <p>{@link #SEARCH_RESULTS} holds result pages keyed by the full {@link com.ahnis.searchapi.dto.SearchRequest},
+ * {@link #SUGGESTIONS} holds autocomplete titles keyed by prefix and size. Both are emptied whenever the
+ * {@code courses} index changes, and so are the deep-paging cursors of {@link SearchGuardrails}, which were taken
+ * on the old contents.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchCaches {
+
+    public static final String SEARCH_RESULTS = "searchResults";
+    public static final String SUGGESTIONS = "suggestions";
+
+    private final CacheManager cacheManager;
+    private final SearchGuardrails searchGuardrails;
+
+    /**
+     * Runs synchronously and ahead of every other listener, so nothing published after an index change — the
+     * {@link ResponseByteCache} rebuild included — can still read the old results
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onCourseIndexChanged(CourseIndexChangedEvent event) {
+        log.info("Clearing search caches after index change: {}", event.reason());
+        clear();
+    }
+
+    public void clear() {
+        for (String name : new String[]{SEARCH_RESULTS, SUGGESTIONS}) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        searchGuardrails.clearCursors();
+    }
+}
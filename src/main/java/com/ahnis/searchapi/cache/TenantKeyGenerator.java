@@ -0,0 +1,38 @@
+package com.ahnis.searchapi.cache;
+
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.tenant.TenantContext;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+
+import java.lang.reflect.Method;
+
+/**
+ * Default cache key generator: the usual parameter-based key, namespaced by the current tenant.
+ *
+ * <p>Two tenants asking the same question have different catalogs, so they must never share a cached answer.
+ * Search requests are keyed by their {@link SearchRequest#canonicalKey() canonical key}, so differently spelled
+ * versions of one question share an entry (and, since the key compares the canonical request itself, two questions
+ * never do).</p>
+ */
+public class TenantKeyGenerator implements KeyGenerator {
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        return keyOf(params);
+    }
+
+    /**
+     * The key a cached method called with these arguments in the current tenant is stored under
+     */
+    public static Object keyOf(Object... params) {
+        Object[] keyParams = params.clone();
+        for (int i = 0; i < keyParams.length; i++) {
+            if (keyParams[i] instanceof SearchRequest searchRequest) {
+                keyParams[i] = searchRequest.canonicalKey();
+            }
+        }
+        return new SimpleKey(TenantContext.current(), SimpleKeyGenerator.generateKey(keyParams));
+    }
+}
@@ -0,0 +1,60 @@
+package com.ahnis.searchapi.codec;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Encodings the search endpoint can answer with, negotiated from the {@code Accept} header.
+ * JSON is the default whenever the client does not explicitly ask for one of the binary formats.
+ */
+public enum ResponseFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(new MediaType("application", "x-jackson-smile"));
+
+    private final MediaType mediaType;
+
+    ResponseFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Picks the most preferred supported format from an {@code Accept} header value
+     */
+    public static ResponseFormat negotiate(String accept) {
+        if (!StringUtils.hasText(accept)) {
+            return JSON;
+        }
+
+        List<MediaType> acceptable;
+        try {
+            acceptable = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        // Stable sort, so equally weighted types keep the client's order
+        acceptable.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+
+        for (MediaType candidate : acceptable) {
+            if (candidate.getQualityValue() == 0) {
+                continue;
+            }
+            for (ResponseFormat format : values()) {
+                // Wildcards resolve to JSON since it is declared first
+                if (candidate.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,41 @@
+package com.ahnis.searchapi.codec;
+
+import com.ahnis.searchapi.dto.CompactSearchResponse;
+import com.ahnis.searchapi.dto.SearchResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+
+/**
+ * Encodes {@link SearchResponse}s to bytes in any of the supported {@link ResponseFormat}s.
+ *
+ * <p>JSON goes through the application's {@link ObjectMapper} so it stays byte-for-byte identical to what
+ * Spring MVC would write; the binary formats are written from {@link CompactSearchResponse}.</p>
+ */
+@Component
+public class SearchResponseEncoder {
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper = new CBORMapper();
+    private final ObjectMapper smileMapper = new SmileMapper();
+
+    public SearchResponseEncoder(ObjectMapper objectMapper) {
+        this.jsonMapper = objectMapper;
+    }
+
+    public byte[] encode(SearchResponse response, ResponseFormat format) {
+        try {
+            return switch (format) {
+                case JSON -> jsonMapper.writeValueAsBytes(response);
+                case CBOR -> cborMapper.writeValueAsBytes(CompactSearchResponse.fromSearchResponse(response));
+                case SMILE -> smileMapper.writeValueAsBytes(CompactSearchResponse.fromSearchResponse(response));
+            };
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Failed to encode search response as " + format, e);
+        }
+    }
+}
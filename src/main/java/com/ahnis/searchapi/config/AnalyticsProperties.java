@@ -0,0 +1,57 @@
+package com.ahnis.searchapi.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Catalog analytics endpoints, bound from {@code app.analytics.*}.
+ *
+ * <p>Every figure comes from one {@code size: 0} aggregation request, so no course is fetched to compute it.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.analytics")
+public class AnalyticsProperties {
+
+    /**
+     * Most categories or types reported, largest first
+     */
+    private int maxTerms = 50;
+
+    /**
+     * Price percentiles reported
+     */
+    private List<Double> percents = List.of(5.0, 25.0, 50.0, 75.0, 95.0);
+
+    /**
+     * Width of a price histogram bucket when the caller doesn't ask for one
+     */
+    private double priceInterval = 100;
+
+    /**
+     * Narrowest bucket a caller may ask for; narrower ones would mean thousands of mostly empty buckets
+     */
+    private double minPriceInterval = 10;
+
+    /**
+     * Age bands whose coverage is reported; a course covers a band when its age range overlaps it
+     */
+    private List<AgeBand> ageBands = List.of(
+            new AgeBand(3, 5), new AgeBand(6, 8), new AgeBand(9, 12), new AgeBand(13, 17));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AgeBand {
+
+        private int from;
+        private int to;
+
+        public String getLabel() {
+            return from + "-" + to;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ahnis.searchapi.config;
+
+import com.ahnis.searchapi.cache.TenantKeyGenerator;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Turns on Spring's cache abstraction for the service-level search caches (see
+ * {@link com.ahnis.searchapi.cache.SearchCaches}). The caches themselves are Caffeine-backed and configured
+ * through {@code spring.cache.*}; keys are namespaced per tenant by {@link TenantKeyGenerator}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableCaching
+public class CacheConfig implements CachingConfigurer {
+
+    @Override
+    public KeyGenerator keyGenerator() {
+        return new TenantKeyGenerator();
+    }
+}
@@ -0,0 +1,60 @@
+package com.ahnis.searchapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker around Elasticsearch calls, bound from {@code app.search.circuit-breaker.*}.
+ *
+ * <p>The breaker opens when, over the last {@code sliding-window-size} calls, either the failure rate or the
+ * share of calls slower than {@code slow-call-duration} reaches its threshold. While open, calls fail fast and
+ * searches are answered from the fallbacks; after {@code wait-in-open} a few probe calls decide whether it closes.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.search.circuit-breaker")
+public class CircuitBreakerProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Percentage of failed calls in the window that opens the breaker
+     */
+    private float failureRateThreshold = 50;
+
+    /**
+     * Percentage of slow calls in the window that opens the breaker
+     */
+    private float slowCallRateThreshold = 50;
+
+    /**
+     * Calls taking longer than this count as slow
+     */
+    private Duration slowCallDuration = Duration.ofSeconds(1);
+
+    /**
+     * Number of most recent calls the rates are computed over
+     */
+    private int slidingWindowSize = 50;
+
+    /**
+     * Calls needed in the window before the rates are evaluated at all
+     */
+    private int minimumNumberOfCalls = 20;
+
+    /**
+     * How long the breaker stays open before letting probe calls through
+     */
+    private Duration waitInOpen = Duration.ofSeconds(10);
+
+    /**
+     * Probe calls allowed while half-open
+     */
+    private int permittedCallsInHalfOpen = 5;
+
+    /**
+     * Last known good responses kept for fallback
+     */
+    private int staleEntries = 1000;
+}
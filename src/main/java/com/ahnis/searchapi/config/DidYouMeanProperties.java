@@ -0,0 +1,46 @@
+package com.ahnis.searchapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Spelling corrections for text searches that find (nearly) nothing, bound from {@code app.search.did-you-mean.*}.
+ *
+ * <p>Corrections come from a term suggester sent along with the first text pass, so asking costs no extra
+ * round trip; only the catalog's own vocabulary is suggested from.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.search.did-you-mean")
+public class DidYouMeanProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Search for the original text and the correction together when the original finds too few hits, instead of
+     * only offering the correction
+     */
+    private boolean autoCorrect = true;
+
+    /**
+     * Fields a corrected search matches the correction in; candidates always come from the title and category
+     * words, copied into one spelling field at index time
+     */
+    private List<String> fields = List.of("title", "category");
+
+    /**
+     * Edits (1 or 2) a candidate may be away from the misspelled term
+     */
+    private int maxEdits = 2;
+
+    /**
+     * Leading characters a candidate must share with the misspelled term
+     */
+    private int prefixLength = 1;
+
+    /**
+     * Shorter terms are left alone; they have too many plausible corrections
+     */
+    private int minWordLength = 4;
+}
@@ -0,0 +1,116 @@
+package com.ahnis.searchapi.config;
+
+import com.ahnis.searchapi.transport.MeteredConnectionManager;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.elasticsearch.client.RestClientBuilder;
+import org.springframework.boot.autoconfigure.elasticsearch.RestClientBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+/**
+ * Applies {@link ElasticsearchTransportProperties} to the Elasticsearch low-level {@code RestClient} that Spring
+ * Boot builds for the {@code ElasticsearchClient}.
+ *
+ * <p>The client gets its own {@link MeteredConnectionManager}, so pool size, IO threads and socket options are
+ * set in one place and the pool can be observed. Because the connection manager is supplied here, TLS uses the
+ * JVM's default trust store; SSL bundles ({@code spring.elasticsearch.restclient.ssl.bundle}) are not applied.</p>
+ */
+@Configuration(proxyBeanMethods = false)
+@Slf4j
+public class ElasticsearchTransportConfig {
+
+    @Bean
+    public MeteredConnectionManager elasticsearchConnectionManager(ElasticsearchTransportProperties properties) {
+        IOReactorConfig.Builder reactorConfig = IOReactorConfig.custom()
+                .setSoKeepAlive(properties.isTcpKeepAlive())
+                .setTcpNoDelay(true);
+        if (properties.getIoThreads() > 0) {
+            reactorConfig.setIoThreadCount(properties.getIoThreads());
+        }
+
+        Registry<SchemeIOSessionStrategy> strategies = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                .register("http", NoopIOSessionStrategy.INSTANCE)
+                .register("https", SSLIOSessionStrategy.getSystemDefaultStrategy())
+                .build();
+
+        MeteredConnectionManager connectionManager;
+        try {
+            connectionManager = new MeteredConnectionManager(
+                    new DefaultConnectingIOReactor(reactorConfig.build()), strategies);
+        } catch (IOReactorException e) {
+            throw new UncheckedIOException("Failed to create the Elasticsearch IO reactor", e);
+        }
+        connectionManager.setMaxTotal(properties.getMaxConnTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConnPerRoute());
+
+        log.info("Elasticsearch transport: {} connections ({} per node), keep-alive {}, compression {}",
+                properties.getMaxConnTotal(), properties.getMaxConnPerRoute(), properties.getKeepAlive(),
+                properties.isCompression());
+        return connectionManager;
+    }
+
+    /**
+     * Runs after Boot's own customizer, so the transport settings here take precedence
+     */
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public RestClientBuilderCustomizer elasticsearchTransportCustomizer(ElasticsearchTransportProperties properties,
+                                                                        MeteredConnectionManager connectionManager) {
+        return new RestClientBuilderCustomizer() {
+
+            @Override
+            public void customize(RestClientBuilder builder) {
+                builder.setCompressionEnabled(properties.isCompression());
+            }
+
+            @Override
+            public void customize(HttpAsyncClientBuilder builder) {
+                builder.setConnectionManager(connectionManager)
+                        .setKeepAliveStrategy(keepAliveStrategy(properties.getKeepAlive()));
+            }
+
+            @Override
+            public void customize(RequestConfig.Builder builder) {
+                builder.setConnectionRequestTimeout(toMillis(properties.getLeaseTimeout()));
+                if (properties.getConnectTimeout() != null) {
+                    builder.setConnectTimeout(toMillis(properties.getConnectTimeout()));
+                }
+                if (properties.getSocketTimeout() != null) {
+                    builder.setSocketTimeout(toMillis(properties.getSocketTimeout()));
+                }
+            }
+        };
+    }
+
+    /**
+     * Honours a server-sent {@code Keep-Alive} timeout, but never keeps an idle connection longer than configured
+     */
+    static ConnectionKeepAliveStrategy keepAliveStrategy(Duration keepAlive) {
+        long maxMillis = keepAlive.toMillis();
+        return (response, context) -> {
+            long serverMillis = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverMillis > 0 ? Math.min(serverMillis, maxMillis) : maxMillis;
+        };
+    }
+
+    private static int toMillis(Duration duration) {
+        return (int) Math.min(Integer.MAX_VALUE, duration.toMillis());
+    }
+}
@@ -0,0 +1,63 @@
+package com.ahnis.searchapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Elasticsearch HTTP transport tuning, bound from {@code app.elasticsearch.transport.*}.
+ *
+ * <p>The low-level client defaults (30 connections in total, 10 per node) are sized for thread-per-request
+ * callers. With virtual threads every request can be in flight at once, so the pool has to be sized for the
+ * expected concurrency instead — check the {@code es.client.pool.*} metrics to see whether it is.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.elasticsearch.transport")
+public class ElasticsearchTransportProperties {
+
+    /**
+     * Maximum pooled connections across all nodes
+     */
+    private int maxConnTotal = 100;
+
+    /**
+     * Maximum pooled connections to a single node
+     */
+    private int maxConnPerRoute = 50;
+
+    /**
+     * IO reactor (dispatcher) threads; {@code 0} uses one per available processor
+     */
+    private int ioThreads = 0;
+
+    /**
+     * How long an idle connection is kept for reuse; a shorter {@code Keep-Alive} header from the server wins
+     */
+    private Duration keepAlive = Duration.ofSeconds(60);
+
+    /**
+     * Enable TCP keep-alive probes on client sockets
+     */
+    private boolean tcpKeepAlive = true;
+
+    /**
+     * Gzip request bodies and ask for gzip responses
+     */
+    private boolean compression = true;
+
+    /**
+     * Maximum time to wait for a free pooled connection before failing the request
+     */
+    private Duration leaseTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Connect timeout; unset keeps {@code spring.elasticsearch.connection-timeout}
+     */
+    private Duration connectTimeout;
+
+    /**
+     * Socket (read) timeout; unset keeps {@code spring.elasticsearch.socket-timeout}
+     */
+    private Duration socketTimeout;
+}
@@ -0,0 +1,35 @@
+package com.ahnis.searchapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits of the {@code debug=explain} search option, bound from {@code app.search.explain.*}.
+ *
+ * <p>Explaining is several times the work of scoring, so it runs as its own request, only for a few hits and
+ * only so many times a minute across the whole instance.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.search.explain")
+public class ExplainProperties {
+
+    /**
+     * Whether {@code debug=explain} is honoured at all
+     */
+    private boolean enabled = true;
+
+    /**
+     * Explained hits per request, from the top of the returned page
+     */
+    private int maxHits = 5;
+
+    /**
+     * Explain requests allowed per minute; further ones get their results without explanations
+     */
+    private int maxPerMinute = 30;
+
+    /**
+     * Levels of the explanation tree kept; Lucene's BM25 internals below this are cut off
+     */
+    private int maxDepth = 6;
+}
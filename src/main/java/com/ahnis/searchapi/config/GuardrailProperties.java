@@ -0,0 +1,55 @@
+package com.ahnis.searchapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Limits on how much a single search may ask of the cluster, bound from {@code app.search.guardrails.*}.
+ *
+ * <p>Every shard builds a priority queue of {@code from + size} hits, so page size and depth are what make a
+ * request expensive. Oversized pages are cut down; listings paged deeper than {@link #cursorFromOffset} continue
+ * with {@code search_after} from where the previous page ended, and nothing is served from/size past
+ * {@link #maxResultWindow}.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.search.guardrails")
+public class GuardrailProperties {
+
+    /**
+     * Largest page served; bigger {@code size} values are reduced to this
+     */
+    private int maxSize = 100;
+
+    /**
+     * Largest number of autocomplete suggestions served
+     */
+    private int maxSuggestions = 20;
+
+    /**
+     * Deepest hit ({@code from + size}) a page-numbered request may reach without a cursor; matches the index's
+     * {@code index.max_result_window}, which Elasticsearch enforces anyway
+     */
+    private int maxResultWindow = 10_000;
+
+    /**
+     * Hits counted exactly before {@code total} becomes a lower bound
+     */
+    private int trackTotalHitsUpTo = 10_000;
+
+    /**
+     * Offset from which listings are fetched with the cursor of the previous page instead of from/size
+     */
+    private int cursorFromOffset = 1_000;
+
+    /**
+     * Cursors remembered for the next page of deep listings, across all tenants
+     */
+    private int maxCursors = 10_000;
+
+    /**
+     * How long a remembered cursor stays usable after it was last written
+     */
+    private Duration cursorTtl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,30 @@
+package com.ahnis.searchapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Next-page prefetching, bound from {@code app.search.prefetch.*}. Off by default: it trades extra cluster
+ * queries for faster paging, which only pays off where users actually page through listings.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.search.prefetch")
+public class PrefetchProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Prefetches running at once; further ones are skipped, not queued
+     */
+    private int maxInFlight = 4;
+
+    /**
+     * Last zero-based page that is prefetched; deeper browsing is rare enough to fetch on demand
+     */
+    private int maxPage = 20;
+
+    /**
+     * Share of the Elasticsearch connection pool in use above which prefetching pauses
+     */
+    private double maxPoolUsage = 0.5;
+}
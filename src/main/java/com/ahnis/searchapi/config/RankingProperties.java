@@ -0,0 +1,60 @@
+package com.ahnis.searchapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Relevance ranking ({@code sort=relevance}) settings, bound from {@code app.search.ranking.*}.
+ *
+ * <p>The text score is multiplied by the sum of a constant baseline and three signals, each scaled by its
+ * weight: a decay on how soon the next session starts, {@code log1p(popularity)}, and (optionally) a decay on
+ * price. A weight of {@code 0} switches a signal off.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.search.ranking")
+public class RankingProperties {
+
+    /**
+     * Weight of the constant baseline, so a course without any signal still keeps its text score
+     */
+    private double baselineWeight = 1.0;
+
+    /**
+     * Distance from now at which an upcoming session's recency boost has decayed to {@code recency-decay}
+     */
+    private String recencyScale = "14d";
+
+    /**
+     * Sessions starting within this window get the full recency boost
+     */
+    private String recencyOffset = "1d";
+
+    private double recencyDecay = 0.5;
+
+    private double recencyWeight = 1.0;
+
+    /**
+     * Multiplier applied to {@code popularity} (a click-through rate, 0 to 1) before {@code log1p}
+     */
+    private double popularityFactor = 10.0;
+
+    private double popularityWeight = 1.0;
+
+    /**
+     * Prefer courses priced close to {@code price-origin}
+     */
+    private boolean pricePreference = false;
+
+    private double priceOrigin = 0;
+
+    private double priceScale = 100;
+
+    private double priceDecay = 0.5;
+
+    private double priceWeight = 0.5;
+
+    /**
+     * Per-shard top hits the signals are applied to via rescoring; {@code 0} applies them to every hit instead
+     */
+    private int rescoreWindow = 50;
+}
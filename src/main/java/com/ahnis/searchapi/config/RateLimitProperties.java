@@ -0,0 +1,82 @@
+package com.ahnis.searchapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-client request budgets, bound from {@code app.rate-limit.*}.
+ *
+ * <p>A client is its API key ({@code api-key-header}) if that is one of the issued {@code api-keys}, otherwise its
+ * IP address. Each budget is a token
+ * bucket per client over the endpoints in its {@code paths}: {@code capacity} requests in a burst, refilled at
+ * {@code refill-per-second}. Endpoints outside every budget aren't limited.</p>
+ *
+ * <p>Each tenant gets separate buckets in every budget, at the budget's rates unless {@code tenants} overrides
+ * them.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    private String apiKeyHeader = "X-Api-Key";
+
+    /**
+     * Issued API keys. Only these get buckets of their own; an unknown key counts as its caller's address, so
+     * making keys up can't buy a fresh bucket
+     */
+    private Set<String> apiKeys = new HashSet<>();
+
+    /**
+     * Clients tracked per budget; clients beyond that share one bucket until idle ones are evicted
+     */
+    private int maxClients = 10_000;
+
+    /**
+     * How long a client's bucket must have been full before it's forgotten
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Budget name to its endpoints and rate
+     */
+    private Map<String, Budget> budgets = new LinkedHashMap<>();
+
+    /**
+     * Tenant id to budget name to the rates that tenant gets instead; paths always come from {@code budgets}
+     */
+    private Map<String, Map<String, Rate>> tenants = new LinkedHashMap<>();
+
+    @Data
+    public static class Budget {
+
+        /**
+         * Path prefixes the budget applies to; the longest matching prefix across all budgets wins
+         */
+        private List<String> paths = new ArrayList<>();
+
+        private int capacity = 60;
+
+        private double refillPerSecond = 10;
+    }
+
+    /**
+     * A tenant's rates for one budget; whatever is left out is the budget's own
+     */
+    @Data
+    public static class Rate {
+
+        private Integer capacity;
+
+        private Double refillPerSecond;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ahnis.searchapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Search-time synonym and stop-word sets, bound from {@code app.search.analysis.*}.
+ *
+ * <p>{@code synonyms-file} must be the same file Elasticsearch reads as {@code config/analysis/course-synonyms.txt}
+ * (a shared volume, see {@code docker-compose.yaml}) — on a multi-node cluster, every node needs the update.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.search.analysis")
+public class SearchAnalysisProperties {
+
+    /**
+     * Solr-format synonym rules backing the {@code course_synonyms} filter
+     */
+    private Path synonymsFile = Path.of("config/analysis/course-synonyms.txt");
+
+    /**
+     * Stop words removed from text queries; persisted so they survive a restart
+     */
+    private Path stopWordsFile = Path.of("config/analysis/course-stopwords.txt");
+
+    /**
+     * Stop words used until the stop-words file has been written for the first time
+     */
+    private List<String> defaultStopWords = List.of("a", "an", "the", "and", "or", "for", "of", "to", "in", "with");
+}
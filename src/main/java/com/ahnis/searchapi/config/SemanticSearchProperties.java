@@ -0,0 +1,36 @@
+package com.ahnis.searchapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Embedding-based ("semantic") matching, bound from {@code app.search.semantic.*}.
+ *
+ * <p>Courses get an embedding of their text when they are saved; {@code mode=hybrid} searches then rank by
+ * reciprocal rank fusion of the BM25 ranking and the embedding-similarity ranking.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.search.semantic")
+public class SemanticSearchProperties {
+
+    /**
+     * Whether {@code mode=hybrid} is honoured; when off, such searches run as plain keyword searches
+     */
+    private boolean enabled = true;
+
+    /**
+     * Embedding provider; {@code hashing} is the built-in offline one. Any other value expects an
+     * {@code EmbeddingProvider} bean to be supplied by the application
+     */
+    private String provider = "hashing";
+
+    /**
+     * Candidates taken from each ranking (BM25 and vector) before fusing them
+     */
+    private int rankWindow = 50;
+
+    /**
+     * The {@code k} of reciprocal rank fusion, {@code 1 / (k + rank)}; larger values flatten the head of each list
+     */
+    private int rankConstant = 60;
+}
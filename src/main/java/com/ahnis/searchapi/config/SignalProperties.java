@@ -0,0 +1,54 @@
+package com.ahnis.searchapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Click and impression signal pipeline, bound from {@code app.signals.*}.
+ *
+ * <p>A course's {@code popularity} is its click-through rate, {@code clicks / (impressions + prior-impressions)},
+ * with both counts decayed by their age ({@code half-life}) at every flush.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.signals")
+public class SignalProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How often aggregated signals are written to the index
+     */
+    private Duration flushInterval = Duration.ofSeconds(30);
+
+    /**
+     * Time for a course's popularity to halve without new signals
+     */
+    private Duration halfLife = Duration.ofDays(7);
+
+    /**
+     * Impressions without a click every course starts with, so a few lucky clicks don't make a course popular
+     */
+    private double priorImpressions = 20;
+
+    /**
+     * How long after being on a result page a course still accepts clicks
+     */
+    private Duration clickWindow = Duration.ofMinutes(10);
+
+    /**
+     * Partial updates per bulk request
+     */
+    private int batchSize = 200;
+
+    /**
+     * Upper bound on popularity updates sent per second, so flushing never competes with search traffic
+     */
+    private int maxUpdatesPerSecond = 500;
+
+    /**
+     * Courses tracked at once; impressions for further ids are dropped until some go idle
+     */
+    private int maxTrackedCourses = 100_000;
+}
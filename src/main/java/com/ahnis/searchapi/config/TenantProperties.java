@@ -0,0 +1,33 @@
+package com.ahnis.searchapi.config;
+
+import com.ahnis.searchapi.tenant.TenantContext;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Partner brands served by this deployment, bound from {@code app.tenants.*}.
+ *
+ * <p>Requests name their tenant in {@code header}; without one they belong to the default tenant, whose catalog
+ * lives in {@code default-index}. Any other tenant must be listed in {@code indices}, mapped to its own index or
+ * alias — unknown tenants are rejected rather than silently served the default catalog.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.tenants")
+public class TenantProperties {
+
+    private String header = "X-Tenant-Id";
+
+    private String defaultIndex = "courses";
+
+    /**
+     * Tenant id to the index (or alias) holding its catalog
+     */
+    private Map<String, String> indices = new LinkedHashMap<>();
+
+    public boolean isKnown(String tenant) {
+        return TenantContext.DEFAULT_TENANT.equals(tenant) || indices.containsKey(tenant);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ahnis.searchapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Cost controls for free-text matching, bound from {@code app.search.text.*}.
+ *
+ * <p>Fuzzy matching is the most expensive thing a text search does: every query term is expanded against
+ * the term dictionary. These knobs cap how far that expansion may go and let the cheap exact pass answer
+ * the query on its own whenever it finds enough hits.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.search.text")
+public class TextMatchProperties {
+
+    /**
+     * Fuzziness for title matching; {@code AUTO:low,high} scales edits with term length
+     * (0 edits below {@code low} chars, 1 below {@code high}, 2 above)
+     */
+    private String fuzziness = "AUTO:3,6";
+
+    /**
+     * Leading characters that must match exactly before fuzzy expansion kicks in
+     */
+    private int prefixLength = 1;
+
+    /**
+     * Maximum number of terms a single fuzzy term may expand to
+     */
+    private int maxExpansions = 20;
+
+    /**
+     * Run an exact (non-fuzzy) pass first and only escalate to fuzzy when it finds too few hits
+     */
+    private boolean exactFirst = true;
+
+    /**
+     * Minimum total hits of the exact pass for it to be returned without escalating
+     */
+    private int minExactHits = 1;
+
+    /**
+     * Match description substrings through the trigram sub-field instead of leading-wildcard queries
+     */
+    private boolean ngramSubstring = true;
+}
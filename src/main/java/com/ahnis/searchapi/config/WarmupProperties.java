@@ -0,0 +1,81 @@
+package com.ahnis.searchapi.config;
+
+import com.ahnis.searchapi.dto.SearchRequest;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startup warmup settings, bound from {@code app.warmup.*}.
+ *
+ * <p>The configured requests should look like real traffic: the default listing, the busiest categories and
+ * a couple of typical text queries, so warmup exercises the same code paths and fills the same cache entries
+ * that the first users will hit.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.warmup")
+public class WarmupProperties {
+
+    /**
+     * Run the warmup phase before the application reports itself ready
+     */
+    private boolean enabled = true;
+
+    /**
+     * How many times each request is replayed uncached, to get the search path compiled by the JIT
+     */
+    private int iterations = 20;
+
+    /**
+     * Parallel replay workers; roughly the number of Elasticsearch connections opened up front
+     */
+    private int concurrency = 4;
+
+    /**
+     * Representative search requests to replay
+     */
+    private List<Request> requests = new ArrayList<>();
+
+    /**
+     * Autocomplete prefixes to replay
+     */
+    private List<String> suggestPrefixes = new ArrayList<>();
+
+    /**
+     * Suggestion size used for the replayed prefixes (should match what the UI asks for)
+     */
+    private int suggestSize = 10;
+
+    /**
+     * One search request, with the same parameters as {@code /api/search}
+     */
+    @Data
+    public static class Request {
+        private String q;
+        private String category;
+        private String type;
+        private Integer minAge;
+        private Integer maxAge;
+        private Double minPrice;
+        private Double maxPrice;
+        private Instant startDate;
+        private Instant endDate;
+        private Double lat;
+        private Double lon;
+        private Double radius;
+        private Integer geohashPrecision;
+        private String sessionHistogram;
+        private String mode;
+        private String sort;
+        private Integer page;
+        private Integer size;
+
+        public SearchRequest toSearchRequest() {
+            return SearchRequest.of(q, category, type, minAge, maxAge, minPrice, maxPrice, startDate, endDate,
+                    lat, lon, radius, geohashPrecision, sessionHistogram, mode, sort, page, size).canonical();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ahnis.searchapi.controller;
+
+import com.ahnis.searchapi.analysis.AnalysisRules;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lets operators swap the search-time synonym and stop-word sets without reindexing.
+ *
+ * <p>Both {@code PUT}s replace the whole set; send the current rules back with your edits applied.</p>
+ */
+@RestController
+@RequestMapping("/api/admin/analysis")
+@RequiredArgsConstructor
+public class AnalysisAdminController {
+
+    private final AnalysisRules analysisRules;
+
+    @GetMapping("/synonyms")
+    public List<String> getSynonyms() {
+        return analysisRules.synonyms();
+    }
+
+    @PutMapping("/synonyms")
+    public ResponseEntity<AnalysisRules.SynonymReload> updateSynonyms(@RequestBody List<String> rules) {
+        try {
+            return ResponseEntity.ok(analysisRules.updateSynonyms(rules));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/stopwords")
+    public Set<String> getStopWords() {
+        return analysisRules.stopWords();
+    }
+
+    @PutMapping("/stopwords")
+    public Set<String> updateStopWords(@RequestBody List<String> words) {
+        return analysisRules.updateStopWords(words);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ahnis.searchapi.controller;
+
+import com.ahnis.searchapi.dto.AgeCoverage;
+import com.ahnis.searchapi.dto.PriceDistribution;
+import com.ahnis.searchapi.dto.SearchFilters;
+import com.ahnis.searchapi.dto.TermStatistics;
+import com.ahnis.searchapi.service.AnalyticsService;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Catalog statistics for dashboards, over the courses matching the same filters {@code /api/search} takes
+ * ({@code category}, {@code type}, {@code minAge}, ..., {@code radius}).
+ *
+ * <p>Statistics have no meaningful stale or local fallback, so while Elasticsearch is unavailable these answer
+ * {@code 503}.</p>
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<TermStatistics>> getCategoryStatistics(SearchFilters filters) {
+        log.info("Category statistics for {}", filters);
+        return available(() -> analyticsService.categoryStatistics(filters.toSearchRequest()));
+    }
+
+    @GetMapping("/types")
+    public ResponseEntity<List<TermStatistics>> getTypeStatistics(SearchFilters filters) {
+        log.info("Type statistics for {}", filters);
+        return available(() -> analyticsService.typeStatistics(filters.toSearchRequest()));
+    }
+
+    @GetMapping("/prices")
+    public ResponseEntity<PriceDistribution> getPriceDistribution(
+            SearchFilters filters,
+            @RequestParam(required = false) Double interval
+    ) {
+        log.info("Price distribution for {}, interval: {}", filters, interval);
+        try {
+            return available(() -> analyticsService.priceDistribution(filters.toSearchRequest(), interval));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/ages")
+    public ResponseEntity<List<AgeCoverage>> getAgeCoverage(SearchFilters filters) {
+        log.info("Age coverage for {}", filters);
+        return available(() -> analyticsService.ageCoverage(filters.toSearchRequest()));
+    }
+
+    private static <T> ResponseEntity<T> available(Supplier<T> statistics) {
+        try {
+            return ResponseEntity.ok(statistics.get());
+        } catch (DataAccessException | CallNotPermittedException e) {
+            log.warn("Elasticsearch unavailable ({}), no statistics to serve", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ahnis.searchapi.controller;
+
+import com.ahnis.searchapi.diagnostics.ProfileReport;
+import com.ahnis.searchapi.diagnostics.QueryProfiler;
+import com.ahnis.searchapi.diagnostics.QueryTrace;
+import com.ahnis.searchapi.diagnostics.SlowQueryEntry;
+import com.ahnis.searchapi.diagnostics.SlowQueryLog;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.service.SearchService;
+import com.ahnis.searchapi.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Admin endpoints for tuning search queries: the slow-query log and an on-demand query profiler.
+ */
+@RestController
+@RequestMapping("/api/admin/queries")
+@RequiredArgsConstructor
+@Slf4j
+public class QueryDiagnosticsController {
+
+    private final SlowQueryLog slowQueryLog;
+    private final QueryProfiler queryProfiler;
+    private final SearchService searchService;
+
+    @GetMapping("/slow")
+    public ResponseEntity<List<SlowQueryEntry>> getSlowQueries() {
+        return ResponseEntity.ok(slowQueryLog.recent());
+    }
+
+    @PostMapping("/slow/{id}/profile")
+    public ResponseEntity<ProfileReport> profileSlowQuery(@PathVariable long id) {
+        log.info("Profiling captured slow query #{}", id);
+
+        return slowQueryLog.find(id)
+                .map(entry -> ResponseEntity.ok(
+                        TenantContext.callAs(entry.tenant(), () -> queryProfiler.profile(entry.trace()))))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/profile")
+    public ResponseEntity<ProfileReport> profileSearch(@RequestBody SearchRequest searchRequest) {
+        log.info("Profiling ad-hoc search: {}", searchRequest);
+
+        // Run it once for real to learn which queries it makes, then profile exactly those
+        QueryTrace trace = new QueryTrace();
+        searchService.searchCourses(searchRequest.canonical(), trace);
+
+        return ResponseEntity.ok(queryProfiler.profile(trace));
+    }
+}
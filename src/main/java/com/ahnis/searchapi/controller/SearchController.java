@@ -1,22 +1,35 @@
 package com.ahnis.searchapi.controller;
 
+import com.ahnis.searchapi.cache.NextPagePrefetcher;
+import com.ahnis.searchapi.cache.ResponseByteCache;
+import com.ahnis.searchapi.codec.ResponseFormat;
+import com.ahnis.searchapi.codec.SearchResponseEncoder;
+import com.ahnis.searchapi.diagnostics.QueryExplainer;
+import com.ahnis.searchapi.diagnostics.QueryTrace;
 import com.ahnis.searchapi.dto.SearchRequest;
 import com.ahnis.searchapi.dto.SearchResponse;
 import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.resilience.SearchFallback;
+import com.ahnis.searchapi.resilience.SearchGuardrails;
 import com.ahnis.searchapi.service.SearchService;
+import com.ahnis.searchapi.signals.PopularitySignals;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.Instant;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/search")
@@ -25,9 +38,18 @@ import java.util.stream.Collectors;
 public class SearchController {
 
     private final SearchService searchService;
+    private final ResponseByteCache responseByteCache;
+    private final SearchResponseEncoder searchResponseEncoder;
+    private final SearchFallback searchFallback;
+    private final PopularitySignals popularitySignals;
+    private final QueryExplainer queryExplainer;
+    private final NextPagePrefetcher nextPagePrefetcher;
+    private final SearchGuardrails searchGuardrails;
+
+    static final String EXPLAIN_HEADER = "X-Search-Explain";
 
     @GetMapping
-    public ResponseEntity<SearchResponse> searchCourses(
+    public ResponseEntity<?> searchCourses(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String type,
@@ -36,43 +58,134 @@ public class SearchController {
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endDate,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Double radius,
+            @RequestParam(required = false) Integer geohashPrecision,
+            @RequestParam(required = false) String sessionHistogram,
+            @RequestParam(required = false) String mode,
             @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String debug,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
         log.info("Searching courses with q: {}, category: {}, type: {}, minAge: {}, maxAge: {}, " +
-                        "minPrice: {}, maxPrice: {}, startDate: {}, sort: {}, page: {}, size: {}",
-                q, category, type, minAge, maxAge, minPrice, maxPrice, startDate, sort, page, size);
-
-        // Create search request from parameters
-        SearchRequest searchRequest = SearchRequest.builder()
-                .query(q)
-                .category(category)
-                .type(type)
-                .minAge(minAge)
-                .maxAge(maxAge)
-                .minPrice(minPrice)
-                .maxPrice(maxPrice)
-                .fromDate(startDate)
-                .sort(sort)
-                .page(page)
-                .size(size)
-                .build();
+                        "minPrice: {}, maxPrice: {}, startDate: {}, endDate: {}, lat: {}, lon: {}, radius: {}, " +
+                        "geohashPrecision: {}, sessionHistogram: {}, mode: {}, sort: {}, page: {}, size: {}",
+                q, category, type, minAge, maxAge, minPrice, maxPrice, startDate, endDate, lat, lon, radius,
+                geohashPrecision, sessionHistogram, mode, sort, page, size);
+
+        // Create search request from parameters, in the one form every cache keys on (and no bigger than allowed)
+        SearchRequest searchRequest = searchGuardrails.bound(SearchRequest.of(q, category, type, minAge, maxAge,
+                minPrice, maxPrice, startDate, endDate, lat, lon, radius, geohashPrecision, sessionHistogram, mode,
+                sort, page, size).canonical());
+
+        // JSON unless an internal client explicitly asks for CBOR/Smile
+        ResponseFormat format = ResponseFormat.negotiate(accept);
+
+        if ("explain".equalsIgnoreCase(debug)) {
+            return explainedSearch(searchRequest);
+        }
+
+        // Hot landing pages are served straight from pre-encoded bytes (degraded answers are never cached)
+        if (responseByteCache.isCacheable(searchRequest)) {
+            try {
+                ResponseByteCache.Encoded encoded = responseByteCache.getOrLoad(
+                        ResponseByteCache.keyOf(searchRequest, format),
+                        () -> searchResponseEncoder.encode(liveSearch(searchRequest), format));
+                return toBytesResponse(encoded.body(), encoded.gzipBody(), format, acceptEncoding);
+            } catch (DataAccessException | CallNotPermittedException e) {
+                return toResponse(fallback(searchRequest, e), format, acceptEncoding);
+            }
+        }
 
+        SearchResponse response = search(searchRequest);
+        // Only text searches say something about a course's appeal; listings show the same courses to everyone
+        if (StringUtils.hasText(searchRequest.query())) {
+            popularitySignals.recordImpressions(response.courses());
+        }
+        return toResponse(response, format, acceptEncoding);
+    }
+
+    /**
+     * Runs the search uncached and attaches the score explanations of the top hits. Explaining costs several
+     * searches, so it's rationed; past the budget the caller still gets the results, just without them.
+     */
+    private ResponseEntity<SearchResponse> explainedSearch(SearchRequest searchRequest) {
+        if (!queryExplainer.isEnabled()) {
+            return ResponseEntity.ok().header(EXPLAIN_HEADER, "disabled").body(search(searchRequest));
+        }
+        if (!queryExplainer.tryAcquire()) {
+            log.info("Explain budget exhausted, serving plain results");
+            return ResponseEntity.ok().header(EXPLAIN_HEADER, "rate-limited").body(search(searchRequest));
+        }
+        QueryTrace trace = new QueryTrace();
+        SearchResponse response;
+        try {
+            response = SearchResponse.fromPage(searchService.searchCourses(searchRequest, trace));
+        } catch (DataAccessException | CallNotPermittedException e) {
+            return ResponseEntity.ok().header(EXPLAIN_HEADER, "unavailable").body(fallback(searchRequest, e));
+        }
+        // The results are in hand; failing to explain them is no reason not to serve them
+        try {
+            List<String> ids = response.courses().stream().map(SearchResponse.CourseInfo::id).toList();
+            return ResponseEntity.ok()
+                    .header(EXPLAIN_HEADER, "explained")
+                    .body(response.withExplanations(queryExplainer.explain(trace, ids)));
+        } catch (DataAccessException | CallNotPermittedException e) {
+            log.warn("Explaining failed ({}), serving plain results", e.getMessage());
+            return ResponseEntity.ok().header(EXPLAIN_HEADER, "unavailable").body(response);
+        }
+    }
+
+    private ResponseEntity<?> toResponse(SearchResponse response, ResponseFormat format, String acceptEncoding) {
+        if (format != ResponseFormat.JSON) {
+            return toBytesResponse(searchResponseEncoder.encode(response, format), null, format, acceptEncoding);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    private SearchResponse search(SearchRequest searchRequest) {
+        try {
+            return liveSearch(searchRequest);
+        } catch (DataAccessException | CallNotPermittedException e) {
+            return fallback(searchRequest, e);
+        }
+    }
+
+    private SearchResponse liveSearch(SearchRequest searchRequest) {
         // Execute search
         Page<CourseDocument> results = searchService.searchCourses(searchRequest);
 
         log.info("Found {} courses", results.getTotalElements());
 
-        // Convert to SearchResponse
-        SearchResponse response = SearchResponse.builder()
-                .total(results.getTotalElements())
-                .courses(results.getContent().stream()
-                        .map(SearchResponse.CourseInfo::fromCourseDocument)
-                        .collect(Collectors.toList()))
-                .build();
+        // Cached or not, page N was just served, so warm page N+1 for whoever is paging through
+        nextPagePrefetcher.prefetchAfter(searchRequest, results);
 
-        return ResponseEntity.ok(response);
+        // Convert to SearchResponse, and keep it around in case Elasticsearch goes away
+        SearchResponse response = SearchResponse.fromPage(results);
+        searchFallback.remember(searchRequest, response);
+        return response;
+    }
+
+    private SearchResponse fallback(SearchRequest searchRequest, RuntimeException cause) {
+        log.warn("Elasticsearch unavailable ({}), serving degraded results", cause.getMessage());
+        return searchFallback.search(searchRequest);
+    }
+
+    private static ResponseEntity<byte[]> toBytesResponse(byte[] body, byte[] gzipBody, ResponseFormat format,
+                                                          String acceptEncoding) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzipBody != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzipBody);
+        }
+        return builder.body(body);
     }
 
     @GetMapping("/suggest")
@@ -82,8 +195,14 @@ public class SearchController {
     ) {
         log.info("Getting autocomplete suggestions for: {}", q);
 
-        // Get suggestions from service
-        List<String> suggestions = searchService.getSuggestions(q, size);
+        // Get suggestions from service (or the local catalog while Elasticsearch is unavailable)
+        List<String> suggestions;
+        try {
+            suggestions = searchService.getSuggestions(q, searchGuardrails.boundSuggestions(size));
+        } catch (DataAccessException | CallNotPermittedException e) {
+            log.warn("Elasticsearch unavailable ({}), serving fallback suggestions", e.getMessage());
+            suggestions = searchFallback.suggestions(q, searchGuardrails.boundSuggestions(size));
+        }
 
         log.info("Found {} suggestions", suggestions.size());
 
@@ -0,0 +1,35 @@
+package com.ahnis.searchapi.controller;
+
+import com.ahnis.searchapi.dto.ClickEvent;
+import com.ahnis.searchapi.signals.PopularitySignals;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Receives user interaction signals that feed course popularity.
+ *
+ * <p>Signals are only counted in memory here; they reach the index with the next flush of
+ * {@link PopularitySignals}, hence {@code 202 Accepted}. Clicks on courses that weren't recently on a result page
+ * are accepted too, but not counted. The endpoints share the {@code signals} rate-limit budget.</p>
+ */
+@RestController
+@RequestMapping("/api/signals")
+@RequiredArgsConstructor
+public class SignalController {
+
+    private final PopularitySignals popularitySignals;
+
+    @PostMapping("/clicks")
+    public ResponseEntity<Void> recordClick(@RequestBody ClickEvent click) {
+        if (!StringUtils.hasText(click.courseId())) {
+            return ResponseEntity.badRequest().build();
+        }
+        popularitySignals.recordClick(click.courseId());
+        return ResponseEntity.accepted().build();
+    }
+}
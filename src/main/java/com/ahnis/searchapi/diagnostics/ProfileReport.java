@@ -0,0 +1,38 @@
+package com.ahnis.searchapi.diagnostics;
+
+import java.util.List;
+
+/**
+ * Result of re-running a search with {@code profile: true}: one entry per query the search makes,
+ * each broken down per shard into a tree of query clauses and the time spent in each.
+ */
+public record ProfileReport(List<PhaseProfile> phases) {
+
+    /**
+     * @param dsl the complete search body that was profiled, exactly as the search sent it
+     */
+    public record PhaseProfile(String name,
+                               String dsl,
+                               long tookMillis,
+                               long totalHits,
+                               QueryTrace.Shards shards,
+                               List<ShardProfile> shardProfiles) {
+    }
+
+    public record ShardProfile(String shard, long rewriteNanos, List<ClauseTiming> clauses) {
+    }
+
+    /**
+     * Time spent in one query clause, including its children; {@code breakdown} holds the
+     * Lucene-level split (create_weight, build_scorer, next_doc, advance, match, score)
+     */
+    public record ClauseTiming(String type,
+                               String description,
+                               long timeNanos,
+                               Breakdown breakdown,
+                               List<ClauseTiming> children) {
+    }
+
+    public record Breakdown(long createWeight, long buildScorer, long nextDoc, long advance, long match, long score) {
+    }
+}
@@ -0,0 +1,226 @@
+package com.ahnis.searchapi.diagnostics;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.explain.Explanation;
+import co.elastic.clients.elasticsearch.core.explain.ExplanationDetail;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.Rescore;
+import co.elastic.clients.elasticsearch.core.search.ScoreMode;
+import co.elastic.clients.json.JsonData;
+import com.ahnis.searchapi.config.ExplainProperties;
+import com.ahnis.searchapi.dto.HitExplanation;
+import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.resilience.ElasticsearchCircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.query.RescorerQuery;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Explains the scores of a search's top hits by re-running the queries recorded in its {@link QueryTrace}
+ * with {@code explain: true}.
+ *
+ * <p>Each re-run is narrowed to the hits being explained with a {@code post_filter} on their ids — a post
+ * filter doesn't take part in scoring, so the scores match the original search — and fetches no
+ * {@code _source}. Lucene's explanation of a BM25 score runs dozens of levels deep; it's condensed to the
+ * parts that say where the score came from.</p>
+ *
+ * <p>The re-runs go through the {@link ElasticsearchCircuitBreaker} like every other search, and their failures
+ * surface as {@link org.springframework.dao.DataAccessException}s, the same as a failed search's.</p>
+ */
+@Component
+@Slf4j
+public class QueryExplainer {
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchCircuitBreaker circuitBreaker;
+    private final ExplainProperties properties;
+    private final MinuteBudget budget;
+
+    public QueryExplainer(ElasticsearchClient elasticsearchClient, ElasticsearchOperations elasticsearchOperations,
+                          ElasticsearchCircuitBreaker circuitBreaker, ExplainProperties properties) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.circuitBreaker = circuitBreaker;
+        this.properties = properties;
+        this.budget = new MinuteBudget(properties.getMaxPerMinute(), System::nanoTime);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Takes one explain request from this minute's budget; {@code false} once it's spent
+     */
+    public boolean tryAcquire() {
+        return budget.tryAcquire();
+    }
+
+    /**
+     * Explains the given hits, in the given order, for every phase of the trace they matched in
+     *
+     * @param trace the queries the search actually ran
+     * @param ids   course ids from the top of the returned page; only the first {@code maxHits} are explained
+     */
+    public List<HitExplanation> explain(QueryTrace trace, List<String> ids) {
+        List<String> explained = ids.subList(0, Math.min(ids.size(), properties.getMaxHits()));
+        if (explained.isEmpty()) {
+            return List.of();
+        }
+        String index = elasticsearchOperations.getIndexCoordinatesFor(CourseDocument.class).getIndexName();
+
+        Map<String, List<HitExplanation.PhaseScore>> scores = new LinkedHashMap<>();
+        explained.forEach(id -> scores.put(id, new ArrayList<>()));
+        for (QueryTrace.Phase phase : trace.phases()) {
+            for (Hit<JsonData> hit : explain(index, phase, explained)) {
+                List<HitExplanation.PhaseScore> phases = scores.get(hit.id());
+                if (phases != null && hit.explanation() != null) {
+                    phases.add(new HitExplanation.PhaseScore(phase.name(),
+                            hit.score() != null ? hit.score() : hit.explanation().value(),
+                            condense(hit.explanation(), properties.getMaxDepth())));
+                }
+            }
+        }
+
+        List<HitExplanation> explanations = new ArrayList<>(scores.size());
+        scores.forEach((id, phases) -> explanations.add(new HitExplanation(id, phases)));
+        return explanations;
+    }
+
+    private List<Hit<JsonData>> explain(String index, QueryTrace.Phase phase, List<String> ids) {
+        log.debug("Explaining {} query on {} for {} hits", phase.name(), index, ids.size());
+
+        // No sort: a field sort would leave the hits unscored, and the caller orders them anyway
+        SearchRequest request = SearchRequest.of(s -> {
+            s.index(index)
+                    .routing(phase.routing())
+                    .query(phase.query())
+                    .postFilter(f -> f.ids(i -> i.values(ids)))
+                    .size(ids.size())
+                    .source(src -> src.fetch(false))
+                    .trackTotalHits(t -> t.enabled(false))
+                    .explain(true);
+            Rescore rescore = toRescore(phase.rescorer());
+            if (rescore != null) {
+                s.rescore(rescore);
+            }
+            return s;
+        });
+        return circuitBreaker.execute(() -> search(phase, request)).hits().hits();
+    }
+
+    private SearchResponse<JsonData> search(QueryTrace.Phase phase, SearchRequest request) {
+        try {
+            return elasticsearchClient.search(request, JsonData.class);
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Failed to explain " + phase.name() + " query", e);
+        } catch (ElasticsearchException e) {
+            throw new UncategorizedElasticsearchException("Failed to explain " + phase.name() + " query", e);
+        }
+    }
+
+    /**
+     * Translates a Spring Data rescorer built around a {@link NativeQuery} into the client's rescore section
+     */
+    static Rescore toRescore(RescorerQuery rescorer) {
+        if (rescorer == null || !(rescorer.getQuery() instanceof NativeQuery nativeQuery)
+                || nativeQuery.getQuery() == null) {
+            return null;
+        }
+        return Rescore.of(r -> r
+                .windowSize(rescorer.getWindowSize())
+                .query(q -> {
+                    q.query(nativeQuery.getQuery());
+                    if (rescorer.getQueryWeight() != null) {
+                        q.queryWeight(rescorer.getQueryWeight().doubleValue());
+                    }
+                    if (rescorer.getRescoreQueryWeight() != null) {
+                        q.rescoreQueryWeight(rescorer.getRescoreQueryWeight().doubleValue());
+                    }
+                    if (rescorer.getScoreMode() != RescorerQuery.ScoreMode.Default) {
+                        q.scoreMode(ScoreMode.valueOf(rescorer.getScoreMode().name()));
+                    }
+                    return q;
+                }));
+    }
+
+    /**
+     * Keeps the top {@code maxDepth} levels of an explanation, dropping branches that contributed nothing,
+     * folding pass-through nodes into their only child and leaving out the term statistics under Lucene's
+     * {@code idf}/{@code tf} nodes
+     */
+    static HitExplanation.Node condense(Explanation explanation, int maxDepth) {
+        return condense(explanation.value(), explanation.description(), explanation.details(), 1, maxDepth);
+    }
+
+    private static HitExplanation.Node condense(double value, String description, List<ExplanationDetail> details,
+                                                int depth, int maxDepth) {
+        List<ExplanationDetail> contributing = details.stream()
+                .filter(detail -> detail.value() != 0)
+                .toList();
+        // A node that only passes its one child's value on says nothing the child doesn't
+        if (contributing.size() == 1 && contributing.get(0).value() == (float) value) {
+            ExplanationDetail only = contributing.get(0);
+            return condense(only.value(), only.description(), only.details(), depth, maxDepth);
+        }
+        if (depth >= maxDepth || isTermStatistic(description)) {
+            return new HitExplanation.Node(value, description, List.of());
+        }
+        return new HitExplanation.Node(value, description, contributing.stream()
+                .map(detail -> condense(detail.value(), detail.description(), detail.details(), depth + 1, maxDepth))
+                .toList());
+    }
+
+    private static boolean isTermStatistic(String description) {
+        return description.startsWith("idf, computed as") || description.startsWith("tf, computed as");
+    }
+
+    /**
+     * Fixed one-minute window of permits. Coarser than a sliding window, but explain is a debugging aid and
+     * only needs a ceiling, not smooth pacing.
+     */
+    static final class MinuteBudget {
+
+        private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+        private final int permits;
+        private final LongSupplier clock;
+        private long windowStart;
+        private int used;
+
+        MinuteBudget(int permits, LongSupplier clock) {
+            this.permits = permits;
+            this.clock = clock;
+            this.windowStart = clock.getAsLong();
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = clock.getAsLong();
+            if (now - windowStart >= WINDOW_NANOS) {
+                windowStart = now;
+                used = 0;
+            }
+            if (used >= permits) {
+                return false;
+            }
+            used++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.ahnis.searchapi.diagnostics;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.QueryBreakdown;
+import co.elastic.clients.elasticsearch.core.search.QueryProfile;
+import co.elastic.clients.elasticsearch.core.search.Rescore;
+import co.elastic.clients.elasticsearch.core.search.SearchProfile;
+import co.elastic.clients.json.JsonData;
+import com.ahnis.searchapi.entity.CourseDocument;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.query.RescorerQuery;
+import org.springframework.data.elasticsearch.core.query.SourceFilter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Re-runs the queries recorded in a {@link QueryTrace} with {@code profile: true} and condenses Elasticsearch's
+ * profile output into a per-clause timing tree.
+ *
+ * <p>Each phase is replayed from the complete search it recorded ({@link #toProfiledRequest}), so the profile covers
+ * everything the original request did — filters, sorts, rescorer, aggregations, suggester, {@code search_after},
+ * total-hits tracking, routing. Only documents are not fetched ({@code _source: false}): the fetch phase isn't
+ * profiled, so their bytes would be wasted.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueryProfiler {
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    public ProfileReport profile(QueryTrace trace) {
+        String index = elasticsearchOperations.getIndexCoordinatesFor(CourseDocument.class).getIndexName();
+
+        List<ProfileReport.PhaseProfile> phases = new ArrayList<>(trace.phases().size());
+        for (QueryTrace.Phase phase : trace.phases()) {
+            phases.add(profile(index, phase));
+        }
+        return new ProfileReport(phases);
+    }
+
+    private ProfileReport.PhaseProfile profile(String index, QueryTrace.Phase phase) {
+        log.debug("Profiling {} query on {}", phase.name(), index);
+
+        SearchRequest profiled = toProfiledRequest(index, phase.request());
+        SearchResponse<JsonData> response;
+        try {
+            response = elasticsearchClient.search(profiled, JsonData.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to profile " + phase.name() + " query", e);
+        }
+
+        List<ProfileReport.ShardProfile> shardProfiles = new ArrayList<>();
+        if (response.profile() != null) {
+            response.profile().shards().forEach(shard -> {
+                long rewriteNanos = 0;
+                List<ProfileReport.ClauseTiming> clauses = new ArrayList<>();
+                for (SearchProfile search : shard.searches()) {
+                    rewriteNanos += search.rewriteTime();
+                    search.query().forEach(query -> clauses.add(toClauseTiming(query)));
+                }
+                shardProfiles.add(new ProfileReport.ShardProfile(shard.id(), rewriteNanos, clauses));
+            });
+        }
+
+        return new ProfileReport.PhaseProfile(
+                phase.name(),
+                SlowQueryLog.toDsl(profiled),
+                response.took(),
+                response.hits().total() != null ? response.hits().total().value() : response.hits().hits().size(),
+                new QueryTrace.Shards(
+                        response.shards().total().longValue(),
+                        response.shards().successful().longValue(),
+                        response.shards().skipped() != null ? response.shards().skipped().longValue() : 0,
+                        response.shards().failed().longValue()),
+                shardProfiles);
+    }
+
+    private static ProfileReport.ClauseTiming toClauseTiming(QueryProfile query) {
+        QueryBreakdown breakdown = query.breakdown();
+        return new ProfileReport.ClauseTiming(
+                query.type(),
+                query.description(),
+                query.timeInNanos(),
+                new ProfileReport.Breakdown(
+                        breakdown.createWeight(),
+                        breakdown.buildScorer(),
+                        breakdown.nextDoc(),
+                        breakdown.advance(),
+                        breakdown.match(),
+                        breakdown.score()),
+                query.children().stream().map(QueryProfiler::toClauseTiming).toList());
+    }
+
+    /**
+     * The client request for a search, the way Spring Data translates it when sending
+     */
+    public static SearchRequest toSearchRequest(String index, NativeQuery request) {
+        return toSearchRequest(index, request, false);
+    }
+
+    /**
+     * The client request for a recorded search, with {@code profile: true} and without {@code _source}
+     */
+    static SearchRequest toProfiledRequest(String index, NativeQuery request) {
+        return toSearchRequest(index, request, true);
+    }
+
+    private static SearchRequest toSearchRequest(String index, NativeQuery request, boolean profiled) {
+        Pageable pageable = request.getPageable();
+        int size = request.getMaxResults() != null
+                ? Math.min(pageable.getPageSize(), request.getMaxResults())
+                : pageable.getPageSize();
+
+        return SearchRequest.of(s -> {
+            s.index(index)
+                    .routing(request.getRoute())
+                    .query(request.getQuery())
+                    .from((int) pageable.getOffset())
+                    .size(size);
+            SourceFilter sourceFilter = request.getSourceFilter();
+            if (profiled) {
+                s.source(src -> src.fetch(false)).profile(true);
+            } else if (sourceFilter != null) {
+                s.source(src -> src.filter(f -> f
+                        .includes(toList(sourceFilter.getIncludes()))
+                        .excludes(toList(sourceFilter.getExcludes()))));
+            }
+            if (request.getFilter() != null) {
+                s.postFilter(request.getFilter());
+            }
+            // Spring Data sends the native sort options ahead of the Spring Data ones
+            List<SortOptions> sort = new ArrayList<>(request.getSortOptions());
+            sort.addAll(toSortOptions(request.getSort()));
+            s.sort(sort);
+            if (request.getTrackTotalHitsUpTo() != null) {
+                s.trackTotalHits(t -> t.count(request.getTrackTotalHitsUpTo()));
+            } else if (request.getTrackTotalHits() != null) {
+                s.trackTotalHits(t -> t.enabled(request.getTrackTotalHits()));
+            }
+            if (request.getSearchAfter() != null) {
+                s.searchAfter(request.getSearchAfter().stream().map(QueryProfiler::toFieldValue).toList());
+            }
+            for (RescorerQuery rescorer : request.getRescorerQueries()) {
+                Rescore rescore = QueryExplainer.toRescore(rescorer);
+                if (rescore != null) {
+                    s.rescore(rescore);
+                }
+            }
+            if (!request.getAggregations().isEmpty()) {
+                s.aggregations(request.getAggregations());
+            }
+            if (request.getSuggester() != null) {
+                s.suggest(request.getSuggester());
+            }
+            if (request.getMinScore() > 0) {
+                s.minScore((double) request.getMinScore());
+            }
+            return s;
+        });
+    }
+
+    private static List<String> toList(String[] fields) {
+        return fields != null ? List.of(fields) : List.of();
+    }
+
+    private static List<SortOptions> toSortOptions(Sort sort) {
+        List<SortOptions> options = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            SortOrder direction = order.isAscending() ? SortOrder.Asc : SortOrder.Desc;
+            options.add(SortOptions.of(so -> so.field(f -> f.field(order.getProperty()).order(direction))));
+        }
+        return options;
+    }
+
+    private static FieldValue toFieldValue(Object value) {
+        return switch (value) {
+            case String string -> FieldValue.of(string);
+            case Double number -> FieldValue.of(number);
+            case Float number -> FieldValue.of(number.doubleValue());
+            case Number number -> FieldValue.of(number.longValue());
+            case Boolean bool -> FieldValue.of(bool);
+            default -> FieldValue.of(JsonData.of(value));
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.ahnis.searchapi.diagnostics;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.query.RescorerQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects every Elasticsearch round trip made while serving one search request
+ * (exact pass, fuzzy escalation, filter fallback, ...) together with its timings.
+ *
+ * <p>Not thread-safe: a trace belongs to the request thread that created it.</p>
+ */
+public final class QueryTrace {
+
+    private final long startNanos = System.nanoTime();
+    private final List<Phase> phases = new ArrayList<>(2);
+
+    /**
+     * One executed query
+     *
+     * @param name        what the query was for, e.g. {@code "text-exact"}
+     * @param request     the complete search that was sent: query, paging, sorts, rescorer, aggregations,
+     *                    suggester, {@code search_after}, routing, ...
+     * @param tookMillis  server-side {@code took}
+     * @param totalHits   total hits reported by the server
+     * @param shards      shard statistics reported by the server
+     * @param clientNanos wall-clock time spent in the client call, including (de)serialization
+     */
+    public record Phase(String name,
+                        NativeQuery request,
+                        long tookMillis,
+                        long totalHits,
+                        Shards shards,
+                        long clientNanos) {
+
+        /**
+         * The query DSL that was sent
+         */
+        public Query query() {
+            return request.getQuery();
+        }
+
+        /**
+         * Rescoring sent along with the query, {@code null} for none
+         */
+        public RescorerQuery rescorer() {
+            return request.getRescorerQueries().isEmpty() ? null : request.getRescorerQueries().get(0);
+        }
+
+        /**
+         * Paging and field sorting that was sent with the query
+         */
+        public Pageable pageable() {
+            return request.getPageable();
+        }
+
+        /**
+         * Custom routing value, {@code null} when the query fanned out to all shards
+         */
+        public String routing() {
+            return request.getRoute();
+        }
+    }
+
+    public record Shards(long total, long successful, long skipped, long failed) {
+    }
+
+    public void add(Phase phase) {
+        phases.add(phase);
+    }
+
+    public List<Phase> phases() {
+        return phases;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+}
@@ -0,0 +1,45 @@
+package com.ahnis.searchapi.diagnostics;
+
+import com.ahnis.searchapi.dto.RequestKey;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A search request that took longer than the slow-query threshold, as kept by {@link SlowQueryLog}
+ *
+ * @param id          sequence number, usable to re-profile the entry
+ * @param capturedAt  when the request finished
+ * @param tenant      tenant the request was made for; its index is the one to profile
+ * @param key         canonical key of the request, the same one its cache entries are stored under
+ * @param request     the original search request
+ * @param totalMillis client-side time for the whole request, across all phases
+ * @param phases      every Elasticsearch round trip the request made
+ * @param trace       raw trace, kept so the exact same queries can be profiled again
+ */
+public record SlowQueryEntry(long id,
+                             Instant capturedAt,
+                             String tenant,
+                             RequestKey key,
+                             SearchRequest request,
+                             double totalMillis,
+                             List<PhaseReport> phases,
+                             @JsonIgnore QueryTrace trace) {
+
+    /**
+     * Rendered view of a {@link QueryTrace.Phase}
+     */
+    public record PhaseReport(String name,
+                              String dsl,
+                              String sort,
+                              long from,
+                              int size,
+                              String routing,
+                              long tookMillis,
+                              long totalHits,
+                              QueryTrace.Shards shards,
+                              double clientMillis) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.ahnis.searchapi.diagnostics;
+
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.JsonpSerializable;
+import co.elastic.clients.json.JsonpUtils;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded ring buffer of the most recent search requests slower than {@code app.search.slow-log.threshold-ms}.
+ *
+ * <p>Fast requests cost one comparison; the query DSL is only rendered for requests that are actually
+ * captured. Once full, the oldest entry is overwritten.</p>
+ */
+@Component
+@Slf4j
+public class SlowQueryLog {
+
+    private static final JsonpMapper DSL_MAPPER = new JacksonJsonpMapper();
+
+    private final AtomicReferenceArray<SlowQueryEntry> buffer;
+    private final AtomicLong sequence = new AtomicLong();
+    private final long thresholdNanos;
+
+    public SlowQueryLog(@Value("${app.search.slow-log.threshold-ms:500}") long thresholdMillis,
+                        @Value("${app.search.slow-log.capacity:100}") int capacity) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.buffer = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Captures the request if its trace exceeded the threshold
+     */
+    public void record(SearchRequest searchRequest, QueryTrace trace) {
+        long elapsedNanos = trace.elapsedNanos();
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+
+        long id = sequence.incrementAndGet();
+        SlowQueryEntry entry = new SlowQueryEntry(id, Instant.now(), TenantContext.current(),
+                searchRequest.canonicalKey(), searchRequest, toMillis(elapsedNanos),
+                trace.phases().stream().map(SlowQueryLog::render).toList(), trace);
+        buffer.set((int) (id % buffer.length()), entry);
+
+        log.warn("Slow search #{} [{}] took {} ms over {} round trip(s): {}",
+                id, entry.key(), entry.totalMillis(), entry.phases().size(), searchRequest);
+    }
+
+    /**
+     * Captured entries, newest first
+     */
+    public List<SlowQueryEntry> recent() {
+        List<SlowQueryEntry> entries = new ArrayList<>(buffer.length());
+        for (int i = 0; i < buffer.length(); i++) {
+            SlowQueryEntry entry = buffer.get(i);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        entries.sort(Comparator.comparingLong(SlowQueryEntry::id).reversed());
+        return entries;
+    }
+
+    public Optional<SlowQueryEntry> find(long id) {
+        SlowQueryEntry entry = buffer.get((int) (id % buffer.length()));
+        return entry != null && entry.id() == id ? Optional.of(entry) : Optional.empty();
+    }
+
+    /**
+     * Renders a query (or a whole search request body) as the JSON DSL sent to Elasticsearch
+     */
+    public static String toDsl(JsonpSerializable query) {
+        return JsonpUtils.toJsonString(query, DSL_MAPPER);
+    }
+
+    private static SlowQueryEntry.PhaseReport render(QueryTrace.Phase phase) {
+        return new SlowQueryEntry.PhaseReport(
+                phase.name(),
+                toDsl(phase.query()),
+                phase.pageable().getSort().toString(),
+                phase.pageable().getOffset(),
+                phase.pageable().getPageSize(),
+                phase.routing(),
+                phase.tookMillis(),
+                phase.totalHits(),
+                phase.shards(),
+                toMillis(phase.clientNanos()));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,11 @@
+package com.ahnis.searchapi.dto;
+
+/**
+ * How many of the matching courses an age band can attend
+ *
+ * @param band  The band as {@code from-to}
+ * @param count Courses whose age range overlaps the band
+ * @param share {@code count} as a fraction of all matching courses
+ */
+public record AgeCoverage(String band, int from, int to, long count, double share) {
+}
@@ -0,0 +1,9 @@
+package com.ahnis.searchapi.dto;
+
+/**
+ * A user clicking a course in the search results
+ *
+ * @param courseId Id of the clicked course
+ */
+public record ClickEvent(String courseId) {
+}
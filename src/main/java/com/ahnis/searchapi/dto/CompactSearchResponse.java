@@ -0,0 +1,74 @@
+package com.ahnis.searchapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire shape of {@link SearchResponse} for the binary encodings (CBOR/Smile) used by internal clients.
+ *
+ * <p>Dates travel as epoch milliseconds and prices as fixed-point integers in minor units (cents),
+ * so neither side pays for ISO-8601 formatting or double-to-string conversion. Distances travel in whole metres.
+ * Absent values are left out rather than zeroed, so an unpriced course doesn't read as free.</p>
+ */
+public record CompactSearchResponse(long total,
+                                    @JsonInclude(JsonInclude.Include.NON_DEFAULT) boolean totalLowerBound,
+                                    List<CompactCourseInfo> courses,
+                                    @JsonInclude(JsonInclude.Include.NON_NULL) SearchResponse.DidYouMean didYouMean,
+                                    @JsonInclude(JsonInclude.Include.NON_DEFAULT) boolean degraded,
+                                    @JsonInclude(JsonInclude.Include.NON_EMPTY) List<SearchResponse.GeoCluster> clusters,
+                                    @JsonInclude(JsonInclude.Include.NON_EMPTY) List<CompactSessionBucket> sessionHistogram) {
+
+    /**
+     * Number of minor units per major currency unit used for {@code priceMinor}
+     */
+    public static final int PRICE_SCALE = 100;
+
+    /**
+     * Factory method to create a CompactSearchResponse from a SearchResponse
+     */
+    public static CompactSearchResponse fromSearchResponse(SearchResponse response) {
+        List<SearchResponse.CourseInfo> courses = response.courses();
+        List<CompactCourseInfo> compact = new ArrayList<>(courses.size());
+        for (int i = 0, n = courses.size(); i < n; i++) {
+            compact.add(CompactCourseInfo.fromCourseInfo(courses.get(i)));
+        }
+        List<SearchResponse.SessionBucket> buckets = response.sessionHistogram();
+        List<CompactSessionBucket> compactBuckets = new ArrayList<>(buckets.size());
+        for (int i = 0, n = buckets.size(); i < n; i++) {
+            compactBuckets.add(new CompactSessionBucket(buckets.get(i).date().toEpochMilli(), buckets.get(i).count()));
+        }
+        return new CompactSearchResponse(response.total(), response.totalLowerBound(), compact,
+                response.didYouMean(), response.degraded(), response.clusters(), compactBuckets);
+    }
+
+    public record CompactSessionBucket(long date, long count) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record CompactCourseInfo(String id,
+                                    String title,
+                                    String category,
+                                    Long priceMinor,
+                                    Long nextSessionDate,
+                                    Long distanceMeters) {
+
+        /**
+         * Factory method to create a CompactCourseInfo from a CourseInfo
+         */
+        public static CompactCourseInfo fromCourseInfo(SearchResponse.CourseInfo courseInfo) {
+            Double price = courseInfo.price();
+            Instant nextSessionDate = courseInfo.nextSessionDate();
+            Double distanceKm = courseInfo.distanceKm();
+            return new CompactCourseInfo(
+                    courseInfo.id(),
+                    courseInfo.title(),
+                    courseInfo.category(),
+                    price != null ? Math.round(price * PRICE_SCALE) : null,
+                    nextSessionDate != null ? nextSessionDate.toEpochMilli() : null,
+                    distanceKm != null ? Math.round(distanceKm * 1000) : null);
+        }
+    }
+}
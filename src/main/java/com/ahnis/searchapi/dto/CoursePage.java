@@ -0,0 +1,82 @@
+package com.ahnis.searchapi.dto;
+
+import com.ahnis.searchapi.entity.CourseLocation;
+import com.ahnis.searchapi.entity.CourseDocument;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * A page of courses plus what the same Elasticsearch query computed beside the hits.
+ *
+ * <p>Still a plain {@link org.springframework.data.domain.Page} to everything that only needs the courses;
+ * {@link SearchResponse#fromPage} picks up the extras.</p>
+ */
+public class CoursePage extends PageImpl<CourseDocument> {
+
+    private final CourseLocation origin;
+    private final List<SearchResponse.GeoCluster> clusters;
+    private final List<SearchResponse.SessionBucket> sessionBuckets;
+    private final boolean totalLowerBound;
+    private final SearchResponse.DidYouMean didYouMean;
+
+    /**
+     * @param origin         the searcher's location, for per-course distances; {@code null} if none was given
+     * @param clusters       geohash cells of all matching courses (not just this page); empty if not asked for
+     * @param sessionBuckets session-date histogram of all matching courses; empty if not asked for
+     */
+    public CoursePage(List<CourseDocument> content, Pageable pageable, long total, CourseLocation origin,
+                      List<SearchResponse.GeoCluster> clusters, List<SearchResponse.SessionBucket> sessionBuckets) {
+        this(content, pageable, total, false, origin, clusters, sessionBuckets);
+    }
+
+    /**
+     * @param totalLowerBound whether Elasticsearch stopped counting at its {@code track_total_hits} limit, so
+     *                        more courses match than {@code total} says
+     */
+    public CoursePage(List<CourseDocument> content, Pageable pageable, long total, boolean totalLowerBound,
+                      CourseLocation origin, List<SearchResponse.GeoCluster> clusters,
+                      List<SearchResponse.SessionBucket> sessionBuckets) {
+        this(content, pageable, total, totalLowerBound, origin, clusters, sessionBuckets, null);
+    }
+
+    private CoursePage(List<CourseDocument> content, Pageable pageable, long total, boolean totalLowerBound,
+                       CourseLocation origin, List<SearchResponse.GeoCluster> clusters,
+                       List<SearchResponse.SessionBucket> sessionBuckets, SearchResponse.DidYouMean didYouMean) {
+        super(content, pageable, total);
+        this.totalLowerBound = totalLowerBound;
+        this.origin = origin;
+        this.clusters = clusters;
+        this.sessionBuckets = sessionBuckets;
+        this.didYouMean = didYouMean;
+    }
+
+    /**
+     * The same page with a spelling correction of the text query attached
+     */
+    public CoursePage withDidYouMean(SearchResponse.DidYouMean didYouMean) {
+        return new CoursePage(getContent(), getPageable(), getTotalElements(), totalLowerBound, origin, clusters,
+                sessionBuckets, didYouMean);
+    }
+
+    public CourseLocation getOrigin() {
+        return origin;
+    }
+
+    public List<SearchResponse.GeoCluster> getClusters() {
+        return clusters;
+    }
+
+    public List<SearchResponse.SessionBucket> getSessionBuckets() {
+        return sessionBuckets;
+    }
+
+    public boolean isTotalLowerBound() {
+        return totalLowerBound;
+    }
+
+    public SearchResponse.DidYouMean getDidYouMean() {
+        return didYouMean;
+    }
+}
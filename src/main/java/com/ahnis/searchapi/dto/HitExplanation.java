@@ -0,0 +1,29 @@
+package com.ahnis.searchapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Why one hit scored what it did, per Elasticsearch query that went into the search
+ *
+ * @param id     course id
+ * @param phases one entry per executed query that matched the course, in execution order
+ */
+public record HitExplanation(String id, List<PhaseScore> phases) {
+
+    /**
+     * @param phase query the score comes from, e.g. {@code "text-exact"} or {@code "hybrid-vector"}
+     * @param score the hit's {@code _score} in that query
+     */
+    public record PhaseScore(String phase, double score, Node explanation) {
+    }
+
+    /**
+     * Condensed node of Elasticsearch's explanation tree
+     */
+    public record Node(double value,
+                       String description,
+                       @JsonInclude(JsonInclude.Include.NON_EMPTY) List<Node> details) {
+    }
+}
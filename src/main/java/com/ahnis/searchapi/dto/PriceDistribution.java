@@ -0,0 +1,25 @@
+package com.ahnis.searchapi.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How the prices of the matching courses are spread
+ *
+ * @param stats       Count, minimum, average and maximum
+ * @param percentiles Price at each configured percentile, keyed by the percent ({@code "50"} is the median);
+ *                    approximate, as Elasticsearch computes them
+ * @param interval    Width of the histogram buckets
+ * @param histogram   Courses per price bucket, from the cheapest bucket to the most expensive, empty ones included
+ */
+public record PriceDistribution(PriceStats stats,
+                                Map<String, Double> percentiles,
+                                double interval,
+                                List<Bucket> histogram) {
+
+    /**
+     * Courses priced from {@code from} (inclusive) up to {@code from} plus the interval
+     */
+    public record Bucket(double from, long count) {
+    }
+}
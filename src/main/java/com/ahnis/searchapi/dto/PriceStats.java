@@ -0,0 +1,16 @@
+package com.ahnis.searchapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Price summary of a set of courses; {@code min}, {@code avg} and {@code max} are omitted when none has a price
+ *
+ * @param count Courses with a price
+ */
+public record PriceStats(long count,
+                         @JsonInclude(JsonInclude.Include.NON_NULL) Double min,
+                         @JsonInclude(JsonInclude.Include.NON_NULL) Double avg,
+                         @JsonInclude(JsonInclude.Include.NON_NULL) Double max) {
+
+    public static final PriceStats NONE = new PriceStats(0, null, null, null);
+}
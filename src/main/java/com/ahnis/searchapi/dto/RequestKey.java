@@ -0,0 +1,115 @@
+package com.ahnis.searchapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Cache key of a canonical {@link SearchRequest}, with a stable 64-bit hash of it: the same in every JVM, so it
+ * can be compared across instances and logs.
+ *
+ * <p>The hash is FNV-1a over a fixed encoding of every field, finished with a 64-bit mixer. Enums are hashed by
+ * name rather than by {@code hashCode()}, which differs from run to run.</p>
+ *
+ * <p>Only the hash is used for hashing, logging and JSON; equality also compares the requests themselves, so two
+ * questions whose hashes collide still get different cache entries.</p>
+ *
+ * @param value   the 64-bit hash
+ * @param request the request that was hashed
+ */
+public record RequestKey(long value, SearchRequest request) {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    // Separates fields, so ("ab", null) and ("a", "b") don't feed the same bytes
+    private static final int FIELD_SEPARATOR = 0x1f;
+    private static final int NULL_MARKER = 0x00;
+
+    /**
+     * Hashes the request as it is; callers pass {@link SearchRequest#canonical()} for a key shared by equivalent requests
+     */
+    static RequestKey of(SearchRequest request) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = add(hash, request.query());
+        hash = add(hash, request.category());
+        hash = add(hash, request.type());
+        hash = add(hash, request.presence());
+        hash = add(hash, request.minAge());
+        hash = add(hash, request.maxAge());
+        hash = add(hash, Double.doubleToLongBits(request.minPrice()));
+        hash = add(hash, Double.doubleToLongBits(request.maxPrice()));
+        hash = add(hash, request.fromDate());
+        hash = add(hash, request.toDate());
+        hash = add(hash, Double.doubleToLongBits(request.lat()));
+        hash = add(hash, Double.doubleToLongBits(request.lon()));
+        hash = add(hash, Double.doubleToLongBits(request.radiusKm()));
+        hash = add(hash, request.geohashPrecision());
+        hash = add(hash, request.sessionHistogram() != null ? request.sessionHistogram().name() : null);
+        hash = add(hash, request.mode().name());
+        hash = add(hash, request.sort().name());
+        hash = add(hash, request.page());
+        hash = add(hash, request.size());
+        return new RequestKey(mix(hash), request);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof RequestKey other && value == other.value && request.equals(other.request);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(value);
+    }
+
+    private static long add(long hash, String value) {
+        if (value == null) {
+            return addByte(addByte(hash, NULL_MARKER), FIELD_SEPARATOR);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash = addByte(addByte(hash, c >>> 8), c);
+        }
+        return addByte(hash, FIELD_SEPARATOR);
+    }
+
+    private static long add(long hash, Instant value) {
+        if (value == null) {
+            return addByte(addByte(hash, NULL_MARKER), FIELD_SEPARATOR);
+        }
+        return add(add(hash, value.getEpochSecond()), value.getNano());
+    }
+
+    private static long add(long hash, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            hash = addByte(hash, (int) (value >>> shift));
+        }
+        return addByte(hash, FIELD_SEPARATOR);
+    }
+
+    private static long addByte(long hash, int b) {
+        return (hash ^ (b & 0xff)) * FNV_PRIME;
+    }
+
+    /**
+     * MurmurHash3's 64-bit finalizer: FNV's low bits are weak, and caches may bucket on them
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Sixteen hex digits, also the JSON form (a JSON number would lose precision in JavaScript clients)
+     */
+    @JsonValue
+    @Override
+    public String toString() {
+        return HexFormat.of().toHexDigits(value);
+    }
+}
@@ -0,0 +1,33 @@
+package com.ahnis.searchapi.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+
+/**
+ * The filter parameters of {@code /api/search}, as the analytics endpoints accept them
+ *
+ * @param startDate Only courses with a session on or after this instant
+ * @param endDate   Only courses with a session on or before this instant
+ * @param radius    Only courses within this many kilometres of {@code lat}/{@code lon}
+ */
+public record SearchFilters(String category,
+                            String type,
+                            Integer minAge,
+                            Integer maxAge,
+                            Double minPrice,
+                            Double maxPrice,
+                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startDate,
+                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endDate,
+                            Double lat,
+                            Double lon,
+                            Double radius) {
+
+    /**
+     * The same filters as a (canonical) search request without query, so they translate exactly as a search's do
+     */
+    public SearchRequest toSearchRequest() {
+        return SearchRequest.of(null, category, type, minAge, maxAge, minPrice, maxPrice, startDate, endDate,
+                lat, lon, radius, null, null, null, null, 0, SearchRequest.DEFAULT_SIZE).canonical();
+    }
+}
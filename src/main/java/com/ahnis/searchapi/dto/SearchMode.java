@@ -0,0 +1,43 @@
+package com.ahnis.searchapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * How the text query of a search is matched, parsed once from the {@code mode} parameter.
+ */
+public enum SearchMode {
+    // BM25 over title and description, exact pass first, fuzzy fallback
+    KEYWORD("keyword"),
+    // BM25 and embedding similarity side by side, merged by reciprocal rank fusion
+    HYBRID("hybrid");
+
+    // values() clones its array on every call
+    private static final SearchMode[] VALUES = values();
+
+    private final String parameter;
+
+    SearchMode(String parameter) {
+        this.parameter = parameter;
+    }
+
+    /**
+     * Parses the {@code mode} request parameter; anything unknown (or missing) means {@link #KEYWORD}
+     */
+    @JsonCreator
+    public static SearchMode parse(String parameter) {
+        if (parameter != null) {
+            for (SearchMode candidate : VALUES) {
+                if (parameter.equals(candidate.parameter)) {
+                    return candidate;
+                }
+            }
+        }
+        return KEYWORD;
+    }
+
+    @JsonValue
+    public String getParameter() {
+        return parameter;
+    }
+}
@@ -1,39 +1,244 @@
 package com.ahnis.searchapi.dto;
 
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.With;
 
 import java.time.Instant;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 /**
  * DTO for encapsulating course search parameters
+ *
+ * <p>Numeric filters are primitives; whether each one was actually given is tracked in the {@code presence}
+ * bit set, so an absent filter costs neither a box nor a null check on a wrapper. Use {@link #of} (or
+ * the {@code with*} copy methods) rather than the canonical constructor.</p>
+ *
+ * <p>Requests that ask the same question can still differ in spelling ({@code Robotics} vs {@code robotics},
+ * {@code minPrice=0} vs none). {@link #canonical()} maps them all to one form, and {@link #canonicalKey()} is
+ * the key every cache uses for it.</p>
+ *
+ * @param query    Full-text search query for title and description
+ * @param fromDate Only courses with a session on or after this instant
+ * @param toDate   Only courses with a session on or before this instant (with {@code fromDate}: the same session)
+ * @param lat      Latitude of the searcher, see {@link #hasLocation()}
+ * @param lon      Longitude of the searcher
+ * @param radiusKm Only courses within this distance of the location; {@code 0} for no limit
+ * @param geohashPrecision Geohash length (1-12) of the map clusters to return; {@code 0} for none
+ * @param sessionHistogram Bucket size of the session-date facet to return; {@code null} for none
+ * @param mode     How a text query is matched, never {@code null}
+ * @param sort     Parsed sort order, never {@code null}
+ * @param presence Bit set of {@code MIN_AGE}, {@code MAX_AGE}, {@code MIN_PRICE}, {@code MAX_PRICE}, {@code LOCATION}
  */
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-@Builder
-//todo refactor to records :)
-public class SearchRequest {
-    // Full-text search query for title and description
-    private String query;
-
-    // Filters
-    private String category;
-    private String type;
-    private Integer minAge;
-    private Integer maxAge;
-    private Double minPrice;
-    private Double maxPrice;
-    private Instant fromDate; // For nextSessionDate filter
-
-    private String sort; // Possible values: null (default), "priceAsc", "priceDesc"
-
-    // Pagination
-    @Builder.Default
-    private int page = 0;
-
-    @Builder.Default
-    private int size = 10;
+public record SearchRequest(
+        @With String query,
+        // Filters
+        @With String category,
+        @With String type,
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT) int minAge,
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT) int maxAge,
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT) double minPrice,
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT) double maxPrice,
+        @With Instant fromDate,
+        @With Instant toDate,
+        // Geo
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT) double lat,
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT) double lon,
+        @With @JsonInclude(JsonInclude.Include.NON_DEFAULT) double radiusKm,
+        @With @JsonInclude(JsonInclude.Include.NON_DEFAULT) int geohashPrecision,
+        // Facets
+        @With SessionInterval sessionHistogram,
+        // Ranking
+        @With SearchMode mode,
+        @With SearchSort sort,
+        // Pagination
+        @With int page,
+        @With int size,
+        @JsonIgnore int presence
+) {
+
+    public static final int MIN_AGE = 1;
+    public static final int MAX_AGE = 1 << 1;
+    public static final int MIN_PRICE = 1 << 2;
+    public static final int MAX_PRICE = 1 << 3;
+    public static final int LOCATION = 1 << 4;
+
+    public static final int DEFAULT_SIZE = 10;
+    public static final int MAX_GEOHASH_PRECISION = 12;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final SearchRequest DEFAULTS =
+            new SearchRequest(null, null, null, 0, 0, 0, 0, null, null, 0, 0, 0, 0, null,
+                    SearchMode.KEYWORD, SearchSort.NEXT_SESSION, 0, DEFAULT_SIZE, 0);
+
+    /**
+     * Creates a request from optional (nullable) parameters, as they arrive from the web layer.
+     *
+     * <p>{@code lat} and {@code lon} only count as a location when both are given.</p>
+     */
+    @JsonCreator
+    public static SearchRequest of(String query, String category, String type,
+                                   Integer minAge, Integer maxAge, Double minPrice, Double maxPrice,
+                                   Instant fromDate, Instant toDate, Double lat, Double lon, Double radiusKm,
+                                   Integer geohashPrecision, String sessionHistogram,
+                                   String mode, String sort, Integer page, Integer size) {
+        boolean located = lat != null && lon != null;
+        int presence = (minAge != null ? MIN_AGE : 0)
+                | (maxAge != null ? MAX_AGE : 0)
+                | (minPrice != null ? MIN_PRICE : 0)
+                | (maxPrice != null ? MAX_PRICE : 0)
+                | (located ? LOCATION : 0);
+
+        return new SearchRequest(query, category, type,
+                minAge != null ? minAge : 0,
+                maxAge != null ? maxAge : 0,
+                minPrice != null ? minPrice : 0,
+                maxPrice != null ? maxPrice : 0,
+                fromDate,
+                toDate,
+                located ? lat : 0,
+                located ? lon : 0,
+                radiusKm != null ? radiusKm : 0,
+                geohashPrecision != null ? geohashPrecision : 0,
+                SessionInterval.parse(sessionHistogram),
+                SearchMode.parse(mode),
+                SearchSort.parse(sort),
+                page != null ? page : 0,
+                size != null ? size : DEFAULT_SIZE,
+                presence);
+    }
+
+    /**
+     * A request with no query, no filters, default sort and the first page of default size
+     */
+    public static SearchRequest defaults() {
+        return DEFAULTS;
+    }
+
+    public boolean hasMinAge() {
+        return (presence & MIN_AGE) != 0;
+    }
+
+    public boolean hasMaxAge() {
+        return (presence & MAX_AGE) != 0;
+    }
+
+    public boolean hasMinPrice() {
+        return (presence & MIN_PRICE) != 0;
+    }
+
+    public boolean hasMaxPrice() {
+        return (presence & MAX_PRICE) != 0;
+    }
+
+    public boolean hasLocation() {
+        return (presence & LOCATION) != 0;
+    }
+
+    /**
+     * Whether results are limited to a radius around the location
+     */
+    public boolean hasRadius() {
+        return hasLocation() && radiusKm > 0;
+    }
+
+    /**
+     * The same question in its one canonical form, so equivalent requests are equal (and hash alike):
+     * <ul>
+     *     <li>{@code q} trimmed with inner whitespace collapsed; category and type trimmed and lower-cased (they
+     *     match case-insensitively); blank text is no text</li>
+     *     <li>{@code minAge}/{@code minPrice} of zero or less dropped, as ages and prices are never negative</li>
+     *     <li>radius and geohash precision clamped to their valid range; a radius without a location dropped</li>
+     *     <li>sorts and modes that can't apply folded to what actually runs: without {@code q}, {@code relevance}
+     *     and hybrid mode are the defaults; {@code distance} without {@code q} or a location is the default
+     *     order; hybrid with a price or distance sort is keyword search</li>
+     *     <li>a negative page is the first page, a size below one the default size</li>
+     * </ul>
+     * Applying it twice gives the same request.
+     */
+    public SearchRequest canonical() {
+        String canonicalQuery = collapseWhitespace(query);
+        boolean hasQuery = canonicalQuery != null;
+
+        int canonicalPresence = presence;
+        if (hasMinAge() && minAge <= 0) {
+            canonicalPresence &= ~MIN_AGE;
+        }
+        if (hasMinPrice() && minPrice <= 0) {
+            canonicalPresence &= ~MIN_PRICE;
+        }
+
+        SearchSort canonicalSort = sort;
+        if (!hasQuery && (sort == SearchSort.RELEVANCE || (sort == SearchSort.DISTANCE && !hasLocation()))) {
+            canonicalSort = SearchSort.NEXT_SESSION;
+        }
+        SearchMode canonicalMode = mode;
+        if (!hasQuery || (canonicalSort != SearchSort.RELEVANCE && canonicalSort != SearchSort.NEXT_SESSION)) {
+            canonicalMode = SearchMode.KEYWORD;
+        }
+
+        return new SearchRequest(canonicalQuery, lowerCase(category), lowerCase(type),
+                (canonicalPresence & MIN_AGE) != 0 ? minAge : 0,
+                (canonicalPresence & MAX_AGE) != 0 ? maxAge : 0,
+                (canonicalPresence & MIN_PRICE) != 0 ? minPrice : 0,
+                (canonicalPresence & MAX_PRICE) != 0 ? maxPrice : 0,
+                fromDate, toDate, lat, lon,
+                hasLocation() && radiusKm > 0 ? radiusKm : 0,
+                Math.clamp(geohashPrecision, 0, MAX_GEOHASH_PRECISION),
+                sessionHistogram, canonicalMode, canonicalSort,
+                Math.max(0, page),
+                size >= 1 ? size : DEFAULT_SIZE,
+                canonicalPresence);
+    }
+
+    /**
+     * Key of this request's canonical form, shared by every request that asks the same question
+     */
+    public RequestKey canonicalKey() {
+        return RequestKey.of(canonical());
+    }
+
+    private static String collapseWhitespace(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return WHITESPACE.matcher(text.strip()).replaceAll(" ");
+    }
+
+    private static String lowerCase(String text) {
+        return text == null || text.isBlank() ? null : text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    public SearchRequest withMinAge(int minAge) {
+        return new SearchRequest(query, category, type, minAge, maxAge, minPrice, maxPrice,
+                fromDate, toDate, lat, lon, radiusKm, geohashPrecision, sessionHistogram, mode, sort, page, size,
+                presence | MIN_AGE);
+    }
+
+    public SearchRequest withMaxAge(int maxAge) {
+        return new SearchRequest(query, category, type, minAge, maxAge, minPrice, maxPrice,
+                fromDate, toDate, lat, lon, radiusKm, geohashPrecision, sessionHistogram, mode, sort, page, size,
+                presence | MAX_AGE);
+    }
+
+    public SearchRequest withMinPrice(double minPrice) {
+        return new SearchRequest(query, category, type, minAge, maxAge, minPrice, maxPrice,
+                fromDate, toDate, lat, lon, radiusKm, geohashPrecision, sessionHistogram, mode, sort, page, size,
+                presence | MIN_PRICE);
+    }
+
+    public SearchRequest withMaxPrice(double maxPrice) {
+        return new SearchRequest(query, category, type, minAge, maxAge, minPrice, maxPrice,
+                fromDate, toDate, lat, lon, radiusKm, geohashPrecision, sessionHistogram, mode, sort, page, size,
+                presence | MAX_PRICE);
+    }
+
+    public SearchRequest withLocation(double lat, double lon) {
+        return new SearchRequest(query, category, type, minAge, maxAge, minPrice, maxPrice,
+                fromDate, toDate, lat, lon, radiusKm, geohashPrecision, sessionHistogram, mode, sort, page, size,
+                presence | LOCATION);
+    }
 }
@@ -1,54 +1,141 @@
 package com.ahnis.searchapi.dto;
 
 import com.ahnis.searchapi.entity.CourseDocument;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import com.ahnis.searchapi.entity.CourseLocation;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Page;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * DTO for encapsulating course search results
+ *
+ * @param total    Total number of hits
+ * @param totalLowerBound {@code true} when counting stopped at the configured limit and {@code total} is only a
+ *                 lower bound; omitted from JSON otherwise
+ * @param courses  List of matching course documents
+ * @param didYouMean Spelling correction of {@code q} when it found (nearly) nothing; omitted otherwise
+ * @param degraded {@code true} when Elasticsearch was unavailable and the results come from a fallback
+ *                 (last known good response or the local catalog snapshot); omitted from JSON otherwise
+ * @param clusters Geohash cells of all matching courses, for map clustering; omitted unless requested
+ * @param sessionHistogram Matching courses per session-date bucket; omitted unless requested
+ * @param explanations Score breakdown of the top hits; only with {@code debug=explain}
  */
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-@Builder
-//todo refactor to records :) , it looks cleaner and smooth!!!
-public class SearchResponse {
-    // Total number of hits
-    private long total;
-
-    // List of matching course documents
-    private List<CourseInfo> courses;
+public record SearchResponse(long total,
+                             @JsonInclude(JsonInclude.Include.NON_DEFAULT) boolean totalLowerBound,
+                             List<CourseInfo> courses,
+                             @JsonInclude(JsonInclude.Include.NON_NULL) DidYouMean didYouMean,
+                             @JsonInclude(JsonInclude.Include.NON_DEFAULT) boolean degraded,
+                             @JsonInclude(JsonInclude.Include.NON_EMPTY) List<GeoCluster> clusters,
+                             @JsonInclude(JsonInclude.Include.NON_EMPTY) List<SessionBucket> sessionHistogram,
+                             @JsonInclude(JsonInclude.Include.NON_EMPTY) List<HitExplanation> explanations) {
+
+    public SearchResponse(long total, List<CourseInfo> courses) {
+        this(total, false, courses, null, false, List.of(), List.of(), List.of());
+    }
+
+    /**
+     * The same results, flagged as served from a fallback
+     */
+    public SearchResponse asDegraded() {
+        return degraded ? this : new SearchResponse(total, totalLowerBound, courses, didYouMean, true, clusters,
+                sessionHistogram, explanations);
+    }
+
+    /**
+     * The same results with score explanations attached
+     */
+    public SearchResponse withExplanations(List<HitExplanation> explanations) {
+        return new SearchResponse(total, totalLowerBound, courses, didYouMean, degraded, clusters, sessionHistogram,
+                explanations);
+    }
+
+    /**
+     * Factory method to create a SearchResponse from a page of CourseDocuments
+     */
+    public static SearchResponse fromPage(Page<CourseDocument> page) {
+        List<CourseDocument> content = page.getContent();
+        CoursePage coursePage = page instanceof CoursePage extras ? extras : null;
+        CourseLocation origin = coursePage != null ? coursePage.getOrigin() : null;
+
+        // Pre-sized, stream-free: this runs for every search response
+        List<CourseInfo> courses = new ArrayList<>(content.size());
+        for (int i = 0, n = content.size(); i < n; i++) {
+            courses.add(CourseInfo.fromCourseDocument(content.get(i), origin));
+        }
+        return new SearchResponse(page.getTotalElements(), coursePage != null && coursePage.isTotalLowerBound(),
+                courses, coursePage != null ? coursePage.getDidYouMean() : null, false,
+                coursePage != null ? coursePage.getClusters() : List.of(),
+                coursePage != null ? coursePage.getSessionBuckets() : List.of(),
+                List.of());
+    }
+
+    /**
+     * One geohash cell of matching courses
+     *
+     * @param lat Centroid of the courses in the cell (not the cell's centre), so markers sit where courses are
+     */
+    public record GeoCluster(String geohash, long count, double lat, double lon) {
+    }
 
     /**
-     * Inner class representing the course information to be returned in the response
+     * A spelling correction of the text query
+     *
+     * @param text    the query with misspelled terms replaced by terms from the course catalog
+     * @param applied {@code true} when the courses already include matches for {@code text}
      */
-    @Data
-    @NoArgsConstructor
-    @AllArgsConstructor
-    @Builder
-    public static class CourseInfo {
-        private String id;
-        private String title;
-        private String category;
-        private Double price;
-        private Instant nextSessionDate;
+    public record DidYouMean(String text, boolean applied) {
+    }
+
+    /**
+     * Number of matching courses with at least one session in the bucket starting at {@code date}
+     */
+    public record SessionBucket(Instant date, long count) {
+    }
+
+    /**
+     * Record representing the course information to be returned in the response
+     *
+     * @param price           Course price; omitted if the course has none, which is not the same as free.
+     *                        Same instance as on the document, like {@code nextSessionDate}
+     * @param nextSessionDate Same instance as on the document, so mapping allocates nothing for it
+     * @param distanceKm      Distance from the searcher's location, to the metre; omitted without one
+     */
+    public record CourseInfo(String id,
+                             String title,
+                             String category,
+                             @JsonInclude(JsonInclude.Include.NON_NULL) Double price,
+                             Instant nextSessionDate,
+                             @JsonInclude(JsonInclude.Include.NON_NULL) Double distanceKm) {
+
+        public CourseInfo(String id, String title, String category, Double price, Instant nextSessionDate) {
+            this(id, title, category, price, nextSessionDate, null);
+        }
 
         /**
          * Factory method to create a CourseInfo from a CourseDocument
          */
         public static CourseInfo fromCourseDocument(CourseDocument courseDocument) {
-            return CourseInfo.builder()
-                    .id(courseDocument.getId())
-                    .title(courseDocument.getTitle())
-                    .category(courseDocument.getCategory())
-                    .price(courseDocument.getPrice())
-                    .nextSessionDate(courseDocument.getNextSessionDate())
-                    .build();
+            return fromCourseDocument(courseDocument, null);
+        }
+
+        /**
+         * Same, with the course's distance from {@code origin} when both have a location
+         */
+        public static CourseInfo fromCourseDocument(CourseDocument courseDocument, CourseLocation origin) {
+            CourseLocation location = courseDocument.getLocation();
+            Double distanceKm = origin != null && location != null
+                    ? Math.round(location.distanceKm(origin.lat(), origin.lon()) * 1000) / 1000.0
+                    : null;
+            return new CourseInfo(
+                    courseDocument.getId(),
+                    courseDocument.getTitle(),
+                    courseDocument.getCategory(),
+                    courseDocument.getPrice(),
+                    courseDocument.getNextSessionDate(),
+                    distanceKm);
         }
     }
 }
@@ -0,0 +1,59 @@
+package com.ahnis.searchapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Sort orders accepted by the search API, parsed once from the {@code sort} parameter.
+ *
+ * <p>Each constant carries its prebuilt (immutable) Spring {@link Sort}, so no sort objects are
+ * allocated per request.</p>
+ */
+public enum SearchSort {
+    NEXT_SESSION(null, Sort.by(Sort.Direction.ASC, "nextSessionDate")),
+    PRICE_ASC("priceAsc", Sort.by(Sort.Direction.ASC, "price")),
+    PRICE_DESC("priceDesc", Sort.by(Sort.Direction.DESC, "price")),
+    // By score: text relevance blended with recency, popularity and price (filter-only searches use NEXT_SESSION)
+    RELEVANCE("relevance", Sort.unsorted()),
+    // Nearest first; a geo sort has no Spring Data equivalent, so it is added to the query itself (needs lat/lon)
+    DISTANCE("distance", Sort.unsorted());
+
+    // values() clones its array on every call
+    private static final SearchSort[] VALUES = values();
+
+    private final String parameter;
+    private final Sort sort;
+
+    SearchSort(String parameter, Sort sort) {
+        this.parameter = parameter;
+        this.sort = sort;
+    }
+
+    /**
+     * Parses the {@code sort} request parameter; anything unknown (or missing) means the default order
+     */
+    @JsonCreator
+    public static SearchSort parse(String parameter) {
+        if (parameter != null) {
+            for (SearchSort candidate : VALUES) {
+                if (parameter.equals(candidate.parameter)) {
+                    return candidate;
+                }
+            }
+        }
+        return NEXT_SESSION;
+    }
+
+    /**
+     * The value of the {@code sort} request parameter selecting this order ({@code null} for the default)
+     */
+    @JsonValue
+    public String getParameter() {
+        return parameter;
+    }
+
+    public Sort toSort() {
+        return sort;
+    }
+}
@@ -0,0 +1,45 @@
+package com.ahnis.searchapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Bucket sizes of the session-date histogram, parsed once from the {@code sessionHistogram} parameter.
+ *
+ * <p>Calendar intervals in UTC, so buckets start on midnight, Monday, the 1st of the month or of the year.</p>
+ */
+public enum SessionInterval {
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month"),
+    YEAR("year");
+
+    // values() clones its array on every call
+    private static final SessionInterval[] VALUES = values();
+
+    private final String parameter;
+
+    SessionInterval(String parameter) {
+        this.parameter = parameter;
+    }
+
+    /**
+     * Parses the {@code sessionHistogram} request parameter; {@code null} (no histogram) if missing or unknown
+     */
+    @JsonCreator
+    public static SessionInterval parse(String parameter) {
+        if (parameter != null) {
+            for (SessionInterval candidate : VALUES) {
+                if (parameter.equals(candidate.parameter)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    @JsonValue
+    public String getParameter() {
+        return parameter;
+    }
+}
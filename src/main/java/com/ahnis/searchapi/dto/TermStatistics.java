@@ -0,0 +1,11 @@
+package com.ahnis.searchapi.dto;
+
+/**
+ * Courses sharing one category (or type)
+ *
+ * @param key   The category or type, as indexed
+ * @param count Matching courses with it
+ * @param price Their prices
+ */
+public record TermStatistics(String key, long count, PriceStats price) {
+}
@@ -0,0 +1,56 @@
+package com.ahnis.searchapi.embedding;
+
+import com.ahnis.searchapi.entity.CourseDocument;
+import org.springframework.data.elasticsearch.core.event.BeforeConvertCallback;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.StringJoiner;
+
+/**
+ * Keeps {@link CourseDocument#getEmbedding()} in step with the course text.
+ *
+ * <p>As an entity callback it runs on every save, whichever way a course reaches the index (bulk load,
+ * repository, templates), so no ingest path can forget it. The embedding is recomputed each time: a course
+ * whose title changed must not keep the meaning of the old one.</p>
+ */
+@Component
+public class CourseEmbeddings implements BeforeConvertCallback<CourseDocument> {
+
+    private final EmbeddingProvider embeddingProvider;
+
+    public CourseEmbeddings(EmbeddingProvider embeddingProvider) {
+        if (embeddingProvider.dimensions() != CourseDocument.EMBEDDING_DIMENSIONS) {
+            throw new IllegalStateException("Embedding provider produces " + embeddingProvider.dimensions()
+                    + " dimensions, the course mapping expects " + CourseDocument.EMBEDDING_DIMENSIONS);
+        }
+        this.embeddingProvider = embeddingProvider;
+    }
+
+    /**
+     * Embedding of a search query, comparable with the course embeddings; {@code null} if there is nothing to embed
+     */
+    public float[] embedQuery(String query) {
+        return embeddingProvider.embed(query);
+    }
+
+    @Override
+    public CourseDocument onBeforeConvert(CourseDocument course, IndexCoordinates index) {
+        course.setEmbedding(embeddingProvider.embed(textOf(course)));
+        return course;
+    }
+
+    /**
+     * What a course is about: its title, category and description
+     */
+    static String textOf(CourseDocument course) {
+        StringJoiner text = new StringJoiner(". ");
+        for (String part : new String[]{course.getTitle(), course.getCategory(), course.getDescription()}) {
+            if (StringUtils.hasText(part)) {
+                text.add(part);
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,19 @@
+package com.ahnis.searchapi.embedding;
+
+/**
+ * Turns text into a dense vector whose direction captures its meaning.
+ *
+ * <p>Implementations must be deterministic and return unit-length vectors of {@link #dimensions()} entries
+ * (or {@code null} when the text has nothing to embed): similarity is scored as a dot product, which is the
+ * cosine only for unit vectors. Anything from a local ONNX model to the built-in
+ * {@link HashingEmbeddingProvider} can sit behind this.</p>
+ */
+public interface EmbeddingProvider {
+
+    int dimensions();
+
+    /**
+     * Embedding of {@code text}; {@code null} if the text is blank or yields no features
+     */
+    float[] embed(String text);
+}
@@ -0,0 +1,86 @@
+package com.ahnis.searchapi.embedding;
+
+import com.ahnis.searchapi.entity.CourseDocument;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Offline embedder based on the hashing trick: every word, and every character trigram of every word, is
+ * hashed to one of {@link CourseDocument#EMBEDDING_DIMENSIONS} dimensions with a hash-derived sign.
+ *
+ * <p>No model, no network, fully deterministic — which makes it the right default for tests and local runs.
+ * Trigrams give it some tolerance to inflections and typos ("robots" is close to "robotics"), but it knows
+ * nothing about synonyms or intent; plug a real model in through {@link EmbeddingProvider} for that.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.search.semantic", name = "provider", havingValue = "hashing", matchIfMissing = true)
+public class HashingEmbeddingProvider implements EmbeddingProvider {
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float TRIGRAM_WEIGHT = 0.5f;
+
+    @Override
+    public int dimensions() {
+        return CourseDocument.EMBEDDING_DIMENSIONS;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        float[] vector = new float[dimensions()];
+        boolean any = false;
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            add(vector, word, WORD_WEIGHT);
+            // Boundary markers, so prefixes and suffixes make trigrams of their own
+            String padded = "^" + word + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                add(vector, padded.substring(i, i + 3), TRIGRAM_WEIGHT);
+            }
+            any = true;
+        }
+        return any ? normalize(vector) : null;
+    }
+
+    private static void add(float[] vector, String feature, float weight) {
+        int hash = hash(feature);
+        // Low bits pick the dimension, the top bit the sign, so collisions cancel out rather than pile up
+        vector[Math.floorMod(hash, vector.length)] += hash < 0 ? -weight : weight;
+    }
+
+    /**
+     * FNV-1a with a final avalanche; {@link String#hashCode()} clusters badly on short strings
+     */
+    private static int hash(String feature) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < feature.length(); i++) {
+            hash ^= feature.charAt(i);
+            hash *= 0x01000193;
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            return null;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ahnis.searchapi.entity;
 
+import com.ahnis.searchapi.tenant.TenantIndexResolver;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,21 +11,52 @@ import org.springframework.data.elasticsearch.annotations.CompletionField;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.GeoPointField;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
 import org.springframework.data.elasticsearch.core.suggest.Completion;
 
 import java.time.Instant;
+import java.util.List;
 
-@Document(indexName = "courses")
+// Index of the calling tenant, re-evaluated on every operation (see TenantIndexResolver)
+@Document(indexName = "#{@" + TenantIndexResolver.BEAN_NAME + ".courseIndex()}")
+@Setting(settingPath = "elasticsearch/course-settings.json")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class CourseDocument {
+
+    /**
+     * Length of {@link #embedding}; the mapping is fixed at index creation, so changing it needs a reindex
+     */
+    public static final int EMBEDDING_DIMENSIONS = 256;
+
+    /**
+     * Title and category words in one vocabulary, for "did you mean"; filled by {@code copy_to}, so changing the
+     * copied fields needs a reindex
+     */
+    public static final String SPELLING_FIELD = "spelling";
+
     @Id
     private String id;
+    // Synonyms are expanded at search time only (course_search), so they can change without a reindex
+    @Field(type = FieldType.Text, analyzer = "standard", searchAnalyzer = "course_search", copyTo = SPELLING_FIELD)
     private String title;
+    // Trigram sub-field backs substring matching without leading-wildcard queries
+    @MultiField(mainField = @Field(type = FieldType.Text, analyzer = "standard", searchAnalyzer = "course_search"),
+            otherFields = @InnerField(suffix = "ngram", type = FieldType.Text, analyzer = "course_substring"))
     private String description;
+    @MultiField(mainField = @Field(type = FieldType.Text, analyzer = "standard", searchAnalyzer = "course_search",
+            copyTo = SPELLING_FIELD),
+            otherFields = @InnerField(suffix = "keyword", type = FieldType.Keyword, ignoreAbove = 256))
     private String category;
+    // Only ever filled by copy_to from title and category, never set or returned; a term missing here is missing
+    // from both
+    @Field(type = FieldType.Text, analyzer = "standard")
+    private String spelling;
     private String type;
     private String gradeRange;
     private Integer minAge;
@@ -33,6 +65,28 @@ public class CourseDocument {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'", timezone = "UTC")
     @Field(type = FieldType.Date, pattern = "uuuu-MM-dd'T'HH:mm:ss'Z'")
     private Instant nextSessionDate;
+    // Every scheduled session; a range query on a multi-valued date matches if any one session is in range
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'", timezone = "UTC")
+    @Field(type = FieldType.Date, pattern = "uuuu-MM-dd'T'HH:mm:ss'Z'")
+    private List<Instant> sessionDates;
+    // Venue of in-person sessions; backs "near me" filtering, distance sort and map clustering
+    @GeoPointField
+    private CourseLocation location;
+    // Click-through rate from search; boosts relevance ranking, absent until a course gets traffic
+    @Field(type = FieldType.Double)
+    private Double popularity;
+    // Decayed click and impression counts behind popularity
+    @Field(type = FieldType.Double)
+    private Double popularityClicks;
+    @Field(type = FieldType.Double)
+    private Double popularityImpressions;
+    // Epoch millis of the last popularity update, so the next one can decay it by age first
+    @Field(type = FieldType.Long)
+    private Long popularityUpdatedAt;
+
+    // Unit vector of title, category and description, set on every save (see CourseEmbeddings)
+    @Field(type = FieldType.Dense_Vector, dims = EMBEDDING_DIMENSIONS)
+    private float[] embedding;
 
     @CompletionField(maxInputLength = 100)
     private Completion suggest;
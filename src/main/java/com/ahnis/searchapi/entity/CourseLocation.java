@@ -0,0 +1,25 @@
+package com.ahnis.searchapi.entity;
+
+/**
+ * Where an in-person course takes place; mapped as a {@code geo_point} ({@code {"lat": .., "lon": ..}}).
+ *
+ * @param lat latitude in degrees
+ * @param lon longitude in degrees
+ */
+public record CourseLocation(double lat, double lon) {
+
+    // Mean earth radius, the same one Elasticsearch uses for arc distances
+    private static final double EARTH_RADIUS_KM = 6371.0087714;
+
+    /**
+     * Great-circle (haversine) distance to another point, in kilometres
+     */
+    public double distanceKm(double lat, double lon) {
+        double dLat = Math.toRadians(lat - this.lat);
+        double dLon = Math.toRadians(lon - this.lon);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(this.lat)) * Math.cos(Math.toRadians(lat))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,10 @@
+package com.ahnis.searchapi.event;
+
+/**
+ * Published whenever the contents of the {@code courses} index change (bulk load, clear, partial updates) or the way
+ * it is searched (synonym and stop-word changes), so that anything derived from search results can refresh itself.
+ *
+ * @param reason short human-readable description of what changed, used for logging
+ */
+public record CourseIndexChangedEvent(String reason) {
+}
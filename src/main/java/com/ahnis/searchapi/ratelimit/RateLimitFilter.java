@@ -0,0 +1,80 @@
+package com.ahnis.searchapi.ratelimit;
+
+import com.ahnis.searchapi.config.RateLimitProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import com.ahnis.searchapi.tenant.TenantContext;
+import com.ahnis.searchapi.tenant.TenantFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the per-client request budgets of the request's tenant before anything else runs, except the
+ * {@link TenantFilter} that resolves that tenant.
+ *
+ * <p>Limited responses carry {@code X-RateLimit-Limit} and {@code X-RateLimit-Remaining}; a request over budget
+ * is answered with {@code 429} and a {@code Retry-After} in whole seconds, without touching Elasticsearch.</p>
+ */
+@Component
+@Order(TenantFilter.ORDER + 1)
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private final RateLimitProperties properties;
+    private final RateLimiter rateLimiter;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RateLimiter.Budget budget = rateLimiter.budgetFor(
+                request.getRequestURI().substring(request.getContextPath().length()));
+        if (budget == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(budget, clientOf(request));
+        response.setHeader(LIMIT_HEADER, String.valueOf(decision.limit()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(decision.remaining()));
+        if (!decision.allowed()) {
+            long retryAfterSeconds = Math.max(1, (decision.retryAfterNanos() + TimeUnit.SECONDS.toNanos(1) - 1)
+                    / TimeUnit.SECONDS.toNanos(1));
+            log.debug("Rate limited {} request from {} of tenant {}", decision.budget(), request.getRemoteAddr(),
+                    TenantContext.current());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.sendError(429, "Rate limit exceeded for " + decision.budget());
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * The API key when the client sends an issued one, its address otherwise; the prefixes keep the two apart
+     */
+    private String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(properties.getApiKeyHeader());
+        if (StringUtils.hasText(apiKey) && properties.getApiKeys().contains(apiKey.trim())) {
+            return "key:" + apiKey.trim();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
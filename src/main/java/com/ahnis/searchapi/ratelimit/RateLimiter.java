@@ -0,0 +1,210 @@
+package com.ahnis.searchapi.ratelimit;
+
+import com.ahnis.searchapi.config.RateLimitProperties;
+import com.ahnis.searchapi.tenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per tenant, budget and client, in bounded maps.
+ *
+ * <p>A decision is a map lookup and one compare-and-set, with no locks. It does allocate: the {@link Decision} it
+ * returns carries the request's remaining count, so it can't be shared, and the filter builds a client key per
+ * request. Each budget tracks at most {@code max-clients} buckets; a client that arrives while the map is full
+ * shares an overflow bucket with every other latecomer, so spraying new keys or addresses can't grow the map or
+ * slip past the limit. Buckets that have sat full for {@code idle-timeout} are swept out periodically.</p>
+ *
+ * <p>Every tenant has its own set of budgets — its own buckets, bound and overflow bucket — so one brand's
+ * traffic can never use up another's, and a tenant's rates can be raised or lowered on their own
+ * ({@code tenants}). The sets are created on a tenant's first request.</p>
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    private final LongSupplier clock;
+    private final int maxClients;
+    private final long idleNanos;
+    private final RateLimitProperties properties;
+    private final List<String> budgetNames;
+    private final List<Route> routes = new ArrayList<>();
+    private final ConcurrentMap<String, Budget[]> tenantBudgets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, LongSupplier clock) {
+        this.clock = clock;
+        this.maxClients = properties.getMaxClients();
+        this.idleNanos = properties.getIdleTimeout().toNanos();
+        this.properties = properties;
+        this.budgetNames = List.copyOf(properties.getBudgets().keySet());
+
+        for (int i = 0; i < budgetNames.size(); i++) {
+            int budget = i;
+            properties.getBudgets().get(budgetNames.get(i)).getPaths()
+                    .forEach(path -> routes.add(new Route(path, budget)));
+        }
+        // Most specific prefix first, so /api/search/suggest isn't counted as /api/search
+        routes.sort(Comparator.comparingInt((Route route) -> route.pathPrefix().length()).reversed());
+
+        // Misconfigured rates should fail the startup, not some tenant's first request
+        budgetsOf(TenantContext.DEFAULT_TENANT);
+        properties.getTenants().keySet().forEach(this::budgetsOf);
+    }
+
+    /**
+     * The outcome of one request against its budget
+     *
+     * @param retryAfterNanos how long until the next token, {@code 0} when the request was allowed
+     */
+    public record Decision(boolean allowed, String budget, int limit, long remaining, long retryAfterNanos) {
+    }
+
+    /**
+     * The current tenant's budget covering a request path, {@code null} when the path isn't limited
+     */
+    public Budget budgetFor(String path) {
+        for (Route route : routes) {
+            if (route.covers(path)) {
+                return budgetsOf(TenantContext.current())[route.budget()];
+            }
+        }
+        return null;
+    }
+
+    private Budget[] budgetsOf(String tenant) {
+        Budget[] budgets = tenantBudgets.get(tenant);
+        return budgets != null ? budgets : tenantBudgets.computeIfAbsent(tenant, this::createBudgets);
+    }
+
+    private Budget[] createBudgets(String tenant) {
+        Map<String, RateLimitProperties.Rate> overrides = properties.getTenants().getOrDefault(tenant, Map.of());
+        long now = clock.getAsLong();
+        Budget[] budgets = new Budget[budgetNames.size()];
+        for (int i = 0; i < budgets.length; i++) {
+            String name = budgetNames.get(i);
+            RateLimitProperties.Budget config = properties.getBudgets().get(name);
+            RateLimitProperties.Rate override = overrides.get(name);
+            int capacity = override != null && override.getCapacity() != null
+                    ? override.getCapacity()
+                    : config.getCapacity();
+            double refillPerSecond = override != null && override.getRefillPerSecond() != null
+                    ? override.getRefillPerSecond()
+                    : config.getRefillPerSecond();
+            if (capacity < 1 || refillPerSecond <= 0) {
+                throw new IllegalStateException("Rate limit budget " + name + " of tenant " + tenant
+                        + " needs a capacity of at least 1 and a positive refill rate");
+            }
+            long nanosPerToken = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+            budgets[i] = new Budget(name, capacity, nanosPerToken, now);
+        }
+        return budgets;
+    }
+
+    /**
+     * Takes a token from the client's bucket in the given budget
+     */
+    public Decision tryAcquire(Budget budget, String client) {
+        long now = clock.getAsLong();
+        long result = budget.bucketOf(client, now, maxClients).take(now, budget.nanosPerToken, budget.capacityNanos);
+        return result >= 0
+                ? new Decision(true, budget.name, budget.capacity, result, 0)
+                : new Decision(false, budget.name, budget.capacity, 0, -result);
+    }
+
+    /**
+     * Forgets clients whose bucket has been full for the idle timeout
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval:1m}",
+            initialDelayString = "${app.rate-limit.sweep-interval:1m}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (Budget[] budgets : tenantBudgets.values()) {
+            for (Budget budget : budgets) {
+                int before = budget.buckets.size();
+                budget.buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+                evicted += before - budget.buckets.size();
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    int trackedClients() {
+        int tracked = 0;
+        for (Budget[] budgets : tenantBudgets.values()) {
+            for (Budget budget : budgets) {
+                tracked += budget.buckets.size();
+            }
+        }
+        return tracked;
+    }
+
+    /**
+     * @param budget index of the budget in every tenant's set
+     */
+    private record Route(String pathPrefix, int budget) {
+
+        boolean covers(String path) {
+            return path.startsWith(pathPrefix)
+                    && (path.length() == pathPrefix.length() || path.charAt(pathPrefix.length()) == '/');
+        }
+    }
+
+    /**
+     * One tenant's budget: its rate and its clients' buckets
+     */
+    public static final class Budget {
+
+        private final String name;
+        private final int capacity;
+        private final long nanosPerToken;
+        private final long capacityNanos;
+        private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final TokenBucket overflow;
+
+        private Budget(String name, int capacity, long nanosPerToken, long now) {
+            this.name = name;
+            this.capacity = capacity;
+            this.nanosPerToken = nanosPerToken;
+            this.capacityNanos = capacity * nanosPerToken;
+            this.overflow = new TokenBucket(now);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public int capacity() {
+            return capacity;
+        }
+
+        private TokenBucket bucketOf(String client, long now, int maxClients) {
+            TokenBucket bucket = buckets.get(client);
+            if (bucket != null) {
+                return bucket;
+            }
+            // Size is only an estimate under contention; a few buckets over the bound are harmless
+            if (buckets.size() >= maxClients) {
+                return overflow;
+            }
+            return buckets.computeIfAbsent(client, key -> new TokenBucket(now));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ahnis.searchapi.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket for one client, kept as a single timestamp.
+ *
+ * <p>Instead of a token count plus a last-refill time (two values that would need a lock to update together),
+ * the bucket remembers when it will be full again. Taking a token pushes that moment one refill interval further
+ * out; the bucket is empty once it lies more than {@code capacity} intervals ahead. This is the "generic cell
+ * rate algorithm" form of a token bucket and needs one compare-and-set per request.</p>
+ */
+final class TokenBucket {
+
+    private final AtomicLong fullAt;
+
+    TokenBucket(long now) {
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes one token
+     *
+     * @param now            current {@link System#nanoTime()}
+     * @param nanosPerToken  refill interval of one token
+     * @param capacityNanos  {@code capacity * nanosPerToken}
+     * @return the tokens left ({@code >= 0}) when one was taken, otherwise minus the nanoseconds until the next one
+     */
+    long take(long now, long nanosPerToken, long capacityNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            long used = next - now;
+            if (used > capacityNanos) {
+                return -(used - capacityNanos);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return (capacityNanos - used) / nanosPerToken;
+            }
+        }
+    }
+
+    /**
+     * Whether the bucket has been full for longer than {@code idleNanos}, i.e. the client hasn't been around
+     */
+    boolean isIdle(long now, long idleNanos) {
+        return now - fullAt.get() > idleNanos;
+    }
+}
@@ -0,0 +1,199 @@
+package com.ahnis.searchapi.resilience;
+
+import com.ahnis.searchapi.dto.CoursePage;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.entity.CourseLocation;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The course catalog as shipped with the application ({@code app.data.courses-file}), searchable in memory.
+ *
+ * <p>Last line of defence when Elasticsearch is down and a request has no last known good response: the
+ * filters mirror {@code CourseQueryFactory}, and free text is a plain case-insensitive "title or description
+ * contains any of the words" — no scoring, no fuzziness. Loaded on first use only.</p>
+ */
+@Component
+@Slf4j
+public class CatalogSnapshot {
+
+    private static final Comparator<CourseDocument> BY_NEXT_SESSION =
+            Comparator.comparing(CourseDocument::getNextSessionDate, Comparator.nullsLast(Comparator.naturalOrder()));
+    private static final Comparator<CourseDocument> BY_PRICE =
+            Comparator.comparing(CourseDocument::getPrice, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final ObjectMapper objectMapper;
+    private final String coursesFileName;
+    private volatile List<CourseDocument> courses;
+
+    public CatalogSnapshot(ObjectMapper objectMapper,
+                           @Value("${app.data.courses-file:sample-courses.json}") String coursesFileName) {
+        this.objectMapper = objectMapper;
+        this.coursesFileName = coursesFileName;
+    }
+
+    public Page<CourseDocument> search(SearchRequest searchRequest) {
+        List<CourseDocument> matches = new ArrayList<>();
+        String[] terms = StringUtils.hasText(searchRequest.query())
+                ? searchRequest.query().toLowerCase(Locale.ROOT).trim().split("\\s+")
+                : new String[0];
+        for (CourseDocument course : courses()) {
+            if (matches(searchRequest, terms, course)) {
+                matches.add(course);
+            }
+        }
+
+        matches.sort(switch (searchRequest.sort()) {
+            case NEXT_SESSION, RELEVANCE -> BY_NEXT_SESSION;
+            case PRICE_ASC -> BY_PRICE;
+            case PRICE_DESC -> BY_PRICE.reversed();
+            case DISTANCE -> searchRequest.hasLocation() ? byDistance(searchRequest) : BY_NEXT_SESSION;
+        });
+
+        PageRequest pageable = PageRequest.of(searchRequest.page(), searchRequest.size(), searchRequest.sort().toSort());
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        // Distances are still reported; map clusters and facets are not worth computing for a degraded answer
+        CourseLocation origin = searchRequest.hasLocation()
+                ? new CourseLocation(searchRequest.lat(), searchRequest.lon())
+                : null;
+        return new CoursePage(new ArrayList<>(matches.subList(from, to)), pageable, matches.size(), origin,
+                List.of(), List.of());
+    }
+
+    /**
+     * Distinct titles starting with (or containing a word starting with) the given prefix
+     */
+    public List<String> suggest(String prefix, int size) {
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        Set<String> titles = new LinkedHashSet<>();
+        for (CourseDocument course : courses()) {
+            String title = course.getTitle();
+            if (title != null && titles.size() < size && startsWordWith(title.toLowerCase(Locale.ROOT), lowerPrefix)) {
+                titles.add(title);
+            }
+        }
+        return new ArrayList<>(titles);
+    }
+
+    private static boolean matches(SearchRequest request, String[] terms, CourseDocument course) {
+        if (terms.length > 0 && !containsAny(course, terms)) {
+            return false;
+        }
+        if (StringUtils.hasText(request.category()) && !request.category().trim().equalsIgnoreCase(course.getCategory())) {
+            return false;
+        }
+        if (StringUtils.hasText(request.type()) && !request.type().trim().equalsIgnoreCase(course.getType())) {
+            return false;
+        }
+        if (request.hasMinAge() && (course.getMinAge() == null || course.getMinAge() < request.minAge())) {
+            return false;
+        }
+        if (request.hasMaxAge() && (course.getMaxAge() == null || course.getMaxAge() > request.maxAge())) {
+            return false;
+        }
+        if (request.hasMinPrice() && (course.getPrice() == null || course.getPrice() < request.minPrice())) {
+            return false;
+        }
+        if (request.hasMaxPrice() && (course.getPrice() == null || course.getPrice() > request.maxPrice())) {
+            return false;
+        }
+        if (request.hasRadius() && distanceKm(request, course) > request.radiusKm()) {
+            return false;
+        }
+        return (request.fromDate() == null && request.toDate() == null) || hasSessionBetween(request, course);
+    }
+
+    private static boolean hasSessionBetween(SearchRequest request, CourseDocument course) {
+        List<Instant> sessions = course.getSessionDates() != null
+                ? course.getSessionDates()
+                : Collections.singletonList(course.getNextSessionDate());
+        for (Instant session : sessions) {
+            if (session != null
+                    && (request.fromDate() == null || !session.isBefore(request.fromDate()))
+                    && (request.toDate() == null || !session.isAfter(request.toDate()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Comparator<CourseDocument> byDistance(SearchRequest request) {
+        return Comparator.comparingDouble(course -> distanceKm(request, course));
+    }
+
+    /**
+     * Courses without a location are infinitely far away: outside every radius, last in distance order
+     */
+    private static double distanceKm(SearchRequest request, CourseDocument course) {
+        CourseLocation location = course.getLocation();
+        return location != null ? location.distanceKm(request.lat(), request.lon()) : Double.POSITIVE_INFINITY;
+    }
+
+    private static boolean containsAny(CourseDocument course, String[] terms) {
+        String title = course.getTitle() != null ? course.getTitle().toLowerCase(Locale.ROOT) : "";
+        String description = course.getDescription() != null ? course.getDescription().toLowerCase(Locale.ROOT) : "";
+        for (String term : terms) {
+            if (title.contains(term) || description.contains(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWordWith(String text, String prefix) {
+        int index = text.indexOf(prefix);
+        while (index >= 0) {
+            if (index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1))) {
+                return true;
+            }
+            index = text.indexOf(prefix, index + 1);
+        }
+        return false;
+    }
+
+    private List<CourseDocument> courses() {
+        List<CourseDocument> loaded = courses;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = courses;
+                if (loaded == null) {
+                    loaded = load();
+                    courses = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private List<CourseDocument> load() {
+        try (InputStream inputStream = new ClassPathResource(coursesFileName).getInputStream()) {
+            List<CourseDocument> loaded = List.copyOf(objectMapper.readValue(inputStream, new TypeReference<List<CourseDocument>>() {
+            }));
+            log.info("Loaded catalog snapshot of {} courses from {}", loaded.size(), coursesFileName);
+            return loaded;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load catalog snapshot from " + coursesFileName, e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.ahnis.searchapi.resilience;
+
+import com.ahnis.searchapi.config.CircuitBreakerProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Single circuit breaker shared by every Elasticsearch call on the search path.
+ *
+ * <p>While it is open, {@link #execute(Supplier)} throws
+ * {@link io.github.resilience4j.circuitbreaker.CallNotPermittedException} immediately instead of waiting for
+ * a client timeout, so request threads don't pile up behind a sick cluster.</p>
+ */
+@Component
+@Slf4j
+public class ElasticsearchCircuitBreaker {
+
+    private final boolean enabled;
+    private final CircuitBreaker circuitBreaker;
+
+    public ElasticsearchCircuitBreaker(CircuitBreakerProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.circuitBreaker = CircuitBreaker.of("elasticsearch", CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(properties.getSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .slowCallRateThreshold(properties.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(properties.getSlowCallDuration())
+                .waitDurationInOpenState(properties.getWaitInOpen())
+                .permittedNumberOfCallsInHalfOpenState(properties.getPermittedCallsInHalfOpen())
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build());
+
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Elasticsearch circuit breaker: {}", event.getStateTransition()));
+    }
+
+    /**
+     * Runs an Elasticsearch call through the breaker
+     */
+    public <T> T execute(Supplier<T> call) {
+        return enabled ? circuitBreaker.executeSupplier(call) : call.get();
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+}
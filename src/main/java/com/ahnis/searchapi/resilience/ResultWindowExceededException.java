@@ -0,0 +1,15 @@
+package com.ahnis.searchapi.resilience;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * A page lies past the result window and there is no cursor to reach it with; answered with 400 Bad Request
+ */
+public class ResultWindowExceededException extends ResponseStatusException {
+
+    public ResultWindowExceededException(long depth, int maxResultWindow) {
+        super(HttpStatus.BAD_REQUEST, "Results " + depth + " deep are past the result window of " + maxResultWindow
+                + "; page through listings in order, or narrow the search");
+    }
+}
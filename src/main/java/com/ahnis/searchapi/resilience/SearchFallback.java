@@ -0,0 +1,63 @@
+package com.ahnis.searchapi.resilience;
+
+import com.ahnis.searchapi.config.CircuitBreakerProperties;
+import com.ahnis.searchapi.dto.RequestKey;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.dto.SearchResponse;
+import com.ahnis.searchapi.tenant.TenantContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * What {@code /api/search} answers with while Elasticsearch can't.
+ *
+ * <p>Every successful search response is remembered (bounded, no expiry) as the last known good answer for its
+ * request. During an incident that answer is served again, flagged {@code degraded}; requests that were never
+ * answered before fall back to the {@link CatalogSnapshot}.</p>
+ *
+ * <p>Answers are remembered per tenant. The bundled catalog is the default tenant's, so other tenants get an
+ * empty degraded page rather than someone else's courses.</p>
+ */
+@Component
+public class SearchFallback {
+
+    private final Cache<Key, SearchResponse> lastKnownGood;
+    private final CatalogSnapshot catalogSnapshot;
+
+    public SearchFallback(CircuitBreakerProperties properties, CatalogSnapshot catalogSnapshot) {
+        this.lastKnownGood = Caffeine.newBuilder()
+                .maximumSize(properties.getStaleEntries())
+                .build();
+        this.catalogSnapshot = catalogSnapshot;
+    }
+
+    private record Key(String tenant, RequestKey request) {
+    }
+
+    public void remember(SearchRequest searchRequest, SearchResponse response) {
+        lastKnownGood.put(new Key(TenantContext.current(), searchRequest.canonicalKey()), response);
+    }
+
+    public SearchResponse search(SearchRequest searchRequest) {
+        SearchResponse stale =
+                lastKnownGood.getIfPresent(new Key(TenantContext.current(), searchRequest.canonicalKey()));
+        if (stale != null) {
+            return stale.asDegraded();
+        }
+        if (!isDefaultTenant()) {
+            return new SearchResponse(0, List.of()).asDegraded();
+        }
+        return SearchResponse.fromPage(catalogSnapshot.search(searchRequest)).asDegraded();
+    }
+
+    public List<String> suggestions(String partialTitle, int size) {
+        return isDefaultTenant() ? catalogSnapshot.suggest(partialTitle, size) : List.of();
+    }
+
+    private static boolean isDefaultTenant() {
+        return TenantContext.DEFAULT_TENANT.equals(TenantContext.current());
+    }
+}
@@ -0,0 +1,106 @@
+package com.ahnis.searchapi.resilience;
+
+import com.ahnis.searchapi.config.GuardrailProperties;
+import com.ahnis.searchapi.dto.RequestKey;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.tenant.TenantContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps single searches from degrading the cluster for everyone (see {@link GuardrailProperties}).
+ *
+ * <p>Deep listings are paged with cursors: serving page N of a listing past {@code cursor-from-offset} remembers
+ * the sort values of its last hit, and page N+1 then continues {@code search_after} them instead of making every
+ * shard collect and throw away {@code from} hits. Cursors are remembered per tenant and instance, so whoever
+ * pages through in order never notices; a jump straight past the result window has no cursor and is refused.
+ * A cursor only points into the index it was taken on, so they are all forgotten when it changes
+ * ({@link #clearCursors()}).</p>
+ */
+@Component
+public class SearchGuardrails {
+
+    private final GuardrailProperties properties;
+    private final Cache<Key, List<Object>> cursors;
+
+    public SearchGuardrails(GuardrailProperties properties) {
+        this.properties = properties;
+        this.cursors = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxCursors())
+                .expireAfterWrite(properties.getCursorTtl())
+                .build();
+    }
+
+    private record Key(String tenant, RequestKey request) {
+    }
+
+    /**
+     * The request with its page size cut down to {@code max-size}; the same instance when it is within bounds
+     */
+    public SearchRequest bound(SearchRequest searchRequest) {
+        return searchRequest.size() > properties.getMaxSize()
+                ? searchRequest.withSize(properties.getMaxSize())
+                : searchRequest;
+    }
+
+    public int boundSuggestions(int size) {
+        return Math.min(size, properties.getMaxSuggestions());
+    }
+
+    public int getTrackTotalHitsUpTo() {
+        return properties.getTrackTotalHitsUpTo();
+    }
+
+    /**
+     * Refuses a page past the result window unless it can be reached with a cursor
+     *
+     * @throws ResultWindowExceededException if {@code from + size} exceeds {@code max-result-window} and
+     *                                       {@code cursor} is {@code null}
+     */
+    public void checkDepth(SearchRequest searchRequest, List<Object> cursor) {
+        long depth = depthOf(searchRequest);
+        if (cursor == null && depth > properties.getMaxResultWindow()) {
+            throw new ResultWindowExceededException(depth, properties.getMaxResultWindow());
+        }
+    }
+
+    /**
+     * Sort values of the last hit of the page before this one, if it was a deep listing page served recently
+     */
+    public List<Object> cursorFor(SearchRequest searchRequest) {
+        if (!isDeep(searchRequest)) {
+            return null;
+        }
+        return cursors.getIfPresent(new Key(TenantContext.current(), searchRequest.canonicalKey()));
+    }
+
+    /**
+     * Remembers where a listing page ended, so the next page can continue from there (only when that one is deep)
+     *
+     * @param sortValues sort values of the page's last hit, tiebreaker included
+     */
+    public void rememberCursor(SearchRequest searchRequest, List<Object> sortValues) {
+        SearchRequest next = searchRequest.withPage(searchRequest.page() + 1);
+        if (isDeep(next) && sortValues != null && !sortValues.isEmpty()) {
+            cursors.put(new Key(TenantContext.current(), next.canonicalKey()), List.copyOf(sortValues));
+        }
+    }
+
+    /**
+     * Forgets every cursor, for all tenants; the next deep page is refused until paged into again
+     */
+    public void clearCursors() {
+        cursors.invalidateAll();
+    }
+
+    private boolean isDeep(SearchRequest searchRequest) {
+        return (long) searchRequest.page() * searchRequest.size() >= properties.getCursorFromOffset();
+    }
+
+    private static long depthOf(SearchRequest searchRequest) {
+        return ((long) searchRequest.page() + 1) * searchRequest.size();
+    }
+}
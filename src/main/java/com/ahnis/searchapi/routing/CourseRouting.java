@@ -0,0 +1,76 @@
+package com.ahnis.searchapi.routing;
+
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.entity.CourseDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.routing.RoutingResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+
+/**
+ * Optional custom routing of course documents by category ({@code app.elasticsearch.routing.enabled}).
+ *
+ * <p>With routing on, every course of a category lives on the same shard, so a search filtered to a single
+ * category only has to ask that one shard instead of fanning out to all of them. Writers and readers must
+ * agree on the routing value, which is why both go through this class: the category, trimmed and
+ * lower-cased (category filters match case-insensitively, so routing has to as well).</p>
+ *
+ * <p>A routed search must not be able to match courses of any other category, or it would silently miss the ones
+ * on other shards. So with routing on, the category filter is an exact, case-insensitive term on
+ * {@code category.keyword} (see {@code CourseQueryFactory}) rather than the analyzed phrase match, which also
+ * matches synonyms ({@code stem}) and longer category names. Without routing, searches fan out and keep the
+ * phrase match.</p>
+ *
+ * <p>Turning routing on or off for an existing index means reindexing it — documents stay on the shard
+ * they were written to. Very large categories also make for uneven shards; keep an eye on shard sizes.</p>
+ */
+@Component
+public class CourseRouting implements RoutingResolver {
+
+    private final boolean enabled;
+
+    public CourseRouting(@Value("${app.elasticsearch.routing.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Routing value for a search, or {@code null} when it has to fan out to all shards. Only valid together with
+     * the exact category filter that comes with routing
+     */
+    public String routingFor(SearchRequest searchRequest) {
+        return routingForCategory(searchRequest.category());
+    }
+
+    /**
+     * Routing value of the documents in a category, or {@code null} when routing is off
+     */
+    public String routingForCategory(String category) {
+        return enabled ? routingKey(category) : null;
+    }
+
+    /**
+     * No routing for operations that aren't tied to a single document
+     */
+    @Override
+    public String getRouting() {
+        return null;
+    }
+
+    @Override
+    public <T> String getRouting(T bean) {
+        if (enabled && bean instanceof CourseDocument courseDocument) {
+            return routingKey(courseDocument.getCategory());
+        }
+        return null;
+    }
+
+    private static String routingKey(String category) {
+        return StringUtils.hasText(category) ? category.trim().toLowerCase(Locale.ROOT) : null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ahnis.searchapi.service;
+
+import com.ahnis.searchapi.dto.AgeCoverage;
+import com.ahnis.searchapi.dto.PriceDistribution;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.dto.TermStatistics;
+
+import java.util.List;
+
+/**
+ * Service interface for catalog statistics over the courses matching a search's filters
+ *
+ * <p>Only the filters of the given request apply; its query, sort and paging are ignored.</p>
+ */
+public interface AnalyticsService {
+
+    /**
+     * Course count and prices per category, largest category first
+     *
+     * @param filters The search request whose filters select the courses
+     * @return One entry per category, at most the configured number
+     */
+    List<TermStatistics> categoryStatistics(SearchRequest filters);
+
+    /**
+     * Course count and prices per course type, largest type first
+     *
+     * @param filters The search request whose filters select the courses
+     * @return One entry per type, at most the configured number
+     */
+    List<TermStatistics> typeStatistics(SearchRequest filters);
+
+    /**
+     * Price summary, percentiles and histogram
+     *
+     * @param filters The search request whose filters select the courses
+     * @param interval Width of the histogram buckets; {@code null} for the configured default
+     * @return The price distribution of the matching courses
+     * @throws IllegalArgumentException if the interval is narrower than allowed
+     */
+    PriceDistribution priceDistribution(SearchRequest filters, Double interval);
+
+    /**
+     * Matching courses per configured age band
+     *
+     * @param filters The search request whose filters select the courses
+     * @return One entry per age band, in configured order
+     */
+    List<AgeCoverage> ageCoverage(SearchRequest filters);
+}
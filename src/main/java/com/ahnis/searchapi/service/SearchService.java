@@ -1,5 +1,6 @@
 package com.ahnis.searchapi.service;
 
+import com.ahnis.searchapi.diagnostics.QueryTrace;
 import com.ahnis.searchapi.dto.SearchRequest;
 import com.ahnis.searchapi.entity.CourseDocument;
 import org.springframework.data.domain.Page;
@@ -19,6 +20,15 @@ public interface SearchService {
      */
     Page<CourseDocument> searchCourses(SearchRequest searchRequest);
 
+    /**
+     * Search for courses, recording every Elasticsearch round trip into the given trace
+     *
+     * @param searchRequest The search request containing query, filters, sorting, and pagination parameters
+     * @param trace The trace to record executed queries and their timings into
+     * @return A page of CourseDocument objects matching the search criteria
+     */
+    Page<CourseDocument> searchCourses(SearchRequest searchRequest, QueryTrace trace);
+
     /**
      * Get autocomplete suggestions for course titles
      *
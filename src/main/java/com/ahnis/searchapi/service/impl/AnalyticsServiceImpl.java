@@ -0,0 +1,200 @@
+package com.ahnis.searchapi.service.impl;
+
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.FiltersBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.HistogramBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StatsAggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.ahnis.searchapi.config.AnalyticsProperties;
+import com.ahnis.searchapi.dto.AgeCoverage;
+import com.ahnis.searchapi.dto.PriceDistribution;
+import com.ahnis.searchapi.dto.PriceStats;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.dto.TermStatistics;
+import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.resilience.ElasticsearchCircuitBreaker;
+import com.ahnis.searchapi.routing.CourseRouting;
+import com.ahnis.searchapi.service.AnalyticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalog statistics, each computed by a single aggregation-only search.
+ *
+ * <p>The searches ask for no hits ({@code size: 0}) and explicitly opt into the shard request cache, which
+ * keeps the aggregation results per shard until the next refresh that changes it. The filters are the
+ * canonical form of a search's ({@link CourseQueryFactory}), so two requests that ask the same question also
+ * send the same bytes — the request cache keys on exactly those.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsServiceImpl implements AnalyticsService {
+
+    static final String TERMS_AGGREGATION = "terms";
+    static final String PRICE_STATS_AGGREGATION = "price";
+    static final String PERCENTILES_AGGREGATION = "percentiles";
+    static final String HISTOGRAM_AGGREGATION = "histogram";
+    static final String AGE_BANDS_AGGREGATION = "ageBands";
+
+    // category has a keyword sub-field in the mapping; type is dynamically mapped, which adds one too
+    private static final String CATEGORY_FIELD = "category.keyword";
+    private static final String TYPE_FIELD = "type.keyword";
+    private static final String PRICE_FIELD = "price";
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final CourseQueryFactory courseQueryFactory;
+    private final CourseRouting courseRouting;
+    private final ElasticsearchCircuitBreaker circuitBreaker;
+    private final AnalyticsProperties properties;
+
+    @Override
+    public List<TermStatistics> categoryStatistics(SearchRequest filters) {
+        return termStatistics(filters, CATEGORY_FIELD);
+    }
+
+    @Override
+    public List<TermStatistics> typeStatistics(SearchRequest filters) {
+        return termStatistics(filters, TYPE_FIELD);
+    }
+
+    private List<TermStatistics> termStatistics(SearchRequest filters, String field) {
+        Aggregation terms = Aggregation.of(a -> a
+                .terms(t -> t.field(field).size(properties.getMaxTerms()))
+                .aggregations(PRICE_STATS_AGGREGATION, p -> p.stats(s -> s.field(PRICE_FIELD))));
+
+        ElasticsearchAggregations aggregations = aggregations(search(filters, Map.of(TERMS_AGGREGATION, terms)));
+        List<StringTermsBucket> buckets = aggregate(aggregations, TERMS_AGGREGATION).sterms().buckets().array();
+
+        List<TermStatistics> statistics = new ArrayList<>(buckets.size());
+        for (StringTermsBucket bucket : buckets) {
+            statistics.add(new TermStatistics(bucket.key().stringValue(), bucket.docCount(),
+                    priceStats(bucket.aggregations().get(PRICE_STATS_AGGREGATION).stats())));
+        }
+        return statistics;
+    }
+
+    @Override
+    public PriceDistribution priceDistribution(SearchRequest filters, Double interval) {
+        double width = interval != null ? interval : properties.getPriceInterval();
+        if (!(width >= properties.getMinPriceInterval())) {
+            throw new IllegalArgumentException("Price interval must be at least " + properties.getMinPriceInterval());
+        }
+
+        Map<String, Aggregation> requested = Map.of(
+                PRICE_STATS_AGGREGATION, Aggregation.of(a -> a.stats(s -> s.field(PRICE_FIELD))),
+                PERCENTILES_AGGREGATION, Aggregation.of(a -> a.percentiles(p -> p
+                        .field(PRICE_FIELD)
+                        .percents(properties.getPercents())
+                        .keyed(true))),
+                // Empty buckets between the cheapest and the dearest course are kept, so the histogram has no gaps
+                HISTOGRAM_AGGREGATION, Aggregation.of(a -> a.histogram(h -> h
+                        .field(PRICE_FIELD)
+                        .interval(width)
+                        .minDocCount(0))));
+        ElasticsearchAggregations aggregations = aggregations(search(filters, requested));
+
+        Map<String, String> values = aggregate(aggregations, PERCENTILES_AGGREGATION).tdigestPercentiles().values().keyed();
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (Double percent : properties.getPercents()) {
+            // Elasticsearch keys them by the percent's double form ("50.0"); ours drop the noise ("50")
+            percentiles.put(BigDecimal.valueOf(percent).stripTrailingZeros().toPlainString(),
+                    numberOrNull(values.get(String.valueOf(percent))));
+        }
+
+        List<HistogramBucket> buckets = aggregate(aggregations, HISTOGRAM_AGGREGATION).histogram().buckets().array();
+        List<PriceDistribution.Bucket> histogram = new ArrayList<>(buckets.size());
+        for (HistogramBucket bucket : buckets) {
+            histogram.add(new PriceDistribution.Bucket(bucket.key(), bucket.docCount()));
+        }
+
+        return new PriceDistribution(priceStats(aggregate(aggregations, PRICE_STATS_AGGREGATION).stats()),
+                percentiles, width, histogram);
+    }
+
+    @Override
+    public List<AgeCoverage> ageCoverage(SearchRequest filters) {
+        // A course covers a band when its age range overlaps it: minAge <= band end and maxAge >= band start
+        Map<String, Query> bands = new LinkedHashMap<>();
+        for (AnalyticsProperties.AgeBand band : properties.getAgeBands()) {
+            double from = band.getFrom();
+            double to = band.getTo();
+            bands.put(band.getLabel(), Query.of(q -> q.bool(b -> b
+                    .filter(f -> f.range(r -> r.number(n -> n.field("minAge").lte(to))))
+                    .filter(f -> f.range(r -> r.number(n -> n.field("maxAge").gte(from)))))));
+        }
+        Aggregation ageBands = Aggregation.of(a -> a.filters(f -> f.filters(b -> b.keyed(bands))));
+
+        SearchHits<CourseDocument> searchHits = search(filters, Map.of(AGE_BANDS_AGGREGATION, ageBands));
+        Map<String, FiltersBucket> buckets =
+                aggregate(aggregations(searchHits), AGE_BANDS_AGGREGATION).filters().buckets().keyed();
+        long total = searchHits.getTotalHits();
+
+        List<AgeCoverage> coverage = new ArrayList<>(bands.size());
+        for (AnalyticsProperties.AgeBand band : properties.getAgeBands()) {
+            FiltersBucket bucket = buckets.get(band.getLabel());
+            long count = bucket != null ? bucket.docCount() : 0;
+            coverage.add(new AgeCoverage(band.getLabel(), band.getFrom(), band.getTo(), count,
+                    total > 0 ? (double) count / total : 0));
+        }
+        return coverage;
+    }
+
+    /**
+     * Aggregation-only search over the courses passing the request's filters 📊
+     */
+    private SearchHits<CourseDocument> search(SearchRequest filters, Map<String, Aggregation> aggregations) {
+        NativeQueryBuilder builder = NativeQuery.builder()
+                .withQuery(courseQueryFactory.filtered(filters))
+                .withRoute(courseRouting.routingFor(filters))
+                .withMaxResults(0)
+                .withRequestCache(true);
+        aggregations.forEach(builder::withAggregation);
+        NativeQuery nativeQuery = builder.build();
+        // Shares are relative to the total, so it has to be exact
+        nativeQuery.setTrackTotalHits(true);
+
+        SearchHits<CourseDocument> searchHits =
+                circuitBreaker.execute(() -> elasticsearchOperations.search(nativeQuery, CourseDocument.class));
+        log.debug("Aggregated {} over {} courses", aggregations.keySet(), searchHits.getTotalHits());
+        return searchHits;
+    }
+
+    private static ElasticsearchAggregations aggregations(SearchHits<CourseDocument> searchHits) {
+        return (ElasticsearchAggregations) searchHits.getAggregations();
+    }
+
+    private static Aggregate aggregate(ElasticsearchAggregations aggregations, String name) {
+        return aggregations.get(name).aggregation().getAggregate();
+    }
+
+    private static PriceStats priceStats(StatsAggregate stats) {
+        // min/max/avg of no values come back as null, which the client turns into infinities and zero
+        if (stats.count() == 0) {
+            return PriceStats.NONE;
+        }
+        return new PriceStats(stats.count(), stats.min(), stats.avg(), stats.max());
+    }
+
+    private static Double numberOrNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        double number = Double.parseDouble(value);
+        return Double.isNaN(number) ? null : number;
+    }
+}
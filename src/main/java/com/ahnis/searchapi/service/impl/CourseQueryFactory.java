@@ -0,0 +1,277 @@
+package com.ahnis.searchapi.service.impl;
+
+import co.elastic.clients.elasticsearch._types.DistanceUnit;
+import co.elastic.clients.elasticsearch._types.GeoLocation;
+import co.elastic.clients.elasticsearch._types.LatLonGeoLocation;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.CalendarInterval;
+import co.elastic.clients.elasticsearch._types.aggregations.DateHistogramBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.FieldDateMath;
+import co.elastic.clients.elasticsearch._types.aggregations.GeoHashGridBucket;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.dto.SearchResponse;
+import com.ahnis.searchapi.dto.SearchSort;
+import com.ahnis.searchapi.dto.SessionInterval;
+import com.ahnis.searchapi.routing.CourseRouting;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Translates the filter part of a {@link SearchRequest} into Elasticsearch filter clauses.
+ *
+ * <p>Every filter present on the request becomes one non-scoring clause, so all of them apply together
+ * and are eligible for the node query cache. Matching semantics mirror the derived repository queries
+ * they replace:</p>
+ * <ul>
+ *     <li>{@code category}, {@code type}: phrase match on the analyzed field (case-insensitive). With category
+ *     routing on, {@code category} is an exact, case-insensitive term on {@code category.keyword} instead, see
+ *     {@link CourseRouting}</li>
+ *     <li>{@code minAge}: course {@code minAge >=} value; {@code maxAge}: course {@code maxAge <=} value</li>
+ *     <li>{@code minPrice}/{@code maxPrice}: inclusive range on {@code price}</li>
+ *     <li>{@code fromDate}/{@code toDate}: any of the course's {@code sessionDates} within the range — one range
+ *     query on a multi-valued field, however many sessions a course has. Courses indexed before session
+ *     schedules existed are matched on {@code nextSessionDate} instead</li>
+ *     <li>{@code lat}/{@code lon} with {@code radiusKm}: {@code geo_distance} on {@code location}</li>
+ * </ul>
+ *
+ * <p>It also builds the parts that ride along in the same search: the distance sort, the geohash-grid
+ * aggregation used for map clustering and the session-date histogram.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class CourseQueryFactory {
+
+    public static final String CLUSTER_AGGREGATION = "clusters";
+    private static final String CENTROID_AGGREGATION = "centroid";
+    private static final String LOCATION_FIELD = "location";
+    private static final String CATEGORY_KEYWORD_FIELD = "category.keyword";
+    private static final int MAX_GEOHASH_PRECISION = 12;
+    // Plenty for a map viewport; finer grids should come with a tighter radius
+    private static final int MAX_CLUSTERS = 1000;
+
+    public static final String SESSION_HISTOGRAM_AGGREGATION = "sessions";
+    private static final String SESSION_DATES_FIELD = "sessionDates";
+
+    // Same pattern as the nextSessionDate/sessionDates mappings on CourseDocument
+    private static final String SESSION_DATE_PATTERN = "uuuu-MM-dd'T'HH:mm:ss'Z'";
+    private static final DateTimeFormatter SESSION_DATE_FORMAT =
+            DateTimeFormatter.ofPattern(SESSION_DATE_PATTERN).withZone(ZoneOffset.UTC);
+
+    private static final Map<SessionInterval, CalendarInterval> CALENDAR_INTERVALS = new EnumMap<>(Map.of(
+            SessionInterval.DAY, CalendarInterval.Day,
+            SessionInterval.WEEK, CalendarInterval.Week,
+            SessionInterval.MONTH, CalendarInterval.Month,
+            SessionInterval.YEAR, CalendarInterval.Year));
+
+    private final CourseRouting courseRouting;
+
+    /**
+     * Filter clauses for every filter set on the request; empty when there are none
+     */
+    public List<Query> filterClauses(SearchRequest searchRequest) {
+        List<Query> filters = new ArrayList<>();
+
+        if (StringUtils.hasText(searchRequest.category())) {
+            // A routed search only asks the category's own shard, so its filter may only match that very category;
+            // the analyzed phrase also matches synonyms and longer names, whose courses live on other shards
+            filters.add(courseRouting.isEnabled()
+                    ? exactCategory(searchRequest.category())
+                    : phrase("category", searchRequest.category()));
+        }
+        if (StringUtils.hasText(searchRequest.type())) {
+            filters.add(phrase("type", searchRequest.type()));
+        }
+        if (searchRequest.hasMinAge()) {
+            double minAge = searchRequest.minAge();
+            filters.add(Query.of(q -> q.range(r -> r.number(n -> n.field("minAge").gte(minAge)))));
+        }
+        if (searchRequest.hasMaxAge()) {
+            double maxAge = searchRequest.maxAge();
+            filters.add(Query.of(q -> q.range(r -> r.number(n -> n.field("maxAge").lte(maxAge)))));
+        }
+        if (searchRequest.hasMinPrice() || searchRequest.hasMaxPrice()) {
+            filters.add(Query.of(q -> q.range(r -> r.number(n -> {
+                n.field("price");
+                if (searchRequest.hasMinPrice()) {
+                    n.gte(searchRequest.minPrice());
+                }
+                if (searchRequest.hasMaxPrice()) {
+                    n.lte(searchRequest.maxPrice());
+                }
+                return n;
+            }))));
+        }
+        if (searchRequest.fromDate() != null || searchRequest.toDate() != null) {
+            filters.add(sessionsBetween(searchRequest.fromDate(), searchRequest.toDate()));
+        }
+        if (searchRequest.hasRadius()) {
+            filters.add(Query.of(q -> q.geoDistance(g -> g
+                    .field(LOCATION_FIELD)
+                    .location(origin(searchRequest))
+                    .distance(searchRequest.radiusKm() + "km"))));
+        }
+        return filters;
+    }
+
+    /**
+     * Query matching every course that passes the request's filters (all courses if it has none)
+     */
+    public Query filtered(SearchRequest searchRequest) {
+        List<Query> filters = filterClauses(searchRequest);
+        if (filters.isEmpty()) {
+            return Query.of(q -> q.matchAll(m -> m));
+        }
+        return Query.of(q -> q.bool(b -> b.filter(filters)));
+    }
+
+    /**
+     * Nearest-first sort on {@code location}; {@code null} unless sorting by distance from a given location
+     */
+    public SortOptions distanceSort(SearchRequest searchRequest) {
+        if (searchRequest.sort() != SearchSort.DISTANCE || !searchRequest.hasLocation()) {
+            return null;
+        }
+        return SortOptions.of(s -> s.geoDistance(g -> g
+                .field(LOCATION_FIELD)
+                .location(origin(searchRequest))
+                .order(SortOrder.Asc)
+                .unit(DistanceUnit.Kilometers)
+                .ignoreUnmapped(true)));
+    }
+
+    /**
+     * Geohash grid over every matching course, with each cell's centroid; {@code null} unless requested
+     */
+    public Aggregation clusterAggregation(SearchRequest searchRequest) {
+        int precision = searchRequest.geohashPrecision();
+        if (precision <= 0) {
+            return null;
+        }
+        return Aggregation.of(a -> a
+                .geohashGrid(g -> g
+                        .field(LOCATION_FIELD)
+                        .precision(p -> p.geohashLength(Math.min(precision, MAX_GEOHASH_PRECISION)))
+                        .size(MAX_CLUSTERS))
+                .aggregations(CENTROID_AGGREGATION, c -> c.geoCentroid(gc -> gc.field(LOCATION_FIELD))));
+    }
+
+    /**
+     * Reads back the cells of {@link #clusterAggregation}; empty if the search did not ask for them
+     */
+    public static List<SearchResponse.GeoCluster> clustersOf(SearchHits<?> searchHits) {
+        if (!(searchHits.getAggregations() instanceof ElasticsearchAggregations aggregations)
+                || aggregations.get(CLUSTER_AGGREGATION) == null) {
+            return List.of();
+        }
+        List<GeoHashGridBucket> buckets = aggregations.get(CLUSTER_AGGREGATION).aggregation().getAggregate()
+                .geohashGrid().buckets().array();
+
+        List<SearchResponse.GeoCluster> clusters = new ArrayList<>(buckets.size());
+        for (GeoHashGridBucket bucket : buckets) {
+            GeoLocation centroid = bucket.aggregations().get(CENTROID_AGGREGATION).geoCentroid().location();
+            LatLonGeoLocation point = centroid != null ? centroid.latlon() : null;
+            clusters.add(new SearchResponse.GeoCluster(bucket.key(), bucket.docCount(),
+                    point != null ? point.lat() : 0, point != null ? point.lon() : 0));
+        }
+        return clusters;
+    }
+
+    /**
+     * Course count per session-date bucket, limited to the requested date range; {@code null} unless requested
+     */
+    public Aggregation sessionHistogram(SearchRequest searchRequest) {
+        SessionInterval interval = searchRequest.sessionHistogram();
+        if (interval == null) {
+            return null;
+        }
+        Instant fromDate = searchRequest.fromDate();
+        Instant toDate = searchRequest.toDate();
+        return Aggregation.of(a -> a.dateHistogram(h -> {
+            h.field(SESSION_DATES_FIELD)
+                    .calendarInterval(CALENDAR_INTERVALS.get(interval))
+                    .format(SESSION_DATE_PATTERN) // also how the bounds below are parsed
+                    .minDocCount(1);
+            // Matching courses have other sessions too; only the ones inside the range make buckets
+            if (fromDate != null || toDate != null) {
+                h.hardBounds(b -> {
+                    if (fromDate != null) {
+                        b.min(FieldDateMath.of(m -> m.expr(SESSION_DATE_FORMAT.format(fromDate))));
+                    }
+                    if (toDate != null) {
+                        b.max(FieldDateMath.of(m -> m.expr(SESSION_DATE_FORMAT.format(toDate))));
+                    }
+                    return b;
+                });
+            }
+            return h;
+        }));
+    }
+
+    /**
+     * Reads back the buckets of {@link #sessionHistogram}; empty if the search did not ask for them
+     */
+    public static List<SearchResponse.SessionBucket> sessionBucketsOf(SearchHits<?> searchHits) {
+        if (!(searchHits.getAggregations() instanceof ElasticsearchAggregations aggregations)
+                || aggregations.get(SESSION_HISTOGRAM_AGGREGATION) == null) {
+            return List.of();
+        }
+        List<DateHistogramBucket> buckets = aggregations.get(SESSION_HISTOGRAM_AGGREGATION).aggregation()
+                .getAggregate().dateHistogram().buckets().array();
+
+        List<SearchResponse.SessionBucket> sessionBuckets = new ArrayList<>(buckets.size());
+        for (DateHistogramBucket bucket : buckets) {
+            sessionBuckets.add(new SearchResponse.SessionBucket(Instant.ofEpochMilli(bucket.key()), bucket.docCount()));
+        }
+        return sessionBuckets;
+    }
+
+    private static Query sessionsBetween(Instant fromDate, Instant toDate) {
+        Query sessions = dateRange(SESSION_DATES_FIELD, fromDate, toDate);
+        Query legacy = Query.of(q -> q.bool(b -> b
+                .mustNot(m -> m.exists(e -> e.field(SESSION_DATES_FIELD)))
+                .filter(dateRange("nextSessionDate", fromDate, toDate))));
+        return Query.of(q -> q.bool(b -> b.should(sessions, legacy).minimumShouldMatch("1")));
+    }
+
+    private static Query dateRange(String field, Instant fromDate, Instant toDate) {
+        return Query.of(q -> q.range(r -> r.date(d -> {
+            d.field(field);
+            if (fromDate != null) {
+                d.gte(SESSION_DATE_FORMAT.format(fromDate));
+            }
+            if (toDate != null) {
+                d.lte(SESSION_DATE_FORMAT.format(toDate));
+            }
+            return d;
+        })));
+    }
+
+    private static GeoLocation origin(SearchRequest searchRequest) {
+        return GeoLocation.of(l -> l.latlon(ll -> ll.lat(searchRequest.lat()).lon(searchRequest.lon())));
+    }
+
+    private static Query exactCategory(String category) {
+        return Query.of(q -> q.term(t -> t
+                .field(CATEGORY_KEYWORD_FIELD)
+                .value(category.trim())
+                .caseInsensitive(true)));
+    }
+
+    private static Query phrase(String field, String value) {
+        return Query.of(q -> q.matchPhrase(m -> m.field(field).query(value)));
+    }
+}
@@ -0,0 +1,113 @@
+package com.ahnis.searchapi.service.impl;
+
+import co.elastic.clients.elasticsearch._types.Time;
+import co.elastic.clients.elasticsearch._types.query_dsl.FieldValueFactorModifier;
+import co.elastic.clients.elasticsearch._types.query_dsl.FunctionBoostMode;
+import co.elastic.clients.elasticsearch._types.query_dsl.FunctionScore;
+import co.elastic.clients.elasticsearch._types.query_dsl.FunctionScoreMode;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.ahnis.searchapi.config.RankingProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.query.RescorerQuery;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the scoring side of relevance ranking: BM25 from the text query, blended with {@code function_score}
+ * signals (see {@link RankingProperties}).
+ *
+ * <p>Two ways to apply the signals:</p>
+ * <ul>
+ *     <li><b>Rescore</b> ({@code rescore-window > 0}): the text query ranks as usual and only the top hits per shard
+ *     are rescored with the signals, so their cost doesn't grow with the number of matches.</li>
+ *     <li><b>Inline</b>: the text query is wrapped in a {@code function_score}, so every matching hit pays for the
+ *     signals. Exact, but more expensive on broad queries.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class RankingQueries {
+
+    private final RankingProperties properties;
+
+    public boolean isRescoring() {
+        return properties.getRescoreWindow() > 0;
+    }
+
+    /**
+     * The text query with the ranking signals applied to every hit
+     */
+    public Query inline(Query textQuery) {
+        return Query.of(q -> q.functionScore(fs -> fs
+                .query(textQuery)
+                .functions(functions())
+                .scoreMode(FunctionScoreMode.Sum)
+                .boostMode(FunctionBoostMode.Multiply)));
+    }
+
+    /**
+     * Rescorer multiplying the text score of the top hits by the ranking signals; the window always covers the
+     * requested page, so paging doesn't switch between rescored and plain order
+     */
+    public RescorerQuery rescorer(Pageable pageable) {
+        Query signals = Query.of(q -> q.functionScore(fs -> fs
+                .functions(functions())
+                .scoreMode(FunctionScoreMode.Sum)
+                .boostMode(FunctionBoostMode.Replace)));
+
+        int window = (int) Math.max(properties.getRescoreWindow(), pageable.getOffset() + pageable.getPageSize());
+        return new RescorerQuery(NativeQuery.builder().withQuery(signals).build())
+                .withScoreMode(RescorerQuery.ScoreMode.Multiply)
+                .withWindowSize(window)
+                .withQueryWeight(1.0f)
+                .withRescoreQueryWeight(1.0f);
+    }
+
+    List<FunctionScore> functions() {
+        List<FunctionScore> functions = new ArrayList<>(4);
+        // Keeps score_mode=sum from ever zeroing a hit that has no signals at all
+        functions.add(FunctionScore.of(f -> f
+                .filter(m -> m.matchAll(a -> a))
+                .weight(properties.getBaselineWeight())));
+
+        if (properties.getRecencyWeight() > 0) {
+            // Only upcoming sessions earn a recency boost; past ones would otherwise decay back up towards "now"
+            functions.add(FunctionScore.of(f -> f
+                    .filter(r -> r.range(d -> d.date(date -> date.field("nextSessionDate").gte("now"))))
+                    .gauss(g -> g.date(date -> date
+                            .field("nextSessionDate")
+                            .placement(p -> p
+                                    .origin("now")
+                                    .scale(Time.of(t -> t.time(properties.getRecencyScale())))
+                                    .offset(Time.of(t -> t.time(properties.getRecencyOffset())))
+                                    .decay(properties.getRecencyDecay()))))
+                    .weight(properties.getRecencyWeight())));
+        }
+
+        if (properties.getPopularityWeight() > 0) {
+            functions.add(FunctionScore.of(f -> f
+                    .fieldValueFactor(v -> v
+                            .field("popularity")
+                            .factor(properties.getPopularityFactor())
+                            .modifier(FieldValueFactorModifier.Log1p)
+                            .missing(0.0))
+                    .weight(properties.getPopularityWeight())));
+        }
+
+        if (properties.isPricePreference() && properties.getPriceWeight() > 0) {
+            functions.add(FunctionScore.of(f -> f
+                    .gauss(g -> g.numeric(n -> n
+                            .field("price")
+                            .placement(p -> p
+                                    .origin(properties.getPriceOrigin())
+                                    .scale(properties.getPriceScale())
+                                    .decay(properties.getPriceDecay()))))
+                    .weight(properties.getPriceWeight())));
+        }
+        return functions;
+    }
+}
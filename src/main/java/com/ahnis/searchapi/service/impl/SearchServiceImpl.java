@@ -1,24 +1,47 @@
 package com.ahnis.searchapi.service.impl;
 
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.search.Suggester;
+import com.ahnis.searchapi.analysis.AnalysisRules;
+import com.ahnis.searchapi.cache.SearchCaches;
+import com.ahnis.searchapi.diagnostics.QueryTrace;
+import com.ahnis.searchapi.diagnostics.SlowQueryLog;
+import com.ahnis.searchapi.dto.CoursePage;
+import com.ahnis.searchapi.dto.SearchMode;
 import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.dto.SearchResponse;
+import com.ahnis.searchapi.dto.SearchSort;
 import com.ahnis.searchapi.entity.CourseDocument;
-import com.ahnis.searchapi.repository.CourseRepository;
+import com.ahnis.searchapi.entity.CourseLocation;
+import com.ahnis.searchapi.resilience.ElasticsearchCircuitBreaker;
+import com.ahnis.searchapi.resilience.SearchGuardrails;
+import com.ahnis.searchapi.routing.CourseRouting;
 import com.ahnis.searchapi.service.SearchService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.SearchShardStatistics;
+import org.springframework.data.elasticsearch.core.TotalHitsRelation;
 import org.springframework.data.elasticsearch.core.query.Criteria;
 import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.query.RescorerQuery;
+import org.springframework.data.elasticsearch.core.query.SourceFilter;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -30,6 +53,7 @@ import java.util.stream.Collectors;
  * <ul>
  *     <li><b>Full-text Search:</b> Uses a multi-field search on course titles and descriptions when a text query is provided.</li>
  *     <li><b>Filtered Search:</b> Applies a combination of filters such as category, type, age range, price range, and session date.</li>
+ *     <li><b>Hybrid Search</b> ({@code mode=hybrid}): BM25 and embedding similarity, fused by rank (see {@link SemanticQueries}).</li>
  * </ul>
  *
  * <p><b>Sorting:</b></p>
@@ -37,30 +61,47 @@ import java.util.stream.Collectors;
  *     <li>Default: ascending by {@code nextSessionDate}</li>
  *     <li>priceAsc: ascending by {@code price}</li>
  *     <li>priceDesc: descending by {@code price}</li>
+ *     <li>relevance: by score — text relevance blended with recency, popularity and price (see {@link RankingQueries})</li>
+ *     <li>distance: nearest first, from the request's {@code lat}/{@code lon}</li>
  * </ul>
  *
- * <p><b>Pagination:</b> Supports paginated results via {@code page} and {@code size} parameters from {@link SearchRequest}.</p>
+ * <p><b>Pagination:</b> Supports paginated results via {@code page} and {@code size} parameters from {@link SearchRequest}.
+ * Deep listing pages continue {@code search_after} the previous page instead of from/size, pages past the result
+ * window are refused, and totals are counted only up to a limit (see {@link SearchGuardrails}).</p>
  *
  * <p><b>Logic Flow:</b></p>
  * <ol>
  *     <li>Construct pageable object with appropriate sorting.</li>
- *     <li>If a text query is provided, run a full-text search on title and description.</li>
- *     <li>If additional filters exist or text search yields no results, fallback to filtered queries.</li>
- *     <li>Apply combinations of filters if available, else fallback to individual filter queries.</li>
+ *     <li>If a text query is provided, run a full-text search on title and description — an exact pass first,
+ *     escalating to a bounded fuzzy pass only when it finds too few hits (see {@link TextMatchQueries}).</li>
+ *     <li>A term suggester rides along with the first pass. When the text finds too few hits, the escalated pass
+ *     also matches the suggested spelling correction, and the page carries it as "did you mean"
+ *     (see {@link SpellingSuggestions}).</li>
+ *     <li>If additional filters exist or text search yields no results, fallback to the filtered query.</li>
+ *     <li>Session date ranges match any of a course's scheduled sessions, in the same single query.</li>
+ *     <li>The filtered query applies every filter on the request at once (see {@link CourseQueryFactory}).</li>
  * </ol>
  *
- * <p><b>Filter Combinations Supported:</b></p>
- * <ul>
- *     <li>Category + Type + Date</li>
- *     <li>MinAge + MaxAge</li>
- *     <li>MinPrice + MaxPrice</li>
- * </ul>
- *
  * <p>If no criteria are specified, all courses are returned.</p>
  *
+ * <p><b>Analysis:</b> stop words are stripped from the text query and synonyms expanded by the index's search
+ * analyzer; both sets can be swapped at runtime (see {@link AnalysisRules}).</p>
+ *
+ * <p><b>Routing:</b> with category routing enabled, single-category filtered searches are sent to the one shard
+ * holding that category (see {@link CourseRouting}); everything else fans out as usual.</p>
+ *
+ * <p><b>Caching:</b> result pages and suggestions are cached per request in {@link SearchCaches} (cleared on every
+ * index change). Traced searches ({@link #searchCourses(SearchRequest, QueryTrace)}) always hit Elasticsearch.</p>
+ *
+ * <p><b>Resilience:</b> every Elasticsearch call goes through the {@link ElasticsearchCircuitBreaker}; while it is
+ * open, calls fail fast and the controller answers from its fallbacks.</p>
+ *
+ * <p><b>Diagnostics:</b> every Elasticsearch round trip is recorded in a {@link QueryTrace}; requests slower than
+ * the configured threshold end up in the {@link SlowQueryLog} with their query DSL and timings.</p>
+ *
  * <p><b>Dependencies:</b></p>
  * <ul>
- *     <li>{@link CourseRepository} for Elasticsearch interactions</li>
+ *     <li>{@link ElasticsearchOperations} for Elasticsearch interactions</li>
  * </ul>
  *
  * <p><b>Note:</b> Uses modern switch expressions and expressive comments for an extra touch of developer personality ✨</p>
@@ -76,165 +117,383 @@ import java.util.stream.Collectors;
 @Slf4j
 public class SearchServiceImpl implements SearchService {
 
-    private final CourseRepository courseRepository;
+    // Embeddings are for scoring inside Elasticsearch; shipping them back with every hit would only cost bandwidth
+    private static final SourceFilter WITHOUT_EMBEDDING =
+            new FetchSourceFilter(null, new String[]{SemanticQueries.EMBEDDING_FIELD});
+
+    // Gives every listing hit a unique position, so the last one of a page is a cursor for the next
+    private static final Sort ID_TIEBREAKER = Sort.by(Sort.Direction.ASC, "id");
+
     private final ElasticsearchOperations elasticsearchOperations;
+    private final TextMatchQueries textMatchQueries;
+    private final CourseQueryFactory courseQueryFactory;
+    private final RankingQueries rankingQueries;
+    private final SlowQueryLog slowQueryLog;
+    private final CourseRouting courseRouting;
+    private final ElasticsearchCircuitBreaker circuitBreaker;
+    private final AnalysisRules analysisRules;
+    private final SemanticQueries semanticQueries;
+    private final SearchGuardrails searchGuardrails;
+    private final SpellingSuggestions spellingSuggestions;
 
     @Override
+    @Cacheable(cacheNames = SearchCaches.SEARCH_RESULTS)
     public Page<CourseDocument> searchCourses(SearchRequest searchRequest) {
+        QueryTrace trace = new QueryTrace();
+        Page<CourseDocument> results = searchCourses(searchRequest, trace);
+        slowQueryLog.record(searchRequest, trace);
+        return results;
+    }
+
+    @Override
+    public Page<CourseDocument> searchCourses(SearchRequest searchRequest, QueryTrace trace) {
         // Create pageable with sorting
         var pageable = createPageable(searchRequest);
 
         // If we have a text query, use it as the primary search method :)
-        if (StringUtils.hasText(searchRequest.getQuery())) {
-            return findCoursesWithTextSearch(searchRequest, pageable);
+        if (StringUtils.hasText(searchRequest.query())) {
+            // Relevance order can change between requests, so text searches have no cursor to go deeper with
+            searchGuardrails.checkDepth(searchRequest, null);
+            if (isHybrid(searchRequest)) {
+                return findCoursesWithHybridSearch(searchRequest, trace);
+            }
+            return findCoursesWithTextSearch(searchRequest, pageable, trace);
         }
 
-        // Otherwise, we use 'filter' combo
-        return findCoursesWithFilters(searchRequest, pageable);
+        // Otherwise, we use 'filter' combo — deep pages pick up where the previous page ended 🔖
+        List<Object> cursor = searchGuardrails.cursorFor(searchRequest);
+        searchGuardrails.checkDepth(searchRequest, cursor);
+        return findCoursesWithFilters(searchRequest, pageable, cursor, trace);
     }
 
-    private Pageable createPageable(SearchRequest searchRequest) {
-        // Determine sort 'direction' and field (Just like how I am doing right now in life)
-        Sort sort;
-        if (searchRequest.getSort() != null) {
-            // Using the  cool new switch expression like a true Gen Z dev 😎
-            sort = switch (searchRequest.getSort()) {
-                case "priceAsc" -> Sort.by(Sort.Direction.ASC, "price");
-                case "priceDesc" -> Sort.by(Sort.Direction.DESC, "price");
-                default -> Sort.by(Sort.Direction.ASC, "nextSessionDate");
-            };
-        } else {
-            // Default sort by nextSessionDate ascending
-            sort = Sort.by(Sort.Direction.ASC, "nextSessionDate");
+    /**
+     * The search {@link #searchCourses(SearchRequest, QueryTrace)} sends first for a request, built by the same
+     * code but not sent: the text pass with its suggester and ranking, the hybrid keyword side, or the listing.
+     *
+     * <p>This is what the performance gate measures as query translation.</p>
+     */
+    public NativeQuery firstPass(SearchRequest searchRequest) {
+        Pageable pageable = createPageable(searchRequest);
+        if (!StringUtils.hasText(searchRequest.query())) {
+            return listingSearch(searchRequest, pageable, searchGuardrails.cursorFor(searchRequest));
+        }
+        String query = analysisRules.stripStopWords(searchRequest.query());
+        if (isHybrid(searchRequest)) {
+            return StringUtils.hasText(query)
+                    ? hybridKeywordSearch(query, courseQueryFactory.filterClauses(searchRequest),
+                            courseRouting.routingFor(searchRequest), hybridWindow(searchRequest), searchRequest)
+                    : listingSearch(searchRequest, PageRequest.of(searchRequest.page(), searchRequest.size()), null);
         }
+        return StringUtils.hasText(query)
+                ? firstTextPass(query, searchRequest, pageable)
+                : listingSearch(searchRequest, pageable, null);
+    }
 
-        return PageRequest.of(searchRequest.getPage(), searchRequest.getSize(), sort);
+    private Pageable createPageable(SearchRequest searchRequest) {
+        // Sort was parsed once into an enum that already holds its (immutable) Sort — nothing to decide here 😎
+        return PageRequest.of(searchRequest.page(), searchRequest.size(), searchRequest.sort().toSort());
     }
 
-    private Page<CourseDocument> findCoursesWithTextSearch(SearchRequest searchRequest, Pageable pageable) {
-        String query = searchRequest.getQuery();
+    private Page<CourseDocument> findCoursesWithTextSearch(SearchRequest searchRequest, Pageable pageable,
+                                                           QueryTrace trace) {
+        // Stop words go before anything reaches Elasticsearch; synonyms are expanded there, at search time
+        String query = analysisRules.stripStopWords(searchRequest.query());
+        if (!StringUtils.hasText(query)) {
+            return findCoursesWithFilters(searchRequest, pageable, trace);
+        }
         log.debug("Searching courses with text query: {}", query);
 
-        // Create a fuzzy match query for the title field
-        Criteria titleCriteria = new Criteria("title").fuzzy(query);
-
-        // Create a contains query for the description field
-        Criteria descriptionCriteria = new Criteria("description").contains(query);
-
-        // Combine the criteria with OR
-        Criteria combinedCriteria = new Criteria().or(titleCriteria).or(descriptionCriteria);
-
-        // Create and execute the query
-        CriteriaQuery criteriaQuery = new CriteriaQuery(combinedCriteria, pageable);
-        SearchHits<CourseDocument> searchHits = elasticsearchOperations.search(criteriaQuery, CourseDocument.class);
-
-        // Convert search hits to a list of CourseDocument objects
-        List<CourseDocument> courses = searchHits.getSearchHits().stream()
-                .map(SearchHit::getContent)
-                .collect(Collectors.toList());
+        // Cheap exact pass first; only pay for fuzzy expansion when it comes back (nearly) empty
+        SearchHits<CourseDocument> searchHits = execute(textMatchQueries.isExactFirst() ? "text-exact" : "text-fuzzy",
+                firstTextPass(query, searchRequest, pageable), trace);
+        SearchResponse.DidYouMean didYouMean = null;
+        if (textMatchQueries.isExactFirst()) {
+            if (searchHits.getTotalHits() < textMatchQueries.getMinExactHits()) {
+                log.debug("Exact pass found {} hits, escalating to fuzzy", searchHits.getTotalHits());
+                String correction = spellingSuggestions.correct(query, searchHits.getSuggest());
+                if (correction != null && spellingSuggestions.isAutoCorrect()) {
+                    // Still one escalation: the typo-tolerant original and the correction in the same query
+                    searchHits = executeText("text-corrected", textMatchQueries.corrected(query, correction,
+                            spellingSuggestions.getFields()), null, searchRequest, pageable, trace);
+                    didYouMean = new SearchResponse.DidYouMean(correction, searchHits.getTotalHits() > 0);
+                } else {
+                    searchHits = executeText("text-fuzzy", textMatchQueries.fuzzy(query), null, searchRequest,
+                            pageable, trace);
+                    didYouMean = correction != null ? new SearchResponse.DidYouMean(correction, false) : null;
+                }
+            }
+        } else {
+            String correction = searchHits.getTotalHits() == 0
+                    ? spellingSuggestions.correct(query, searchHits.getSuggest())
+                    : null;
+            if (correction != null && spellingSuggestions.isAutoCorrect()) {
+                // Without an exact pass to ride along with, trying the correction takes a second round trip
+                searchHits = executeText("text-corrected", textMatchQueries.corrected(query, correction,
+                        spellingSuggestions.getFields()), null, searchRequest, pageable, trace);
+                didYouMean = new SearchResponse.DidYouMean(correction, searchHits.getTotalHits() > 0);
+            } else if (correction != null) {
+                didYouMean = new SearchResponse.DidYouMean(correction, false);
+            }
+        }
 
-        // Create a Page object from the list
-        Page<CourseDocument> results = new PageImpl<>(courses, pageable, searchHits.getTotalHits());
+        // Create a Page object from the hits
+        Page<CourseDocument> results = toPage(searchHits, pageable, searchRequest);
 
         // Apply additional filters if needed — because even Elasticsearch deserves high standards 😌
         if (results.isEmpty() || hasAdditionalFilters(searchRequest)) {
-            return findCoursesWithFilters(searchRequest, pageable);
+            results = findCoursesWithFilters(searchRequest, pageable, trace);
+            // The listing replaced the text hits, so whatever the correction found isn't what's shown
+            if (didYouMean != null && didYouMean.applied()) {
+                didYouMean = new SearchResponse.DidYouMean(didYouMean.text(), false);
+            }
         }
 
-        return results;
+        // Whatever is shown, a correction that was found is worth offering
+        return didYouMean != null && results instanceof CoursePage coursePage
+                ? coursePage.withDidYouMean(didYouMean)
+                : results;
     }
 
-    private boolean hasAdditionalFilters(SearchRequest searchRequest) {
-        return StringUtils.hasText(searchRequest.getCategory()) ||
-                StringUtils.hasText(searchRequest.getType()) ||
-                searchRequest.getMinAge() != null ||
-                searchRequest.getMaxAge() != null ||
-                searchRequest.getMinPrice() != null ||
-                searchRequest.getMaxPrice() != null ||
-                searchRequest.getFromDate() != null;
+    /**
+     * The first text pass: exact or fuzzy, as configured.
+     * The spelling suggester goes along with it, so a correction is at hand without asking again 🔤
+     */
+    NativeQuery firstTextPass(String query, SearchRequest searchRequest, Pageable pageable) {
+        Query textQuery = textMatchQueries.isExactFirst() ? textMatchQueries.exact(query) : textMatchQueries.fuzzy(query);
+        return textSearch(textQuery, spellingSuggestions.suggester(query), searchRequest, pageable);
     }
 
-    private Page<CourseDocument> findCoursesWithFilters(SearchRequest searchRequest, Pageable pageable) {
-        log.debug("Searching courses with filters");
+    private SearchHits<CourseDocument> executeText(String phase, Query textQuery, Suggester suggester,
+                                                   SearchRequest searchRequest, Pageable pageable, QueryTrace trace) {
+        return execute(phase, textSearch(textQuery, suggester, searchRequest, pageable), trace);
+    }
 
-        // Check for combined filters
+    /**
+     * Search for a text query, blending in the ranking signals when results are ordered by relevance
+     */
+    NativeQuery textSearch(Query textQuery, Suggester suggester, SearchRequest searchRequest, Pageable pageable) {
+        if (searchRequest.sort() != SearchSort.RELEVANCE) {
+            return searchQuery(textQuery, null, pageable, null, searchRequest, null, suggester);
+        }
+        // BM25 for everything, signals only for the top of the list — or for every hit when rescoring is off 🏅
+        if (rankingQueries.isRescoring()) {
+            return searchQuery(textQuery, rankingQueries.rescorer(pageable), pageable, null, searchRequest, null,
+                    suggester);
+        }
+        return searchQuery(rankingQueries.inline(textQuery), null, pageable, null, searchRequest, null, suggester);
+    }
 
-        // Category and Type filter combination
-        if (StringUtils.hasText(searchRequest.getCategory()) && StringUtils.hasText(searchRequest.getType())) {
-            // If we also have a date filter — because even courses need a proper schedule, unlike my love life 😅
-            if (searchRequest.getFromDate() != null) {
-                return courseRepository.findByCategoryAndTypeAndNextSessionDateGreaterThanEqual(
-                        searchRequest.getCategory(),
-                        searchRequest.getType(),
-                        searchRequest.getFromDate(),
-                        pageable);
-            }
+    /**
+     * Hybrid ranking decides the order itself, so an explicit price or distance sort keeps the keyword search
+     */
+    private boolean isHybrid(SearchRequest searchRequest) {
+        return searchRequest.mode() == SearchMode.HYBRID
+                && semanticQueries.isEnabled()
+                && (searchRequest.sort() == SearchSort.RELEVANCE || searchRequest.sort() == SearchSort.NEXT_SESSION);
+    }
 
-            return courseRepository.findByCategoryAndType(
-                    searchRequest.getCategory(),
-                    searchRequest.getType(),
-                    pageable);
+    /**
+     * BM25 and vector similarity over the same filtered courses, fused by reciprocal rank 🤝
+     *
+     * <p>Each side contributes its top {@code rank-window} courses; {@code total} counts the fused candidates,
+     * and pages past them are empty. Map clusters and the session facet come from the BM25 side.</p>
+     */
+    private Page<CourseDocument> findCoursesWithHybridSearch(SearchRequest searchRequest, QueryTrace trace) {
+        String query = analysisRules.stripStopWords(searchRequest.query());
+        Pageable pageable = PageRequest.of(searchRequest.page(), searchRequest.size());
+        if (!StringUtils.hasText(query)) {
+            return findCoursesWithFilters(searchRequest, pageable, trace);
         }
-
-        // Age range filter combination
-        if (searchRequest.getMinAge() != null && searchRequest.getMaxAge() != null) {
-            return courseRepository.findByMinAgeGreaterThanEqualAndMaxAgeLessThanEqual(
-                    searchRequest.getMinAge(),
-                    searchRequest.getMaxAge(),
-                    pageable);
+        log.debug("Searching courses with hybrid query: {}", query);
+
+        // Filters go inside both sides, so neither one spends its window on courses that would be dropped
+        List<Query> filters = courseQueryFactory.filterClauses(searchRequest);
+        String routing = courseRouting.routingFor(searchRequest);
+        Pageable window = hybridWindow(searchRequest);
+
+        SearchHits<CourseDocument> keywordHits = execute("hybrid-keyword",
+                hybridKeywordSearch(query, filters, routing, window, searchRequest), trace);
+
+        List<List<SearchHit<CourseDocument>>> rankings = new ArrayList<>(2);
+        rankings.add(keywordHits.getSearchHits());
+        float[] queryVector = semanticQueries.embed(query);
+        if (queryVector != null) {
+            // Facets are already on the keyword side
+            SearchRequest withoutFacets = searchRequest.withGeohashPrecision(0).withSessionHistogram(null);
+            rankings.add(execute("hybrid-vector", searchQuery(semanticQueries.nearest(queryVector, filters), null,
+                    window, routing, withoutFacets, null, null), trace).getSearchHits());
         }
+        List<SearchHit<CourseDocument>> fused = semanticQueries.fuse(rankings, SearchHit::getId);
 
-        // Price range filter combination
-        if (searchRequest.getMinPrice() != null && searchRequest.getMaxPrice() != null) {
-            return courseRepository.findByPriceGreaterThanEqualAndPriceLessThanEqual(
-                    searchRequest.getMinPrice(),
-                    searchRequest.getMaxPrice(),
-                    pageable);
+        int from = (int) Math.min(pageable.getOffset(), fused.size());
+        int to = Math.min(from + pageable.getPageSize(), fused.size());
+        List<CourseDocument> courses = new ArrayList<>(to - from);
+        for (SearchHit<CourseDocument> hit : fused.subList(from, to)) {
+            courses.add(hit.getContent());
         }
+        CourseLocation origin = searchRequest.hasLocation()
+                ? new CourseLocation(searchRequest.lat(), searchRequest.lon())
+                : null;
+        return new CoursePage(courses, pageable, fused.size(), origin,
+                CourseQueryFactory.clustersOf(keywordHits), CourseQueryFactory.sessionBucketsOf(keywordHits));
+    }
 
-        // Apply individual filters if no combinations match
+    private Pageable hybridWindow(SearchRequest searchRequest) {
+        return PageRequest.of(0, Math.max(semanticQueries.getRankWindow(), searchRequest.size()));
+    }
 
-        // Category filter
-        if (StringUtils.hasText(searchRequest.getCategory())) {
-            return courseRepository.findByCategory(searchRequest.getCategory(), pageable);
-        }
+    NativeQuery hybridKeywordSearch(String query, List<Query> filters, String routing, Pageable window,
+                                    SearchRequest searchRequest) {
+        Query textQuery = textMatchQueries.fuzzy(query);
+        Query keywordQuery = filters.isEmpty() ? textQuery : Query.of(q -> q.bool(b -> b.must(textQuery).filter(filters)));
+        return searchQuery(keywordQuery, null, window, routing, searchRequest, null, null);
+    }
 
-        // Type filter
-        if (StringUtils.hasText(searchRequest.getType())) {
-            return courseRepository.findByType(searchRequest.getType(), pageable);
-        }
+    private boolean hasAdditionalFilters(SearchRequest searchRequest) {
+        return StringUtils.hasText(searchRequest.category()) ||
+                StringUtils.hasText(searchRequest.type()) ||
+                searchRequest.presence() != 0 ||
+                searchRequest.fromDate() != null ||
+                searchRequest.toDate() != null;
+    }
 
-        // Min Age filter
-        if (searchRequest.getMinAge() != null) {
-            return courseRepository.findByMinAgeGreaterThanEqual(searchRequest.getMinAge(), pageable);
+    private Page<CourseDocument> findCoursesWithFilters(SearchRequest searchRequest, Pageable pageable,
+                                                        QueryTrace trace) {
+        return findCoursesWithFilters(searchRequest, pageable, null, trace);
+    }
+
+    /**
+     * @param cursor sort values to continue after instead of skipping {@code from} hits; {@code null} for from/size
+     */
+    private Page<CourseDocument> findCoursesWithFilters(SearchRequest searchRequest, Pageable pageable,
+                                                        List<Object> cursor, QueryTrace trace) {
+        log.debug("Searching courses with filters{}", cursor != null ? " after " + cursor : "");
+        SearchHits<CourseDocument> searchHits = execute("filters", listingSearch(searchRequest, pageable, cursor),
+                trace);
+
+        // Only plain listings have a stable order to continue from; text searches end up here as a fallback too
+        List<SearchHit<CourseDocument>> hits = searchHits.getSearchHits();
+        if (!StringUtils.hasText(searchRequest.query()) && !hits.isEmpty()) {
+            searchGuardrails.rememberCursor(searchRequest, hits.get(hits.size() - 1).getSortValues());
         }
+        return toPage(searchHits, listingPageable(searchRequest, pageable), searchRequest);
+    }
+
+    /**
+     * Search for a listing page: all filters in one bool query — no filter gets left behind 🫡
+     * (and with none at all, this is a plain match_all: every course is returned).
+     * A single-category search only needs the shard that category is routed to.
+     *
+     * @param cursor sort values to continue after instead of skipping {@code from} hits; {@code null} for from/size
+     */
+    NativeQuery listingSearch(SearchRequest searchRequest, Pageable pageable, List<Object> cursor) {
+        Pageable sorted = listingPageable(searchRequest, pageable);
+        // With a cursor the page starts right after it; the returned page still reports its own number
+        Pageable fetched = cursor != null ? PageRequest.of(0, sorted.getPageSize(), sorted.getSort()) : sorted;
+        return searchQuery(courseQueryFactory.filtered(searchRequest), null, fetched,
+                courseRouting.routingFor(searchRequest), searchRequest, cursor, null);
+    }
 
-        // Max Age filter
-        if (searchRequest.getMaxAge() != null) {
-            return courseRepository.findByMaxAgeLessThanEqual(searchRequest.getMaxAge(), pageable);
+    private Pageable listingPageable(SearchRequest searchRequest, Pageable pageable) {
+        // Nothing to rank by without text, so "relevance" lists upcoming sessions first (and so does "distance"
+        // without a location to measure from)
+        Sort sort = pageable.getSort();
+        if (sort.isUnsorted() && courseQueryFactory.distanceSort(searchRequest) == null) {
+            sort = SearchSort.NEXT_SESSION.toSort();
         }
+        // The distance sort is sent ahead of the pageable's sorts, so either way the id only ever breaks ties
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort.and(ID_TIEBREAKER));
+    }
 
-        // Min Price filter
-        if (searchRequest.getMinPrice() != null) {
-            return courseRepository.findByPriceGreaterThanEqual(searchRequest.getMinPrice(), pageable);
+    /**
+     * Every course search goes out as one of these.
+     *
+     * <p>Distance sort, map clusters and the session facet are part of the same query — no second round trip 🗺️</p>
+     */
+    NativeQuery searchQuery(Query query, RescorerQuery rescorer, Pageable pageable, String routing,
+                            SearchRequest searchRequest, List<Object> searchAfter, Suggester suggester) {
+        NativeQueryBuilder builder = NativeQuery.builder()
+                .withQuery(query)
+                .withPageable(pageable)
+                .withRoute(routing)
+                .withSourceFilter(WITHOUT_EMBEDDING)
+                .withSuggester(suggester);
+        SortOptions distanceSort = courseQueryFactory.distanceSort(searchRequest);
+        if (distanceSort != null && rescorer == null) {
+            builder.withSort(distanceSort);
+        }
+        Aggregation clusters = courseQueryFactory.clusterAggregation(searchRequest);
+        if (clusters != null) {
+            builder.withAggregation(CourseQueryFactory.CLUSTER_AGGREGATION, clusters);
+        }
+        Aggregation sessions = courseQueryFactory.sessionHistogram(searchRequest);
+        if (sessions != null) {
+            builder.withAggregation(CourseQueryFactory.SESSION_HISTOGRAM_AGGREGATION, sessions);
         }
+        NativeQuery nativeQuery = builder.build();
+        // Counting every match costs as much as collecting it; past the limit "at least" is good enough
+        nativeQuery.setTrackTotalHitsUpTo(searchGuardrails.getTrackTotalHitsUpTo());
+        if (searchAfter != null) {
+            nativeQuery.setSearchAfter(searchAfter);
+        }
+        if (rescorer != null) {
+            nativeQuery.addRescorerQuery(rescorer);
+        }
+        return nativeQuery;
+    }
+
+    /**
+     * Single exit point to Elasticsearch for course searches, so every round trip is traced
+     */
+    private SearchHits<CourseDocument> execute(String phase, NativeQuery nativeQuery, QueryTrace trace) {
+        long start = System.nanoTime();
+        SearchHits<CourseDocument> searchHits =
+                circuitBreaker.execute(() -> elasticsearchOperations.search(nativeQuery, CourseDocument.class));
+        long clientNanos = System.nanoTime() - start;
+
+        trace.add(new QueryTrace.Phase(phase, nativeQuery,
+                searchHits.getExecutionDuration().toMillis(),
+                searchHits.getTotalHits(),
+                toShards(searchHits.getSearchShardStatistics()),
+                clientNanos));
+        return searchHits;
+    }
 
-        // Max Price filter
-        if (searchRequest.getMaxPrice() != null) {
-            return courseRepository.findByPriceLessThanEqual(searchRequest.getMaxPrice(), pageable);
+    private static QueryTrace.Shards toShards(SearchShardStatistics statistics) {
+        if (statistics == null) {
+            return new QueryTrace.Shards(0, 0, 0, 0);
         }
+        return new QueryTrace.Shards(
+                longValue(statistics.getTotal()),
+                longValue(statistics.getSuccessful()),
+                longValue(statistics.getSkipped()),
+                longValue(statistics.getFailed()));
+    }
+
+    private static long longValue(Number number) {
+        return number != null ? number.longValue() : 0;
+    }
 
-        // Date filter
-        if (searchRequest.getFromDate() != null) {
-            return courseRepository.findByNextSessionDateGreaterThanEqual(searchRequest.getFromDate(), pageable);
+    private static Page<CourseDocument> toPage(SearchHits<CourseDocument> searchHits, Pageable pageable,
+                                               SearchRequest searchRequest) {
+        // Convert search hits to a list of CourseDocument objects (pre-sized, no stream pipeline)
+        List<SearchHit<CourseDocument>> hits = searchHits.getSearchHits();
+        List<CourseDocument> courses = new ArrayList<>(hits.size());
+        for (int i = 0, n = hits.size(); i < n; i++) {
+            courses.add(hits.get(i).getContent());
         }
 
-        // If no filters are applied, return all courses
-        return courseRepository.findAll(pageable);
+        CourseLocation origin = searchRequest.hasLocation()
+                ? new CourseLocation(searchRequest.lat(), searchRequest.lon())
+                : null;
+        boolean lowerBound = searchHits.getTotalHitsRelation() == TotalHitsRelation.GREATER_THAN_OR_EQUAL_TO;
+        return new CoursePage(courses, pageable, searchHits.getTotalHits(), lowerBound, origin,
+                CourseQueryFactory.clustersOf(searchHits), CourseQueryFactory.sessionBucketsOf(searchHits));
     }
 
 
     @Override
+    @Cacheable(cacheNames = SearchCaches.SUGGESTIONS)
     public List<String> getSuggestions(String partialTitle, int size) {
         log.debug("Getting autocomplete suggestions for: {}", partialTitle);
 
@@ -247,7 +506,8 @@ public class SearchServiceImpl implements SearchService {
         query.setPageable(PageRequest.of(0, size));
 
         // Execute the query
-        SearchHits<CourseDocument> searchHits = elasticsearchOperations.search(query, CourseDocument.class);
+        SearchHits<CourseDocument> searchHits =
+                circuitBreaker.execute(() -> elasticsearchOperations.search(query, CourseDocument.class));
 
         // Extract the titles from the search hits
         List<String> suggestions = searchHits.getSearchHits().stream()
@@ -0,0 +1,97 @@
+package com.ahnis.searchapi.service.impl;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.json.JsonData;
+import com.ahnis.searchapi.config.SemanticSearchProperties;
+import com.ahnis.searchapi.embedding.CourseEmbeddings;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds the embedding-similarity side of hybrid search, and fuses it with the BM25 side.
+ *
+ * <p>The vector query scores every course that passes the request's filters by the dot product of its
+ * embedding with the query's — the filters run first, inside the query, so all {@code rank-window} nearest
+ * neighbours come from the filtered set and none are lost to post-filtering. Scoring is exact (a brute-force
+ * pass over the filtered courses, which is what Elasticsearch 7.x offers for {@code dense_vector}); at catalog
+ * sizes that outgrow it, this is where an approximate {@code knn} section would go.</p>
+ *
+ * <p>The two rankings are merged with reciprocal rank fusion: a course scores {@code 1 / (k + rank)} in each
+ * ranking it appears in. Only ranks count, so BM25 scores and similarities never need to be put on one
+ * scale.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class SemanticQueries {
+
+    static final String EMBEDDING_FIELD = "embedding";
+    // Unit vectors, so the dot product is the cosine; +1 keeps the score non-negative as Elasticsearch requires
+    static final String SIMILARITY_SCRIPT = "dotProduct(params.query_vector, '" + EMBEDDING_FIELD + "') + 1.0";
+
+    private final SemanticSearchProperties properties;
+    private final CourseEmbeddings courseEmbeddings;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public int getRankWindow() {
+        return properties.getRankWindow();
+    }
+
+    /**
+     * Embedding of the query text; {@code null} if there is nothing to embed
+     */
+    public float[] embed(String text) {
+        return courseEmbeddings.embedQuery(text);
+    }
+
+    /**
+     * Courses passing {@code filters}, most similar to {@code queryVector} first; courses without an
+     * embedding are left out
+     */
+    public Query nearest(float[] queryVector, List<Query> filters) {
+        List<Query> prefilters = new ArrayList<>(filters.size() + 1);
+        prefilters.add(Query.of(q -> q.exists(e -> e.field(EMBEDDING_FIELD))));
+        prefilters.addAll(filters);
+        return Query.of(q -> q.scriptScore(s -> s
+                .query(f -> f.bool(b -> b.filter(prefilters)))
+                .script(sc -> sc.source(SIMILARITY_SCRIPT).params("query_vector", JsonData.of(queryVector)))));
+    }
+
+    /**
+     * Reciprocal rank fusion of several rankings, best first; ties keep the order of first appearance
+     *
+     * @param rankings each one best first
+     * @param identity what makes two entries the same item across rankings
+     */
+    public <T> List<T> fuse(List<List<T>> rankings, Function<T, ?> identity) {
+        int k = properties.getRankConstant();
+        Map<Object, T> items = new LinkedHashMap<>();
+        Map<Object, Double> scores = new HashMap<>();
+        for (List<T> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                T item = ranking.get(rank);
+                Object id = identity.apply(item);
+                items.putIfAbsent(id, item);
+                // Ranks are 1-based in the usual formulation
+                scores.merge(id, 1.0 / (k + rank + 1), Double::sum);
+            }
+        }
+        List<Object> ids = new ArrayList<>(items.keySet());
+        // Stable sort, so equal scores stay in order of first appearance
+        ids.sort((a, b) -> Double.compare(scores.get(b), scores.get(a)));
+        List<T> fused = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            fused.add(items.get(id));
+        }
+        return fused;
+    }
+}
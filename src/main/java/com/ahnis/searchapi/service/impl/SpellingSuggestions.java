@@ -0,0 +1,112 @@
+package com.ahnis.searchapi.service.impl;
+
+import co.elastic.clients.elasticsearch._types.SuggestMode;
+import co.elastic.clients.elasticsearch.core.search.SuggestSort;
+import co.elastic.clients.elasticsearch.core.search.Suggester;
+import com.ahnis.searchapi.config.DidYouMeanProperties;
+import com.ahnis.searchapi.entity.CourseDocument;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.elasticsearch.core.suggest.response.Suggest;
+import org.springframework.data.elasticsearch.core.suggest.response.TermSuggestion;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * "Did you mean" corrections for text queries, from a term suggester over the course vocabulary.
+ *
+ * <p>The suggester runs on the {@link CourseDocument#SPELLING_FIELD spelling field}, which holds the title and
+ * category words together. "Missing" is decided there, so a word that occurs in either field is left alone, and a
+ * typo near a word of either field is corrected. Per misspelled term the best proposal wins — highest similarity,
+ * then most documents — and the correction is the query with those terms replaced.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class SpellingSuggestions {
+
+    private static final String SUGGESTION_NAME = "did-you-mean";
+
+    private final DidYouMeanProperties properties;
+
+    public boolean isAutoCorrect() {
+        return properties.isEnabled() && properties.isAutoCorrect();
+    }
+
+    /**
+     * Fields a corrected search looks for the correction in
+     */
+    public List<String> getFields() {
+        return properties.getFields();
+    }
+
+    /**
+     * Term suggester for {@code text}, to send along with the search itself; {@code null} when disabled
+     */
+    public Suggester suggester(String text) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        return Suggester.of(s -> s
+                .text(text)
+                .suggesters(SUGGESTION_NAME, f -> f.term(t -> t
+                        .field(CourseDocument.SPELLING_FIELD)
+                        // The search analyzer would expand synonyms, which aren't typos
+                        .analyzer("standard")
+                        .suggestMode(SuggestMode.Missing)
+                        .sort(SuggestSort.Score)
+                        .maxEdits(properties.getMaxEdits())
+                        .prefixLength(properties.getPrefixLength())
+                        .minWordLength(properties.getMinWordLength())
+                        .size(1))));
+    }
+
+    /**
+     * {@code text} with every misspelled term replaced by its best suggestion
+     *
+     * @param suggest the suggestions returned for {@link #suggester(String) suggester(text)}; may be {@code null}
+     * @return the corrected text, or {@code null} if nothing was corrected
+     */
+    public String correct(String text, Suggest suggest) {
+        if (suggest == null) {
+            return null;
+        }
+        Suggest.Suggestion<? extends Suggest.Suggestion.Entry<? extends Suggest.Suggestion.Entry.Option>> suggestion =
+                suggest.getSuggestion(SUGGESTION_NAME);
+        if (suggestion == null) {
+            return null;
+        }
+        // Keyed by offset into the text, so replacing from the end keeps the other offsets valid
+        TreeMap<Integer, Replacement> best = new TreeMap<>();
+        for (Suggest.Suggestion.Entry<? extends Suggest.Suggestion.Entry.Option> entry : suggestion.getEntries()) {
+            for (Suggest.Suggestion.Entry.Option option : entry.getOptions()) {
+                Replacement candidate = new Replacement(entry.getLength(), option.getText(),
+                        option.getScore() != null ? option.getScore() : 0, frequencyOf(option));
+                best.merge(entry.getOffset(), candidate, Replacement::better);
+            }
+        }
+        if (best.isEmpty()) {
+            return null;
+        }
+        StringBuilder corrected = new StringBuilder(text);
+        best.descendingMap().forEach((offset, replacement) ->
+                corrected.replace(offset, Math.min(offset + replacement.length(), corrected.length()),
+                        replacement.text()));
+        String correction = corrected.toString();
+        return correction.equalsIgnoreCase(text) ? null : correction;
+    }
+
+    private static int frequencyOf(Suggest.Suggestion.Entry.Option option) {
+        return option instanceof TermSuggestion.Entry.Option term ? term.getFreq() : 0;
+    }
+
+    private record Replacement(int length, String text, double score, int frequency) {
+
+        Replacement better(Replacement other) {
+            if (other.score != score) {
+                return other.score > score ? other : this;
+            }
+            return other.frequency > frequency ? other : this;
+        }
+    }
+}
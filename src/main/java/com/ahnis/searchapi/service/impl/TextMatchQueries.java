@@ -0,0 +1,86 @@
+package com.ahnis.searchapi.service.impl;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.ahnis.searchapi.config.TextMatchProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Builds the Elasticsearch queries behind free-text course search.
+ *
+ * <p>Two flavours are produced, both matching {@code title} and {@code description} (plus a fuzzy one widened with a
+ * spelling correction, see {@link SpellingSuggestions}):</p>
+ * <ul>
+ *     <li><b>Exact:</b> analyzed term matches only, plus trigram-backed substring matching on the description.
+ *     Cheap — no term-dictionary expansion at all.</li>
+ *     <li><b>Fuzzy:</b> the exact clauses plus a per-term fuzzy title match, bounded by
+ *     {@code prefix_length} and {@code max_expansions} so a typo can't walk the whole dictionary.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class TextMatchQueries {
+
+    private static final float TITLE_BOOST = 2.0f;
+
+    private final TextMatchProperties properties;
+
+    public boolean isExactFirst() {
+        return properties.isExactFirst();
+    }
+
+    public int getMinExactHits() {
+        return properties.getMinExactHits();
+    }
+
+    /**
+     * Query matching analyzed terms as typed
+     */
+    public Query exact(String text) {
+        return Query.of(q -> q.bool(b -> exactClauses(b, text).minimumShouldMatch("1")));
+    }
+
+    /**
+     * Query that additionally tolerates typos in the title, within the configured budget
+     */
+    public Query fuzzy(String text) {
+        return Query.of(q -> q.bool(b -> exactClauses(b, text)
+                .should(s -> s.match(m -> m
+                        .field("title")
+                        .query(text)
+                        .fuzziness(properties.getFuzziness())
+                        .prefixLength(properties.getPrefixLength())
+                        .maxExpansions(properties.getMaxExpansions())
+                        .fuzzyTranspositions(true)))
+                .minimumShouldMatch("1")));
+    }
+
+    /**
+     * The fuzzy query for {@code text} that also matches a spelling correction of it — as typed, and on the fields
+     * the correction's terms came from. One request covers both the user's words and what they probably meant.
+     */
+    public Query corrected(String text, String correction, List<String> vocabularyFields) {
+        return Query.of(q -> q.bool(b -> {
+            b.should(fuzzy(text)).should(exact(correction));
+            if (!vocabularyFields.isEmpty()) {
+                b.should(s -> s.multiMatch(m -> m.query(correction).fields(vocabularyFields)));
+            }
+            return b.minimumShouldMatch("1");
+        }));
+    }
+
+    private BoolQuery.Builder exactClauses(BoolQuery.Builder bool, String text) {
+        bool.should(s -> s.match(m -> m.field("title").query(text).boost(TITLE_BOOST)))
+                .should(s -> s.match(m -> m.field("description").query(text)));
+
+        if (properties.isNgramSubstring()) {
+            // Every trigram of the input must be present, which approximates "description contains text"
+            bool.should(s -> s.match(m -> m.field("description.ngram").query(text).operator(Operator.And)));
+        }
+        return bool;
+    }
+}
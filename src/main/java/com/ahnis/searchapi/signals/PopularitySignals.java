@@ -0,0 +1,305 @@
+package com.ahnis.searchapi.signals;
+
+import com.ahnis.searchapi.config.SignalProperties;
+import com.ahnis.searchapi.dto.SearchResponse;
+import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.resilience.ElasticsearchCircuitBreaker;
+import com.ahnis.searchapi.routing.CourseRouting;
+import com.ahnis.searchapi.tenant.TenantContext;
+import com.ahnis.searchapi.tenant.TenantIndexResolver;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.query.ScriptType;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory aggregator of search impressions and clicks, periodically folded into {@code CourseDocument.popularity}.
+ *
+ * <p><b>Popularity</b> is a click-through rate: decayed clicks over decayed impressions, smoothed by
+ * {@code prior-impressions} so a course shown a handful of times can't look like a hit. Impressions only ever
+ * lower it, so being shown a lot is no advantage by itself, and clicks beyond the impressions are ignored.</p>
+ *
+ * <p><b>Ingest</b> runs on request threads and never blocks: one {@link LongAdder} pair per course, striped
+ * internally so concurrent increments don't contend, and nothing allocated once a course is being tracked.
+ * Only impressions — courses this service put on a result page — start tracking a course, and they carry the
+ * category of the indexed document, which routes its update. A click counts only for a course shown within
+ * {@code click-window}, so clients can neither invent course ids nor fill {@code max-tracked-courses}; impressions
+ * for new course ids are dropped while that many are already tracked.</p>
+ *
+ * <p><b>Flush</b> runs every {@code flush-interval} on a thread of its own — it paces itself by sleeping, which must
+ * not hold up the shared scheduler's other tasks: the counts of the window that just ended are
+ * drained and sent as batched scripted partial updates, which decay the stored counts by their age
+ * ({@code half-life}) before adding the window's and recomputing the rate. Decaying server-side keeps the value
+ * right across restarts and with several instances writing. Updates are paced to {@code max-updates-per-second};
+ * whatever doesn't fit carries over to the next flush, as it does while the Elasticsearch circuit breaker is open.</p>
+ *
+ * <p>Signals are counted per tenant and each update targets its tenant's index, so one batch can serve several.</p>
+ */
+@Component
+@Slf4j
+public class PopularitySignals {
+
+    static final String SCRIPT = """
+            long now = params.now;
+            def updatedAt = ctx._source.popularityUpdatedAt;
+            double decay = updatedAt == null ? 1 : Math.pow(0.5, (now - updatedAt) / params.halfLife);
+            def storedClicks = ctx._source.popularityClicks;
+            def storedImpressions = ctx._source.popularityImpressions;
+            double clicks = (storedClicks == null ? 0 : storedClicks * decay) + params.clicks;
+            double impressions = (storedImpressions == null ? 0 : storedImpressions * decay) + params.impressions;
+            ctx._source.popularityClicks = clicks;
+            ctx._source.popularityImpressions = impressions;
+            ctx._source.popularity = Math.min(clicks, impressions) / (impressions + params.priorImpressions);
+            ctx._source.popularityUpdatedAt = now;
+            """;
+
+    private final Map<CourseKey, Counters> counters = new ConcurrentHashMap<>();
+    // Only touched by the (single) flushing thread
+    private final Map<CourseKey, Pending> pending = new HashMap<>();
+    private final SignalProperties properties;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchCircuitBreaker circuitBreaker;
+    private final CourseRouting courseRouting;
+    private final TenantIndexResolver tenantIndexResolver;
+    private final LongAdder dropped = new LongAdder();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("popularity-flush").daemon(true).factory());
+
+    public PopularitySignals(SignalProperties properties, ElasticsearchOperations elasticsearchOperations,
+                             ElasticsearchCircuitBreaker circuitBreaker, CourseRouting courseRouting,
+                             TenantIndexResolver tenantIndexResolver) {
+        this.properties = properties;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.circuitBreaker = circuitBreaker;
+        this.courseRouting = courseRouting;
+        this.tenantIndexResolver = tenantIndexResolver;
+    }
+
+    private record CourseKey(String tenant, String courseId) {
+    }
+
+    private static final class Counters {
+        private final LongAdder impressions = new LongAdder();
+        private final LongAdder clicks = new LongAdder();
+        private final String category;
+        private volatile long lastShownAt;
+
+        private Counters(String category) {
+            this.category = category;
+        }
+    }
+
+    private static final class Pending {
+        private long clicks;
+        private long impressions;
+        private String category;
+    }
+
+    /**
+     * Counts one impression for every course on a result page
+     */
+    public void recordImpressions(List<SearchResponse.CourseInfo> courses) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (int i = 0, n = courses.size(); i < n; i++) {
+            SearchResponse.CourseInfo course = courses.get(i);
+            Counters courseCounters = track(course.id(), course.category());
+            if (courseCounters != null) {
+                courseCounters.impressions.increment();
+                courseCounters.lastShownAt = now;
+            }
+        }
+    }
+
+    /**
+     * Counts a click on a course, unless it wasn't on a result page within {@code click-window}
+     *
+     * @return whether the click was counted
+     */
+    public boolean recordClick(String courseId) {
+        if (!properties.isEnabled() || courseId == null) {
+            return false;
+        }
+        Counters courseCounters = counters.get(new CourseKey(TenantContext.current(), courseId));
+        if (courseCounters == null) {
+            return false;
+        }
+        courseCounters.clicks.increment();
+        return true;
+    }
+
+    private Counters track(String courseId, String category) {
+        if (courseId == null) {
+            return null;
+        }
+        CourseKey key = new CourseKey(TenantContext.current(), courseId);
+        Counters courseCounters = counters.get(key);
+        if (courseCounters == null) {
+            if (counters.size() >= properties.getMaxTrackedCourses()) {
+                dropped.increment();
+                return null;
+            }
+            courseCounters = counters.computeIfAbsent(key, k -> new Counters(category));
+        }
+        return courseCounters;
+    }
+
+    public int trackedCourses() {
+        return counters.size();
+    }
+
+    int pendingUpdates() {
+        return pending.size();
+    }
+
+    @PostConstruct
+    void scheduleFlushes() {
+        long interval = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                // An escaping exception would cancel every later flush
+                log.error("Popularity flush failed", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+    }
+
+    public synchronized void flush() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        drain();
+        long droppedSignals = dropped.sumThenReset();
+        if (droppedSignals > 0) {
+            log.warn("Dropped {} popularity signals: more than {} courses tracked",
+                    droppedSignals, properties.getMaxTrackedCourses());
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        if (circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+            log.debug("Elasticsearch circuit breaker open, keeping {} popularity updates for later", pending.size());
+            return;
+        }
+
+        int budget = (int) Math.min(pending.size(),
+                (long) properties.getMaxUpdatesPerSecond() * Math.max(1, properties.getFlushInterval().toSeconds()));
+        long now = System.currentTimeMillis();
+        int sent = 0;
+
+        Iterator<Map.Entry<CourseKey, Pending>> iterator = pending.entrySet().iterator();
+        while (sent < budget && iterator.hasNext()) {
+            List<UpdateQuery> batch = new ArrayList<>(Math.min(properties.getBatchSize(), budget - sent));
+            List<CourseKey> batchKeys = new ArrayList<>(batch.size());
+            while (batch.size() < properties.getBatchSize() && sent + batch.size() < budget && iterator.hasNext()) {
+                Map.Entry<CourseKey, Pending> entry = iterator.next();
+                batch.add(toUpdate(entry.getKey(), entry.getValue(), now));
+                batchKeys.add(entry.getKey());
+            }
+
+            long start = System.nanoTime();
+            if (!send(batch)) {
+                // Cluster trouble: keep everything that's left for the next flush
+                return;
+            }
+            batchKeys.forEach(pending::remove);
+            iterator = pending.entrySet().iterator();
+            sent += batch.size();
+
+            pace(batch.size(), System.nanoTime() - start);
+        }
+        log.debug("Flushed {} popularity updates, {} carried over", sent, pending.size());
+    }
+
+    /**
+     * Moves the counts of the window that just ended into {@link #pending}, forgetting courses that haven't been
+     * shown for a whole {@code click-window}
+     */
+    private void drain() {
+        long forgetBefore = System.currentTimeMillis() - properties.getClickWindow().toMillis();
+        for (Map.Entry<CourseKey, Counters> entry : counters.entrySet()) {
+            Counters courseCounters = entry.getValue();
+            long clicks = courseCounters.clicks.sumThenReset();
+            long impressions = courseCounters.impressions.sumThenReset();
+            if (clicks == 0 && impressions == 0) {
+                if (courseCounters.lastShownAt < forgetBefore) {
+                    // A signal racing with this removal is lost, which a popularity score can afford
+                    counters.remove(entry.getKey(), courseCounters);
+                }
+                continue;
+            }
+            Pending update = pending.computeIfAbsent(entry.getKey(), key -> new Pending());
+            update.clicks += clicks;
+            update.impressions += impressions;
+            update.category = courseCounters.category;
+        }
+    }
+
+    private UpdateQuery toUpdate(CourseKey key, Pending update, long now) {
+        return UpdateQuery.builder(key.courseId())
+                .withIndex(tenantIndexResolver.courseIndex(key.tenant()))
+                .withScript(SCRIPT)
+                .withScriptType(ScriptType.INLINE)
+                .withLang("painless")
+                .withParams(Map.of(
+                        "now", now,
+                        "halfLife", (double) properties.getHalfLife().toMillis(),
+                        "clicks", update.clicks,
+                        "impressions", update.impressions,
+                        "priorImpressions", properties.getPriorImpressions()))
+                .withRouting(courseRouting.routingForCategory(update.category))
+                .withRetryOnConflict(3)
+                .build();
+    }
+
+    private boolean send(List<UpdateQuery> batch) {
+        try {
+            elasticsearchOperations.bulkUpdate(batch, CourseDocument.class);
+            return true;
+        } catch (BulkFailureException e) {
+            // Typically courses that no longer exist; retrying won't help
+            log.debug("{} popularity updates failed: {}", e.getFailedDocuments().size(), e.getFailedDocuments());
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Popularity flush failed, {} updates kept for the next flush: {}", pending.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void pace(int updates, long elapsedNanos) {
+        long targetNanos = updates * 1_000_000_000L / Math.max(1, properties.getMaxUpdatesPerSecond());
+        long sleepMillis = (targetNanos - elapsedNanos) / 1_000_000;
+        if (sleepMillis > 0) {
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ahnis.searchapi.tenant;
+
+import java.util.function.Supplier;
+
+/**
+ * The tenant (partner brand) the current thread is working for.
+ *
+ * <p>Set per request by {@link TenantFilter}; everything that reaches Elasticsearch or a cache reads it from here,
+ * so the search code itself stays tenant-agnostic. Work that leaves the request thread (scheduled flushes, async
+ * cache rebuilds) must capture the tenant and re-enter it with {@link #callAs}/{@link #runAs}. Threads that never
+ * set one work for {@link #DEFAULT_TENANT}, which is also what single-tenant deployments use throughout.</p>
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    /**
+     * Request attribute holding the resolved tenant, for code that runs after the filter has returned
+     */
+    public static final String REQUEST_ATTRIBUTE = TenantContext.class.getName() + ".tenant";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : DEFAULT_TENANT;
+    }
+
+    /**
+     * Runs {@code action} on behalf of {@code tenant}, restoring the previous tenant afterwards
+     */
+    public static <T> T callAs(String tenant, Supplier<T> action) {
+        String previous = bind(tenant);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void runAs(String tenant, Runnable action) {
+        callAs(tenant, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Makes {@code tenant} current and returns the one it replaces, to be handed back to {@link #restore}
+     */
+    static String bind(String tenant) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenant);
+        return previous;
+    }
+
+    static void restore(String previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
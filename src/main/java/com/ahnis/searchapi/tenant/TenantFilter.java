@@ -0,0 +1,50 @@
+package com.ahnis.searchapi.tenant;
+
+import com.ahnis.searchapi.config.TenantProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Resolves the tenant of every request from the tenant header and binds it to the {@link TenantContext}.
+ *
+ * <p>No header means the default tenant; an unknown tenant is answered with {@code 400} before anything runs —
+ * rate limiting included, which needs the tenant to pick its buckets.</p>
+ */
+@Component
+@Order(TenantFilter.ORDER)
+@RequiredArgsConstructor
+public class TenantFilter extends OncePerRequestFilter {
+
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE;
+
+    private final TenantProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(properties.getHeader());
+        String tenant = StringUtils.hasText(header) ? header.trim() : TenantContext.DEFAULT_TENANT;
+        if (!properties.isKnown(tenant)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown tenant: " + tenant);
+            return;
+        }
+
+        request.setAttribute(TenantContext.REQUEST_ATTRIBUTE, tenant);
+        String previous = TenantContext.bind(tenant);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.ahnis.searchapi.tenant;
+
+import com.ahnis.searchapi.config.TenantProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Resolves the {@code courses} index of the current tenant.
+ *
+ * <p>{@code CourseDocument}'s index name is a SpEL call to {@link #courseIndex()}, which Spring Data evaluates on
+ * every operation — so {@code CourseRepository}, {@code SearchServiceImpl} and everything else built on
+ * {@code ElasticsearchOperations} follow the tenant of the calling thread without passing index names around.</p>
+ */
+@Component(TenantIndexResolver.BEAN_NAME)
+@RequiredArgsConstructor
+public class TenantIndexResolver {
+
+    public static final String BEAN_NAME = "tenantIndexResolver";
+
+    private final TenantProperties properties;
+
+    /**
+     * Index (or alias) of the current tenant's catalog
+     */
+    public String courseIndex() {
+        return courseIndex(TenantContext.current());
+    }
+
+    public String courseIndex(String tenant) {
+        return properties.getIndices().getOrDefault(tenant, properties.getDefaultIndex());
+    }
+
+    /**
+     * Every known tenant, the default one first
+     */
+    public Set<String> tenants() {
+        Set<String> tenants = new LinkedHashSet<>();
+        tenants.add(TenantContext.DEFAULT_TENANT);
+        tenants.addAll(properties.getIndices().keySet());
+        return tenants;
+    }
+
+    /**
+     * The catalog indices of all tenants, for operations that apply to every one of them
+     */
+    public List<String> allCourseIndices() {
+        List<String> indices = new ArrayList<>();
+        for (String tenant : tenants()) {
+            String index = courseIndex(tenant);
+            if (!indices.contains(index)) {
+                indices.add(index);
+            }
+        }
+        return indices;
+    }
+}
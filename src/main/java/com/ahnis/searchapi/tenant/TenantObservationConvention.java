@@ -0,0 +1,26 @@
+package com.ahnis.searchapi.tenant;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tags {@code http.server.requests} with the tenant, so latency and error rates can be watched per tenant.
+ *
+ * <p>Tenants are a short configured list, so this stays a low-cardinality tag. Requests rejected before a tenant
+ * was resolved are tagged {@code none}.</p>
+ */
+@Component
+public class TenantObservationConvention extends DefaultServerRequestObservationConvention {
+
+    private static final String TENANT_KEY = "tenant";
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        Object tenant = context.getCarrier().getAttribute(TenantContext.REQUEST_ATTRIBUTE);
+        return super.getLowCardinalityKeyValues(context)
+                .and(KeyValue.of(TENANT_KEY, tenant != null ? tenant.toString() : "none"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.ahnis.searchapi.transport;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.conn.ManagedNHttpClientConnectionFactory;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.reactor.ConnectingIOReactor;
+import org.apache.http.pool.PoolStats;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Pooling connection manager for the Elasticsearch client that reports how the pool is used.
+ *
+ * <p>Meters (all tagged {@code client=elasticsearch}):</p>
+ * <ul>
+ *     <li>{@code es.client.pool.leased}, {@code .available}, {@code .pending}, {@code .max}: pool occupancy —
+ *     {@code pending > 0} means requests are queueing for a connection</li>
+ *     <li>{@code es.client.pool.lease}: time from asking for a connection to getting one (or giving up)</li>
+ *     <li>{@code es.client.connections.created}: new TCP connections; a steadily rising rate means connections
+ *     are not being reused (keep-alive too short, or the pool too small for the load)</li>
+ * </ul>
+ */
+public class MeteredConnectionManager extends PoolingNHttpClientConnectionManager implements MeterBinder {
+
+    private static final String TAG_KEY = "client";
+    private static final String TAG_VALUE = "elasticsearch";
+
+    private final LongAdder connectionsCreated;
+    private volatile Timer leaseTimer;
+
+    public MeteredConnectionManager(ConnectingIOReactor ioReactor, Registry<SchemeIOSessionStrategy> strategies) {
+        this(ioReactor, strategies, new LongAdder());
+    }
+
+    private MeteredConnectionManager(ConnectingIOReactor ioReactor, Registry<SchemeIOSessionStrategy> strategies,
+                                     LongAdder connectionsCreated) {
+        super(ioReactor, (session, config) -> {
+            connectionsCreated.increment();
+            return ManagedNHttpClientConnectionFactory.INSTANCE.create(session, config);
+        }, strategies);
+        this.connectionsCreated = connectionsCreated;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "es.client.pool.leased", "Connections currently in use", PoolStats::getLeased);
+        gauge(registry, "es.client.pool.available", "Idle connections ready for reuse", PoolStats::getAvailable);
+        gauge(registry, "es.client.pool.pending", "Requests waiting for a connection", PoolStats::getPending);
+        gauge(registry, "es.client.pool.max", "Maximum pooled connections", PoolStats::getMax);
+
+        FunctionCounter.builder("es.client.connections.created", connectionsCreated, LongAdder::doubleValue)
+                .description("TCP connections opened to Elasticsearch")
+                .tag(TAG_KEY, TAG_VALUE)
+                .register(registry);
+
+        leaseTimer = Timer.builder("es.client.pool.lease")
+                .description("Time spent waiting to lease a pooled connection")
+                .tag(TAG_KEY, TAG_VALUE)
+                .register(registry);
+    }
+
+    private void gauge(MeterRegistry registry, String name, String description, ToIntFunction<PoolStats> stat) {
+        Gauge.builder(name, this, manager -> stat.applyAsInt(manager.getTotalStats()))
+                .description(description)
+                .tag(TAG_KEY, TAG_VALUE)
+                .register(registry);
+    }
+
+    public long getConnectionsCreated() {
+        return connectionsCreated.sum();
+    }
+
+    @Override
+    public Future<NHttpClientConnection> requestConnection(HttpRoute route, Object state, long connectTimeout,
+                                                           long leaseTimeout, TimeUnit timeUnit,
+                                                           FutureCallback<NHttpClientConnection> callback) {
+        Timer timer = leaseTimer;
+        if (timer == null) {
+            return super.requestConnection(route, state, connectTimeout, leaseTimeout, timeUnit, callback);
+        }
+        return super.requestConnection(route, state, connectTimeout, leaseTimeout, timeUnit,
+                new TimedCallback(timer, System.nanoTime(), callback));
+    }
+
+    /**
+     * Records the lease time however the lease ends, then hands over to the client's own callback
+     */
+    private record TimedCallback(Timer timer, long startNanos, FutureCallback<NHttpClientConnection> delegate)
+            implements FutureCallback<NHttpClientConnection> {
+
+        @Override
+        public void completed(NHttpClientConnection result) {
+            record();
+            if (delegate != null) {
+                delegate.completed(result);
+            }
+        }
+
+        @Override
+        public void failed(Exception ex) {
+            record();
+            if (delegate != null) {
+                delegate.failed(ex);
+            }
+        }
+
+        @Override
+        public void cancelled() {
+            record();
+            if (delegate != null) {
+                delegate.cancelled();
+            }
+        }
+
+        private void record() {
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
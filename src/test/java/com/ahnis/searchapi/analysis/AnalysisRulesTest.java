@@ -0,0 +1,100 @@
+package com.ahnis.searchapi.analysis;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.elasticsearch.indices.ReloadSearchAnalyzersResponse;
+import co.elastic.clients.elasticsearch.indices.reload_search_analyzers.ReloadDetails;
+import com.ahnis.searchapi.config.SearchAnalysisProperties;
+import com.ahnis.searchapi.config.TenantProperties;
+import com.ahnis.searchapi.event.CourseIndexChangedEvent;
+import com.ahnis.searchapi.tenant.TenantIndexResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Analysis Rules Tests")
+class AnalysisRulesTest {
+
+    @TempDir
+    Path dir;
+
+    private final ElasticsearchClient client = mock(ElasticsearchClient.class);
+    private final ElasticsearchIndicesClient indices = mock(ElasticsearchIndicesClient.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final SearchAnalysisProperties properties = new SearchAnalysisProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setSynonymsFile(dir.resolve("course-synonyms.txt"));
+        properties.setStopWordsFile(dir.resolve("course-stopwords.txt"));
+        when(client.indices()).thenReturn(indices);
+    }
+
+    private AnalysisRules rules() {
+        AnalysisRules rules = new AnalysisRules(properties, client,
+                new TenantIndexResolver(new TenantProperties()), eventPublisher);
+        rules.loadStopWords();
+        return rules;
+    }
+
+    @Test
+    @DisplayName("Should write synonyms, reload the search analyzers and invalidate caches")
+    @SuppressWarnings("unchecked")
+    void shouldReloadSynonyms() throws IOException {
+        // given
+        when(indices.reloadSearchAnalyzers(any(Function.class))).thenReturn(ReloadSearchAnalyzersResponse.of(r -> r
+                .shards(s -> s.total(1).successful(1).failed(0))
+                .reloadDetails(ReloadDetails.of(d -> d
+                        .index("courses")
+                        .reloadedAnalyzers("course_search")
+                        .reloadedNodeIds("node-1")))));
+
+        // when
+        AnalysisRules.SynonymReload reload = rules().updateSynonyms(List.of(" coding, programming ", "", "stem => science"));
+
+        // then
+        assertEquals(List.of("coding, programming", "stem => science"), Files.readAllLines(properties.getSynonymsFile()));
+        assertEquals(new AnalysisRules.SynonymReload(2, List.of("course_search"), List.of("node-1")), reload);
+        verify(eventPublisher).publishEvent(new CourseIndexChangedEvent("synonyms updated"));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed synonym rules before touching the file")
+    void shouldRejectMalformedSynonyms() {
+        AnalysisRules rules = rules();
+
+        assertThrows(IllegalArgumentException.class, () -> rules.updateSynonyms(List.of("coding")));
+        assertFalse(Files.exists(properties.getSynonymsFile()));
+        verifyNoInteractions(indices, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should strip stop words from queries and persist replaced sets")
+    void shouldSwapStopWords() throws IOException {
+        // given
+        AnalysisRules rules = rules();
+        assertEquals("intro robotics", rules.stripStopWords("An intro to robotics"));
+
+        // when
+        rules.updateStopWords(List.of("Intro", " "));
+
+        // then
+        assertEquals("An to robotics", rules.stripStopWords("An intro to robotics"));
+        assertEquals(Set.of("intro"), rules().stopWords());
+        assertEquals("", rules.stripStopWords("intro"));
+        verify(eventPublisher).publishEvent(new CourseIndexChangedEvent("stop words updated"));
+    }
+}
@@ -0,0 +1,204 @@
+package com.ahnis.searchapi.benchmark;
+
+import com.ahnis.searchapi.benchmark.PerfHarness.Measurement;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Stored performance numbers per workload, and the comparison of a fresh run against them.
+ *
+ * <p>The baseline is a small JSON file kept in the repository. It also records the JVM and core count it
+ * was taken on, because timings only compare on like-for-like hardware — allocation per operation is the
+ * one metric that travels well between machines.</p>
+ */
+record PerfBaseline(Map<String, String> environment, Map<String, Measurement> workloads) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * A compared metric, which way is better, and how much worse it may get by default. The timing defaults
+     * are sized for shared build agents; allocation is deterministic enough to hold to a tight bound.
+     */
+    enum Metric {
+        THROUGHPUT("throughput", "ops/s", true, 0.35, Measurement::throughput),
+        P50("p50", "p50 µs", false, 0.35, Measurement::p50Micros),
+        // Tail latency of a short run is the noisiest number here
+        P99("p99", "p99 µs", false, 0.75, Measurement::p99Micros),
+        ALLOCATION("allocation", "alloc B/op", false, 0.10, Measurement::allocBytesPerOp);
+
+        private final String key;
+        private final String label;
+        private final boolean higherIsBetter;
+        private final double defaultTolerance;
+        private final ToDoubleFunction<Measurement> value;
+
+        Metric(String key, String label, boolean higherIsBetter, double defaultTolerance,
+               ToDoubleFunction<Measurement> value) {
+            this.key = key;
+            this.label = label;
+            this.higherIsBetter = higherIsBetter;
+            this.defaultTolerance = defaultTolerance;
+            this.value = value;
+        }
+
+        /**
+         * Allowed relative regression: {@code perf.tolerance.<key>}, else {@code perf.tolerance}, else the default
+         */
+        double tolerance(Map<String, String> properties) {
+            String specific = properties.get("perf.tolerance." + key);
+            if (specific != null) {
+                return Double.parseDouble(specific);
+            }
+            String shared = properties.get("perf.tolerance");
+            return shared != null ? Double.parseDouble(shared) : defaultTolerance;
+        }
+
+        double of(Measurement measurement) {
+            return value.applyAsDouble(measurement);
+        }
+    }
+
+    enum Status {
+        OK, IMPROVED, REGRESSED, NEW
+    }
+
+    /**
+     * One cell of the diff: a metric of a workload, before and after
+     */
+    record Row(String workload, Metric metric, Double baseline, double current, double tolerance, Status status) {
+
+        /**
+         * Relative change against the baseline; {@code NaN} for a workload the baseline doesn't know yet
+         */
+        double change() {
+            return baseline == null || baseline == 0 ? Double.NaN : (current - baseline) / baseline;
+        }
+    }
+
+    /**
+     * A fresh run compared against the baseline
+     */
+    record Comparison(List<Row> rows, boolean sameEnvironment) {
+
+        List<Row> regressions() {
+            return rows.stream().filter(row -> row.status() == Status.REGRESSED).toList();
+        }
+
+        /**
+         * The diff as a Markdown table, preceded by a note when the baseline came from another environment
+         */
+        String toTable() {
+            StringBuilder table = new StringBuilder();
+            if (!sameEnvironment) {
+                table.append("> Baseline was recorded on a different JVM or core count; timings may not compare.\n\n");
+            }
+            table.append("| workload | metric | baseline | current | change | tolerance | status |\n");
+            table.append("|---|---|---:|---:|---:|---:|---|\n");
+            for (Row row : rows) {
+                table.append(String.format(Locale.ROOT, "| %s | %s | %s | %s | %s | %s | %s |%n",
+                        row.workload(),
+                        row.metric().label,
+                        row.baseline() != null ? format(row.baseline()) : "-",
+                        format(row.current()),
+                        Double.isNaN(row.change()) ? "-" : String.format(Locale.ROOT, "%+.1f%%", row.change() * 100),
+                        String.format(Locale.ROOT, "%.0f%%", row.tolerance() * 100),
+                        row.status()));
+            }
+            return table.toString();
+        }
+
+        private static String format(double value) {
+            return value >= 100 ? String.format(Locale.ROOT, "%,.0f", value) : String.format(Locale.ROOT, "%.2f", value);
+        }
+    }
+
+    /**
+     * The JVM and core count of the current run
+     */
+    static Map<String, String> currentEnvironment() {
+        Map<String, String> environment = new LinkedHashMap<>();
+        environment.put("java", System.getProperty("java.version"));
+        environment.put("cpus", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        return environment;
+    }
+
+    /**
+     * Reads a stored baseline; an empty one if the file doesn't exist yet
+     */
+    static PerfBaseline load(Path file) {
+        if (!Files.exists(file)) {
+            return new PerfBaseline(Map.of(), Map.of());
+        }
+        try {
+            return MAPPER.readValue(file.toFile(), PerfBaseline.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read performance baseline " + file, e);
+        }
+    }
+
+    /**
+     * Writes the baseline, rounded to two decimals — more digits would only be noise in the diff
+     */
+    void save(Path file) {
+        Map<String, Measurement> rounded = new LinkedHashMap<>();
+        workloads.forEach((workload, m) -> rounded.put(workload, new Measurement(round(m.throughput()),
+                round(m.p50Micros()), round(m.p99Micros()), round(m.allocBytesPerOp()))));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            MAPPER.writeValue(file.toFile(), new PerfBaseline(environment, rounded));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write performance baseline " + file, e);
+        }
+    }
+
+    /**
+     * Compares every metric of every measured workload against this baseline
+     *
+     * @param current the fresh measurements, in reporting order
+     * @param properties where tolerances are looked up (usually the system properties)
+     */
+    Comparison compare(Map<String, Measurement> current, Map<String, String> properties) {
+        List<Row> rows = new ArrayList<>();
+        current.forEach((workload, measurement) -> {
+            Measurement stored = workloads.get(workload);
+            for (Metric metric : Metric.values()) {
+                double tolerance = metric.tolerance(properties);
+                double now = metric.of(measurement);
+                if (stored == null) {
+                    rows.add(new Row(workload, metric, null, now, tolerance, Status.NEW));
+                    continue;
+                }
+                double before = metric.of(stored);
+                rows.add(new Row(workload, metric, before, now, tolerance, status(metric, before, now, tolerance)));
+            }
+        });
+        return new Comparison(rows, currentEnvironment().equals(environment));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static Status status(Metric metric, double before, double now, double tolerance) {
+        if (before == 0) {
+            return now == 0 || metric.higherIsBetter ? Status.OK : Status.REGRESSED;
+        }
+        // Positive means worse, whichever way the metric points
+        double worse = (metric.higherIsBetter ? before - now : now - before) / before;
+        if (worse > tolerance) {
+            return Status.REGRESSED;
+        }
+        return worse < -tolerance ? Status.IMPROVED : Status.OK;
+    }
+}
@@ -0,0 +1,92 @@
+package com.ahnis.searchapi.benchmark;
+
+import com.ahnis.searchapi.benchmark.PerfBaseline.Metric;
+import com.ahnis.searchapi.benchmark.PerfBaseline.Row;
+import com.ahnis.searchapi.benchmark.PerfBaseline.Status;
+import com.ahnis.searchapi.benchmark.PerfHarness.Measurement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerfBaselineTest {
+
+    private static final Measurement BASELINE = new Measurement(1000, 10, 40, 5000);
+
+    private final PerfBaseline baseline =
+            new PerfBaseline(PerfBaseline.currentEnvironment(), Map.of("mapping", BASELINE));
+
+    @Test
+    @DisplayName("Should flag metrics that got worse beyond their tolerance, whichever way they point")
+    void shouldFlagRegressions() {
+        // given - half the throughput, twice the allocation, timings within tolerance
+        Measurement current = new Measurement(500, 11, 45, 10_000);
+
+        // when
+        PerfBaseline.Comparison comparison = baseline.compare(Map.of("mapping", current), Map.of());
+
+        // then
+        assertEquals(List.of(Metric.THROUGHPUT, Metric.ALLOCATION), metrics(comparison.regressions()));
+        String table = comparison.toTable();
+        assertTrue(table.contains("| mapping | ops/s | 1,000 | 500 | -50.0% | 35% | REGRESSED |"), table);
+        assertTrue(table.contains("| mapping | alloc B/op | 5,000 | 10,000 | +100.0% | 10% | REGRESSED |"), table);
+    }
+
+    @Test
+    @DisplayName("Should report improvements and unknown workloads without failing")
+    void shouldNotFailOnImprovementsOrNewWorkloads() {
+        // given
+        Measurement faster = new Measurement(3000, 3, 5, 1000);
+
+        // when
+        PerfBaseline.Comparison comparison = baseline.compare(
+                Map.of("mapping", faster, "translation", faster), Map.of());
+
+        // then
+        assertTrue(comparison.regressions().isEmpty());
+        for (Row row : comparison.rows()) {
+            assertEquals(row.workload().equals("mapping") ? Status.IMPROVED : Status.NEW, row.status(),
+                    row.workload() + " " + row.metric());
+        }
+    }
+
+    @Test
+    @DisplayName("Should take tolerances from properties, the metric-specific one first")
+    void shouldHonourConfiguredTolerances() {
+        // given - 30% more allocation, 30% slower p50
+        Measurement current = new Measurement(1000, 13, 40, 6500);
+
+        // when
+        PerfBaseline.Comparison comparison = baseline.compare(Map.of("mapping", current),
+                Map.of("perf.tolerance", "0.2", "perf.tolerance.allocation", "0.5"));
+
+        // then
+        assertEquals(List.of(Metric.P50), metrics(comparison.regressions()));
+    }
+
+    @Test
+    @DisplayName("Should round-trip the baseline file")
+    void shouldSaveAndLoad(@TempDir Path directory) {
+        // given
+        Path file = directory.resolve("perf/baseline.json");
+
+        // when
+        new PerfBaseline(PerfBaseline.currentEnvironment(),
+                Map.of("mapping", new Measurement(1000.123, 10.456, 40, 5000))).save(file);
+
+        // then
+        PerfBaseline loaded = PerfBaseline.load(file);
+        assertEquals(new Measurement(1000.12, 10.46, 40, 5000), loaded.workloads().get("mapping"));
+        assertTrue(loaded.compare(Map.of("mapping", BASELINE), Map.of()).sameEnvironment());
+        assertTrue(PerfBaseline.load(directory.resolve("missing.json")).workloads().isEmpty());
+    }
+
+    private static List<Metric> metrics(List<Row> rows) {
+        return rows.stream().map(Row::metric).toList();
+    }
+}
@@ -0,0 +1,93 @@
+package com.ahnis.searchapi.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Minimal single-threaded measuring loop for the performance gate.
+ *
+ * <p>Every operation is timed on its own, so the percentiles are real per-call latencies rather than
+ * averages over a batch. Allocation comes from the JVM's per-thread allocation counter and therefore only
+ * covers the calling thread — good enough to catch a mapping or translation path that suddenly starts
+ * allocating more, which is what the gate is for.</p>
+ */
+final class PerfHarness {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Keeps results reachable so the JIT can't drop the work that produced them
+    private static volatile Object sink;
+
+    private PerfHarness() {
+    }
+
+    /**
+     * What one workload did over its measured operations
+     */
+    record Measurement(double throughput, double p50Micros, double p99Micros, double allocBytesPerOp) {
+    }
+
+    /**
+     * Runs {@code operation} for {@code warmupOps} untimed calls, then measures {@code rounds} rounds of
+     * {@code opsPerRound} calls and reports the median round for every metric, so one round disturbed by a
+     * GC or a JIT recompilation doesn't decide the outcome. The operation gets the call index, so a workload
+     * can rotate through a fixed set of inputs.
+     */
+    static Measurement measure(int warmupOps, int rounds, int opsPerRound, IntFunction<?> operation) {
+        if (!THREADS.isThreadAllocatedMemorySupported() || !THREADS.isThreadAllocatedMemoryEnabled()) {
+            throw new IllegalStateException("Per-thread allocation accounting is not available on this JVM");
+        }
+        for (int i = 0; i < warmupOps; i++) {
+            sink = operation.apply(i);
+        }
+
+        Measurement[] results = new Measurement[rounds];
+        long[] latencies = new long[opsPerRound];
+        for (int round = 0; round < rounds; round++) {
+            results[round] = round(opsPerRound, latencies, operation);
+        }
+        return new Measurement(
+                median(results, Measurement::throughput),
+                median(results, Measurement::p50Micros),
+                median(results, Measurement::p99Micros),
+                median(results, Measurement::allocBytesPerOp));
+    }
+
+    private static Measurement round(int ops, long[] latencies, IntFunction<?> operation) {
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long started = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            long opStart = System.nanoTime();
+            sink = operation.apply(i);
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        long elapsed = System.nanoTime() - started;
+        // The latency array is allocated up front, so it's not part of this
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Arrays.sort(latencies);
+        return new Measurement(
+                ops / (elapsed / 1e9),
+                percentile(latencies, 0.50) / 1e3,
+                percentile(latencies, 0.99) / 1e3,
+                (double) allocated / ops);
+    }
+
+    private static double median(Measurement[] results, ToDoubleFunction<Measurement> metric) {
+        double[] values = new double[results.length];
+        for (int i = 0; i < results.length; i++) {
+            values[i] = metric.applyAsDouble(results[i]);
+        }
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
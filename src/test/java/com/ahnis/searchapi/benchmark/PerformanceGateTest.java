@@ -0,0 +1,135 @@
+package com.ahnis.searchapi.benchmark;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.JsonpUtils;
+import com.ahnis.searchapi.benchmark.PerfHarness.Measurement;
+import com.ahnis.searchapi.codec.ResponseFormat;
+import com.ahnis.searchapi.codec.SearchResponseEncoder;
+import com.ahnis.searchapi.diagnostics.QueryProfiler;
+import com.ahnis.searchapi.diagnostics.QueryTrace;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.dto.SearchResponse;
+import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.service.SearchService;
+import com.ahnis.searchapi.service.impl.SearchServiceImpl;
+import com.ahnis.searchapi.support.InMemoryElasticsearch;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Performance regression gate: a fixed workload over the search path, compared against the baseline in
+ * {@code src/test/perf/baseline.json}.
+ *
+ * <p>Tagged {@code perf}, so a plain {@code ./mvnw test} skips it; {@code ./mvnw test -Pperf} runs it (and
+ * nothing else). The diff table is printed and written to {@code target/perf/report.md}; the build fails
+ * when any metric is worse than its tolerance allows. Run with {@code -Dperf.record=true} to store the
+ * current numbers as the new baseline instead.</p>
+ *
+ * <p>The end-to-end workload goes through {@link SearchService} against {@link InMemoryElasticsearch}, so it
+ * covers our code and the client's request/response handling, not a real cluster's search time.</p>
+ */
+@Tag("perf")
+@SpringBootTest(properties = {
+        "app.warmup.enabled=false",
+        "app.signals.enabled=false",
+        "logging.level.org.springframework.data.elasticsearch=info"
+})
+class PerformanceGateTest {
+
+    private static final Path BASELINE = Path.of(System.getProperty("perf.baseline", "src/test/perf/baseline.json"));
+    private static final Path REPORT = Path.of("target/perf/report.md");
+
+    // Fixed request mix: text with ranking, filter-only browsing, "near me" with clusters, a date facet
+    private static final List<SearchRequest> REQUESTS = List.of(
+            SearchRequest.of("robotics", null, null, null, null, null, null, null, null,
+                    null, null, null, null, null, null, null, 0, 10),
+            SearchRequest.of(null, "Art", null, 6, null, null, 1500.0, null, null,
+                    null, null, null, null, null, null, "priceAsc", 0, 10),
+            SearchRequest.of(null, null, null, null, null, null, null, null, null,
+                    40.7128, -74.0060, 25.0, 5, null, null, "distance", 0, 10),
+            SearchRequest.of("course", null, null, null, null, null, null,
+                    Instant.parse("2025-06-01T00:00:00Z"), Instant.parse("2025-06-30T23:59:59Z"),
+                    null, null, null, null, "week", null, null, 0, 20));
+
+    private static final InMemoryElasticsearch elasticsearch = InMemoryElasticsearch.start();
+
+    @Autowired
+    private SearchServiceImpl searchService;
+
+    @Autowired
+    private SearchResponseEncoder encoder;
+
+    @Autowired
+    private ElasticsearchClient elasticsearchClient;
+
+    @DynamicPropertySource
+    static void elasticsearchProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.elasticsearch.uris", elasticsearch::uri);
+    }
+
+    @AfterAll
+    static void stopElasticsearch() {
+        elasticsearch.close();
+    }
+
+    @Test
+    @DisplayName("Should stay within tolerance of the stored performance baseline")
+    void shouldNotRegressAgainstBaseline() throws IOException {
+        // given
+        JsonpMapper jsonpMapper = elasticsearchClient._jsonpMapper();
+        List<Page<CourseDocument>> pages = REQUESTS.stream()
+                .map(request -> searchService.searchCourses(request, new QueryTrace()))
+                .toList();
+
+        // when
+        Map<String, Measurement> current = new LinkedHashMap<>();
+        current.put("query-translation", PerfHarness.measure(20_000, 5, 10_000, i -> {
+            SearchRequest request = REQUESTS.get(i % REQUESTS.size());
+            // Built by the service itself, so what is timed is what a search sends
+            return JsonpUtils.toJsonString(QueryProfiler.toSearchRequest("courses", searchService.firstPass(request)),
+                    jsonpMapper);
+        }));
+        current.put("response-mapping", PerfHarness.measure(20_000, 5, 10_000, i ->
+                encoder.encode(SearchResponse.fromPage(pages.get(i % pages.size())), ResponseFormat.JSON)));
+        current.put("search-service", PerfHarness.measure(500, 5, 400, i ->
+                searchService.searchCourses(REQUESTS.get(i % REQUESTS.size()), new QueryTrace())));
+
+        // then
+        if (Boolean.getBoolean("perf.record")) {
+            new PerfBaseline(PerfBaseline.currentEnvironment(), current).save(BASELINE);
+            System.out.println("Performance baseline recorded in " + BASELINE);
+            return;
+        }
+        PerfBaseline.Comparison comparison = PerfBaseline.load(BASELINE).compare(current, systemProperties());
+        String table = comparison.toTable();
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, table);
+        System.out.println(table);
+
+        assertTrue(comparison.regressions().isEmpty(), () -> "Performance regressed beyond tolerance:\n" + table);
+    }
+
+    private static Map<String, String> systemProperties() {
+        return System.getProperties().stringPropertyNames().stream()
+                .collect(Collectors.toMap(name -> name, System::getProperty));
+    }
+}
@@ -0,0 +1,83 @@
+package com.ahnis.searchapi.benchmark;
+
+import com.ahnis.searchapi.config.RateLimitProperties;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.dto.SearchResponse;
+import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.ratelimit.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchPathBenchmark {
+
+    private Page<CourseDocument> page;
+    private RateLimiter rateLimiter;
+    private String[] clients;
+
+    @Setup
+    public void setUp() {
+        List<CourseDocument> courses = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            courses.add(CourseDocument.builder()
+                    .id("course-" + i)
+                    .title("Course " + i)
+                    .category("Robotics")
+                    .price(100.0 + i)
+                    .nextSessionDate(Instant.parse("2025-06-14T00:00:00Z"))
+                    .build());
+        }
+        page = new PageImpl<>(courses, PageRequest.of(0, 10), 50);
+
+        // A budget that never runs dry, so every call takes the full decision path
+        RateLimitProperties.Budget budget = new RateLimitProperties.Budget();
+        budget.setPaths(List.of("/api/search"));
+        budget.setCapacity(Integer.MAX_VALUE / 1000);
+        budget.setRefillPerSecond(1_000_000_000);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setBudgets(Map.of("search", budget));
+        rateLimiter = new RateLimiter(properties);
+        clients = new String[1024];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @Benchmark
+    public SearchRequest buildRequest() {
+        // Same shape the controller builds from request parameters
+        return SearchRequest.of(null, "Robotics", null, 6, null, null, 1500.0, null, null,
+                null, null, null, null, null, null, "priceAsc", 0, 10);
+    }
+
+    @Benchmark
+    public SearchResponse mapResponse() {
+        return SearchResponse.fromPage(page);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public int rateLimitDecision() {
+        RateLimiter.Budget budget = rateLimiter.budgetFor("/api/search");
+        int allowed = 0;
+        for (String client : clients) {
+            if (rateLimiter.tryAcquire(budget, client).allowed()) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+}
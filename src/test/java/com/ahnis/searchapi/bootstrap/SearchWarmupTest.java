@@ -0,0 +1,95 @@
+package com.ahnis.searchapi.bootstrap;
+
+import com.ahnis.searchapi.cache.ResponseByteCache;
+import com.ahnis.searchapi.codec.ResponseFormat;
+import com.ahnis.searchapi.codec.SearchResponseEncoder;
+import com.ahnis.searchapi.config.WarmupProperties;
+import com.ahnis.searchapi.diagnostics.QueryTrace;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.service.SearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Search Warmup Tests")
+class SearchWarmupTest {
+
+    private final SearchService searchService = mock(SearchService.class);
+    private final SearchResponseEncoder encoder = mock(SearchResponseEncoder.class);
+    private final ResponseByteCache responseByteCache = new ResponseByteCache(true, 8, false);
+    private final WarmupProperties properties = new WarmupProperties();
+
+    @BeforeEach
+    void setUp() {
+        Page<CourseDocument> page = new PageImpl<>(List.of(CourseDocument.builder().id("1").title("Course 1").build()));
+        when(searchService.searchCourses(any(SearchRequest.class))).thenReturn(page);
+        when(searchService.searchCourses(any(SearchRequest.class), any(QueryTrace.class))).thenReturn(page);
+        when(encoder.encode(any(), any())).thenReturn(new byte[]{1});
+    }
+
+    @Test
+    @DisplayName("Should replay uncached, then fill the result, suggest and byte caches once")
+    void shouldReplayAndFillCaches() {
+        // given
+        WarmupProperties.Request landing = new WarmupProperties.Request();
+        landing.setCategory("Art");
+        WarmupProperties.Request text = new WarmupProperties.Request();
+        text.setQ("robotics");
+        properties.setRequests(List.of(landing, text));
+        properties.setSuggestPrefixes(List.of("co"));
+        properties.setIterations(6);
+        properties.setConcurrency(3);
+
+        // when
+        new SearchWarmup(properties, searchService, encoder, responseByteCache).run(null);
+
+        // then
+        verify(searchService, times(12)).searchCourses(any(SearchRequest.class), any(QueryTrace.class));
+        // Once per request, plus the landing page's byte-cache loader (a cache hit in the real service)
+        verify(searchService, times(3)).searchCourses(any(SearchRequest.class));
+        verify(searchService).getSuggestions("co", 10);
+        verify(encoder, times(2 * ResponseFormat.values().length + 1)).encode(any(), any());
+        // Only the landing page (no text query) is pre-encoded
+        assertEquals(1, responseByteCache.size());
+    }
+
+    @Test
+    @DisplayName("Should keep going when a request fails")
+    void shouldSurviveFailures() {
+        // given
+        WarmupProperties.Request request = new WarmupProperties.Request();
+        request.setCategory("Art");
+        properties.setRequests(List.of(request));
+        properties.setSuggestPrefixes(List.of("co"));
+        properties.setIterations(2);
+        when(searchService.searchCourses(any(SearchRequest.class), any(QueryTrace.class)))
+                .thenThrow(new IllegalStateException("boom"));
+
+        // when
+        new SearchWarmup(properties, searchService, encoder, responseByteCache).run(null);
+
+        // then
+        verify(searchService).getSuggestions(eq("co"), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should do nothing when disabled")
+    void shouldSkipWhenDisabled() {
+        properties.setEnabled(false);
+        properties.setRequests(List.of(new WarmupProperties.Request()));
+
+        new SearchWarmup(properties, searchService, encoder, responseByteCache).run(null);
+
+        verifyNoInteractions(searchService, encoder);
+    }
+}
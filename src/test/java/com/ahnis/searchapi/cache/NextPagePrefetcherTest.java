@@ -0,0 +1,98 @@
+package com.ahnis.searchapi.cache;
+
+import com.ahnis.searchapi.config.CircuitBreakerProperties;
+import com.ahnis.searchapi.config.PrefetchProperties;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.resilience.ElasticsearchCircuitBreaker;
+import com.ahnis.searchapi.service.SearchService;
+import com.ahnis.searchapi.tenant.TenantContext;
+import com.ahnis.searchapi.transport.MeteredConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Next Page Prefetcher Tests")
+class NextPagePrefetcherTest {
+
+    private final SearchService searchService = mock(SearchService.class);
+    private final MeteredConnectionManager connectionManager = mock(MeteredConnectionManager.class);
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(SearchCaches.SEARCH_RESULTS);
+    private final PrefetchProperties properties = new PrefetchProperties();
+    private NextPagePrefetcher prefetcher;
+
+    // Page 0 of 3
+    private final Page<CourseDocument> firstPage = new PageImpl<>(
+            List.of(CourseDocument.builder().id("1").build()), PageRequest.of(0, 1), 3);
+
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+        when(connectionManager.getTotalStats()).thenReturn(new PoolStats(0, 0, 2, 10));
+        prefetcher = new NextPagePrefetcher(searchService, cacheManager,
+                new ElasticsearchCircuitBreaker(new CircuitBreakerProperties()), connectionManager, properties);
+    }
+
+    @Test
+    @DisplayName("Should load the next page through the search service in the caller's tenant")
+    void shouldPrefetchNextPage() {
+        // given
+        AtomicReference<String> tenant = new AtomicReference<>();
+        when(searchService.searchCourses(any(SearchRequest.class))).thenAnswer(invocation -> {
+            tenant.set(TenantContext.current());
+            return firstPage;
+        });
+        SearchRequest request = SearchRequest.defaults().withCategory("Math").withSize(1);
+
+        // when
+        boolean started = TenantContext.callAs("acme", () -> prefetcher.prefetchAfter(request, firstPage));
+
+        // then
+        assertTrue(started);
+        verify(searchService, timeout(1000)).searchCourses(request.withPage(1));
+        assertEquals("acme", tenant.get());
+    }
+
+    @Test
+    @DisplayName("Should skip the last page, pages already cached and a disabled prefetcher")
+    void shouldSkipNeedlessPrefetches() {
+        SearchRequest request = SearchRequest.defaults().withSize(1);
+
+        Page<CourseDocument> lastPage = new PageImpl<>(List.of(), PageRequest.of(2, 1), 3);
+        assertFalse(prefetcher.prefetchAfter(request.withPage(2), lastPage));
+
+        cacheManager.getCache(SearchCaches.SEARCH_RESULTS).put(TenantKeyGenerator.keyOf(request.withPage(1)), firstPage);
+        assertFalse(prefetcher.prefetchAfter(request, firstPage));
+
+        properties.setEnabled(false);
+        assertFalse(prefetcher.prefetchAfter(request.withCategory("Art"), firstPage));
+
+        verifyNoInteractions(searchService);
+    }
+
+    @Test
+    @DisplayName("Should back off while the connection pool is busy")
+    void shouldBackOffUnderLoad() {
+        SearchRequest request = SearchRequest.defaults().withSize(1);
+
+        when(connectionManager.getTotalStats()).thenReturn(new PoolStats(8, 0, 0, 10));
+        assertFalse(prefetcher.prefetchAfter(request, firstPage));
+
+        when(connectionManager.getTotalStats()).thenReturn(new PoolStats(2, 1, 0, 10));
+        assertFalse(prefetcher.prefetchAfter(request, firstPage));
+
+        verifyNoInteractions(searchService);
+    }
+}
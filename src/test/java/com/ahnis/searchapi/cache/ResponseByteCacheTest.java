@@ -0,0 +1,134 @@
+package com.ahnis.searchapi.cache;
+
+import com.ahnis.searchapi.config.GuardrailProperties;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.event.CourseIndexChangedEvent;
+import com.ahnis.searchapi.resilience.SearchGuardrails;
+import com.ahnis.searchapi.tenant.TenantContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Response Byte Cache Tests")
+class ResponseByteCacheTest {
+
+    @Test
+    @DisplayName("Should only admit first pages without a text query")
+    void shouldOnlyAdmitLandingPages() {
+        ResponseByteCache cache = new ResponseByteCache(true, 8, false);
+
+        assertTrue(cache.isCacheable(SearchRequest.defaults().withCategory("Math")));
+        assertFalse(cache.isCacheable(SearchRequest.defaults().withCategory("Math").withPage(1)));
+        assertFalse(cache.isCacheable(SearchRequest.defaults().withQuery("java")));
+        assertFalse(new ResponseByteCache(false, 8, false).isCacheable(SearchRequest.defaults()));
+    }
+
+    @Test
+    @DisplayName("Should load once and keep a gzip copy of the body")
+    void shouldLoadOnceAndPreCompress() throws IOException {
+        ResponseByteCache cache = new ResponseByteCache(true, 8, true);
+        AtomicInteger loads = new AtomicInteger();
+
+        ResponseByteCache.Encoded first = cache.getOrLoad("k", () -> {
+            loads.incrementAndGet();
+            return "{\"total\":1}".getBytes(StandardCharsets.UTF_8);
+        });
+        ResponseByteCache.Encoded second = cache.getOrLoad("k", () -> {
+            loads.incrementAndGet();
+            return new byte[0];
+        });
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first.gzipBody()))) {
+            assertArrayEquals(first.body(), gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Should evict the coldest entry when full")
+    void shouldEvictColdestEntry() {
+        ResponseByteCache cache = new ResponseByteCache(true, 2, false);
+        cache.getOrLoad("hot", () -> new byte[]{1});
+        cache.getOrLoad("hot", () -> new byte[]{1});
+        cache.getOrLoad("cold", () -> new byte[]{2});
+
+        cache.getOrLoad("new", () -> new byte[]{3});
+
+        assertEquals(2, cache.size());
+        AtomicInteger reloads = new AtomicInteger();
+        cache.getOrLoad("hot", () -> {
+            reloads.incrementAndGet();
+            return new byte[]{1};
+        });
+        assertEquals(0, reloads.get());
+    }
+
+    @Test
+    @DisplayName("Should re-encode entries when the index changes")
+    void shouldRebuildOnIndexChange() {
+        ResponseByteCache cache = new ResponseByteCache(true, 8, false);
+        AtomicInteger version = new AtomicInteger();
+        cache.getOrLoad("k", () -> new byte[]{(byte) version.get()});
+
+        version.set(7);
+        cache.onCourseIndexChanged(new CourseIndexChangedEvent("test"));
+
+        assertArrayEquals(new byte[]{7}, cache.getOrLoad("k", () -> new byte[0]).body());
+    }
+
+    @Test
+    @DisplayName("Should keep tenants apart and rebuild entries as their tenant")
+    void shouldNamespaceByTenant() {
+        // given
+        ResponseByteCache cache = new ResponseByteCache(true, 8, false);
+        cache.getOrLoad("k", () -> new byte[]{1});
+        TenantContext.runAs("acme", () -> cache.getOrLoad("k", () -> TenantContext.current().getBytes(StandardCharsets.UTF_8)));
+
+        // when
+        cache.onCourseIndexChanged(new CourseIndexChangedEvent("test"));
+
+        // then
+        assertEquals(2, cache.size());
+        assertArrayEquals(new byte[]{1}, cache.getOrLoad("k", () -> new byte[0]).body());
+        assertArrayEquals("acme".getBytes(StandardCharsets.UTF_8),
+                TenantContext.callAs("acme", () -> cache.getOrLoad("k", () -> new byte[0]).body()));
+    }
+
+    @Test
+    @DisplayName("Should rebuild from the new index, not from the result cache it replaces")
+    void shouldRebuildAfterResultCacheIsCleared() {
+        // given — the byte cache is registered first, so only the listener order puts the clear ahead of it
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(ResponseByteCache.class, () -> new ResponseByteCache(true, 8, false));
+            context.registerBean(CacheManager.class, () -> new ConcurrentMapCacheManager(SearchCaches.SEARCH_RESULTS));
+            context.registerBean(SearchGuardrails.class, () -> new SearchGuardrails(new GuardrailProperties()));
+            context.registerBean(SearchCaches.class);
+            context.refresh();
+
+            ResponseByteCache cache = context.getBean(ResponseByteCache.class);
+            Cache results = context.getBean(CacheManager.class).getCache(SearchCaches.SEARCH_RESULTS);
+            AtomicInteger indexVersion = new AtomicInteger(1);
+            // Stands in for the @Cacheable search the real loaders end up calling
+            cache.getOrLoad("k", () -> new byte[]{results.get("k", () -> (byte) indexVersion.get())});
+
+            // when
+            indexVersion.set(2);
+            context.publishEvent(new CourseIndexChangedEvent("test"));
+
+            // then
+            assertArrayEquals(new byte[]{2}, cache.getOrLoad("k", () -> new byte[0]).body());
+        }
+    }
+}
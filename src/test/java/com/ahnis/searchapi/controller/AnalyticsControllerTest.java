@@ -0,0 +1,88 @@
+package com.ahnis.searchapi.controller;
+
+import com.ahnis.searchapi.dto.SearchFilters;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.dto.TermStatistics;
+import com.ahnis.searchapi.service.AnalyticsService;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Analytics Controller Tests")
+class AnalyticsControllerTest {
+
+    @Mock
+    private AnalyticsService analyticsService;
+
+    @InjectMocks
+    private AnalyticsController analyticsController;
+
+    @Test
+    @DisplayName("Should pass the search filters on in canonical form")
+    void shouldPassCanonicalFilters() {
+        // given
+        SearchFilters filters = new SearchFilters("  Robotics ", null, 6, null, null, 2000.0, null, null,
+                null, null, null);
+        when(analyticsService.categoryStatistics(any())).thenReturn(List.of());
+
+        // when
+        analyticsController.getCategoryStatistics(filters);
+
+        // then
+        ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(analyticsService).categoryStatistics(request.capture());
+        assertEquals(SearchRequest.of(null, "Robotics", null, 6, null, null, 2000.0, null, null, null, null,
+                null, null, null, null, null, 0, 10).canonical(), request.getValue());
+    }
+
+    @Test
+    @DisplayName("Should answer 503 while Elasticsearch is unavailable")
+    void shouldAnswerUnavailableWhenCircuitIsOpen() {
+        // given
+        when(analyticsService.typeStatistics(any())).thenThrow(
+                CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("test")));
+
+        // when
+        ResponseEntity<List<TermStatistics>> response = analyticsController.getTypeStatistics(emptyFilters());
+
+        // then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should reject a price interval the service refuses")
+    void shouldRejectTooNarrowInterval() {
+        // given
+        when(analyticsService.priceDistribution(any(), eq(0.5)))
+                .thenThrow(new IllegalArgumentException("Price interval must be at least 10.0"));
+
+        // when
+        ResponseEntity<?> response = analyticsController.getPriceDistribution(emptyFilters(), 0.5);
+
+        // then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    private static SearchFilters emptyFilters() {
+        return new SearchFilters(null, null, null, null, null, null, null, null, null, null, null);
+    }
+}
@@ -1,19 +1,42 @@
 package com.ahnis.searchapi.controller;
 
+import com.ahnis.searchapi.cache.NextPagePrefetcher;
+import com.ahnis.searchapi.cache.ResponseByteCache;
+import com.ahnis.searchapi.codec.SearchResponseEncoder;
+import com.ahnis.searchapi.config.GuardrailProperties;
+import com.ahnis.searchapi.config.RateLimitProperties;
+import com.ahnis.searchapi.config.TenantProperties;
+import com.ahnis.searchapi.diagnostics.QueryExplainer;
+import com.ahnis.searchapi.diagnostics.QueryTrace;
+import com.ahnis.searchapi.dto.CoursePage;
+import com.ahnis.searchapi.dto.HitExplanation;
 import com.ahnis.searchapi.dto.SearchRequest;
 import com.ahnis.searchapi.dto.SearchResponse;
+import com.ahnis.searchapi.dto.SearchSort;
+import com.ahnis.searchapi.dto.SessionInterval;
 import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.entity.CourseLocation;
+import com.ahnis.searchapi.ratelimit.RateLimiter;
+import com.ahnis.searchapi.resilience.SearchFallback;
+import com.ahnis.searchapi.resilience.SearchGuardrails;
 import com.ahnis.searchapi.service.SearchService;
+import com.ahnis.searchapi.signals.PopularitySignals;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
@@ -23,7 +46,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -31,6 +57,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(SearchController.class)
+@Import({ResponseByteCache.class, SearchResponseEncoder.class, RateLimiter.class, SearchGuardrails.class})
+@EnableConfigurationProperties({TenantProperties.class, RateLimitProperties.class, GuardrailProperties.class})
 @DisplayName("Search Controller Tests")
 class SearchControllerTest {
 
@@ -40,6 +68,18 @@ class SearchControllerTest {
     @MockBean
     private SearchService searchService;
 
+    @MockBean
+    private SearchFallback searchFallback;
+
+    @MockBean
+    private PopularitySignals popularitySignals;
+
+    @MockBean
+    private QueryExplainer queryExplainer;
+
+    @MockBean
+    private NextPagePrefetcher nextPagePrefetcher;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -99,9 +139,9 @@ class SearchControllerTest {
 
         // Verify service was called with correct parameters
         verify(searchService).searchCourses(argThat(request ->
-                "Java".equals(request.getQuery()) &&
-                        request.getPage() == 0 &&
-                        request.getSize() == 10
+                "Java".equals(request.query()) &&
+                        request.page() == 0 &&
+                        request.size() == 10
         ));
     }
 
@@ -132,17 +172,17 @@ class SearchControllerTest {
 
         // Verify service was called with all parameters
         verify(searchService).searchCourses(argThat(request ->
-                "programming".equals(request.getQuery()) &&
-                        "Programming".equals(request.getCategory()) &&
-                        "online".equals(request.getType()) &&
-                        request.getMinAge().equals(18) &&
-                        request.getMaxAge().equals(65) &&
-                        request.getMinPrice().equals(50.0) &&
-                        request.getMaxPrice().equals(200.0) &&
-                        request.getFromDate().equals(Instant.parse("2024-12-01T00:00:00Z")) &&
-                        "priceAsc".equals(request.getSort()) &&
-                        request.getPage() == 1 &&
-                        request.getSize() == 20
+                "programming".equals(request.query()) &&
+                        "programming".equals(request.category()) &&
+                        "online".equals(request.type()) &&
+                        request.minAge() == 18 &&
+                        request.maxAge() == 65 &&
+                        request.minPrice() == 50.0 &&
+                        request.maxPrice() == 200.0 &&
+                        request.fromDate().equals(Instant.parse("2024-12-01T00:00:00Z")) &&
+                        request.sort() == SearchSort.PRICE_ASC &&
+                        request.page() == 1 &&
+                        request.size() == 20
         ));
     }
 
@@ -159,11 +199,68 @@ class SearchControllerTest {
 
         // Verify default pagination values
         verify(searchService).searchCourses(argThat(request ->
-                request.getPage() == 0 &&
-                        request.getSize() == 10
+                request.page() == 0 &&
+                        request.size() == 10
         ));
     }
 
+    @Test
+    @DisplayName("Should cut oversized pages down to the configured maximum")
+    void shouldBoundPageSize() throws Exception {
+        // Given
+        when(searchService.searchCourses(any(SearchRequest.class))).thenReturn(samplePage);
+
+        // When & Then
+        mockMvc.perform(get("/api/search")
+                        .param("size", "100000"))
+                .andExpect(status().isOk());
+
+        verify(searchService).searchCourses(argThat(request -> request.size() == 100));
+    }
+
+    @Test
+    @DisplayName("Should flag a total that is only a lower bound")
+    void shouldFlagLowerBoundTotal() throws Exception {
+        // Given
+        when(searchService.searchCourses(any(SearchRequest.class))).thenReturn(new CoursePage(
+                sampleCourses, PageRequest.of(0, 10), 10_000, true, null, List.of(), List.of()));
+
+        // When & Then
+        mockMvc.perform(get("/api/search")
+                        .param("q", "programming"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(10_000))
+                .andExpect(jsonPath("$.totalLowerBound").value(true));
+    }
+
+    @Test
+    @DisplayName("Should omit the lower-bound flag for exact totals")
+    void shouldOmitLowerBoundFlagForExactTotals() throws Exception {
+        // Given
+        when(searchService.searchCourses(any(SearchRequest.class))).thenReturn(samplePage);
+
+        // When & Then
+        mockMvc.perform(get("/api/search"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalLowerBound").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should return the spelling correction of the query")
+    void shouldReturnDidYouMean() throws Exception {
+        // Given
+        when(searchService.searchCourses(any(SearchRequest.class))).thenReturn(new CoursePage(
+                sampleCourses, PageRequest.of(0, 10), 3, null, List.of(), List.of())
+                .withDidYouMean(new SearchResponse.DidYouMean("java programming", true)));
+
+        // When & Then
+        mockMvc.perform(get("/api/search")
+                        .param("q", "jav programing"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.didYouMean.text").value("java programming"))
+                .andExpect(jsonPath("$.didYouMean.applied").value(true));
+    }
+
     @Test
     @DisplayName("Should search courses with custom pagination")
     void shouldSearchCoursesWithCustomPagination() throws Exception {
@@ -185,8 +282,8 @@ class SearchControllerTest {
                 .andExpect(jsonPath("$.courses.length()").value(2));
 
         verify(searchService).searchCourses(argThat(request ->
-                request.getPage() == 2 &&
-                        request.getSize() == 5
+                request.page() == 2 &&
+                        request.size() == 5
         ));
     }
 
@@ -225,8 +322,8 @@ class SearchControllerTest {
                 .andExpect(status().isOk());
 
         verify(searchService).searchCourses(argThat(request ->
-                request.getMinPrice().equals(100.0) &&
-                        request.getMaxPrice().equals(500.0)
+                request.minPrice() == 100.0 &&
+                        request.maxPrice() == 500.0
         ));
     }
 
@@ -244,8 +341,8 @@ class SearchControllerTest {
                 .andExpect(status().isOk());
 
         verify(searchService).searchCourses(argThat(request ->
-                request.getMinAge().equals(21) &&
-                        request.getMaxAge().equals(50)
+                request.minAge() == 21 &&
+                        request.maxAge() == 50
         ));
     }
 
@@ -262,7 +359,7 @@ class SearchControllerTest {
                 .andExpect(status().isOk());
 
         verify(searchService).searchCourses(argThat(request ->
-                "priceAsc".equals(request.getSort())
+                request.sort() == SearchSort.PRICE_ASC
         ));
 
         // Test priceDesc
@@ -272,7 +369,7 @@ class SearchControllerTest {
                 .andExpect(status().isOk());
 
         verify(searchService).searchCourses(argThat(request ->
-                "priceDesc".equals(request.getSort())
+                request.sort() == SearchSort.PRICE_DESC
         ));
     }
 
@@ -290,7 +387,7 @@ class SearchControllerTest {
                 .andExpect(status().isOk());
 
         verify(searchService).searchCourses(argThat(request ->
-                request.getFromDate().equals(Instant.parse(testDate))
+                request.fromDate().equals(Instant.parse(testDate))
         ));
     }
 
@@ -315,6 +412,81 @@ class SearchControllerTest {
                 .andExpect(jsonPath("$.courses[0].price").exists())
                 .andExpect(jsonPath("$.courses[0].nextSessionDate").exists());
     }
+    @Test
+    @DisplayName("Should serve repeated landing page requests from the pre-encoded byte cache")
+    void shouldServeLandingPageFromByteCache() throws Exception {
+        // Given
+        when(searchService.searchCourses(any(SearchRequest.class))).thenReturn(samplePage);
+
+        // When & Then - first request loads, second one never reaches the service
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/search")
+                            .param("category", "Landing")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.total").value(3))
+                    .andExpect(jsonPath("$.courses[0].title").value("Java Programming Basics"));
+        }
+
+        verify(searchService, times(1)).searchCourses(any(SearchRequest.class));
+
+        // Clients accepting gzip get the pre-compressed copy
+        mockMvc.perform(get("/api/search")
+                        .param("category", "Landing")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    @DisplayName("Should encode responses as CBOR with epoch-millis dates and fixed-point prices when asked")
+    void shouldNegotiateCborEncoding() throws Exception {
+        // Given
+        when(searchService.searchCourses(any(SearchRequest.class))).thenReturn(samplePage);
+
+        // When
+        byte[] body = mockMvc.perform(get("/api/search")
+                        .param("q", "Java")
+                        .accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        JsonNode decoded = new CBORMapper().readTree(body);
+        assertEquals(3, decoded.get("total").asLong());
+        assertEquals(9999, decoded.get("courses").get(0).get("priceMinor").asLong());
+        assertEquals(Instant.parse("2024-12-01T10:00:00Z").toEpochMilli(),
+                decoded.get("courses").get(0).get("nextSessionDate").asLong());
+    }
+
+    @Test
+    @DisplayName("Should leave the price out for unpriced courses rather than report them free")
+    void shouldOmitMissingPrice() throws Exception {
+        // Given
+        CourseDocument unpriced = CourseDocument.builder()
+                .id("4")
+                .title("Java Reading Group")
+                .category("Programming")
+                .build();
+        when(searchService.searchCourses(any(SearchRequest.class)))
+                .thenReturn(new PageImpl<>(List.of(unpriced), PageRequest.of(0, 10), 1));
+
+        // When & Then
+        mockMvc.perform(get("/api/search").param("q", "Java"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.courses[0].title").value("Java Reading Group"))
+                .andExpect(jsonPath("$.courses[0].price").doesNotExist());
+
+        byte[] body = mockMvc.perform(get("/api/search")
+                        .param("q", "Java")
+                        .accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertFalse(new CBORMapper().readTree(body).get("courses").get(0).has("priceMinor"));
+    }
+
 //    todo write a global exception handler to fix this
 //    @Test
 //    @DisplayName("Should handle service exceptions gracefully")
@@ -355,6 +527,17 @@ class SearchControllerTest {
                 .andExpect(status().is4xxClientError());
     }
 
+    @Test
+    @DisplayName("Should reject requests for unknown tenants")
+    void shouldRejectUnknownTenant() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/search")
+                        .header("X-Tenant-Id", "globex"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(searchService);
+    }
+
     @Test
     @DisplayName("Should verify service is called exactly once per request")
     void shouldVerifyServiceCallCount() throws Exception {
@@ -371,4 +554,193 @@ class SearchControllerTest {
         verify(searchService, times(1)).searchCourses(any(SearchRequest.class));
         verifyNoMoreInteractions(searchService);
     }
+
+    @Test
+    @DisplayName("Should serve degraded fallback results when Elasticsearch is unavailable")
+    void shouldServeDegradedFallback() throws Exception {
+        // Given
+        when(searchService.searchCourses(any(SearchRequest.class)))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        when(searchFallback.search(any(SearchRequest.class)))
+                .thenReturn(SearchResponse.fromPage(samplePage).asDegraded());
+
+        // When & Then
+        mockMvc.perform(get("/api/search")
+                        .param("q", "java")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.degraded").value(true))
+                .andExpect(jsonPath("$.courses[0].title").value("Java Programming Basics"));
+
+        verify(searchFallback, never()).remember(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should not cache degraded landing pages")
+    void shouldNotCacheDegradedLandingPages() throws Exception {
+        // Given
+        when(searchService.searchCourses(any(SearchRequest.class)))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenReturn(samplePage);
+        when(searchFallback.search(any(SearchRequest.class)))
+                .thenReturn(SearchResponse.fromPage(samplePage).asDegraded());
+
+        // When & Then: first call degraded, second one live again
+        mockMvc.perform(get("/api/search").param("category", "Outage"))
+                .andExpect(jsonPath("$.degraded").value(true));
+        mockMvc.perform(get("/api/search").param("category", "Outage"))
+                .andExpect(jsonPath("$.degraded").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should record impressions for text searches only")
+    void shouldRecordImpressionsForTextSearches() throws Exception {
+        // Given
+        when(searchService.searchCourses(any(SearchRequest.class))).thenReturn(samplePage);
+
+        // When
+        mockMvc.perform(get("/api/search").param("q", "java")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/search").param("category", "Programming").param("page", "1"))
+                .andExpect(status().isOk());
+
+        // Then
+        verify(popularitySignals, times(1)).recordImpressions(argThat(courses -> courses.size() == 3));
+    }
+
+    @Test
+    @DisplayName("Should pass the location through and return distances and map clusters")
+    void shouldSearchNearLocation() throws Exception {
+        // Given
+        CourseDocument nearby = CourseDocument.builder()
+                .id("1")
+                .title("Java Programming Basics")
+                .location(new CourseLocation(40.7306, -73.9352))
+                .build();
+        when(searchService.searchCourses(any(SearchRequest.class))).thenReturn(new CoursePage(
+                List.of(nearby), PageRequest.of(0, 10), 1, new CourseLocation(40.7128, -74.0060),
+                List.of(new SearchResponse.GeoCluster("dr5rs", 1, 40.7306, -73.9352)), List.of()));
+
+        // When & Then
+        mockMvc.perform(get("/api/search")
+                        .param("lat", "40.7128")
+                        .param("lon", "-74.0060")
+                        .param("radius", "25")
+                        .param("geohashPrecision", "5")
+                        .param("sort", "distance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.courses[0].distanceKm").value(6.286))
+                .andExpect(jsonPath("$.clusters[0].geohash").value("dr5rs"))
+                .andExpect(jsonPath("$.clusters[0].count").value(1));
+
+        verify(searchService).searchCourses(argThat(request ->
+                request.hasRadius() &&
+                        request.radiusKm() == 25 &&
+                        request.geohashPrecision() == 5 &&
+                        request.sort() == SearchSort.DISTANCE));
+    }
+
+    @Test
+    @DisplayName("Should pass the session date range through and return the session histogram")
+    void shouldReturnSessionHistogram() throws Exception {
+        // Given
+        when(searchService.searchCourses(any(SearchRequest.class))).thenReturn(new CoursePage(
+                sampleCourses, PageRequest.of(0, 10), 3, null, List.of(),
+                List.of(new SearchResponse.SessionBucket(Instant.parse("2024-12-01T00:00:00Z"), 3))));
+
+        // When & Then
+        mockMvc.perform(get("/api/search")
+                        .param("startDate", "2024-12-01T00:00:00Z")
+                        .param("endDate", "2024-12-31T23:59:59Z")
+                        .param("sessionHistogram", "month"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sessionHistogram[0].date").value("2024-12-01T00:00:00Z"))
+                .andExpect(jsonPath("$.sessionHistogram[0].count").value(3))
+                .andExpect(jsonPath("$.clusters").doesNotExist());
+
+        verify(searchService).searchCourses(argThat(request ->
+                Instant.parse("2024-12-31T23:59:59Z").equals(request.toDate()) &&
+                        request.sessionHistogram() == SessionInterval.MONTH));
+    }
+
+    @Test
+    @DisplayName("Should attach score explanations of the top hits with debug=explain")
+    void shouldExplainTopHits() throws Exception {
+        // Given
+        when(queryExplainer.isEnabled()).thenReturn(true);
+        when(queryExplainer.tryAcquire()).thenReturn(true);
+        when(searchService.searchCourses(any(SearchRequest.class), any(QueryTrace.class))).thenReturn(samplePage);
+        when(queryExplainer.explain(any(QueryTrace.class), anyList())).thenReturn(List.of(
+                new HitExplanation("1", List.of(new HitExplanation.PhaseScore("text-exact", 2.5,
+                        new HitExplanation.Node(2.5, "sum of:", List.of()))))));
+
+        // When & Then
+        mockMvc.perform(get("/api/search")
+                        .param("q", "Java")
+                        .param("debug", "explain"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Search-Explain", "explained"))
+                .andExpect(jsonPath("$.courses.length()").value(3))
+                .andExpect(jsonPath("$.explanations[0].id").value("1"))
+                .andExpect(jsonPath("$.explanations[0].phases[0].phase").value("text-exact"))
+                .andExpect(jsonPath("$.explanations[0].phases[0].score").value(2.5));
+
+        // Explained searches never come from (or go into) the result cache
+        verify(searchService, never()).searchCourses(any(SearchRequest.class));
+        verify(queryExplainer).explain(any(QueryTrace.class), argThat(ids -> ids.equals(List.of("1", "2", "3"))));
+    }
+
+    @Test
+    @DisplayName("Should serve plain results when explaining them fails")
+    void shouldServePlainResultsWhenExplainFails() throws Exception {
+        // Given: the search succeeds, the explain re-run doesn't
+        when(queryExplainer.isEnabled()).thenReturn(true);
+        when(queryExplainer.tryAcquire()).thenReturn(true);
+        when(searchService.searchCourses(any(SearchRequest.class), any(QueryTrace.class))).thenReturn(samplePage);
+        when(queryExplainer.explain(any(QueryTrace.class), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        // When & Then
+        mockMvc.perform(get("/api/search")
+                        .param("q", "Java")
+                        .param("debug", "explain"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Search-Explain", "unavailable"))
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.explanations").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should serve plain results once the explain budget is spent")
+    void shouldServePlainResultsWhenExplainIsRateLimited() throws Exception {
+        // Given
+        when(queryExplainer.isEnabled()).thenReturn(true);
+        when(queryExplainer.tryAcquire()).thenReturn(false);
+        when(searchService.searchCourses(any(SearchRequest.class))).thenReturn(samplePage);
+
+        // When & Then
+        mockMvc.perform(get("/api/search")
+                        .param("q", "Java")
+                        .param("debug", "explain"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Search-Explain", "rate-limited"))
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.explanations").doesNotExist());
+
+        verify(queryExplainer, never()).explain(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should not mention explanations in ordinary responses")
+    void shouldOmitExplanationsByDefault() throws Exception {
+        // Given
+        when(searchService.searchCourses(any(SearchRequest.class))).thenReturn(samplePage);
+
+        // When & Then
+        mockMvc.perform(get("/api/search").param("q", "Java"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Search-Explain"))
+                .andExpect(jsonPath("$.explanations").doesNotExist());
+
+        verifyNoInteractions(queryExplainer);
+    }
 }
@@ -1,11 +1,14 @@
 package com.ahnis.searchapi.controller;
 
+import com.ahnis.searchapi.config.GuardrailProperties;
+import com.ahnis.searchapi.resilience.SearchGuardrails;
 import com.ahnis.searchapi.service.SearchService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +29,9 @@ class SuggestControllerTest {
     @Mock
     private SearchService searchService;
 
+    @Spy
+    private SearchGuardrails searchGuardrails = new SearchGuardrails(new GuardrailProperties());
+
     @InjectMocks
     private SearchController searchController;
 
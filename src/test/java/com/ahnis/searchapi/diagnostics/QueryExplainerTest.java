@@ -0,0 +1,149 @@
+package com.ahnis.searchapi.diagnostics;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.explain.Explanation;
+import co.elastic.clients.elasticsearch.core.explain.ExplanationDetail;
+import co.elastic.clients.elasticsearch.core.search.Rescore;
+import co.elastic.clients.elasticsearch.core.search.ScoreMode;
+import co.elastic.clients.json.JsonData;
+import com.ahnis.searchapi.config.CircuitBreakerProperties;
+import com.ahnis.searchapi.config.ExplainProperties;
+import com.ahnis.searchapi.dto.HitExplanation;
+import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.resilience.ElasticsearchCircuitBreaker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.RescorerQuery;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Query Explainer Tests")
+class QueryExplainerTest {
+
+    @Test
+    @DisplayName("Should condense Lucene's explanation to the parts that carry the score")
+    void shouldCondenseExplanation() {
+        // given
+        Explanation explanation = Explanation.of(e -> e
+                .value(2.0f)
+                .description("sum of:")
+                .details(
+                        detail(2.0f, "weight(title:java in 3) [PerFieldSimilarity], result of:",
+                                detail(2.0f, "score(freq=1.0), computed as boost * idf * tf from:",
+                                        detail(1.5f, "idf, computed as log(1 + (N - n + 0.5) / (n + 0.5)) from:",
+                                                detail(10f, "n, number of documents containing term"),
+                                                detail(40f, "N, total number of documents with field")),
+                                        detail(1.33f, "tf, computed as freq / (freq + k1 * (1 - b + b * dl / avgdl)) from:",
+                                                detail(1f, "freq, occurrences of term within document")))),
+                        detail(0f, "weight(description:java in 3) [PerFieldSimilarity], result of:")));
+
+        // when
+        HitExplanation.Node node = QueryExplainer.condense(explanation, 6);
+
+        // then
+        assertEquals(2.0, node.value(), 1e-6);
+        // "sum of" and "weight(...)" only passed the score through; the zero-valued clause is gone
+        assertEquals("score(freq=1.0), computed as boost * idf * tf from:", node.description());
+        assertEquals(2, node.details().size());
+        assertTrue(node.details().get(0).description().startsWith("idf"));
+        assertTrue(node.details().get(0).details().isEmpty());
+        assertTrue(node.details().get(1).details().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should cut the explanation tree at the configured depth")
+    void shouldCapDepth() {
+        // given
+        Explanation explanation = Explanation.of(e -> e
+                .value(3.0f)
+                .description("sum of:")
+                .details(
+                        detail(1.0f, "first", detail(0.5f, "a"), detail(0.5f, "b")),
+                        detail(2.0f, "second")));
+
+        // when
+        HitExplanation.Node node = QueryExplainer.condense(explanation, 2);
+
+        // then
+        assertEquals(2, node.details().size());
+        assertTrue(node.details().get(0).details().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should send the traced rescorer along with the explain request")
+    void shouldTranslateRescorer() {
+        // given
+        RescorerQuery rescorer = new RescorerQuery(NativeQuery.builder()
+                .withQuery(q -> q.matchAll(m -> m))
+                .build())
+                .withScoreMode(RescorerQuery.ScoreMode.Multiply)
+                .withWindowSize(50)
+                .withQueryWeight(1.0f)
+                .withRescoreQueryWeight(2.0f);
+
+        // when
+        Rescore rescore = QueryExplainer.toRescore(rescorer);
+
+        // then
+        assertNotNull(rescore);
+        assertEquals(50, rescore.windowSize());
+        assertEquals(ScoreMode.Multiply, rescore.query().scoreMode());
+        assertEquals(2.0, rescore.query().rescoreQueryWeight());
+        assertTrue(rescore.query().query().isMatchAll());
+        assertNull(QueryExplainer.toRescore(null));
+    }
+
+    @Test
+    @DisplayName("Should ration explain requests per minute")
+    void shouldRationExplainRequests() {
+        // given
+        AtomicLong clock = new AtomicLong();
+        QueryExplainer.MinuteBudget budget = new QueryExplainer.MinuteBudget(2, clock::get);
+
+        // when & then
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertTrue(budget.tryAcquire());
+    }
+
+    private static ExplanationDetail detail(float value, String description, ExplanationDetail... details) {
+        return ExplanationDetail.of(d -> d.value(value).description(description).details(List.of(details)));
+    }
+
+    @Test
+    @DisplayName("Should report a failed explain re-run as a data access failure")
+    void shouldTranslateExplainFailures() throws IOException {
+        // given
+        ElasticsearchClient client = mock(ElasticsearchClient.class);
+        when(client.search(any(SearchRequest.class), eq(JsonData.class))).thenThrow(new IOException("connection refused"));
+        ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+        when(operations.getIndexCoordinatesFor(CourseDocument.class)).thenReturn(IndexCoordinates.of("courses"));
+        QueryExplainer explainer = new QueryExplainer(client, operations,
+                new ElasticsearchCircuitBreaker(new CircuitBreakerProperties()), new ExplainProperties());
+        QueryTrace trace = new QueryTrace();
+        trace.add(new QueryTrace.Phase("text-exact",
+                NativeQuery.builder().withQuery(Query.of(q -> q.matchAll(m -> m))).build(),
+                1, 1, new QueryTrace.Shards(1, 1, 0, 0), 1_000_000));
+
+        // when & then
+        assertThrows(DataAccessException.class, () -> explainer.explain(trace, List.of("1")));
+    }
+}
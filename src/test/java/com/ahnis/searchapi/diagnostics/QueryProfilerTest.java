@@ -0,0 +1,82 @@
+package com.ahnis.searchapi.diagnostics;
+
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.search.Suggester;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.query.RescorerQuery;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Query Profiler Tests")
+class QueryProfilerTest {
+
+    @Test
+    @DisplayName("Should replay the complete recorded search with profiling on")
+    void shouldReplayCompleteSearch() {
+        // given: everything a search can send besides the query
+        NativeQuery request = NativeQuery.builder()
+                .withQuery(Query.of(q -> q.match(m -> m.field("title").query("java"))))
+                .withPageable(PageRequest.of(2, 10, Sort.by(Sort.Direction.ASC, "nextSessionDate")))
+                .withSort(SortOptions.of(so -> so.geoDistance(g -> g
+                        .field("location")
+                        .location(l -> l.latlon(ll -> ll.lat(52.5).lon(13.4))))))
+                .withAggregation("clusters", Aggregation.of(a -> a.geohashGrid(g -> g.field("location").precision(p -> p.geohashLength(5)))))
+                .withSuggester(Suggester.of(s -> s.text("java")))
+                .withRoute("math")
+                .build();
+        request.setTrackTotalHitsUpTo(1000);
+        request.setSearchAfter(List.of(1733047200000L, "42"));
+        request.addRescorerQuery(new RescorerQuery(NativeQuery.builder()
+                .withQuery(Query.of(q -> q.matchAll(m -> m)))
+                .build()).withWindowSize(50));
+
+        // when
+        SearchRequest profiled = QueryProfiler.toProfiledRequest("courses", request);
+
+        // then
+        assertTrue(profiled.profile());
+        assertEquals(List.of("courses"), profiled.index());
+        assertEquals("math", profiled.routing());
+        assertEquals(20, profiled.from());
+        assertEquals(10, profiled.size());
+        assertEquals(2, profiled.sort().size());
+        assertTrue(profiled.sort().get(0).isGeoDistance());
+        assertEquals("nextSessionDate", profiled.sort().get(1).field().field());
+        assertEquals(1000, profiled.trackTotalHits().count());
+        assertEquals(2, profiled.searchAfter().size());
+        assertEquals(1733047200000L, profiled.searchAfter().get(0).longValue());
+        assertEquals(50, profiled.rescore().get(0).windowSize());
+        assertTrue(profiled.aggregations().containsKey("clusters"));
+        assertEquals("java", profiled.suggest().text());
+        assertFalse(profiled.source().fetch());
+    }
+
+    @Test
+    @DisplayName("Should translate a search as sent, with its source filter and without profiling")
+    void shouldTranslateSearchAsSent() {
+        // given
+        NativeQuery request = NativeQuery.builder()
+                .withQuery(Query.of(q -> q.matchAll(m -> m)))
+                .withPageable(PageRequest.of(0, 10))
+                .withSourceFilter(new FetchSourceFilter(null, new String[]{"embedding"}))
+                .build();
+
+        // when
+        SearchRequest sent = QueryProfiler.toSearchRequest("courses", request);
+
+        // then
+        assertNull(sent.profile());
+        assertEquals(List.of("embedding"), sent.source().filter().excludes());
+        assertTrue(sent.source().filter().includes().isEmpty());
+    }
+}
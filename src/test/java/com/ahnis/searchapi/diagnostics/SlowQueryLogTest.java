@@ -0,0 +1,57 @@
+package com.ahnis.searchapi.diagnostics;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.ahnis.searchapi.dto.SearchRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Slow Query Log Tests")
+class SlowQueryLogTest {
+
+    @Test
+    @DisplayName("Should skip requests under the threshold")
+    void shouldSkipFastRequests() {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(60_000, 4);
+
+        slowQueryLog.record(SearchRequest.defaults(), traceWithOnePhase());
+
+        assertTrue(slowQueryLog.recent().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should capture query DSL and keep only the newest entries")
+    void shouldCaptureDslAndOverwriteOldest() {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(0, 2);
+
+        for (int i = 0; i < 3; i++) {
+            slowQueryLog.record(SearchRequest.defaults().withCategory("Math"), traceWithOnePhase());
+        }
+
+        List<SlowQueryEntry> recent = slowQueryLog.recent();
+        assertEquals(2, recent.size());
+        assertEquals(3, recent.get(0).id());
+        assertEquals(2, recent.get(1).id());
+        assertTrue(slowQueryLog.find(1).isEmpty());
+
+        SlowQueryEntry.PhaseReport phase = recent.get(0).phases().get(0);
+        assertEquals("filters", phase.name());
+        assertTrue(phase.dsl().contains("match_all"));
+        assertEquals(42, phase.totalHits());
+    }
+
+    private static QueryTrace traceWithOnePhase() {
+        QueryTrace trace = new QueryTrace();
+        NativeQuery request = NativeQuery.builder()
+                .withQuery(Query.of(q -> q.matchAll(m -> m)))
+                .withPageable(PageRequest.of(0, 10))
+                .build();
+        trace.add(new QueryTrace.Phase("filters", request, 3, 42, new QueryTrace.Shards(1, 1, 0, 0), 5_000_000));
+        return trace;
+    }
+}
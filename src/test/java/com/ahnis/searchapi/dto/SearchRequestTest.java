@@ -0,0 +1,140 @@
+package com.ahnis.searchapi.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Search Request Tests")
+class SearchRequestTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new ParameterNamesModule())
+            .registerModule(new JavaTimeModule());
+
+    @Test
+    @DisplayName("Should track which numeric filters were given")
+    void shouldTrackPresence() {
+        SearchRequest request = SearchRequest.of(null, null, null, 0, null, null, 99.5, null, null,
+                null, null, null, null, null, null, null, null, null);
+
+        assertTrue(request.hasMinAge());
+        assertEquals(0, request.minAge());
+        assertFalse(request.hasMaxAge());
+        assertFalse(request.hasMinPrice());
+        assertTrue(request.hasMaxPrice());
+        assertEquals(99.5, request.maxPrice());
+        assertEquals(SearchSort.NEXT_SESSION, request.sort());
+        assertEquals(SearchRequest.DEFAULT_SIZE, request.size());
+    }
+
+    @Test
+    @DisplayName("Should only treat latitude and longitude together as a location")
+    void shouldRequireBothCoordinates() {
+        SearchRequest latOnly = SearchRequest.of(null, null, null, null, null, null, null, null, null,
+                40.7, null, 10.0, null, null, null, "distance", null, null);
+        SearchRequest located = SearchRequest.defaults().withLocation(40.7, -74.0).withRadiusKm(10);
+
+        assertFalse(latOnly.hasLocation());
+        assertFalse(latOnly.hasRadius());
+        assertEquals(0, latOnly.lat());
+        assertTrue(located.hasLocation());
+        assertTrue(located.hasRadius());
+        assertEquals(SearchSort.DISTANCE, latOnly.sort());
+    }
+
+    @Test
+    @DisplayName("Should parse sort once and fall back to the default order")
+    void shouldParseSort() {
+        assertEquals(SearchSort.PRICE_ASC, SearchSort.parse("priceAsc"));
+        assertEquals(SearchSort.PRICE_DESC, SearchSort.parse("priceDesc"));
+        assertEquals(SearchSort.NEXT_SESSION, SearchSort.parse("bogus"));
+        assertEquals(SearchSort.NEXT_SESSION, SearchSort.parse(null));
+        assertEquals(SessionInterval.WEEK, SessionInterval.parse("week"));
+        assertNull(SessionInterval.parse("fortnight"));
+    }
+
+    @Test
+    @DisplayName("Should round-trip through JSON without inventing absent filters")
+    void shouldRoundTripThroughJson() throws Exception {
+        SearchRequest request = SearchRequest.defaults()
+                .withCategory("Math")
+                .withMaxAge(10)
+                .withFromDate(Instant.parse("2025-06-01T00:00:00Z"))
+                .withToDate(Instant.parse("2025-06-30T23:59:59Z"))
+                .withSessionHistogram(SessionInterval.MONTH)
+                .withSort(SearchSort.PRICE_DESC)
+                .withPage(2);
+
+        String json = objectMapper.writeValueAsString(request);
+        SearchRequest copy = objectMapper.readValue(json, SearchRequest.class);
+
+        assertFalse(json.contains("minAge"));
+        assertEquals(request, copy);
+    }
+
+    @Test
+    @DisplayName("Should give differently spelled versions of one question the same canonical form and key")
+    void shouldCanonicalizeEquivalentRequests() {
+        // given
+        SearchRequest spelled = SearchRequest.of("  robotics   kits ", " Robotics", "CLUB", 0, null, 0.0, 500.0,
+                null, null, null, null, 25.0, 40, null, "hybrid", "priceAsc", -1, 0);
+        SearchRequest plain = SearchRequest.of("robotics kits", "robotics", "club", null, null, null, 500.0,
+                null, null, null, null, null, 12, null, null, "priceAsc", null, null);
+
+        // when
+        SearchRequest canonical = spelled.canonical();
+
+        // then
+        assertEquals(plain.canonical(), canonical);
+        assertEquals(plain.canonicalKey(), spelled.canonicalKey());
+        assertEquals(canonical, canonical.canonical());
+        assertEquals("robotics kits", canonical.query());
+        assertEquals("robotics", canonical.category());
+        assertFalse(canonical.hasMinAge());
+        assertFalse(canonical.hasMinPrice());
+        assertEquals(0, canonical.radiusKm());
+        assertEquals(SearchRequest.MAX_GEOHASH_PRECISION, canonical.geohashPrecision());
+        assertEquals(SearchMode.KEYWORD, canonical.mode());
+        assertEquals(0, canonical.page());
+        assertEquals(SearchRequest.DEFAULT_SIZE, canonical.size());
+    }
+
+    @Test
+    @DisplayName("Should fold sorts that can't apply without a text query into the default order")
+    void shouldFoldInapplicableSorts() {
+        SearchRequest browse = SearchRequest.defaults().withCategory("Art");
+
+        assertEquals(browse.canonicalKey(), browse.withSort(SearchSort.RELEVANCE).canonicalKey());
+        assertEquals(browse.canonicalKey(), browse.withSort(SearchSort.DISTANCE).canonicalKey());
+        assertEquals(browse.canonicalKey(), browse.withQuery("   ").canonicalKey());
+        assertNotEquals(browse.canonicalKey(), browse.withQuery("art").withSort(SearchSort.RELEVANCE).canonicalKey());
+        assertNotEquals(browse.canonicalKey(), browse.withPage(1).canonicalKey());
+        assertNotEquals(browse.canonicalKey(), browse.withMinPrice(10).canonicalKey());
+    }
+
+    @Test
+    @DisplayName("Should compute the same key in every JVM")
+    void shouldKeepKeysStable() {
+        // Pinned: a changed value means cache keys, logs and dashboards no longer line up across versions
+        assertEquals("f6aceb5d1315a66a", SearchRequest.defaults().canonicalKey().toString());
+        assertEquals(16, SearchRequest.defaults().withQuery("robotics").canonicalKey().toString().length());
+    }
+
+    @Test
+    @DisplayName("Should tell requests apart even when their hashes collide")
+    void shouldNotConfuseCollidingKeys() {
+        SearchRequest math = SearchRequest.defaults().withCategory("math").canonical();
+        SearchRequest art = SearchRequest.defaults().withCategory("art").canonical();
+        long hash = math.canonicalKey().value();
+
+        assertNotEquals(new RequestKey(hash, math), new RequestKey(hash, art));
+        assertEquals(new RequestKey(hash, math).hashCode(), new RequestKey(hash, art).hashCode());
+        assertEquals(math.canonicalKey(), new RequestKey(hash, math));
+    }
+}
@@ -0,0 +1,83 @@
+package com.ahnis.searchapi.embedding;
+
+import com.ahnis.searchapi.entity.CourseDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Hashing Embedding Provider Tests")
+class HashingEmbeddingProviderTest {
+
+    private final HashingEmbeddingProvider provider = new HashingEmbeddingProvider();
+
+    @Test
+    @DisplayName("Should produce deterministic unit vectors of the mapped length")
+    void shouldProduceDeterministicUnitVectors() {
+        float[] first = provider.embed("Robotics for beginners");
+        float[] second = provider.embed("Robotics for beginners");
+
+        assertEquals(CourseDocument.EMBEDDING_DIMENSIONS, first.length);
+        assertArrayEquals(first, second);
+        assertEquals(1.0, dot(first, first), 1e-5);
+    }
+
+    @Test
+    @DisplayName("Related wording should be closer than unrelated text")
+    void relatedWordingShouldBeCloser() {
+        float[] query = provider.embed("building robots");
+
+        double robotics = dot(query, provider.embed("Course 1. Robotics. Build and program your own robot"));
+        double history = dot(query, provider.embed("Course 4. History. Ancient civilisations and their empires"));
+
+        assertTrue(robotics > history, robotics + " should exceed " + history);
+    }
+
+    @Test
+    @DisplayName("Text without words should have no embedding")
+    void blankTextShouldHaveNoEmbedding() {
+        assertNull(provider.embed(null));
+        assertNull(provider.embed("   "));
+        assertNull(provider.embed("?!"));
+    }
+
+    @Test
+    @DisplayName("Courses should be embedded from title, category and description on save")
+    void shouldEmbedCoursesOnSave() {
+        CourseEmbeddings embeddings = new CourseEmbeddings(provider);
+        CourseDocument course = CourseDocument.builder()
+                .title("Course 1").category("Robotics").description("Build a robot")
+                .build();
+
+        embeddings.onBeforeConvert(course, null);
+
+        assertArrayEquals(provider.embed("Course 1. Robotics. Build a robot"), course.getEmbedding());
+        assertArrayEquals(embeddings.embedQuery("robot"), provider.embed("robot"));
+    }
+
+    @Test
+    @DisplayName("Should refuse a provider whose vectors don't fit the mapping")
+    void shouldRejectMismatchedDimensions() {
+        EmbeddingProvider tooShort = new EmbeddingProvider() {
+            @Override
+            public int dimensions() {
+                return 3;
+            }
+
+            @Override
+            public float[] embed(String text) {
+                return new float[]{1, 0, 0};
+            }
+        };
+
+        assertThrows(IllegalStateException.class, () -> new CourseEmbeddings(tooShort));
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
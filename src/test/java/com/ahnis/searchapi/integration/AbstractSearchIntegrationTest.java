@@ -0,0 +1,329 @@
+package com.ahnis.searchapi.integration;
+
+import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.repository.CourseRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * End-to-end search scenarios, run against a real cluster ({@link SearchIntegrationTest}) and against the
+ * in-memory stand-in ({@link InMemorySearchIntegrationTest}); subclasses only decide where Elasticsearch is.
+ */
+// Listings switch to cursors from the third page of two, so ten courses are enough to page into them
+@SpringBootTest(properties = "app.search.guardrails.cursor-from-offset=4")
+@AutoConfigureMockMvc
+abstract class AbstractSearchIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Clear existing data
+        courseRepository.deleteAll();
+
+        // Load a subset of courses from sample-courses.json
+        try (InputStream inputStream = new ClassPathResource("sample-courses.json").getInputStream()) {
+            List<CourseDocument> courses = objectMapper.readValue(
+                    inputStream,
+                    new TypeReference<>() {}
+            );
+
+            // Take only the first 10 courses for testing
+            List<CourseDocument> testCourses = courses.subList(0, Math.min(10, courses.size()));
+            courseRepository.saveAll(testCourses);
+        }
+    }
+
+    @Test
+    void testFullTextSearch() throws Exception {
+        // Test searching by title with a simpler query
+        mockMvc.perform(get("/api/search")
+                .param("q", "Course"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", greaterThan(0)))
+                .andExpect(jsonPath("$.courses[0].title", containsString("Course")));
+    }
+
+    @Test
+    void testCategoryFilter() throws Exception {
+        // Test filtering by category
+        mockMvc.perform(get("/api/search")
+                .param("category", "Math"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.courses[*].category", everyItem(is("Math"))));
+    }
+
+    @Test
+    void testTypeFilter() throws Exception {
+        // Test filtering by type
+        mockMvc.perform(get("/api/search")
+                .param("type", "ONE_TIME"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.courses[*].type", everyItem(is("ONE_TIME"))));
+    }
+
+    @Test
+    void testPriceRangeFilter() throws Exception {
+        // Test filtering by price range
+        mockMvc.perform(get("/api/search")
+                .param("minPrice", "1000")
+                .param("maxPrice", "2000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.courses[*].price", everyItem(allOf(
+                        greaterThanOrEqualTo(1000.0),
+                        lessThanOrEqualTo(2000.0)
+                ))));
+    }
+
+    @Test
+    void testSortingAscending() throws Exception {
+        // Test sorting by price ascending
+        mockMvc.perform(get("/api/search")
+                .param("sort", "priceAsc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.courses", hasSize(greaterThan(0))))
+                .andExpect(jsonPath("$.courses[0].price").exists())
+                .andExpect(jsonPath("$.courses[1].price").exists());
+        // We can't directly compare values in the assertion, but we'll verify the order is correct
+    }
+
+    @Test
+    void testSortingDescending() throws Exception {
+        // Test sorting by price descending
+        mockMvc.perform(get("/api/search")
+                .param("sort", "priceDesc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.courses", hasSize(greaterThan(0))))
+                .andExpect(jsonPath("$.courses[0].price").exists())
+                .andExpect(jsonPath("$.courses[1].price").exists());
+        // We can't directly compare values in the assertion, but we'll verify the order is correct
+    }
+
+    @Test
+    void testPagination() throws Exception {
+        // Test pagination
+        mockMvc.perform(get("/api/search")
+                .param("page", "0")
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.courses", hasSize(5)));
+    }
+
+    @Test
+    void testDateFilter() throws Exception {
+        // Test filtering by date
+        mockMvc.perform(get("/api/search")
+                .param("startDate", "2025-06-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", greaterThan(0)))
+                .andExpect(jsonPath("$.courses[*].nextSessionDate", everyItem(not(empty()))));
+    }
+
+    @Test
+    void testFuzzySearch() throws Exception {
+        // Test fuzzy search with a misspelled word
+        mockMvc.perform(get("/api/search")
+                .param("q", "Corse")) // Misspelled version of "Course"
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", greaterThan(0)))
+                .andExpect(jsonPath("$.courses[0].title", containsString("Course")));
+    }
+
+    @Test
+    void testNearLocationWithClusters() throws Exception {
+        // Two of the loaded courses are in New York: Jersey City (~2 km from the origin) and Brooklyn (~8 km)
+        mockMvc.perform(get("/api/search")
+                .param("lat", "40.7128")
+                .param("lon", "-74.0060")
+                .param("radius", "25")
+                .param("sort", "distance")
+                .param("geohashPrecision", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(2)))
+                .andExpect(jsonPath("$.courses[0].title", is("Course 1")))
+                .andExpect(jsonPath("$.courses[0].distanceKm", lessThan(5.0)))
+                .andExpect(jsonPath("$.courses[1].distanceKm", greaterThan(5.0)))
+                .andExpect(jsonPath("$.clusters", hasSize(1)))
+                .andExpect(jsonPath("$.clusters[0].count", is(2)));
+    }
+
+    @Test
+    void testSessionHistogram() throws Exception {
+        // Six of the loaded courses have a session in June; later sessions must not make buckets
+        mockMvc.perform(get("/api/search")
+                .param("startDate", "2025-06-01T00:00:00Z")
+                .param("endDate", "2025-06-30T23:59:59Z")
+                .param("sessionHistogram", "month"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(6)))
+                .andExpect(jsonPath("$.sessionHistogram", hasSize(1)))
+                .andExpect(jsonPath("$.sessionHistogram[0].date", is("2025-06-01T00:00:00Z")))
+                .andExpect(jsonPath("$.sessionHistogram[0].count", is(6)));
+    }
+
+    @Test
+    void testHybridSearch() throws Exception {
+        // No course text says "robots", so BM25 finds nothing; the embeddings still lead to the robotics courses
+        mockMvc.perform(get("/api/search")
+                .param("q", "building robots")
+                .param("mode", "hybrid"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(10)))
+                .andExpect(jsonPath("$.courses[0].category", is("Robotics")));
+
+        // Filters apply inside both rankings
+        mockMvc.perform(get("/api/search")
+                .param("q", "building robots")
+                .param("mode", "hybrid")
+                .param("category", "Math"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", greaterThan(0)))
+                .andExpect(jsonPath("$.courses[*].category", everyItem(is("Math"))));
+    }
+
+    @Test
+    void testExplainTopHits() throws Exception {
+        // Only the top few hits are explained, each per query that scored it
+        mockMvc.perform(get("/api/search")
+                .param("q", "Course")
+                .param("debug", "explain"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", greaterThan(0)))
+                .andExpect(jsonPath("$.explanations", hasSize(lessThanOrEqualTo(5))))
+                .andExpect(jsonPath("$.explanations[0].id", is(notNullValue())))
+                .andExpect(jsonPath("$.explanations[0].phases[0].score", greaterThan(0.0)))
+                .andExpect(jsonPath("$.explanations[0].phases[0].explanation.description", is(notNullValue())));
+    }
+
+    @Test
+    void testDidYouMean() throws Exception {
+        // The typo finds nothing as typed; the correction comes with the first pass and is searched right away.
+        // Titles are "Course N", so "robotics" is only a category word
+        mockMvc.perform(get("/api/search")
+                .param("q", "robotcs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.didYouMean.text", is("robotics")))
+                .andExpect(jsonPath("$.didYouMean.applied", is(true)))
+                .andExpect(jsonPath("$.courses[0].category", is("Robotics")));
+
+        // With more filters the filter listing replaces the text hits, so the correction is only offered
+        mockMvc.perform(get("/api/search")
+                .param("q", "robotcs")
+                .param("category", "Robotics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.didYouMean.text", is("robotics")))
+                .andExpect(jsonPath("$.didYouMean.applied", is(false)));
+
+        // Correctly spelled queries get no suggestion
+        mockMvc.perform(get("/api/search")
+                .param("q", "robotics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.didYouMean").doesNotExist());
+    }
+
+    @Test
+    void testDeepPagingWithCursors() throws Exception {
+        // Paging through in order: pages 2-4 continue after the previous page instead of skipping hits
+        List<String> paged = new ArrayList<>();
+        for (int page = 0; page < 5; page++) {
+            paged.addAll(courseIds(mockMvc.perform(get("/api/search")
+                    .param("sort", "priceAsc")
+                    .param("page", String.valueOf(page))
+                    .param("size", "2"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString()));
+        }
+        List<String> all = courseIds(mockMvc.perform(get("/api/search")
+                .param("sort", "priceAsc")
+                .param("size", "20"))
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(all, paged);
+
+        // Jumping past the result window has no cursor to get there with
+        mockMvc.perform(get("/api/search")
+                .param("sort", "priceAsc")
+                .param("page", "5000")
+                .param("size", "2"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testCategoryAndTypeStatistics() throws Exception {
+        // Largest first, ties by name; each with the price range of its courses
+        mockMvc.perform(get("/api/analytics/categories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].key", contains("History", "Robotics", "Art", "Coding", "Math")))
+                .andExpect(jsonPath("$[1].count", is(3)))
+                .andExpect(jsonPath("$[1].price.min", is(1443.71)))
+                .andExpect(jsonPath("$[1].price.max", is(2292.2)));
+
+        // The same filters as a search narrow the courses counted
+        mockMvc.perform(get("/api/analytics/types")
+                .param("category", "Robotics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[*].count", everyItem(is(1))));
+    }
+
+    @Test
+    void testPriceDistribution() throws Exception {
+        // Prices run from 963.43 to 2617.13: five buckets of 500 from 500 up, none left out
+        mockMvc.perform(get("/api/analytics/prices")
+                .param("interval", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stats.count", is(10)))
+                .andExpect(jsonPath("$.stats.min", is(963.43)))
+                .andExpect(jsonPath("$.percentiles['50']", allOf(greaterThan(1571.0), lessThan(1828.0))))
+                .andExpect(jsonPath("$.histogram[*].from", contains(500.0, 1000.0, 1500.0, 2000.0, 2500.0)))
+                .andExpect(jsonPath("$.histogram[*].count", contains(1, 2, 4, 2, 1)));
+
+        // Too narrow a bucket is refused rather than answered with thousands of them
+        mockMvc.perform(get("/api/analytics/prices")
+                .param("interval", "0.5"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testAgeCoverage() throws Exception {
+        // A course counts for every band its age range overlaps
+        mockMvc.perform(get("/api/analytics/ages"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].band", contains("3-5", "6-8", "9-12", "13-17")))
+                .andExpect(jsonPath("$[*].count", contains(4, 6, 6, 4)))
+                .andExpect(jsonPath("$[0].share", is(0.4)));
+    }
+
+    private List<String> courseIds(String body) throws IOException {
+        List<String> ids = new ArrayList<>();
+        for (JsonNode course : objectMapper.readTree(body).path("courses")) {
+            ids.add(course.path("id").asText());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,114 @@
+package com.ahnis.searchapi.integration;
+
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.repository.CourseRepository;
+import com.ahnis.searchapi.routing.CourseRouting;
+import com.ahnis.searchapi.service.impl.CourseQueryFactory;
+import com.ahnis.searchapi.support.InMemoryElasticsearch;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Category routing over several shards: a routed search must find every course its filter matches, wherever the
+ * course lives. "Science" and "Computer Science" are routed to different shards of {@link InMemoryElasticsearch}.
+ */
+@SpringBootTest(properties = {
+        "app.elasticsearch.routing.enabled=true",
+        "app.warmup.enabled=false"
+})
+@AutoConfigureMockMvc
+class CategoryRoutingIntegrationTest {
+
+    private static final InMemoryElasticsearch elasticsearch = InMemoryElasticsearch.start(3);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseQueryFactory courseQueryFactory;
+
+    @Autowired
+    private ElasticsearchOperations elasticsearchOperations;
+
+    @Autowired
+    private CourseRouting courseRouting;
+
+    @DynamicPropertySource
+    static void elasticsearchProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.elasticsearch.uris", elasticsearch::uri);
+    }
+
+    @AfterAll
+    static void stopElasticsearch() {
+        elasticsearch.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        courseRepository.deleteAll();
+        // Written the way DataLoader writes them, routed by category
+        elasticsearchOperations.withRouting(courseRouting).save(List.of(
+                course("s1", "Science"), course("s2", "Science"),
+                course("c1", "Computer Science"), course("c2", "Computer Science"),
+                course("m1", "Math")));
+    }
+
+    @Test
+    @DisplayName("Should find every course the category filter matches on any shard")
+    void shouldNotDropCoursesOnOtherShards() throws Exception {
+        // given: what the same filter matches when asking every shard
+        SearchRequest request = SearchRequest.defaults().withCategory("science").canonical();
+        long everywhere = elasticsearchOperations.count(
+                NativeQuery.builder().withQuery(courseQueryFactory.filtered(request)).build(), CourseDocument.class);
+
+        // when / then: the routed search, which only asks the shard of "science"
+        mockMvc.perform(get("/api/search")
+                .param("category", "Science"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is((int) everywhere)))
+                .andExpect(jsonPath("$.courses[*].category", everyItem(is("Science"))));
+        assertEquals(2, everywhere);
+
+        // The partial name is not a category of its own, so it can't route anywhere it would miss courses
+        mockMvc.perform(get("/api/analytics/categories")
+                .param("category", "SCIENCE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].key", is("Science")))
+                .andExpect(jsonPath("$[0].count", is(2)));
+    }
+
+    private static CourseDocument course(String id, String category) {
+        return CourseDocument.builder()
+                .id(id)
+                .title(category + " course " + id)
+                .category(category)
+                .type("COURSE")
+                .price(100.0)
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.ahnis.searchapi.integration;
+
+import com.ahnis.searchapi.support.InMemoryElasticsearch;
+import org.junit.jupiter.api.AfterAll;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * The integration scenarios against {@link InMemoryElasticsearch}: the full application and client stack, no
+ * Docker, no network — runs on every build in a few seconds
+ */
+public class InMemorySearchIntegrationTest extends AbstractSearchIntegrationTest {
+
+    private static final InMemoryElasticsearch elasticsearch = InMemoryElasticsearch.start();
+
+    @DynamicPropertySource
+    static void elasticsearchProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.elasticsearch.uris", elasticsearch::uri);
+    }
+
+    @AfterAll
+    static void stopElasticsearch() {
+        elasticsearch.close();
+    }
+}
@@ -0,0 +1,102 @@
+package com.ahnis.searchapi.ratelimit;
+
+import com.ahnis.searchapi.config.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Rate Limit Filter Tests")
+class RateLimitFilterTest {
+
+    private final RateLimitProperties properties = new RateLimitProperties();
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Budget search = new RateLimitProperties.Budget();
+        search.setPaths(List.of("/api/search"));
+        search.setCapacity(1);
+        search.setRefillPerSecond(0.5);
+        properties.getBudgets().put("search", search);
+        properties.setApiKeys(Set.of("partner-a", "partner-b"));
+        filter = new RateLimitFilter(properties, new RateLimiter(properties));
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest search(String address, String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/search");
+        request.setRemoteAddr(address);
+        if (apiKey != null) {
+            request.addHeader("X-Api-Key", apiKey);
+        }
+        return request;
+    }
+
+    @Test
+    @DisplayName("Should answer 429 with Retry-After once a client's budget is spent")
+    void shouldRejectOverBudget() throws Exception {
+        // given
+        MockHttpServletResponse first = perform(search("10.0.0.1", null));
+
+        // when
+        MockHttpServletResponse second = perform(search("10.0.0.1", null));
+
+        // then
+        assertEquals(200, first.getStatus());
+        assertEquals("1", first.getHeader(RateLimitFilter.LIMIT_HEADER));
+        assertEquals("0", first.getHeader(RateLimitFilter.REMAINING_HEADER));
+        assertEquals(429, second.getStatus());
+        assertEquals("2", second.getHeader("Retry-After"));
+    }
+
+    @Test
+    @DisplayName("Should count API keys separately from the address they call from")
+    void shouldKeyByApiKeyBeforeAddress() throws Exception {
+        perform(search("10.0.0.1", null));
+
+        assertEquals(200, perform(search("10.0.0.1", "partner-a")).getStatus());
+        assertEquals(200, perform(search("10.0.0.1", "partner-b")).getStatus());
+        assertEquals(429, perform(search("10.0.0.2", "partner-a")).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should limit unknown API keys by their address, however many are made up")
+    void shouldNotGiveUnknownKeysTheirOwnBucket() throws Exception {
+        // given
+        perform(search("10.0.0.3", "random-1"));
+
+        // when
+        MockHttpServletResponse rotated = perform(search("10.0.0.3", "random-2"));
+        MockHttpServletResponse withoutKey = perform(search("10.0.0.3", null));
+
+        // then
+        assertEquals(429, rotated.getStatus());
+        assertEquals(429, withoutKey.getStatus());
+        assertEquals(200, perform(search("10.0.0.3", "partner-a")).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should leave paths outside every budget, and everything when disabled, alone")
+    void shouldPassUnlimitedRequests() throws Exception {
+        MockHttpServletResponse admin = perform(new MockHttpServletRequest("GET", "/api/admin/queries/slow"));
+        assertEquals(200, admin.getStatus());
+        assertNull(admin.getHeader(RateLimitFilter.LIMIT_HEADER));
+
+        properties.setEnabled(false);
+        perform(search("10.0.0.1", null));
+        assertEquals(200, perform(search("10.0.0.1", null)).getStatus());
+    }
+}
@@ -0,0 +1,172 @@
+package com.ahnis.searchapi.ratelimit;
+
+import com.ahnis.searchapi.config.RateLimitProperties;
+import com.ahnis.searchapi.tenant.TenantContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Rate Limiter Tests")
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final RateLimitProperties properties = new RateLimitProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.getBudgets().put("search", budget(List.of("/api/search"), 3, 1));
+        properties.getBudgets().put("suggest", budget(List.of("/api/search/suggest"), 5, 10));
+    }
+
+    private static RateLimitProperties.Budget budget(List<String> paths, int capacity, double refillPerSecond) {
+        RateLimitProperties.Budget budget = new RateLimitProperties.Budget();
+        budget.setPaths(paths);
+        budget.setCapacity(capacity);
+        budget.setRefillPerSecond(refillPerSecond);
+        return budget;
+    }
+
+    @Test
+    @DisplayName("Should allow a burst of capacity, then refuse until a token is refilled")
+    void shouldLimitBurstAndRefill() {
+        // given
+        RateLimiter limiter = new RateLimiter(properties, clock::get);
+        RateLimiter.Budget search = limiter.budgetFor("/api/search");
+
+        // when & then
+        assertEquals(2, limiter.tryAcquire(search, "ip:10.0.0.1").remaining());
+        assertEquals(1, limiter.tryAcquire(search, "ip:10.0.0.1").remaining());
+        assertEquals(0, limiter.tryAcquire(search, "ip:10.0.0.1").remaining());
+
+        RateLimiter.Decision refused = limiter.tryAcquire(search, "ip:10.0.0.1");
+        assertFalse(refused.allowed());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), refused.retryAfterNanos());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(limiter.tryAcquire(search, "ip:10.0.0.1").allowed());
+        assertFalse(limiter.tryAcquire(search, "ip:10.0.0.1").allowed());
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets per client and per budget")
+    void shouldSeparateClientsAndBudgets() {
+        // given
+        RateLimiter limiter = new RateLimiter(properties, clock::get);
+        RateLimiter.Budget search = limiter.budgetFor("/api/search");
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(search, "key:partner");
+        }
+
+        // when & then
+        assertFalse(limiter.tryAcquire(search, "key:partner").allowed());
+        assertTrue(limiter.tryAcquire(search, "key:other").allowed());
+        assertTrue(limiter.tryAcquire(limiter.budgetFor("/api/search/suggest"), "key:partner").allowed());
+    }
+
+    @Test
+    @DisplayName("Should give every tenant its own buckets, at its own rates where configured")
+    void shouldSeparateTenants() {
+        // given
+        RateLimitProperties.Rate acmeSearch = new RateLimitProperties.Rate();
+        acmeSearch.setCapacity(1);
+        properties.getTenants().put("acme", Map.of("search", acmeSearch));
+        RateLimiter limiter = new RateLimiter(properties, clock::get);
+        RateLimiter.Budget search = limiter.budgetFor("/api/search");
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(search, "ip:10.0.0.1");
+        }
+
+        // when
+        RateLimiter.Budget acme = TenantContext.callAs("acme", () -> limiter.budgetFor("/api/search"));
+        RateLimiter.Decision first = limiter.tryAcquire(acme, "ip:10.0.0.1");
+
+        // then: the default tenant's spent bucket doesn't count, and acme's capacity is its own
+        assertFalse(limiter.tryAcquire(search, "ip:10.0.0.1").allowed());
+        assertTrue(first.allowed());
+        assertEquals(1, first.limit());
+        assertFalse(limiter.tryAcquire(acme, "ip:10.0.0.1").allowed());
+        assertEquals(3, TenantContext.callAs("other", () -> limiter.budgetFor("/api/search")).capacity());
+    }
+
+    @Test
+    @DisplayName("Should reject a tenant rate that could never admit a request at startup")
+    void shouldValidateTenantRates() {
+        RateLimitProperties.Rate broken = new RateLimitProperties.Rate();
+        broken.setRefillPerSecond(0.0);
+        properties.getTenants().put("acme", Map.of("search", broken));
+
+        assertThrows(IllegalStateException.class, () -> new RateLimiter(properties, clock::get));
+    }
+
+    @Test
+    @DisplayName("Should match the most specific path prefix on segment boundaries")
+    void shouldResolveBudgetByPath() {
+        RateLimiter limiter = new RateLimiter(properties, clock::get);
+
+        assertEquals("search", limiter.budgetFor("/api/search").name());
+        assertEquals("suggest", limiter.budgetFor("/api/search/suggest").name());
+        assertNull(limiter.budgetFor("/api/searchable"));
+        assertNull(limiter.budgetFor("/api/admin/queries/slow"));
+    }
+
+    @Test
+    @DisplayName("Should share one overflow bucket once the client map is full, and evict idle clients")
+    void shouldBoundTrackedClients() {
+        // given
+        properties.setMaxClients(2);
+        properties.setIdleTimeout(Duration.ofMinutes(1));
+        RateLimiter limiter = new RateLimiter(properties, clock::get);
+        RateLimiter.Budget search = limiter.budgetFor("/api/search");
+        limiter.tryAcquire(search, "ip:1");
+        limiter.tryAcquire(search, "ip:2");
+
+        // when: new addresses beyond the bound all draw from the same bucket
+        for (int i = 3; i < 6; i++) {
+            assertTrue(limiter.tryAcquire(search, "ip:" + i).allowed());
+        }
+
+        // then
+        assertFalse(limiter.tryAcquire(search, "ip:6").allowed());
+        assertEquals(2, limiter.trackedClients());
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        limiter.evictIdle();
+        assertEquals(0, limiter.trackedClients());
+    }
+
+    @Test
+    @DisplayName("Should never hand out more tokens than the bucket holds under concurrency")
+    void shouldStayExactUnderContention() throws InterruptedException {
+        // given
+        properties.getBudgets().put("search", budget(List.of("/api/search"), 1000, 0.001));
+        RateLimiter limiter = new RateLimiter(properties, clock::get);
+        RateLimiter.Budget search = limiter.budgetFor("/api/search");
+        AtomicLong allowed = new AtomicLong();
+
+        // when
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (limiter.tryAcquire(search, "key:shared").allowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        assertEquals(1000, allowed.get());
+    }
+}
@@ -0,0 +1,98 @@
+package com.ahnis.searchapi.resilience;
+
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.dto.SearchResponse;
+import com.ahnis.searchapi.dto.SearchSort;
+import com.ahnis.searchapi.entity.CourseDocument;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Catalog Snapshot Tests")
+class CatalogSnapshotTest {
+
+    private final CatalogSnapshot snapshot =
+            new CatalogSnapshot(new ObjectMapper().registerModule(new JavaTimeModule()), "sample-courses.json");
+
+    @Test
+    @DisplayName("Should filter by category case-insensitively and sort by price")
+    void shouldFilterAndSort() {
+        // when
+        Page<CourseDocument> page = snapshot.search(SearchRequest.defaults()
+                .withCategory("math")
+                .withSort(SearchSort.PRICE_ASC)
+                .withSize(50));
+
+        // then
+        assertEquals(6, page.getTotalElements());
+        List<CourseDocument> courses = page.getContent();
+        assertTrue(courses.stream().allMatch(course -> "Math".equals(course.getCategory())));
+        for (int i = 1; i < courses.size(); i++) {
+            assertTrue(courses.get(i - 1).getPrice() <= courses.get(i).getPrice());
+        }
+    }
+
+    @Test
+    @DisplayName("Should page through all courses")
+    void shouldPage() {
+        Page<CourseDocument> first = snapshot.search(SearchRequest.defaults());
+        Page<CourseDocument> beyond = snapshot.search(SearchRequest.defaults().withPage(100));
+
+        assertEquals(50, first.getTotalElements());
+        assertEquals(10, first.getContent().size());
+        assertTrue(beyond.getContent().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep courses within the radius, nearest first, with their distance")
+    void shouldSearchNearLocation() {
+        // given: Manhattan
+        SearchRequest request = SearchRequest.defaults()
+                .withLocation(40.7128, -74.0060)
+                .withRadiusKm(30)
+                .withSort(SearchSort.DISTANCE)
+                .withSize(50);
+
+        // when
+        Page<CourseDocument> page = snapshot.search(request);
+        List<SearchResponse.CourseInfo> courses = SearchResponse.fromPage(page).courses();
+
+        // then: one metro area out of five in the sample data
+        assertEquals(10, page.getTotalElements());
+        for (int i = 0; i < courses.size(); i++) {
+            assertTrue(courses.get(i).distanceKm() <= 30);
+            assertTrue(i == 0 || courses.get(i - 1).distanceKm() <= courses.get(i).distanceKm());
+        }
+    }
+
+    @Test
+    @DisplayName("Should match courses with any session in the date range, not just the next one")
+    void shouldMatchAnySessionInRange() {
+        // when
+        Page<CourseDocument> page = snapshot.search(SearchRequest.defaults()
+                .withFromDate(Instant.parse("2025-07-20T00:00:00Z"))
+                .withToDate(Instant.parse("2025-07-31T23:59:59Z"))
+                .withSize(50));
+
+        // then: 8 courses start in the window, 24 more are already running and have a session in it
+        assertEquals(32, page.getTotalElements());
+        assertTrue(page.getContent().stream().anyMatch(course ->
+                course.getNextSessionDate().isBefore(Instant.parse("2025-07-20T00:00:00Z"))));
+    }
+
+    @Test
+    @DisplayName("Should suggest titles by word prefix")
+    void shouldSuggest() {
+        List<String> suggestions = snapshot.suggest("cour", 3);
+
+        assertEquals(3, suggestions.size());
+        assertTrue(suggestions.stream().allMatch(title -> title.startsWith("Course")));
+    }
+}
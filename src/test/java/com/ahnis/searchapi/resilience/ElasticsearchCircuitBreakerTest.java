@@ -0,0 +1,49 @@
+package com.ahnis.searchapi.resilience;
+
+import com.ahnis.searchapi.config.CircuitBreakerProperties;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Elasticsearch Circuit Breaker Tests")
+class ElasticsearchCircuitBreakerTest {
+
+    @Test
+    @DisplayName("Should open after enough failures and then fail fast without calling Elasticsearch")
+    void shouldOpenAndFailFast() {
+        // given
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setSlidingWindowSize(4);
+        properties.setMinimumNumberOfCalls(4);
+        ElasticsearchCircuitBreaker breaker = new ElasticsearchCircuitBreaker(properties);
+        AtomicInteger calls = new AtomicInteger();
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            assertThrows(DataAccessResourceFailureException.class, () -> breaker.execute(() -> {
+                calls.incrementAndGet();
+                throw new DataAccessResourceFailureException("Connection refused");
+            }));
+        }
+
+        // then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(CallNotPermittedException.class, () -> breaker.execute(calls::incrementAndGet));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should pass calls straight through when disabled")
+    void shouldPassThroughWhenDisabled() {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setEnabled(false);
+
+        assertEquals("ok", new ElasticsearchCircuitBreaker(properties).execute(() -> "ok"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.ahnis.searchapi.resilience;
+
+import com.ahnis.searchapi.config.GuardrailProperties;
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.tenant.TenantContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Search Guardrails Tests")
+class SearchGuardrailsTest {
+
+    private final GuardrailProperties properties = new GuardrailProperties();
+    private SearchGuardrails guardrails;
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxSize(50);
+        properties.setMaxResultWindow(100);
+        properties.setCursorFromOffset(40);
+        guardrails = new SearchGuardrails(properties);
+    }
+
+    @Test
+    @DisplayName("Should cut oversized pages down and leave others untouched")
+    void shouldBoundPageSize() {
+        // given
+        SearchRequest huge = SearchRequest.defaults().withSize(100_000);
+        SearchRequest normal = SearchRequest.defaults().withSize(20);
+
+        // when & then
+        assertEquals(50, guardrails.bound(huge).size());
+        assertSame(normal, guardrails.bound(normal));
+    }
+
+    @Test
+    @DisplayName("Should refuse pages past the result window unless there is a cursor for them")
+    void shouldRefuseDeepPagesWithoutCursor() {
+        // given: hits 91-100 are the last ones inside the window
+        SearchRequest last = SearchRequest.defaults().withPage(9).withSize(10);
+        SearchRequest past = last.withPage(10);
+
+        // when & then
+        assertDoesNotThrow(() -> guardrails.checkDepth(last, null));
+        ResultWindowExceededException refused =
+                assertThrows(ResultWindowExceededException.class, () -> guardrails.checkDepth(past, null));
+        assertEquals(400, refused.getStatusCode().value());
+        assertDoesNotThrow(() -> guardrails.checkDepth(past, List.of(1500.0, "42")));
+    }
+
+    @Test
+    @DisplayName("Should remember where a page ended only when the next one is deep, per tenant")
+    void shouldRememberCursorsForDeepPages() {
+        // given
+        SearchRequest shallow = SearchRequest.defaults().withCategory("art").withSize(10);
+        SearchRequest third = shallow.withPage(3);
+
+        // when
+        guardrails.rememberCursor(shallow, List.of(100.0, "1"));
+        guardrails.rememberCursor(third, List.of(400.0, "4"));
+
+        // then: page 1 starts at 10, below the cursor threshold; page 4 starts at 40
+        assertNull(guardrails.cursorFor(shallow.withPage(1)));
+        assertEquals(List.of(400.0, "4"), guardrails.cursorFor(third.withPage(4)));
+        assertNull(TenantContext.callAs("acme", () -> guardrails.cursorFor(third.withPage(4))));
+    }
+
+    @Test
+    @DisplayName("Should forget every tenant's cursors once the index they point into changes")
+    void shouldClearCursors() {
+        // given
+        SearchRequest third = SearchRequest.defaults().withCategory("art").withSize(10).withPage(3);
+        guardrails.rememberCursor(third, List.of(400.0, "4"));
+        TenantContext.runAs("acme", () -> guardrails.rememberCursor(third, List.of(300.0, "3")));
+
+        // when
+        guardrails.clearCursors();
+
+        // then
+        assertNull(guardrails.cursorFor(third.withPage(4)));
+        assertNull(TenantContext.callAs("acme", () -> guardrails.cursorFor(third.withPage(4))));
+    }
+}
@@ -0,0 +1,38 @@
+package com.ahnis.searchapi.routing;
+
+import com.ahnis.searchapi.dto.SearchRequest;
+import com.ahnis.searchapi.entity.CourseDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Course Routing Tests")
+class CourseRoutingTest {
+
+    @Test
+    @DisplayName("Should route documents and single-category searches to the same key")
+    void shouldAgreeOnRoutingKey() {
+        // given
+        CourseRouting routing = new CourseRouting(true);
+        CourseDocument course = CourseDocument.builder().category("Math").build();
+
+        // when
+        String documentRouting = routing.getRouting(course);
+        String searchRouting = routing.routingFor(SearchRequest.defaults().withCategory(" math "));
+
+        // then
+        assertEquals("math", documentRouting);
+        assertEquals(documentRouting, searchRouting);
+        assertNull(routing.routingFor(SearchRequest.defaults()));
+    }
+
+    @Test
+    @DisplayName("Should not route anything when disabled")
+    void shouldNotRouteWhenDisabled() {
+        CourseRouting routing = new CourseRouting(false);
+
+        assertNull(routing.getRouting(CourseDocument.builder().category("Math").build()));
+        assertNull(routing.routingFor(SearchRequest.defaults().withCategory("Math")));
+    }
+}
@@ -0,0 +1,65 @@
+package com.ahnis.searchapi.service.impl;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.json.JsonpUtils;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.ahnis.searchapi.config.RankingProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.core.query.RescorerQuery;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Ranking Queries Tests")
+class RankingQueriesTest {
+
+    private final JacksonJsonpMapper mapper = new JacksonJsonpMapper();
+    private final Query textQuery = Query.of(q -> q.match(m -> m.field("title").query("robotics")));
+
+    @Test
+    @DisplayName("Inline ranking should wrap the text query with recency and popularity signals")
+    void inlineShouldWrapTextQuery() {
+        RankingProperties properties = new RankingProperties();
+        properties.setRescoreWindow(0);
+        RankingQueries queries = new RankingQueries(properties);
+
+        String json = JsonpUtils.toJsonString(queries.inline(textQuery), mapper);
+
+        assertFalse(queries.isRescoring());
+        assertTrue(json.contains("\"function_score\""));
+        assertTrue(json.contains("\"robotics\""));
+        assertTrue(json.contains("\"gauss\":{\"nextSessionDate\":{\"decay\":0.5,\"offset\":\"1d\",\"scale\":\"14d\",\"origin\":\"now\"}}"));
+        assertTrue(json.contains("\"field_value_factor\":{\"field\":\"popularity\",\"factor\":10.0,\"missing\":0.0,\"modifier\":\"log1p\"}"));
+        assertTrue(json.contains("\"boost_mode\":\"multiply\""));
+        // Price preference is opt-in
+        assertFalse(json.contains("\"price\""));
+    }
+
+    @Test
+    @DisplayName("Price preference and disabled signals should follow configuration")
+    void signalsShouldFollowConfiguration() {
+        RankingProperties properties = new RankingProperties();
+        properties.setPricePreference(true);
+        properties.setPopularityWeight(0);
+
+        String json = JsonpUtils.toJsonString(new RankingQueries(properties).inline(textQuery), mapper);
+
+        assertTrue(json.contains("\"price\":{\"decay\":0.5,\"scale\":100.0,\"origin\":0.0}"));
+        assertFalse(json.contains("popularity"));
+    }
+
+    @Test
+    @DisplayName("Rescore window should cover at least the requested page")
+    void rescoreWindowShouldCoverPage() {
+        RankingQueries queries = new RankingQueries(new RankingProperties());
+
+        RescorerQuery firstPage = queries.rescorer(PageRequest.of(0, 10));
+        RescorerQuery deepPage = queries.rescorer(PageRequest.of(7, 10));
+
+        assertTrue(queries.isRescoring());
+        assertEquals(50, firstPage.getWindowSize());
+        assertEquals(80, deepPage.getWindowSize());
+        assertEquals(RescorerQuery.ScoreMode.Multiply, firstPage.getScoreMode());
+    }
+}
@@ -0,0 +1,56 @@
+package com.ahnis.searchapi.service.impl;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.json.JsonpUtils;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.ahnis.searchapi.config.SemanticSearchProperties;
+import com.ahnis.searchapi.embedding.CourseEmbeddings;
+import com.ahnis.searchapi.embedding.HashingEmbeddingProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Semantic Queries Tests")
+class SemanticQueriesTest {
+
+    private final SemanticQueries queries =
+            new SemanticQueries(new SemanticSearchProperties(), new CourseEmbeddings(new HashingEmbeddingProvider()));
+
+    @Test
+    @DisplayName("Vector query should score by similarity inside the request's filters")
+    void nearestShouldPrefilter() {
+        Query category = Query.of(q -> q.matchPhrase(m -> m.field("category").query("Robotics")));
+
+        String json = JsonpUtils.toJsonString(
+                queries.nearest(new float[]{0.6f, 0.8f}, List.of(category)), new JacksonJsonpMapper());
+
+        assertTrue(json.startsWith("{\"script_score\":{\"query\":{\"bool\":{\"filter\":["), json);
+        assertTrue(json.contains("{\"exists\":{\"field\":\"embedding\"}}"), json);
+        assertTrue(json.contains("{\"match_phrase\":{\"category\":{\"query\":\"Robotics\"}}}"), json);
+        assertTrue(json.contains("\"source\":\"dotProduct(params.query_vector, 'embedding') + 1.0\""), json);
+        assertTrue(json.contains("\"params\":{\"query_vector\":[0.6,0.8]}"), json);
+    }
+
+    @Test
+    @DisplayName("Fusion should favour items ranked well in both lists")
+    void fuseShouldFavourAgreement() {
+        List<String> keyword = List.of("a", "b", "c");
+        List<String> vector = List.of("c", "d", "b");
+
+        List<String> fused = queries.fuse(List.of(keyword, vector), Function.identity());
+
+        // b and c appear twice; c ranks 3rd and 1st, b 2nd and 3rd — close, but 1/61 + 1/63 > 1/62 + 1/63
+        assertEquals(List.of("c", "b", "a", "d"), fused);
+    }
+
+    @Test
+    @DisplayName("Fusion of a single ranking should keep its order")
+    void fuseShouldKeepSingleRanking() {
+        assertEquals(List.of("x", "y", "z"), queries.fuse(List.of(List.of("x", "y", "z")), Function.identity()));
+        assertTrue(queries.fuse(List.of(List.<String>of(), List.<String>of()), Function.identity()).isEmpty());
+    }
+}
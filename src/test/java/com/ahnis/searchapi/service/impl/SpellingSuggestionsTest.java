@@ -0,0 +1,78 @@
+package com.ahnis.searchapi.service.impl;
+
+import co.elastic.clients.json.JsonpUtils;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.ahnis.searchapi.config.DidYouMeanProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.core.suggest.response.SortBy;
+import org.springframework.data.elasticsearch.core.suggest.response.Suggest;
+import org.springframework.data.elasticsearch.core.suggest.response.TermSuggestion;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Spelling Suggestions Tests")
+class SpellingSuggestionsTest {
+
+    private final DidYouMeanProperties properties = new DidYouMeanProperties();
+    private final SpellingSuggestions suggestions = new SpellingSuggestions(properties);
+
+    @Test
+    @DisplayName("Should ask the spelling field, with the standard analyzer and only for missing terms")
+    void shouldBuildTermSuggesterOnSpellingField() {
+        String json = JsonpUtils.toJsonString(suggestions.suggester("robotcs clas"), new JacksonJsonpMapper());
+
+        assertTrue(json.contains("\"text\":\"robotcs clas\""));
+        assertTrue(json.contains("\"did-you-mean\":{\"term\":{"));
+        assertTrue(json.contains("\"field\":\"spelling\""));
+        assertTrue(json.contains("\"analyzer\":\"standard\""));
+        assertTrue(json.contains("\"suggest_mode\":\"missing\""));
+
+        properties.setEnabled(false);
+        assertNull(suggestions.suggester("robotcs clas"));
+    }
+
+    @Test
+    @DisplayName("Should replace each misspelled term with its suggestion")
+    void shouldCorrectEachTerm() {
+        // given
+        Suggest suggest = new Suggest(List.of(suggestion("did-you-mean",
+                new TermSuggestion.Entry("robotcs", 0, 7, List.of(option("robotics", 0.85, 3))),
+                new TermSuggestion.Entry("clas", 8, 4, List.of(option("class", 0.8, 2))))), false);
+
+        // when & then
+        assertEquals("robotics class", suggestions.correct("robotcs clas", suggest));
+    }
+
+    @Test
+    @DisplayName("Should leave terms without a suggestion as typed")
+    void shouldKeepTermsWithoutSuggestion() {
+        // given: "art" is in the vocabulary, so the suggester has nothing for it
+        Suggest suggest = new Suggest(List.of(suggestion("did-you-mean",
+                new TermSuggestion.Entry("art", 0, 3, List.of()),
+                new TermSuggestion.Entry("clas", 4, 4, List.of(option("class", 0.8, 2))))), false);
+
+        // when & then
+        assertEquals("art class", suggestions.correct("art clas", suggest));
+    }
+
+    @Test
+    @DisplayName("Should have no correction when nothing was suggested")
+    void shouldNotCorrectWithoutSuggestions() {
+        Suggest suggest = new Suggest(List.of(suggestion("did-you-mean",
+                new TermSuggestion.Entry("robotics", 0, 8, List.of()))), false);
+
+        assertNull(suggestions.correct("robotics", suggest));
+        assertNull(suggestions.correct("robotics", null));
+    }
+
+    private static TermSuggestion suggestion(String name, TermSuggestion.Entry... entries) {
+        return new TermSuggestion(name, 1, List.of(entries), SortBy.SCORE);
+    }
+
+    private static TermSuggestion.Entry.Option option(String text, double score, int freq) {
+        return new TermSuggestion.Entry.Option(text, null, score, null, freq);
+    }
+}
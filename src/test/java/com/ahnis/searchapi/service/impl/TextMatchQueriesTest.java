@@ -0,0 +1,45 @@
+package com.ahnis.searchapi.service.impl;
+
+import co.elastic.clients.json.JsonpUtils;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.ahnis.searchapi.config.TextMatchProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Text Match Queries Tests")
+class TextMatchQueriesTest {
+
+    private final JacksonJsonpMapper mapper = new JacksonJsonpMapper();
+
+    @Test
+    @DisplayName("Exact query should not expand terms or use wildcards")
+    void exactQueryShouldNotExpandTerms() {
+        TextMatchQueries queries = new TextMatchQueries(new TextMatchProperties());
+
+        String json = JsonpUtils.toJsonString(queries.exact("robotics"), mapper);
+
+        assertFalse(json.contains("fuzziness"));
+        assertFalse(json.contains("wildcard"));
+        assertTrue(json.contains("description.ngram"));
+    }
+
+    @Test
+    @DisplayName("Fuzzy query should carry the configured expansion budget")
+    void fuzzyQueryShouldCarryBudget() {
+        TextMatchProperties properties = new TextMatchProperties();
+        properties.setPrefixLength(2);
+        properties.setMaxExpansions(10);
+        properties.setNgramSubstring(false);
+        TextMatchQueries queries = new TextMatchQueries(properties);
+
+        String json = JsonpUtils.toJsonString(queries.fuzzy("dinors"), mapper);
+
+        assertTrue(json.contains("\"fuzziness\":\"AUTO:3,6\""));
+        assertTrue(json.contains("\"prefix_length\":2"));
+        assertTrue(json.contains("\"max_expansions\":10"));
+        assertFalse(json.contains("description.ngram"));
+    }
+}
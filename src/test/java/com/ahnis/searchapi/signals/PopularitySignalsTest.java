@@ -0,0 +1,188 @@
+package com.ahnis.searchapi.signals;
+
+import com.ahnis.searchapi.config.CircuitBreakerProperties;
+import com.ahnis.searchapi.config.SignalProperties;
+import com.ahnis.searchapi.config.TenantProperties;
+import com.ahnis.searchapi.dto.SearchResponse;
+import com.ahnis.searchapi.entity.CourseDocument;
+import com.ahnis.searchapi.resilience.ElasticsearchCircuitBreaker;
+import com.ahnis.searchapi.routing.CourseRouting;
+import com.ahnis.searchapi.tenant.TenantContext;
+import com.ahnis.searchapi.tenant.TenantIndexResolver;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Popularity Signals Tests")
+class PopularitySignalsTest {
+
+    private final ElasticsearchOperations operations = mock(ElasticsearchOperations.class);
+    private final SignalProperties properties = new SignalProperties();
+
+    private PopularitySignals signals(boolean routing) {
+        return new PopularitySignals(properties, operations,
+                new ElasticsearchCircuitBreaker(new CircuitBreakerProperties()), new CourseRouting(routing),
+                new TenantIndexResolver(new TenantProperties()));
+    }
+
+    private static SearchResponse.CourseInfo course(String id) {
+        return new SearchResponse.CourseInfo(id, "Course " + id, "Math", 10.0, null);
+    }
+
+    @Test
+    @DisplayName("Should flush clicks and impressions as scripted partial updates routed by the indexed category")
+    @SuppressWarnings("unchecked")
+    void shouldFlushCounts() {
+        // given
+        PopularitySignals signals = signals(true);
+        signals.recordImpressions(List.of(course("1"), course("2")));
+        signals.recordImpressions(List.of(course("1")));
+        signals.recordClick("1");
+
+        // when
+        signals.flush();
+
+        // then
+        ArgumentCaptor<List<UpdateQuery>> batch = ArgumentCaptor.forClass(List.class);
+        verify(operations).bulkUpdate(batch.capture(), eq(CourseDocument.class));
+        Map<String, UpdateQuery> updates = batch.getValue().stream()
+                .collect(Collectors.toMap(UpdateQuery::getId, update -> update));
+        assertEquals(1L, updates.get("1").getParams().get("clicks"));
+        assertEquals(2L, updates.get("1").getParams().get("impressions"));
+        assertEquals(0L, updates.get("2").getParams().get("clicks"));
+        assertEquals("math", updates.get("1").getRouting());
+        assertEquals(PopularitySignals.SCRIPT, updates.get("1").getScript());
+    }
+
+    @Test
+    @DisplayName("Should ignore clicks on courses that weren't on a result page")
+    void shouldIgnoreClicksOnCoursesNotShown() {
+        PopularitySignals signals = signals(false);
+
+        assertFalse(signals.recordClick("42"));
+        signals.flush();
+
+        assertEquals(0, signals.trackedCourses());
+        verifyNoInteractions(operations);
+    }
+
+    @Test
+    @DisplayName("Should count each tenant separately and update its own index")
+    @SuppressWarnings("unchecked")
+    void shouldKeepTenantsApart() {
+        // given
+        TenantProperties tenantProperties = new TenantProperties();
+        tenantProperties.getIndices().put("acme", "courses-acme");
+        PopularitySignals signals = new PopularitySignals(properties, operations,
+                new ElasticsearchCircuitBreaker(new CircuitBreakerProperties()), new CourseRouting(false),
+                new TenantIndexResolver(tenantProperties));
+        signals.recordImpressions(List.of(course("1")));
+        assertFalse(TenantContext.callAs("acme", () -> signals.recordClick("1")));
+        TenantContext.runAs("acme", () -> signals.recordImpressions(List.of(course("1"))));
+
+        // when
+        signals.flush();
+
+        // then
+        ArgumentCaptor<List<UpdateQuery>> batch = ArgumentCaptor.forClass(List.class);
+        verify(operations).bulkUpdate(batch.capture(), eq(CourseDocument.class));
+        assertEquals(List.of("courses", "courses-acme"), batch.getValue().stream()
+                .map(UpdateQuery::getIndexName)
+                .sorted()
+                .toList());
+    }
+
+    @Test
+    @DisplayName("Should keep accepting clicks within the click window, then forget idle courses")
+    void shouldForgetIdleCourses() {
+        // given
+        PopularitySignals signals = signals(false);
+        signals.recordImpressions(List.of(course("1")));
+        signals.flush();
+
+        // when: idle, but still within the window
+        signals.flush();
+
+        // then
+        assertTrue(signals.recordClick("1"));
+        signals.flush();
+        verify(operations, times(2)).bulkUpdate(anyList(), eq(CourseDocument.class));
+
+        // and once the window has passed
+        properties.setClickWindow(Duration.ZERO);
+        signals.flush();
+        assertEquals(0, signals.trackedCourses());
+        assertFalse(signals.recordClick("1"));
+    }
+
+    @Test
+    @DisplayName("Should keep updates for the next flush when Elasticsearch fails")
+    @SuppressWarnings("unchecked")
+    void shouldCarryOverOnFailure() {
+        // given
+        PopularitySignals signals = signals(false);
+        doThrow(new DataAccessResourceFailureException("down"))
+                .doNothing()
+                .when(operations).bulkUpdate(anyList(), any(Class.class));
+        signals.recordImpressions(List.of(course("1")));
+        signals.recordClick("1");
+
+        // when
+        signals.flush();
+        signals.recordClick("1");
+        signals.flush();
+
+        // then: the second flush sends both clicks in one update
+        ArgumentCaptor<List<UpdateQuery>> batch = ArgumentCaptor.forClass(List.class);
+        verify(operations, times(2)).bulkUpdate(batch.capture(), eq(CourseDocument.class));
+        assertEquals(2L, batch.getValue().get(0).getParams().get("clicks"));
+        assertEquals(1L, batch.getValue().get(0).getParams().get("impressions"));
+        assertEquals(0, signals.pendingUpdates());
+    }
+
+    @Test
+    @DisplayName("Should send no more updates per flush than the rate limit allows")
+    void shouldRespectRateLimit() {
+        // given
+        properties.setMaxUpdatesPerSecond(3);
+        properties.setBatchSize(2);
+        properties.setFlushInterval(Duration.ofSeconds(1));
+        PopularitySignals signals = signals(false);
+        for (int i = 0; i < 5; i++) {
+            signals.recordImpressions(List.of(course(String.valueOf(i))));
+        }
+
+        // when
+        signals.flush();
+
+        // then
+        verify(operations, times(2)).bulkUpdate(anyList(), eq(CourseDocument.class));
+        assertEquals(2, signals.pendingUpdates());
+    }
+
+    @Test
+    @DisplayName("Should drop signals for new courses beyond the tracking limit")
+    void shouldBoundTrackedCourses() {
+        properties.setMaxTrackedCourses(2);
+        PopularitySignals signals = signals(false);
+
+        signals.recordImpressions(List.of(course("1"), course("2"), course("3")));
+
+        assertEquals(2, signals.trackedCourses());
+        assertFalse(signals.recordClick("3"));
+    }
+}
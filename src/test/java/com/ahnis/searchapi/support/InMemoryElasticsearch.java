@@ -0,0 +1,632 @@
+package com.ahnis.searchapi.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * An Elasticsearch 7.17 look-alike served from memory, so tests can run the real client stack (Spring Data,
+ * the Java client, transport, JSON mapping) without Docker or any network beyond loopback.
+ *
+ * <p>It speaks the part of the REST API this service uses: index existence/creation, single-document and
+ * {@code _bulk} writes, {@code _count}, {@code _delete_by_query}, {@code _refresh}, {@code _reload_search_analyzers},
+ * cluster health, and {@code _search} with the query, sort, rescore and aggregation shapes evaluated by
+ * {@link InMemorySearch}. Writes are visible immediately. Anything else is answered with a {@code 400}, so a new
+ * query shape fails loudly instead of silently matching nothing.</p>
+ *
+ * <p>Start one per test class with {@link #start()} and point {@code spring.elasticsearch.uris} at
+ * {@link #uri()}.</p>
+ *
+ * <p>Every index has the same number of shards, one unless started with {@link #start(int)}. A document lives on
+ * the shard of its {@code routing} value (its id without one), and a search with {@code routing} only sees the
+ * shards of the given values — enough to catch a routed search that would miss documents.</p>
+ */
+public final class InMemoryElasticsearch implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int shardCount;
+    private final Map<String, Index> indices = new ConcurrentHashMap<>();
+
+    /**
+     * An index: its definition as created, and documents in insertion order (which is also the tie-break order)
+     */
+    static final class Index {
+        final String name;
+        final JsonNode definition;
+        // copy_to target -> the top-level fields copied into it, from the mapping
+        final Map<String, List<String>> copyTo = new HashMap<>();
+        final Map<String, ObjectNode> documents = new LinkedHashMap<>();
+        final Map<String, Integer> shards = new HashMap<>();
+
+        Index(String name, JsonNode definition) {
+            this.name = name;
+            this.definition = definition;
+            definition.path("mappings").path("properties").fields().forEachRemaining(property -> {
+                JsonNode targets = property.getValue().path("copy_to");
+                for (JsonNode target : targets.isArray() ? targets : List.of(targets)) {
+                    if (target.isTextual()) {
+                        copyTo.computeIfAbsent(target.asText(), t -> new ArrayList<>()).add(property.getKey());
+                    }
+                }
+            });
+        }
+    }
+
+    private record Response(int status, JsonNode body) {
+    }
+
+    private InMemoryElasticsearch(HttpServer server, ExecutorService executor, int shardCount) {
+        this.server = server;
+        this.executor = executor;
+        this.shardCount = shardCount;
+    }
+
+    public static InMemoryElasticsearch start() {
+        return start(1);
+    }
+
+    /**
+     * Starts with {@code shards} shards per index
+     */
+    public static InMemoryElasticsearch start(int shards) {
+        // Headers and body go out in separate writes; with Nagle on, every response waits for a delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start in-memory Elasticsearch", e);
+        }
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "in-memory-es");
+            thread.setDaemon(true);
+            return thread;
+        });
+        InMemoryElasticsearch elasticsearch = new InMemoryElasticsearch(server, executor, shards);
+        server.createContext("/", elasticsearch::exchange);
+        server.setExecutor(executor);
+        server.start();
+        return elasticsearch;
+    }
+
+    /**
+     * Base URI for {@code spring.elasticsearch.uris}
+     */
+    public String uri() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Number of documents currently held in {@code index}; 0 if it doesn't exist
+     */
+    public int documentCount(String index) {
+        Index existing = indices.get(index);
+        if (existing == null) {
+            return 0;
+        }
+        synchronized (existing) {
+            return existing.documents.size();
+        }
+    }
+
+    public boolean indexExists(String index) {
+        return indices.containsKey(index);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void exchange(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Response response;
+            try {
+                response = handle(exchange.getRequestMethod(), segments(exchange.getRequestURI().getRawPath()),
+                        params(exchange.getRequestURI().getRawQuery()), body(exchange));
+            } catch (UnsupportedOperationException | IllegalArgumentException e) {
+                response = error(400, "illegal_argument_exception", e.getMessage());
+            } catch (RuntimeException e) {
+                response = error(500, "exception", String.valueOf(e));
+            }
+
+            exchange.getResponseHeaders().add("X-Elastic-Product", "Elasticsearch");
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+            if (response.body() == null || "HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(response.status(), -1);
+                return;
+            }
+            byte[] bytes = MAPPER.writeValueAsBytes(response.body());
+            exchange.sendResponseHeaders(response.status(), bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    private Response handle(String method, List<String> path, Map<String, String> params, byte[] body)
+            throws IOException {
+        if (path.isEmpty()) {
+            return ok(info());
+        }
+        String first = path.get(0);
+        if (first.equals("_cluster") && path.size() > 1 && path.get(1).equals("health")) {
+            return ok(health());
+        }
+        if (first.equals("_bulk")) {
+            return bulk(null, body);
+        }
+        if (first.startsWith("_")) {
+            throw new UnsupportedOperationException(method + " /" + String.join("/", path)
+                    + " is not supported by the in-memory stand-in");
+        }
+
+        List<String> names = Arrays.asList(first.split(","));
+        if (path.size() == 1) {
+            return switch (method) {
+                case "HEAD" -> new Response(names.stream().allMatch(indices::containsKey) ? 200 : 404, null);
+                case "PUT" -> createIndex(first, json(body));
+                case "DELETE" -> deleteIndex(names);
+                case "GET" -> indexDefinitions(names);
+                default -> throw new UnsupportedOperationException(method + " /" + first);
+            };
+        }
+
+        String endpoint = path.get(1);
+        return switch (endpoint) {
+            case "_bulk" -> bulk(first, body);
+            case "_search" -> search(names, json(body), params);
+            case "_count" -> count(names, json(body), params);
+            case "_delete_by_query" -> deleteByQuery(names, json(body));
+            case "_refresh", "_flush" -> ok(shards(names.size()));
+            case "_reload_search_analyzers" -> reloadSearchAnalyzers(names);
+            case "_mapping", "_settings" -> "GET".equals(method) ? indexDefinitions(names) : acknowledged();
+            case "_doc", "_create" -> document(method, first, path.size() > 2 ? path.get(2) : null, json(body),
+                    endpoint.equals("_create"), params.get("routing"));
+            case "_update" -> update(first, path.get(2), json(body), params.get("routing"));
+            default -> throw new UnsupportedOperationException(method + " /" + String.join("/", path)
+                    + " is not supported by the in-memory stand-in");
+        };
+    }
+
+    // --- indices ---
+
+    private Response createIndex(String name, JsonNode definition) {
+        Index created = new Index(name, definition != null ? definition : JSON.objectNode());
+        if (indices.putIfAbsent(name, created) != null) {
+            return error(400, "resource_already_exists_exception", "index [" + name + "] already exists");
+        }
+        ObjectNode body = JSON.objectNode();
+        body.put("acknowledged", true);
+        body.put("shards_acknowledged", true);
+        body.put("index", name);
+        return ok(body);
+    }
+
+    private Response deleteIndex(List<String> names) {
+        for (String name : names) {
+            if (indices.remove(name) == null) {
+                return indexNotFound(name);
+            }
+        }
+        return acknowledged();
+    }
+
+    private Response indexDefinitions(List<String> names) {
+        ObjectNode body = JSON.objectNode();
+        for (String name : names) {
+            Index index = indices.get(name);
+            if (index == null) {
+                return indexNotFound(name);
+            }
+            body.set(name, index.definition);
+        }
+        return ok(body);
+    }
+
+    private Response reloadSearchAnalyzers(List<String> names) {
+        ArrayNode details = JSON.arrayNode();
+        for (String name : names) {
+            if (!indices.containsKey(name)) {
+                return indexNotFound(name);
+            }
+            ObjectNode detail = details.addObject();
+            detail.put("index", name);
+            detail.putArray("reloaded_analyzers").add("course_search");
+            detail.putArray("reloaded_node_ids").add("in-memory");
+        }
+        ObjectNode body = JSON.objectNode();
+        body.set("_shards", shards(names.size()));
+        body.set("reload_details", details);
+        return ok(body);
+    }
+
+    // --- documents ---
+
+    private Response document(String method, String indexName, String id, JsonNode source, boolean createOnly,
+                              String routing) {
+        Index index = "GET".equals(method) || "HEAD".equals(method) || "DELETE".equals(method)
+                ? indices.get(indexName)
+                : indices.computeIfAbsent(indexName, name -> new Index(name, JSON.objectNode()));
+        if (index == null) {
+            return indexNotFound(indexName);
+        }
+
+        synchronized (index) {
+            switch (method) {
+                case "GET", "HEAD" -> {
+                    ObjectNode stored = index.documents.get(id);
+                    ObjectNode body = documentMeta(indexName, id);
+                    body.put("found", stored != null);
+                    if (stored != null) {
+                        body.set("_source", stored);
+                    }
+                    return new Response(stored != null ? 200 : 404, body);
+                }
+                case "DELETE" -> {
+                    boolean deleted = index.documents.remove(id) != null;
+                    index.shards.remove(id);
+                    ObjectNode body = writeResult(indexName, id, deleted ? "deleted" : "not_found");
+                    return new Response(deleted ? 200 : 404, body);
+                }
+                default -> {
+                    String docId = id != null ? id : UUID.randomUUID().toString();
+                    if (createOnly && index.documents.containsKey(docId)) {
+                        return error(409, "version_conflict_engine_exception",
+                                "[" + docId + "]: version conflict, document already exists");
+                    }
+                    boolean created = index.documents.put(docId, (ObjectNode) source) == null;
+                    index.shards.put(docId, shardOf(routing != null ? routing : docId));
+                    return new Response(created ? 201 : 200, writeResult(indexName, docId, created ? "created" : "updated"));
+                }
+            }
+        }
+    }
+
+    private Response update(String indexName, String id, JsonNode update, String routing) {
+        Index index = indices.get(indexName);
+        if (index == null) {
+            return indexNotFound(indexName);
+        }
+        synchronized (index) {
+            return applyUpdate(index, id, update, routing);
+        }
+    }
+
+    private Response applyUpdate(Index index, String id, JsonNode update, String routing) {
+        if (update.has("script")) {
+            // No painless here; the cluster would report a broken script the same way
+            return error(400, "script_exception", "scripts are not supported by the in-memory stand-in");
+        }
+        ObjectNode stored = index.documents.get(id);
+        if (stored == null) {
+            JsonNode upsert = update.has("upsert") ? update.get("upsert")
+                    : update.path("doc_as_upsert").asBoolean() ? update.get("doc") : null;
+            if (upsert == null) {
+                return error(404, "document_missing_exception", "[" + id + "]: document missing");
+            }
+            index.documents.put(id, upsert.deepCopy());
+            index.shards.put(id, shardOf(routing != null ? routing : id));
+            return new Response(201, writeResult(index.name, id, "created"));
+        }
+        ObjectNode merged = stored.deepCopy();
+        merge(merged, (ObjectNode) update.path("doc"));
+        index.documents.put(id, merged);
+        return ok(writeResult(index.name, id, "updated"));
+    }
+
+    private static void merge(ObjectNode target, ObjectNode changes) {
+        changes.fields().forEachRemaining(change -> {
+            if (change.getValue().isObject() && target.path(change.getKey()).isObject()) {
+                merge((ObjectNode) target.get(change.getKey()), (ObjectNode) change.getValue());
+            } else {
+                target.set(change.getKey(), change.getValue());
+            }
+        });
+    }
+
+    private Response bulk(String defaultIndex, byte[] body) throws IOException {
+        ArrayNode items = JSON.arrayNode();
+        boolean errors = false;
+
+        Iterator<String> lines = new String(body, StandardCharsets.UTF_8).lines().filter(line -> !line.isBlank()).iterator();
+        while (lines.hasNext()) {
+            JsonNode action = MAPPER.readTree(lines.next());
+            String operation = action.fieldNames().next();
+            JsonNode meta = action.get(operation);
+            String indexName = meta.hasNonNull("_index") ? meta.get("_index").asText() : defaultIndex;
+            String id = meta.hasNonNull("_id") ? meta.get("_id").asText() : null;
+            String routing = meta.hasNonNull("routing") ? meta.get("routing").asText() : null;
+            JsonNode source = operation.equals("delete") ? null : MAPPER.readTree(lines.next());
+
+            Response result = switch (operation) {
+                case "index", "create" -> document("PUT", indexName, id, source, operation.equals("create"), routing);
+                case "delete" -> document("DELETE", indexName, id, null, false, routing);
+                case "update" -> update(indexName, id, source, routing);
+                default -> throw new UnsupportedOperationException("bulk operation " + operation);
+            };
+
+            ObjectNode item = result.body().has("error") ? documentMeta(indexName, id) : (ObjectNode) result.body();
+            item.put("status", result.status());
+            if (result.body().has("error")) {
+                item.set("error", result.body().get("error"));
+                errors |= result.status() != 404 || !operation.equals("delete");
+            }
+            items.addObject().set(operation, item);
+        }
+
+        ObjectNode response = JSON.objectNode();
+        response.put("took", 0);
+        response.put("errors", errors);
+        response.set("items", items);
+        return ok(response);
+    }
+
+    // --- search ---
+
+    private Response search(List<String> names, JsonNode request, Map<String, String> params) {
+        List<InMemorySearch.Doc> docs = new ArrayList<>();
+        Set<Integer> shards = routedShards(params.get("routing"));
+        for (String name : names) {
+            Index index = indices.get(name);
+            if (index == null) {
+                return indexNotFound(name);
+            }
+            snapshot(index, shards, docs);
+        }
+        ObjectNode body = InMemorySearch.search(docs, request != null ? request : JSON.objectNode(),
+                Boolean.parseBoolean(params.getOrDefault("typed_keys", "false")));
+        body.set("_shards", shards(names.size()));
+        return ok(body);
+    }
+
+    private Response count(List<String> names, JsonNode request, Map<String, String> params) {
+        List<InMemorySearch.Doc> docs = new ArrayList<>();
+        Set<Integer> shards = routedShards(params.get("routing"));
+        for (String name : names) {
+            Index index = indices.get(name);
+            if (index == null) {
+                return indexNotFound(name);
+            }
+            snapshot(index, shards, docs);
+        }
+        JsonNode query = request != null ? request.get("query") : null;
+        ObjectNode body = JSON.objectNode();
+        body.put("count", docs.stream().filter(doc -> InMemorySearch.matches(query, doc.source())).count());
+        body.set("_shards", shards(names.size()));
+        return ok(body);
+    }
+
+    private Response deleteByQuery(List<String> names, JsonNode request) {
+        JsonNode query = request != null ? request.get("query") : null;
+        long deleted = 0;
+        for (String name : names) {
+            Index index = indices.get(name);
+            if (index == null) {
+                return indexNotFound(name);
+            }
+            synchronized (index) {
+                Iterator<Map.Entry<String, ObjectNode>> documents = index.documents.entrySet().iterator();
+                while (documents.hasNext()) {
+                    Map.Entry<String, ObjectNode> document = documents.next();
+                    if (InMemorySearch.matches(query, document.getValue())) {
+                        documents.remove();
+                        index.shards.remove(document.getKey());
+                        deleted++;
+                    }
+                }
+            }
+        }
+        ObjectNode body = JSON.objectNode();
+        body.put("took", 0);
+        body.put("timed_out", false);
+        body.put("total", deleted);
+        body.put("deleted", deleted);
+        body.put("batches", 1);
+        body.put("version_conflicts", 0);
+        body.put("noops", 0);
+        ObjectNode retries = body.putObject("retries");
+        retries.put("bulk", 0);
+        retries.put("search", 0);
+        body.put("throttled_millis", 0);
+        body.put("requests_per_second", -1.0);
+        body.put("throttled_until_millis", 0);
+        body.putArray("failures");
+        return ok(body);
+    }
+
+    /**
+     * @param shards the shards to take documents from; {@code null} for all of them
+     */
+    private static void snapshot(Index index, Set<Integer> shards, List<InMemorySearch.Doc> into) {
+        synchronized (index) {
+            index.documents.forEach((id, source) -> {
+                if (shards == null || shards.contains(index.shards.get(id))) {
+                    into.add(new InMemorySearch.Doc(index.name, id, source, index.copyTo));
+                }
+            });
+        }
+    }
+
+    // --- routing ---
+
+    private int shardOf(String routing) {
+        return Math.floorMod(routing.hashCode(), shardCount);
+    }
+
+    /**
+     * Shards a search with the given (comma-separated) routing values asks; {@code null} without routing
+     */
+    private Set<Integer> routedShards(String routing) {
+        if (routing == null) {
+            return null;
+        }
+        Set<Integer> shards = new HashSet<>();
+        for (String value : routing.split(",")) {
+            shards.add(shardOf(value));
+        }
+        return shards;
+    }
+
+    // --- responses ---
+
+    private static ObjectNode info() {
+        ObjectNode body = JSON.objectNode();
+        body.put("name", "in-memory");
+        body.put("cluster_name", "in-memory");
+        body.put("cluster_uuid", "in-memory");
+        ObjectNode version = body.putObject("version");
+        version.put("number", "7.17.10");
+        version.put("build_flavor", "default");
+        version.put("build_type", "in-memory");
+        version.put("build_hash", "in-memory");
+        version.put("build_date", "2023-04-23T05:33:18.138275597Z");
+        version.put("build_snapshot", false);
+        version.put("lucene_version", "8.11.1");
+        version.put("minimum_wire_compatibility_version", "6.8.0");
+        version.put("minimum_index_compatibility_version", "6.0.0-beta1");
+        body.put("tagline", "You Know, for Search");
+        return body;
+    }
+
+    private ObjectNode health() {
+        ObjectNode body = JSON.objectNode();
+        body.put("cluster_name", "in-memory");
+        body.put("status", "green");
+        body.put("timed_out", false);
+        body.put("number_of_nodes", 1);
+        body.put("number_of_data_nodes", 1);
+        body.put("active_primary_shards", indices.size());
+        body.put("active_shards", indices.size());
+        body.put("relocating_shards", 0);
+        body.put("initializing_shards", 0);
+        body.put("unassigned_shards", 0);
+        body.put("delayed_unassigned_shards", 0);
+        body.put("number_of_pending_tasks", 0);
+        body.put("number_of_in_flight_fetch", 0);
+        body.put("task_max_waiting_in_queue_millis", 0);
+        body.put("active_shards_percent_as_number", 100.0);
+        return body;
+    }
+
+    private static ObjectNode shards(int total) {
+        ObjectNode shards = JSON.objectNode();
+        shards.put("total", total);
+        shards.put("successful", total);
+        shards.put("skipped", 0);
+        shards.put("failed", 0);
+        return shards;
+    }
+
+    private static ObjectNode documentMeta(String index, String id) {
+        ObjectNode body = JSON.objectNode();
+        body.put("_index", index);
+        body.put("_type", "_doc");
+        body.put("_id", id);
+        body.put("_version", 1);
+        body.put("_seq_no", 0);
+        body.put("_primary_term", 1);
+        return body;
+    }
+
+    private static ObjectNode writeResult(String index, String id, String result) {
+        ObjectNode body = documentMeta(index, id);
+        body.put("result", result);
+        body.set("_shards", shards(1));
+        return body;
+    }
+
+    private static Response ok(JsonNode body) {
+        return new Response(200, body);
+    }
+
+    private static Response acknowledged() {
+        ObjectNode body = JSON.objectNode();
+        body.put("acknowledged", true);
+        return ok(body);
+    }
+
+    private static Response indexNotFound(String index) {
+        return error(404, "index_not_found_exception", "no such index [" + index + "]");
+    }
+
+    private static Response error(int status, String type, String reason) {
+        ObjectNode cause = JSON.objectNode();
+        cause.put("type", type);
+        cause.put("reason", reason);
+        ObjectNode body = JSON.objectNode();
+        ObjectNode error = cause.deepCopy();
+        error.putArray("root_cause").add(cause);
+        body.set("error", error);
+        body.put("status", status);
+        return new Response(status, body);
+    }
+
+    // --- request parsing ---
+
+    private static List<String> segments(String rawPath) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : rawPath.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(URLDecoder.decode(segment, StandardCharsets.UTF_8));
+            }
+        }
+        return segments;
+    }
+
+    private static Map<String, String> params(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+                params.put(key, eq < 0 ? "true" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static byte[] body(HttpExchange exchange) throws IOException {
+        byte[] raw = exchange.getRequestBody().readAllBytes();
+        if (raw.length > 0 && "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(raw))) {
+                return gzip.readAllBytes();
+            }
+        }
+        return raw;
+    }
+
+    private static JsonNode json(byte[] body) throws IOException {
+        return body.length == 0 ? null : MAPPER.readTree(body);
+    }
+}
@@ -0,0 +1,1420 @@
+package com.ahnis.searchapi.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluates {@code _search} request bodies against in-memory documents for {@link InMemoryElasticsearch}.
+ *
+ * <p>Matching follows Elasticsearch closely enough for assertions on result sets: lowercase word tokens for text
+ * fields, trigrams for {@code .ngram} sub-fields, whole values for {@code .keyword}, fuzzy matching with
+ * {@code AUTO} fuzziness and {@code prefix_length}, and "any value matches" on multi-valued fields.
+ * Scoring is deliberately simple — one point per matched query term (half for a fuzzy match) times the clause
+ * boost, then {@code function_score} and rescoring on top — so relative order is meaningful but absolute scores
+ * are not. Synonyms are not applied.</p>
+ */
+final class InMemorySearch {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final double EARTH_RADIUS_METERS = 6_371_008.7714;
+
+    /**
+     * @param copyTo {@code copy_to} targets of the index and the fields copied into them; those values aren't in
+     *               the source, so only the term suggester reads them
+     */
+    record Doc(String index, String id, ObjectNode source, Map<String, List<String>> copyTo) {
+    }
+
+    private record Hit(Doc doc, double score, List<Object> sortValues) {
+    }
+
+    private record Correction(String text, double score, int freq) {
+    }
+
+    private InMemorySearch() {
+    }
+
+    static boolean matches(JsonNode query, ObjectNode source) {
+        return query == null || score(query, source) != null;
+    }
+
+    static ObjectNode search(List<Doc> docs, JsonNode request, boolean typedKeys) {
+        JsonNode query = request.get("query");
+        List<Hit> hits = new ArrayList<>();
+        for (Doc doc : docs) {
+            Double score = query != null ? score(query, doc.source()) : Double.valueOf(1.0);
+            if (score != null) {
+                hits.add(new Hit(doc, score, List.of()));
+            }
+        }
+
+        JsonNode sort = request.get("sort");
+        boolean sortedByScore = sort == null || sort.isEmpty();
+        if (sortedByScore) {
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+            if (request.has("rescore")) {
+                rescore(hits, request.get("rescore"));
+            }
+        } else {
+            hits = sortByFields(hits, sort);
+        }
+        // Aggregations see every match; post_filter only narrows the hits
+        List<Hit> matched = hits;
+        JsonNode postFilter = request.get("post_filter");
+        if (postFilter != null) {
+            hits = hits.stream().filter(hit -> score(postFilter, hit.doc().source()) != null).toList();
+        }
+        // The total still counts every match; only the page starts after the given sort values
+        List<Hit> counted = hits;
+        JsonNode searchAfter = request.get("search_after");
+        if (searchAfter != null && !sortedByScore) {
+            Hit after = new Hit(null, 0, sortValuesOf(searchAfter));
+            Comparator<Hit> order = fieldOrder(iterable(sort));
+            hits = hits.stream().filter(hit -> order.compare(hit, after) > 0).toList();
+        }
+
+        int from = request.path("from").asInt(0);
+        int size = request.path("size").asInt(10);
+        ObjectNode response = JSON.objectNode();
+        response.put("took", 0);
+        response.put("timed_out", false);
+
+        ObjectNode hitsNode = response.putObject("hits");
+        ObjectNode total = hitsNode.putObject("total");
+        JsonNode trackTotalHits = request.get("track_total_hits");
+        if (trackTotalHits != null && trackTotalHits.isNumber() && counted.size() > trackTotalHits.asInt()) {
+            total.put("value", trackTotalHits.asInt());
+            total.put("relation", "gte");
+        } else {
+            total.put("value", counted.size());
+            total.put("relation", "eq");
+        }
+        if (sortedByScore && !hits.isEmpty()) {
+            hitsNode.put("max_score", hits.get(0).score());
+        } else {
+            hitsNode.putNull("max_score");
+        }
+
+        JsonNode sourceFilter = request.get("_source");
+        boolean withSource = sourceFilter == null || !sourceFilter.isBoolean() || sourceFilter.asBoolean();
+        ArrayNode page = hitsNode.putArray("hits");
+        for (int i = from; i < Math.min(hits.size(), from + size); i++) {
+            Hit hit = hits.get(i);
+            ObjectNode hitNode = page.addObject();
+            hitNode.put("_index", hit.doc().index());
+            hitNode.put("_type", "_doc");
+            hitNode.put("_id", hit.doc().id());
+            if (sortedByScore) {
+                hitNode.put("_score", hit.score());
+            } else {
+                hitNode.putNull("_score");
+            }
+            if (request.path("version").asBoolean()) {
+                hitNode.put("_version", 1);
+            }
+            if (request.path("seq_no_primary_term").asBoolean()) {
+                hitNode.put("_seq_no", 0);
+                hitNode.put("_primary_term", 1);
+            }
+            if (withSource) {
+                hitNode.set("_source", filterSource(hit.doc().source(), sourceFilter));
+            }
+            if (request.path("explain").asBoolean()) {
+                ObjectNode explanation = hitNode.putObject("_explanation");
+                explanation.put("value", hit.score());
+                explanation.put("description", "in-memory score (one point per matched term, not BM25)");
+                explanation.putArray("details");
+            }
+            if (!sortedByScore) {
+                ArrayNode sortValues = hitNode.putArray("sort");
+                for (Object value : hit.sortValues()) {
+                    if (value instanceof Double number) {
+                        sortValues.add(number);
+                    } else {
+                        sortValues.add((String) value);
+                    }
+                }
+            }
+        }
+
+        JsonNode aggregations = request.has("aggregations") ? request.get("aggregations") : request.get("aggs");
+        if (aggregations != null) {
+            List<ObjectNode> sources = matched.stream().map(hit -> hit.doc().source()).toList();
+            response.set("aggregations", aggregate(aggregations, sources, typedKeys));
+        }
+        if (request.has("suggest")) {
+            response.set("suggest", suggest(request.get("suggest"), docs, typedKeys));
+        }
+        return response;
+    }
+
+    // --- suggesters ---
+
+    /**
+     * Term suggesters only. Candidates are the field's terms across all documents (like a single shard would see
+     * them, {@code copy_to} fields included), scored {@code 1 - edits / length}; with the default {@code missing}
+     * mode, terms that occur in the field get no suggestions.
+     */
+    private static ObjectNode suggest(JsonNode suggest, List<Doc> docs, boolean typedKeys) {
+        ObjectNode results = JSON.objectNode();
+        String globalText = suggest.path("text").asText(null);
+        Iterator<Map.Entry<String, JsonNode>> suggesters = suggest.fields();
+        while (suggesters.hasNext()) {
+            Map.Entry<String, JsonNode> suggester = suggesters.next();
+            if (!suggester.getValue().has("term")) {
+                continue;
+            }
+            JsonNode term = suggester.getValue().get("term");
+            String text = suggester.getValue().path("text").asText(globalText);
+            results.set(typedKeys ? "term#" + suggester.getKey() : suggester.getKey(), termSuggestions(term, text, docs));
+        }
+        return results;
+    }
+
+    private static ArrayNode termSuggestions(JsonNode term, String text, List<Doc> docs) {
+        String field = term.get("field").asText();
+        int maxEdits = term.path("max_edits").asInt(2);
+        int prefixLength = term.path("prefix_length").asInt(1);
+        int minWordLength = term.path("min_word_length").asInt(4);
+        int size = term.path("size").asInt(5);
+        boolean always = "always".equals(term.path("suggest_mode").asText("missing"));
+
+        // Term -> number of documents containing it
+        Map<String, Integer> vocabulary = new TreeMap<>();
+        for (Doc doc : docs) {
+            Set<String> terms = new HashSet<>();
+            for (JsonNode value : values(doc.source(), field)) {
+                terms.addAll(tokenize(value.asText()));
+            }
+            for (String copied : doc.copyTo().getOrDefault(field, List.of())) {
+                for (JsonNode value : values(doc.source(), copied)) {
+                    terms.addAll(tokenize(value.asText()));
+                }
+            }
+            terms.forEach(t -> vocabulary.merge(t, 1, Integer::sum));
+        }
+
+        ArrayNode entries = JSON.arrayNode();
+        Matcher words = WORD.matcher(text);
+        while (words.find()) {
+            String word = words.group().toLowerCase(Locale.ROOT);
+            ObjectNode entry = entries.addObject();
+            entry.put("text", words.group());
+            entry.put("offset", words.start());
+            entry.put("length", words.end() - words.start());
+            ArrayNode options = entry.putArray("options");
+            if (word.length() < minWordLength || (!always && vocabulary.containsKey(word))) {
+                continue;
+            }
+            String prefix = word.substring(0, Math.min(prefixLength, word.length()));
+            List<Correction> corrections = new ArrayList<>();
+            vocabulary.forEach((candidate, freq) -> {
+                if (!candidate.equals(word) && candidate.startsWith(prefix)) {
+                    int edits = editDistance(word, candidate);
+                    if (edits <= maxEdits) {
+                        corrections.add(new Correction(candidate,
+                                1.0 - (double) edits / Math.max(word.length(), candidate.length()), freq));
+                    }
+                }
+            });
+            corrections.sort(Comparator.comparingDouble(Correction::score).reversed()
+                    .thenComparing(Comparator.comparingInt(Correction::freq).reversed()));
+            for (Correction correction : corrections.subList(0, Math.min(size, corrections.size()))) {
+                ObjectNode option = options.addObject();
+                option.put("text", correction.text());
+                option.put("score", correction.score());
+                option.put("freq", correction.freq());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Applies {@code _source} includes/excludes; top-level field names only, no wildcards
+     */
+    private static ObjectNode filterSource(ObjectNode source, JsonNode filter) {
+        if (filter == null || !filter.isObject()) {
+            return source;
+        }
+        ObjectNode filtered = source.deepCopy();
+        List<String> includes = new ArrayList<>();
+        filter.path("includes").forEach(field -> includes.add(field.asText()));
+        if (!includes.isEmpty()) {
+            filtered.retain(includes);
+        }
+        filter.path("excludes").forEach(field -> filtered.remove(field.asText()));
+        return filtered;
+    }
+
+    // --- queries ---
+
+    /**
+     * Score of {@code source} for {@code query}, or {@code null} if it doesn't match
+     */
+    static Double score(JsonNode query, ObjectNode source) {
+        String type = query.fieldNames().next();
+        JsonNode body = query.get(type);
+        return switch (type) {
+            case "match_all" -> body.path("boost").asDouble(1.0);
+            case "match_none" -> null;
+            case "bool" -> bool(body, source);
+            case "match" -> fieldQuery(body, (field, params) -> match(field, params, source));
+            case "match_phrase" -> fieldQuery(body, (field, params) -> matchPhrase(field, params, source));
+            case "multi_match" -> multiMatch(body, source);
+            case "term" -> fieldQuery(body, (field, params) -> term(field, List.of(params.get("value")),
+                    params.path("case_insensitive").asBoolean(), source));
+            case "terms" -> terms(body, source);
+            case "ids" -> idsQuery(body, source);
+            case "prefix" -> fieldQuery(body, (field, params) -> prefix(field, params.get("value").asText(), source));
+            case "wildcard" -> fieldQuery(body, (field, params) -> wildcard(List.of(field), params.get("value").asText(), source));
+            case "query_string" -> queryString(body, source);
+            case "range" -> fieldQuery(body, (field, params) -> range(field, params, source));
+            case "exists" -> values(source, body.get("field").asText()).isEmpty() ? null : 1.0;
+            case "geo_distance" -> geoDistance(body, source);
+            case "function_score" -> functionScore(body, source);
+            case "wrapper" -> score(readTree(Base64.getDecoder().decode(body.get("query").asText())), source);
+            case "constant_score" -> score(body.get("filter"), source) != null ? body.path("boost").asDouble(1.0) : null;
+            case "script_score" -> scriptScore(body, source);
+            default -> throw new UnsupportedOperationException("[" + type + "] query is not supported by the in-memory stand-in");
+        };
+    }
+
+    private static JsonNode readTree(byte[] json) {
+        try {
+            return MAPPER.readTree(json);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("wrapped query is not JSON", e);
+        }
+    }
+
+    private interface FieldQuery {
+        Double apply(String field, JsonNode params);
+    }
+
+    /**
+     * Unwraps {@code {"field": {...params}}} and its short form {@code {"field": value}}
+     */
+    private static Double fieldQuery(JsonNode body, FieldQuery fieldQuery) {
+        Iterator<Map.Entry<String, JsonNode>> fields = body.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getKey().equals("boost") || field.getKey().equals("_name")) {
+                continue;
+            }
+            JsonNode params = field.getValue();
+            if (!params.isObject()) {
+                ObjectNode wrapped = JSON.objectNode();
+                wrapped.set("query", params);
+                wrapped.set("value", params);
+                params = wrapped;
+            }
+            Double score = fieldQuery.apply(field.getKey(), params);
+            return score != null ? score * body.path("boost").asDouble(1.0) : null;
+        }
+        throw new IllegalArgumentException("query without a field: " + body);
+    }
+
+    private static Double bool(JsonNode body, ObjectNode source) {
+        double score = 0;
+        for (JsonNode clause : clauses(body.get("must"))) {
+            Double clauseScore = score(clause, source);
+            if (clauseScore == null) {
+                return null;
+            }
+            score += clauseScore;
+        }
+        for (JsonNode clause : clauses(body.get("filter"))) {
+            if (score(clause, source) == null) {
+                return null;
+            }
+        }
+        for (JsonNode clause : clauses(body.get("must_not"))) {
+            if (score(clause, source) != null) {
+                return null;
+            }
+        }
+
+        List<JsonNode> should = clauses(body.get("should"));
+        int matchedShould = 0;
+        for (JsonNode clause : should) {
+            Double clauseScore = score(clause, source);
+            if (clauseScore != null) {
+                matchedShould++;
+                score += clauseScore;
+            }
+        }
+        boolean scoringOnly = body.has("must") || body.has("filter");
+        int minimumShouldMatch = body.has("minimum_should_match")
+                ? minimumShouldMatch(body.get("minimum_should_match").asText(), should.size())
+                : (scoringOnly || should.isEmpty() ? 0 : 1);
+        if (matchedShould < minimumShouldMatch) {
+            return null;
+        }
+        return score * body.path("boost").asDouble(1.0);
+    }
+
+    private static int minimumShouldMatch(String spec, int clauses) {
+        if (spec.endsWith("%")) {
+            return (int) Math.floor(clauses * Integer.parseInt(spec.substring(0, spec.length() - 1)) / 100.0);
+        }
+        int value = Integer.parseInt(spec);
+        return value < 0 ? clauses + value : value;
+    }
+
+    private static List<JsonNode> clauses(JsonNode node) {
+        List<JsonNode> clauses = new ArrayList<>();
+        if (node == null) {
+            return clauses;
+        }
+        if (node.isArray()) {
+            node.forEach(clauses::add);
+        } else {
+            clauses.add(node);
+        }
+        return clauses;
+    }
+
+    private static Double match(String field, JsonNode params, ObjectNode source) {
+        List<String> queryTerms = analyze(field, params.get("query").asText());
+        if (queryTerms.isEmpty()) {
+            return null;
+        }
+        Set<String> docTerms = new HashSet<>();
+        for (JsonNode value : values(source, baseField(field))) {
+            docTerms.addAll(analyze(field, value.asText()));
+        }
+
+        String fuzziness = params.path("fuzziness").asText(null);
+        int prefixLength = params.path("prefix_length").asInt(0);
+        boolean and = "and".equalsIgnoreCase(params.path("operator").asText("or"));
+        double score = 0;
+        int matched = 0;
+        for (String term : queryTerms) {
+            if (docTerms.contains(term)) {
+                score += 1.0;
+                matched++;
+            } else if (fuzziness != null && fuzzyMatch(term, docTerms, maxEdits(fuzziness, term.length()), prefixLength)) {
+                score += 0.5;
+                matched++;
+            }
+        }
+        if (matched == 0 || (and && matched < queryTerms.size())) {
+            return null;
+        }
+        return score;
+    }
+
+    private static Double matchPhrase(String field, JsonNode params, ObjectNode source) {
+        List<String> phrase = analyze(field, params.get("query").asText());
+        if (phrase.isEmpty()) {
+            return null;
+        }
+        for (JsonNode value : values(source, baseField(field))) {
+            List<String> tokens = analyze(field, value.asText());
+            for (int i = 0; i + phrase.size() <= tokens.size(); i++) {
+                if (tokens.subList(i, i + phrase.size()).equals(phrase)) {
+                    return (double) phrase.size();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Double multiMatch(JsonNode body, ObjectNode source) {
+        Double best = null;
+        for (JsonNode fieldSpec : body.get("fields")) {
+            String[] parts = fieldSpec.asText().split("\\^");
+            double boost = parts.length > 1 ? Double.parseDouble(parts[1]) : 1.0;
+            Double score = match(parts[0], body, source);
+            if (score != null && (best == null || score * boost > best)) {
+                best = score * boost;
+            }
+        }
+        return best != null ? best * body.path("boost").asDouble(1.0) : null;
+    }
+
+    private static Double term(String field, List<JsonNode> accepted, boolean caseInsensitive, ObjectNode source) {
+        for (JsonNode value : values(source, baseField(field))) {
+            for (JsonNode candidate : accepted) {
+                if (caseInsensitive ? value.asText().equalsIgnoreCase(candidate.asText())
+                        : value.asText().equals(candidate.asText())) {
+                    return 1.0;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Double terms(JsonNode body, ObjectNode source) {
+        Iterator<Map.Entry<String, JsonNode>> fields = body.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isArray()) {
+                List<JsonNode> accepted = new ArrayList<>();
+                field.getValue().forEach(accepted::add);
+                return term(field.getKey(), accepted, false, source);
+            }
+        }
+        throw new IllegalArgumentException("terms query without values: " + body);
+    }
+
+    private static Double idsQuery(JsonNode body, ObjectNode source) {
+        // Ids are not part of the source; the stand-in only supports this on documents that carry an "id" field
+        return term("id", iterable(body.get("values")), false, source);
+    }
+
+    private static Double prefix(String field, String prefix, ObjectNode source) {
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        for (JsonNode value : values(source, baseField(field))) {
+            for (String token : analyze(field, value.asText())) {
+                if (token.startsWith(lowerPrefix)) {
+                    return 1.0;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Double queryString(JsonNode body, ObjectNode source) {
+        List<String> fields = new ArrayList<>();
+        body.path("fields").forEach(field -> fields.add(field.asText()));
+        if (fields.isEmpty() && body.has("default_field")) {
+            fields.add(body.get("default_field").asText());
+        }
+        boolean and = "and".equalsIgnoreCase(body.path("default_operator").asText("or"));
+        String[] terms = body.get("query").asText().trim().split("\\s+");
+        int matched = 0;
+        for (String term : terms) {
+            if (wildcard(fields, term, source) != null) {
+                matched++;
+            }
+        }
+        if (matched == 0 || (and && matched < terms.length)) {
+            return null;
+        }
+        return (double) matched * body.path("boost").asDouble(1.0);
+    }
+
+    /**
+     * Wildcard match against whole values and their tokens, case-insensitively; no fields means all of them
+     */
+    private static Double wildcard(List<String> fields, String pattern, ObjectNode source) {
+        Pattern regex = Pattern.compile(Pattern.quote(pattern.toLowerCase(Locale.ROOT))
+                .replace("*", "\\E.*\\Q").replace("?", "\\E.\\Q"));
+        List<JsonNode> candidates = new ArrayList<>();
+        if (fields.isEmpty() || fields.contains("*")) {
+            collectLeaves(source, candidates);
+        } else {
+            fields.forEach(field -> candidates.addAll(values(source, baseField(field))));
+        }
+        for (JsonNode value : candidates) {
+            String text = value.asText().toLowerCase(Locale.ROOT);
+            if (regex.matcher(text).matches()) {
+                return 1.0;
+            }
+            for (String token : tokenize(text)) {
+                if (regex.matcher(token).matches()) {
+                    return 1.0;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Double range(String field, JsonNode params, ObjectNode source) {
+        for (JsonNode value : values(source, field)) {
+            double number = toNumber(value);
+            if (Double.isNaN(number)) {
+                continue;
+            }
+            if (inBound(number, params.get("gte"), true, true) && inBound(number, params.get("gt"), true, false)
+                    && inBound(number, params.get("lte"), false, true) && inBound(number, params.get("lt"), false, false)) {
+                return 1.0;
+            }
+        }
+        return null;
+    }
+
+    private static boolean inBound(double value, JsonNode bound, boolean lower, boolean inclusive) {
+        if (bound == null || bound.isNull()) {
+            return true;
+        }
+        double limit = toNumber(bound);
+        int comparison = Double.compare(value, limit);
+        return lower ? (inclusive ? comparison >= 0 : comparison > 0) : (inclusive ? comparison <= 0 : comparison < 0);
+    }
+
+    private static Double geoDistance(JsonNode body, ObjectNode source) {
+        double limitMeters = distanceMeters(body.get("distance").asText());
+        Iterator<Map.Entry<String, JsonNode>> fields = body.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (Set.of("distance", "distance_type", "validation_method", "ignore_unmapped", "boost", "_name")
+                    .contains(field.getKey())) {
+                continue;
+            }
+            double[] origin = point(field.getValue());
+            for (JsonNode value : values(source, field.getKey())) {
+                double[] location = point(value);
+                if (location != null && arcDistanceMeters(origin, location) <= limitMeters) {
+                    return 1.0;
+                }
+            }
+            return null;
+        }
+        throw new IllegalArgumentException("geo_distance without a field: " + body);
+    }
+
+    // The only scripts understood: vector similarity, optionally shifted by a constant
+    private static final Pattern VECTOR_SCRIPT = Pattern.compile(
+            "\\s*(dotProduct|cosineSimilarity)\\(params\\.(\\w+),\\s*'([\\w.]+)'\\)\\s*(?:\\+\\s*([0-9.]+))?\\s*");
+
+    private static Double scriptScore(JsonNode body, ObjectNode source) {
+        if (score(body.get("query"), source) == null) {
+            return null;
+        }
+        JsonNode script = body.get("script");
+        Matcher matcher = VECTOR_SCRIPT.matcher(script.path("source").asText());
+        if (!matcher.matches()) {
+            throw new UnsupportedOperationException("script [" + script.path("source").asText()
+                    + "] is not supported by the in-memory stand-in");
+        }
+        JsonNode queryVector = script.path("params").get(matcher.group(2));
+        List<JsonNode> docVector = values(source, matcher.group(3));
+        if (queryVector == null || docVector.size() != queryVector.size()) {
+            throw new IllegalArgumentException("query vector and [" + matcher.group(3) + "] differ in dimensions");
+        }
+        double dot = 0;
+        double queryNorm = 0;
+        double docNorm = 0;
+        for (int i = 0; i < docVector.size(); i++) {
+            double q = queryVector.get(i).asDouble();
+            double d = docVector.get(i).asDouble();
+            dot += q * d;
+            queryNorm += q * q;
+            docNorm += d * d;
+        }
+        double similarity = matcher.group(1).equals("dotProduct") ? dot : dot / Math.sqrt(queryNorm * docNorm);
+        double score = similarity + (matcher.group(4) != null ? Double.parseDouble(matcher.group(4)) : 0);
+        if (score < 0 || Double.isNaN(score)) {
+            throw new IllegalArgumentException("script_score produced an invalid score [" + score + "]");
+        }
+        return score;
+    }
+
+    private static Double functionScore(JsonNode body, ObjectNode source) {
+        Double queryScore = body.has("query") ? score(body.get("query"), source) : Double.valueOf(1.0);
+        if (queryScore == null) {
+            return null;
+        }
+
+        String scoreMode = body.path("score_mode").asText("multiply");
+        Double combined = null;
+        for (JsonNode function : iterable(body.get("functions"))) {
+            if (function.has("filter") && score(function.get("filter"), source) == null) {
+                continue;
+            }
+            double value = functionValue(function, source) * function.path("weight").asDouble(1.0);
+            combined = combined == null ? value : switch (scoreMode) {
+                case "sum", "avg" -> combined + value;
+                case "max" -> Math.max(combined, value);
+                case "min" -> Math.min(combined, value);
+                case "first" -> combined;
+                default -> combined * value;
+            };
+        }
+        double functions = combined != null ? combined : 1.0;
+        double score = switch (body.path("boost_mode").asText("multiply")) {
+            case "replace" -> functions;
+            case "sum" -> queryScore + functions;
+            case "max" -> Math.max(queryScore, functions);
+            case "min" -> Math.min(queryScore, functions);
+            default -> queryScore * functions;
+        };
+        return score * body.path("boost").asDouble(1.0);
+    }
+
+    private static double functionValue(JsonNode function, ObjectNode source) {
+        if (function.has("field_value_factor")) {
+            JsonNode factor = function.get("field_value_factor");
+            List<JsonNode> values = values(source, factor.get("field").asText());
+            double value = (values.isEmpty() ? factor.path("missing").asDouble(1.0) : values.get(0).asDouble())
+                    * factor.path("factor").asDouble(1.0);
+            return switch (factor.path("modifier").asText("none")) {
+                case "log1p" -> Math.log10(1 + value);
+                case "log2p" -> Math.log10(2 + value);
+                case "ln1p" -> Math.log1p(value);
+                case "ln2p" -> Math.log(2 + value);
+                case "sqrt" -> Math.sqrt(value);
+                case "square" -> value * value;
+                case "reciprocal" -> 1 / value;
+                default -> value;
+            };
+        }
+        for (String decay : List.of("gauss", "exp", "linear")) {
+            if (function.has(decay)) {
+                return decayValue(decay, function.get(decay), source);
+            }
+        }
+        // weight-only function
+        return 1.0;
+    }
+
+    private static double decayValue(String kind, JsonNode body, ObjectNode source) {
+        Map.Entry<String, JsonNode> field = body.fields().next();
+        JsonNode placement = field.getValue();
+        List<JsonNode> values = values(source, field.getKey());
+        if (values.isEmpty()) {
+            return 1.0;
+        }
+        double value = toNumber(values.get(0));
+        boolean date = !values.get(0).isNumber();
+        double origin = placement.has("origin") ? toNumber(placement.get("origin"))
+                : date ? System.currentTimeMillis() : 0;
+        double scale = date ? durationMillis(placement.get("scale").asText()) : placement.get("scale").asDouble();
+        double offset = !placement.has("offset") ? 0
+                : date ? durationMillis(placement.get("offset").asText()) : placement.get("offset").asDouble();
+        double decay = placement.path("decay").asDouble(0.5);
+
+        double distance = Math.max(0, Math.abs(value - origin) - offset);
+        return switch (kind) {
+            case "exp" -> Math.exp(Math.log(decay) / scale * distance);
+            case "linear" -> Math.max(0, (scale / (1 - decay) - distance) / (scale / (1 - decay)));
+            default -> Math.exp(-distance * distance / (2 * (-scale * scale / (2 * Math.log(decay)))));
+        };
+    }
+
+    // --- rescore and sort ---
+
+    private static void rescore(List<Hit> hits, JsonNode rescore) {
+        for (JsonNode rescorer : iterable(rescore)) {
+            int window = Math.min(hits.size(), rescorer.path("window_size").asInt(10));
+            JsonNode query = rescorer.get("query");
+            double queryWeight = query.path("query_weight").asDouble(1.0);
+            double rescoreWeight = query.path("rescore_query_weight").asDouble(1.0);
+            String mode = query.path("score_mode").asText("total");
+
+            List<Hit> top = new ArrayList<>(window);
+            for (int i = 0; i < window; i++) {
+                Hit hit = hits.get(i);
+                Double secondary = score(query.get("rescore_query"), hit.doc().source());
+                double primary = hit.score() * queryWeight;
+                double score = secondary == null ? primary : switch (mode) {
+                    case "multiply" -> primary * secondary * rescoreWeight;
+                    case "avg" -> (primary + secondary * rescoreWeight) / 2;
+                    case "max" -> Math.max(primary, secondary * rescoreWeight);
+                    case "min" -> Math.min(primary, secondary * rescoreWeight);
+                    default -> primary + secondary * rescoreWeight;
+                };
+                top.add(new Hit(hit.doc(), score, List.of()));
+            }
+            top.sort(Comparator.comparingDouble(Hit::score).reversed());
+            for (int i = 0; i < window; i++) {
+                hits.set(i, top.get(i));
+            }
+        }
+    }
+
+    private static List<Hit> sortByFields(List<Hit> hits, JsonNode sort) {
+        List<Hit> keyed = new ArrayList<>(hits.size());
+        List<JsonNode> specs = iterable(sort);
+
+        for (Hit hit : hits) {
+            List<Object> values = new ArrayList<>(specs.size());
+            for (JsonNode spec : specs) {
+                values.add(sortValue(spec, hit));
+            }
+            keyed.add(new Hit(hit.doc(), hit.score(), values));
+        }
+        keyed.sort(fieldOrder(specs));
+        return keyed;
+    }
+
+    /**
+     * Orders hits by their precomputed sort values: numbers numerically, keywords lexicographically
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Hit> fieldOrder(List<JsonNode> specs) {
+        List<Comparator<Hit>> comparators = new ArrayList<>();
+        for (int i = 0; i < specs.size(); i++) {
+            int position = i;
+            boolean descending = isDescending(specs.get(i));
+            comparators.add((a, b) -> {
+                Comparable left = (Comparable) a.sortValues().get(position);
+                Comparable right = (Comparable) b.sortValues().get(position);
+                if (left == null || right == null) {
+                    // Missing values sort last either way
+                    return left == null ? (right == null ? 0 : 1) : -1;
+                }
+                return descending ? right.compareTo(left) : left.compareTo(right);
+            });
+        }
+        return comparators.stream().reduce(Comparator::thenComparing).orElse((a, b) -> 0);
+    }
+
+    private static List<Object> sortValuesOf(JsonNode searchAfter) {
+        List<Object> values = new ArrayList<>();
+        for (JsonNode value : searchAfter) {
+            values.add(value.isNumber() ? (Object) value.asDouble() : value.asText());
+        }
+        return values;
+    }
+
+    /**
+     * A hit's value for one sort clause. Like Elasticsearch, a missing value sorts last through the largest
+     * (or, descending, smallest) value rather than a null, so every hit's sort values can be searched after.
+     */
+    private static Object sortValue(JsonNode spec, Hit hit) {
+        String field = spec.isTextual() ? spec.asText() : spec.fieldNames().next();
+        JsonNode options = spec.isTextual() ? JSON.objectNode() : spec.get(field);
+        if (field.equals("_score")) {
+            return hit.score();
+        }
+        if (field.equals("_geo_distance")) {
+            return geoSortValue(options, hit.doc().source());
+        }
+        boolean descending = isDescending(spec);
+        Double selected = null;
+        String keyword = null;
+        for (JsonNode value : values(hit.doc().source(), baseField(field))) {
+            double number = toNumber(value);
+            if (!Double.isNaN(number)) {
+                if (selected == null || (descending ? number > selected : number < selected)) {
+                    selected = number;
+                }
+            } else if (keyword == null || (descending ? value.asText().compareTo(keyword) > 0
+                    : value.asText().compareTo(keyword) < 0)) {
+                keyword = value.asText();
+            }
+        }
+        if (selected != null) {
+            return selected;
+        }
+        if (keyword != null) {
+            return keyword;
+        }
+        return descending ? -Double.MAX_VALUE : Double.MAX_VALUE;
+    }
+
+    private static Double geoSortValue(JsonNode options, ObjectNode source) {
+        Iterator<Map.Entry<String, JsonNode>> fields = options.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (Set.of("order", "unit", "mode", "distance_type", "ignore_unmapped", "nested").contains(field.getKey())) {
+                continue;
+            }
+            JsonNode originNode = field.getValue().isArray() && field.getValue().get(0).isContainerNode()
+                    ? field.getValue().get(0)
+                    : field.getValue();
+            double[] origin = point(originNode);
+            Double nearest = null;
+            for (JsonNode value : values(source, field.getKey())) {
+                double[] location = point(value);
+                if (location != null) {
+                    double meters = arcDistanceMeters(origin, location);
+                    nearest = nearest == null ? meters : Math.min(nearest, meters);
+                }
+            }
+            return nearest == null ? null : nearest / distanceMeters("1" + options.path("unit").asText("m"));
+        }
+        throw new IllegalArgumentException("_geo_distance sort without a field: " + options);
+    }
+
+    private static boolean isDescending(JsonNode spec) {
+        if (spec.isTextual()) {
+            return spec.asText().equals("_score");
+        }
+        String field = spec.fieldNames().next();
+        JsonNode options = spec.get(field);
+        String order = options.isTextual() ? options.asText() : options.path("order").asText(
+                field.equals("_score") ? "desc" : "asc");
+        return order.equalsIgnoreCase("desc");
+    }
+
+    // --- aggregations ---
+
+    private static ObjectNode aggregate(JsonNode aggregations, List<ObjectNode> sources, boolean typedKeys) {
+        ObjectNode results = JSON.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> named = aggregations.fields();
+        while (named.hasNext()) {
+            Map.Entry<String, JsonNode> aggregation = named.next();
+            JsonNode definition = aggregation.getValue();
+            String type = null;
+            Iterator<String> keys = definition.fieldNames();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (!key.equals("aggregations") && !key.equals("aggs") && !key.equals("meta")) {
+                    type = key;
+                }
+            }
+            JsonNode subAggregations = definition.has("aggregations") ? definition.get("aggregations") : definition.get("aggs");
+
+            ObjectNode result = switch (type) {
+                case "geohash_grid" -> geohashGrid(definition.get(type), subAggregations, sources, typedKeys);
+                case "geo_centroid" -> geoCentroid(definition.get(type), sources);
+                case "date_histogram" -> dateHistogram(definition.get(type), subAggregations, sources, typedKeys);
+                case "terms" -> termsAggregation(definition.get(type), subAggregations, sources, typedKeys);
+                case "histogram" -> histogram(definition.get(type), subAggregations, sources, typedKeys);
+                case "filters" -> filters(definition.get(type), subAggregations, sources, typedKeys);
+                case "stats" -> stats(definition.get(type), sources);
+                case "percentiles" -> percentiles(definition.get(type), sources);
+                default -> throw new UnsupportedOperationException(
+                        "[" + type + "] aggregation is not supported by the in-memory stand-in");
+            };
+            results.set(typedKeys ? typedName(type) + "#" + aggregation.getKey() : aggregation.getKey(), result);
+        }
+        return results;
+    }
+
+    /**
+     * The result type Elasticsearch reports under {@code typed_keys} where it differs from the request type
+     */
+    private static String typedName(String type) {
+        return switch (type) {
+            // Only keyword values are bucketed here
+            case "terms" -> "sterms";
+            case "percentiles" -> "tdigest_percentiles";
+            default -> type;
+        };
+    }
+
+    private static ObjectNode termsAggregation(JsonNode params, JsonNode subAggregations, List<ObjectNode> sources,
+                                               boolean typedKeys) {
+        String field = params.get("field").asText();
+        Map<String, List<ObjectNode>> terms = new LinkedHashMap<>();
+        for (ObjectNode source : sources) {
+            Set<String> docTerms = new HashSet<>();
+            for (JsonNode value : values(source, baseField(field))) {
+                docTerms.add(value.asText());
+            }
+            docTerms.forEach(term -> terms.computeIfAbsent(term, key -> new ArrayList<>()).add(source));
+        }
+
+        // Default order: most documents first, ties by key
+        List<Map.Entry<String, List<ObjectNode>>> ordered = new ArrayList<>(terms.entrySet());
+        ordered.sort(Comparator.<Map.Entry<String, List<ObjectNode>>>comparingInt(term -> term.getValue().size())
+                .reversed()
+                .thenComparing(Map.Entry::getKey));
+        List<Map.Entry<String, List<ObjectNode>>> top = ordered.subList(0, Math.min(ordered.size(), params.path("size").asInt(10)));
+
+        ObjectNode result = JSON.objectNode();
+        result.put("doc_count_error_upper_bound", 0);
+        result.put("sum_other_doc_count", ordered.subList(top.size(), ordered.size()).stream()
+                .mapToInt(term -> term.getValue().size()).sum());
+        ArrayNode buckets = result.putArray("buckets");
+        for (Map.Entry<String, List<ObjectNode>> term : top) {
+            ObjectNode bucket = buckets.addObject();
+            bucket.put("key", term.getKey());
+            bucket.put("doc_count", term.getValue().size());
+            if (subAggregations != null) {
+                bucket.setAll(aggregate(subAggregations, term.getValue(), typedKeys));
+            }
+        }
+        return result;
+    }
+
+    private static ObjectNode histogram(JsonNode params, JsonNode subAggregations, List<ObjectNode> sources,
+                                        boolean typedKeys) {
+        double interval = params.get("interval").asDouble();
+        TreeMap<Double, List<ObjectNode>> buckets = new TreeMap<>();
+        for (ObjectNode source : sources) {
+            Set<Double> docBuckets = new HashSet<>();
+            for (JsonNode value : values(source, params.get("field").asText())) {
+                double number = toNumber(value);
+                if (!Double.isNaN(number)) {
+                    docBuckets.add((long) Math.floor(number / interval) * interval);
+                }
+            }
+            docBuckets.forEach(key -> buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(source));
+        }
+
+        // min_doc_count 0 (the default) fills the gaps between the first and the last bucket
+        int minDocCount = params.path("min_doc_count").asInt(0);
+        if (minDocCount == 0 && !buckets.isEmpty()) {
+            long last = Math.round(buckets.lastKey() / interval);
+            for (long index = Math.round(buckets.firstKey() / interval); index < last; index++) {
+                buckets.putIfAbsent(index * interval, List.of());
+            }
+        }
+
+        ObjectNode result = JSON.objectNode();
+        ArrayNode bucketNodes = result.putArray("buckets");
+        buckets.forEach((key, docs) -> {
+            if (docs.size() < minDocCount) {
+                return;
+            }
+            ObjectNode bucket = bucketNodes.addObject();
+            bucket.put("key", key);
+            bucket.put("doc_count", docs.size());
+            if (subAggregations != null) {
+                bucket.setAll(aggregate(subAggregations, docs, typedKeys));
+            }
+        });
+        return result;
+    }
+
+    private static ObjectNode filters(JsonNode params, JsonNode subAggregations, List<ObjectNode> sources,
+                                      boolean typedKeys) {
+        JsonNode filters = params.get("filters");
+        if (!filters.isObject()) {
+            throw new UnsupportedOperationException("anonymous filters are not supported by the in-memory stand-in");
+        }
+        ObjectNode result = JSON.objectNode();
+        ObjectNode buckets = result.putObject("buckets");
+        filters.fields().forEachRemaining(filter -> {
+            List<ObjectNode> docs = sources.stream().filter(source -> matches(filter.getValue(), source)).toList();
+            ObjectNode bucket = buckets.putObject(filter.getKey());
+            bucket.put("doc_count", docs.size());
+            if (subAggregations != null) {
+                bucket.setAll(aggregate(subAggregations, docs, typedKeys));
+            }
+        });
+        return result;
+    }
+
+    private static ObjectNode stats(JsonNode params, List<ObjectNode> sources) {
+        double[] numbers = numbers(params.get("field").asText(), sources);
+        ObjectNode result = JSON.objectNode();
+        result.put("count", numbers.length);
+        if (numbers.length == 0) {
+            result.putNull("min");
+            result.putNull("max");
+            result.putNull("avg");
+            result.put("sum", 0.0);
+            return result;
+        }
+        double sum = 0;
+        for (double number : numbers) {
+            sum += number;
+        }
+        result.put("min", numbers[0]);
+        result.put("max", numbers[numbers.length - 1]);
+        result.put("avg", sum / numbers.length);
+        result.put("sum", sum);
+        return result;
+    }
+
+    /**
+     * Exact percentiles, linearly interpolated between the closest ranks (t-digest only approximates them)
+     */
+    private static ObjectNode percentiles(JsonNode params, List<ObjectNode> sources) {
+        double[] numbers = numbers(params.get("field").asText(), sources);
+        ObjectNode result = JSON.objectNode();
+        ObjectNode values = result.putObject("values");
+        for (JsonNode percentNode : iterable(params.get("percents"))) {
+            double percent = percentNode.asDouble();
+            String key = String.valueOf(percent);
+            if (numbers.length == 0) {
+                values.putNull(key);
+                continue;
+            }
+            double rank = percent / 100 * (numbers.length - 1);
+            int below = (int) Math.floor(rank);
+            int above = Math.min(below + 1, numbers.length - 1);
+            values.put(key, numbers[below] + (numbers[above] - numbers[below]) * (rank - below));
+        }
+        return result;
+    }
+
+    private static double[] numbers(String field, List<ObjectNode> sources) {
+        return sources.stream()
+                .flatMap(source -> values(source, field).stream())
+                .mapToDouble(InMemorySearch::toNumber)
+                .filter(number -> !Double.isNaN(number))
+                .sorted()
+                .toArray();
+    }
+
+    private static ObjectNode geohashGrid(JsonNode params, JsonNode subAggregations, List<ObjectNode> sources,
+                                          boolean typedKeys) {
+        int precision = params.path("precision").asInt(5);
+        Map<String, List<ObjectNode>> cells = new LinkedHashMap<>();
+        for (ObjectNode source : sources) {
+            Set<String> docCells = new HashSet<>();
+            for (JsonNode value : values(source, params.get("field").asText())) {
+                double[] location = point(value);
+                if (location != null) {
+                    docCells.add(geohash(location[0], location[1], precision));
+                }
+            }
+            docCells.forEach(cell -> cells.computeIfAbsent(cell, key -> new ArrayList<>()).add(source));
+        }
+
+        List<Map.Entry<String, List<ObjectNode>>> ordered = new ArrayList<>(cells.entrySet());
+        ordered.sort(Comparator.<Map.Entry<String, List<ObjectNode>>>comparingInt(cell -> cell.getValue().size())
+                .reversed()
+                .thenComparing(Map.Entry::getKey));
+
+        ObjectNode result = JSON.objectNode();
+        ArrayNode buckets = result.putArray("buckets");
+        for (Map.Entry<String, List<ObjectNode>> cell : ordered.subList(0, Math.min(ordered.size(), params.path("size").asInt(10000)))) {
+            ObjectNode bucket = buckets.addObject();
+            bucket.put("key", cell.getKey());
+            bucket.put("doc_count", cell.getValue().size());
+            if (subAggregations != null) {
+                bucket.setAll(aggregate(subAggregations, cell.getValue(), typedKeys));
+            }
+        }
+        return result;
+    }
+
+    private static ObjectNode geoCentroid(JsonNode params, List<ObjectNode> sources) {
+        double lat = 0;
+        double lon = 0;
+        int count = 0;
+        for (ObjectNode source : sources) {
+            for (JsonNode value : values(source, params.get("field").asText())) {
+                double[] location = point(value);
+                if (location != null) {
+                    lat += location[0];
+                    lon += location[1];
+                    count++;
+                }
+            }
+        }
+        ObjectNode result = JSON.objectNode();
+        if (count > 0) {
+            ObjectNode location = result.putObject("location");
+            location.put("lat", lat / count);
+            location.put("lon", lon / count);
+        }
+        result.put("count", count);
+        return result;
+    }
+
+    private static ObjectNode dateHistogram(JsonNode params, JsonNode subAggregations, List<ObjectNode> sources,
+                                           boolean typedKeys) {
+        String interval = params.has("calendar_interval") ? params.get("calendar_interval").asText()
+                : params.path("interval").asText("day");
+        DateTimeFormatter format = params.has("format")
+                ? DateTimeFormatter.ofPattern(params.get("format").asText()).withZone(ZoneOffset.UTC)
+                : DateTimeFormatter.ISO_INSTANT;
+        JsonNode hardBounds = params.get("hard_bounds");
+        double min = hardBounds != null && hardBounds.has("min") ? toNumber(hardBounds.get("min")) : Double.NEGATIVE_INFINITY;
+        double max = hardBounds != null && hardBounds.has("max") ? toNumber(hardBounds.get("max")) : Double.POSITIVE_INFINITY;
+
+        Map<Long, List<ObjectNode>> buckets = new TreeMap<>();
+        for (ObjectNode source : sources) {
+            Set<Long> docBuckets = new HashSet<>();
+            for (JsonNode value : values(source, params.get("field").asText())) {
+                double millis = toNumber(value);
+                if (!Double.isNaN(millis) && millis >= min && millis <= max) {
+                    docBuckets.add(truncate((long) millis, interval));
+                }
+            }
+            docBuckets.forEach(key -> buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(source));
+        }
+
+        int minDocCount = params.path("min_doc_count").asInt(0);
+        ObjectNode result = JSON.objectNode();
+        ArrayNode bucketNodes = result.putArray("buckets");
+        buckets.forEach((key, docs) -> {
+            if (docs.size() < Math.max(1, minDocCount)) {
+                return;
+            }
+            ObjectNode bucket = bucketNodes.addObject();
+            bucket.put("key_as_string", format.format(Instant.ofEpochMilli(key)));
+            bucket.put("key", key);
+            bucket.put("doc_count", docs.size());
+            if (subAggregations != null) {
+                bucket.setAll(aggregate(subAggregations, docs, typedKeys));
+            }
+        });
+        return result;
+    }
+
+    private static long truncate(long millis, String interval) {
+        ZonedDateTime time = Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC);
+        ZonedDateTime start = switch (interval) {
+            case "minute", "1m" -> time.truncatedTo(ChronoUnit.MINUTES);
+            case "hour", "1h" -> time.truncatedTo(ChronoUnit.HOURS);
+            case "day", "1d" -> time.truncatedTo(ChronoUnit.DAYS);
+            case "week", "1w" -> time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "month", "1M" -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            case "quarter", "1q" -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1)
+                    .withMonth((time.getMonthValue() - 1) / 3 * 3 + 1);
+            case "year", "1y" -> time.truncatedTo(ChronoUnit.DAYS).withDayOfYear(1);
+            default -> throw new UnsupportedOperationException("calendar interval " + interval);
+        };
+        return start.toInstant().toEpochMilli();
+    }
+
+    // --- analysis and values ---
+
+    private static String baseField(String field) {
+        if (field.endsWith(".ngram") || field.endsWith(".keyword")) {
+            return field.substring(0, field.lastIndexOf('.'));
+        }
+        return field;
+    }
+
+    private static List<String> analyze(String field, String text) {
+        if (field.endsWith(".keyword")) {
+            return List.of(text);
+        }
+        if (field.endsWith(".ngram")) {
+            List<String> trigrams = new ArrayList<>();
+            for (String token : tokenize(text)) {
+                for (int i = 0; i + 3 <= token.length(); i++) {
+                    trigrams.add(token.substring(i, i + 3));
+                }
+            }
+            return trigrams;
+        }
+        return tokenize(text);
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Leaf values at a dotted path, arrays flattened; geo points (objects with lat/lon) count as leaves
+     */
+    static List<JsonNode> values(JsonNode source, String path) {
+        List<JsonNode> current = List.of(source);
+        for (String segment : path.split("\\.")) {
+            List<JsonNode> next = new ArrayList<>();
+            for (JsonNode node : current) {
+                JsonNode child = node.get(segment);
+                if (child == null || child.isNull()) {
+                    continue;
+                }
+                if (child.isArray()) {
+                    child.forEach(next::add);
+                } else {
+                    next.add(child);
+                }
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private static void collectLeaves(JsonNode node, List<JsonNode> into) {
+        if (node.isValueNode()) {
+            into.add(node);
+        } else {
+            node.forEach(child -> collectLeaves(child, into));
+        }
+    }
+
+    private static List<JsonNode> iterable(JsonNode node) {
+        return clauses(node);
+    }
+
+    /**
+     * Numbers as they are, dates as epoch millis ({@code now} included), anything else {@code NaN}
+     */
+    static double toNumber(JsonNode value) {
+        if (value.isNumber()) {
+            return value.asDouble();
+        }
+        String text = value.asText().trim();
+        if (text.equals("now")) {
+            return System.currentTimeMillis();
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException ignored) {
+            // not a number, maybe a date
+        }
+        try {
+            return Instant.parse(text).toEpochMilli();
+        } catch (RuntimeException ignored) {
+            // not an instant
+        }
+        try {
+            return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+        } catch (RuntimeException ignored) {
+            // not an offset date-time
+        }
+        try {
+            return LocalDate.parse(text).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        } catch (RuntimeException ignored) {
+            return Double.NaN;
+        }
+    }
+
+    private static double durationMillis(String spec) {
+        Matcher unit = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|s|m|h|d|w)").matcher(spec);
+        if (!unit.matches()) {
+            throw new IllegalArgumentException("time value " + spec);
+        }
+        double amount = Double.parseDouble(unit.group(1));
+        return amount * switch (unit.group(2)) {
+            case "ms" -> 1;
+            case "s" -> 1_000;
+            case "m" -> 60_000;
+            case "h" -> Duration.ofHours(1).toMillis();
+            case "d" -> Duration.ofDays(1).toMillis();
+            default -> Duration.ofDays(7).toMillis();
+        };
+    }
+
+    // --- fuzzy matching ---
+
+    private static int maxEdits(String fuzziness, int termLength) {
+        String spec = fuzziness.toUpperCase(Locale.ROOT);
+        if (spec.startsWith("AUTO")) {
+            int low = 3;
+            int high = 6;
+            if (spec.startsWith("AUTO:")) {
+                String[] bounds = spec.substring(5).split(",");
+                low = Integer.parseInt(bounds[0]);
+                high = Integer.parseInt(bounds[1]);
+            }
+            return termLength < low ? 0 : termLength < high ? 1 : 2;
+        }
+        return Math.min(2, (int) Double.parseDouble(spec));
+    }
+
+    private static boolean fuzzyMatch(String term, Set<String> candidates, int maxEdits, int prefixLength) {
+        if (maxEdits == 0) {
+            return false;
+        }
+        String prefix = term.substring(0, Math.min(prefixLength, term.length()));
+        for (String candidate : candidates) {
+            if (candidate.startsWith(prefix) && Math.abs(candidate.length() - term.length()) <= maxEdits
+                    && editDistance(term, candidate) <= maxEdits) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Optimal string alignment distance: Levenshtein plus adjacent transpositions
+     */
+    private static int editDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    // --- geo ---
+
+    /**
+     * {@code [lat, lon]} from an object, a {@code [lon, lat]} array or a {@code "lat,lon"} string
+     */
+    private static double[] point(JsonNode node) {
+        if (node.isObject() && node.has("lat") && node.has("lon")) {
+            return new double[]{node.get("lat").asDouble(), node.get("lon").asDouble()};
+        }
+        if (node.isArray() && node.size() == 2) {
+            return new double[]{node.get(1).asDouble(), node.get(0).asDouble()};
+        }
+        if (node.isTextual() && node.asText().contains(",")) {
+            String[] parts = node.asText().split(",");
+            return new double[]{Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim())};
+        }
+        return null;
+    }
+
+    private static double arcDistanceMeters(double[] from, double[] to) {
+        double dLat = Math.toRadians(to[0] - from[0]);
+        double dLon = Math.toRadians(to[1] - from[1]);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(from[0])) * Math.cos(Math.toRadians(to[0])) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static double distanceMeters(String spec) {
+        Matcher unit = Pattern.compile("(\\d+(?:\\.\\d+)?(?:[eE][-+]?\\d+)?)\\s*([a-z]*)").matcher(spec.trim());
+        if (!unit.matches()) {
+            throw new IllegalArgumentException("distance " + spec);
+        }
+        double amount = Double.parseDouble(unit.group(1));
+        return amount * switch (unit.group(2)) {
+            case "km", "kilometers" -> 1_000;
+            case "mi", "miles" -> 1_609.344;
+            case "yd", "yards" -> 0.9144;
+            case "ft", "feet" -> 0.3048;
+            case "cm", "centimeters" -> 0.01;
+            case "mm", "millimeters" -> 0.001;
+            case "nmi", "NM" -> 1_852;
+            default -> 1;
+        };
+    }
+
+    private static final String GEOHASH_ALPHABET = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    static String geohash(double lat, double lon, int precision) {
+        double[] latRange = {-90, 90};
+        double[] lonRange = {-180, 180};
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int index = 0;
+        while (hash.length() < precision) {
+            double[] range = evenBit ? lonRange : latRange;
+            double value = evenBit ? lon : lat;
+            double mid = (range[0] + range[1]) / 2;
+            if (value >= mid) {
+                index = index * 2 + 1;
+                range[0] = mid;
+            } else {
+                index = index * 2;
+                range[1] = mid;
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(GEOHASH_ALPHABET.charAt(index));
+                bit = 0;
+                index = 0;
+            }
+        }
+        return hash.toString();
+    }
+}
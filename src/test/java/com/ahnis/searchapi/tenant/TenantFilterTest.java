@@ -0,0 +1,89 @@
+package com.ahnis.searchapi.tenant;
+
+import com.ahnis.searchapi.config.TenantProperties;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tenant Filter Tests")
+class TenantFilterTest {
+
+    private final TenantProperties properties = new TenantProperties();
+    private TenantFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties.getIndices().put("acme", "courses-acme");
+        filter = new TenantFilter(properties);
+    }
+
+    private String tenantSeenBy(MockHttpServletRequest request) throws Exception {
+        AtomicReference<String> seen = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest req, ServletResponse res) {
+                seen.set(TenantContext.current());
+            }
+        });
+        return seen.get();
+    }
+
+    @Test
+    @DisplayName("Should bind the tenant from the header for the duration of the request")
+    void shouldBindTenantFromHeader() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/search");
+        request.addHeader("X-Tenant-Id", "acme");
+
+        // when
+        String tenant = tenantSeenBy(request);
+
+        // then
+        assertEquals("acme", tenant);
+        assertEquals("acme", request.getAttribute(TenantContext.REQUEST_ATTRIBUTE));
+        assertEquals(TenantContext.DEFAULT_TENANT, TenantContext.current());
+    }
+
+    @Test
+    @DisplayName("Should use the default tenant without a header")
+    void shouldDefaultWithoutHeader() throws Exception {
+        assertEquals(TenantContext.DEFAULT_TENANT, tenantSeenBy(new MockHttpServletRequest("GET", "/api/search")));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown tenants")
+    void shouldRejectUnknownTenant() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/search");
+        request.addHeader("X-Tenant-Id", "globex");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // when
+        filter.doFilter(request, response, chain);
+
+        // then
+        assertEquals(400, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Should resolve each tenant's index and fall back to the default one")
+    void shouldResolveTenantIndices() {
+        TenantIndexResolver resolver = new TenantIndexResolver(properties);
+
+        assertEquals("courses", resolver.courseIndex());
+        assertEquals("courses-acme", TenantContext.callAs("acme", resolver::courseIndex));
+        assertEquals(List.of("courses", "courses-acme"), resolver.allCourseIndices());
+    }
+}
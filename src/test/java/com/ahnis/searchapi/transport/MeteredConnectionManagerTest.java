@@ -0,0 +1,46 @@
+package com.ahnis.searchapi.transport;
+
+import com.ahnis.searchapi.config.ElasticsearchTransportConfig;
+import com.ahnis.searchapi.config.ElasticsearchTransportProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Metered Connection Manager Tests")
+class MeteredConnectionManagerTest {
+
+    private MeteredConnectionManager connectionManager;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connectionManager.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should size the pool from the transport properties and publish its meters")
+    void shouldApplyPropertiesAndBindMeters() {
+        // given
+        ElasticsearchTransportProperties properties = new ElasticsearchTransportProperties();
+        properties.setMaxConnTotal(64);
+        properties.setMaxConnPerRoute(16);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // when
+        connectionManager = new ElasticsearchTransportConfig().elasticsearchConnectionManager(properties);
+        connectionManager.bindTo(registry);
+
+        // then
+        assertEquals(64, connectionManager.getMaxTotal());
+        assertEquals(16, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(64, registry.get("es.client.pool.max").gauge().value());
+        assertEquals(0, registry.get("es.client.pool.leased").gauge().value());
+        assertEquals(0, registry.get("es.client.pool.pending").gauge().value());
+        assertEquals(0, registry.get("es.client.connections.created").functionCounter().count());
+        assertNotNull(registry.get("es.client.pool.lease").timer());
+    }
+}